@@ -51,25 +51,31 @@ import com.intellectualcrafters.plot.object.Plot;
 import com.intellectualcrafters.plot.object.PlotAnalysis;
 import com.intellectualcrafters.plot.object.PlotCluster;
 import com.intellectualcrafters.plot.object.PlotFilter;
-import com.intellectualcrafters.plot.object.PlotHandler;
 import com.intellectualcrafters.plot.object.PlotId;
 import com.intellectualcrafters.plot.object.PlotManager;
 import com.intellectualcrafters.plot.object.PlotPlayer;
 import com.intellectualcrafters.plot.object.PlotWorld;
 import com.intellectualcrafters.plot.util.AbstractTitle;
+import com.intellectualcrafters.plot.util.AnalysisCache;
 import com.intellectualcrafters.plot.util.BlockManager;
 import com.intellectualcrafters.plot.util.ChatManager;
 import com.intellectualcrafters.plot.util.ChunkManager;
 import com.intellectualcrafters.plot.util.ClusterManager;
 import com.intellectualcrafters.plot.util.CommentManager;
+import com.intellectualcrafters.plot.util.ConnectedPlotIndex;
 import com.intellectualcrafters.plot.util.EconHandler;
 import com.intellectualcrafters.plot.util.EventUtil;
 import com.intellectualcrafters.plot.util.ExpireManager;
+import com.intellectualcrafters.plot.util.FreePlotIndex;
 import com.intellectualcrafters.plot.util.InventoryUtil;
 import com.intellectualcrafters.plot.util.MainUtil;
 import com.intellectualcrafters.plot.util.MathMan;
+import com.intellectualcrafters.plot.util.PlayerPlotIndex;
+import com.intellectualcrafters.plot.util.PlayerPlotIndex.Relation;
+import com.intellectualcrafters.plot.util.PlotCellCache;
 import com.intellectualcrafters.plot.util.PlotGamemode;
 import com.intellectualcrafters.plot.util.PlotWeather;
+import com.intellectualcrafters.plot.util.RatingIndex;
 import com.intellectualcrafters.plot.util.ReflectionUtils;
 import com.intellectualcrafters.plot.util.SchematicHandler;
 import com.intellectualcrafters.plot.util.SetupUtils;
@@ -115,6 +121,13 @@ public class PS {
     private String LAST_VERSION;
     private boolean LOADING_WORLD = false;
     private ConcurrentHashMap<String, ConcurrentHashMap<PlotId, Plot>> plots;
+    /**
+     * Plots of worlds which were not loaded when the database was read (see Settings.DB.LOAD_DEFER_WORLDS)
+     */
+    private final ConcurrentHashMap<String, ConcurrentHashMap<PlotId, Plot>> deferredPlots = new ConcurrentHashMap<>();
+    private final PlayerPlotIndex playerIndex = new PlayerPlotIndex();
+    private final ConnectedPlotIndex connectedIndex = new ConnectedPlotIndex();
+    private final FreePlotIndex freeIndex = new FreePlotIndex();
     private Database database;
     private Connection connection;
     private Thread thread;
@@ -161,6 +174,13 @@ public class PS {
             C.load(translationFile);
             setupDefaultFlags();
             setupDatabase();
+            AnalysisCache.load(getAnalysisFile());
+            TaskManager.runTaskRepeatAsync(new Runnable() {
+                @Override
+                public void run() {
+                    AnalysisCache.save(getAnalysisFile());
+                }
+            }, 6000);
             CommentManager.registerDefaultInboxes();
             // Tasks
             if (Settings.KILL_ROAD_MOBS || Settings.KILL_ROAD_VEHICLES) {
@@ -385,6 +405,7 @@ public class PS {
      * @param plot Plot Object to update
      */
     public boolean updatePlot(final Plot plot) {
+        PlotCellCache.invalidate(plot.world);
         for (PlotPlayer pp : plot.getPlayersInPlot()) {
             pp.setMeta("lastplot", plot);
         }
@@ -394,10 +415,62 @@ public class PS {
             map.put(plot.id, plot);
             plots.put(plot.world, map);
             System.out.println("UPDATING PLOT  2!: " + plot);
+            playerIndex.index(plot);
+            freeIndex.add(plot.world, plot.id);
             return true;
         } else {
             System.out.println("UPDATING PLOT!: " + plot);
-            return map.put(plot.id, plot) == null;
+            final Plot previous = map.put(plot.id, plot);
+            if (previous != null && previous != plot) {
+                playerIndex.remove(previous);
+            }
+            connectedIndex.invalidate(plot);
+            playerIndex.index(plot);
+            freeIndex.add(plot.world, plot.id);
+            return previous == null;
+        }
+    }
+    
+    /**
+     * Get the UUID to plot index for the in-memory plot registry<br>
+     *  - The index is updated by the plot setters, {@link #updatePlot(Plot)} and {@link #removePlot(String, PlotId, boolean)}<br>
+     *  - If you modify the owner, trusted, members or denied of a plot directly, call {@link #reindexPlot(Plot)}
+     * @return PlayerPlotIndex
+     */
+    public PlayerPlotIndex getPlayerIndex() {
+        return playerIndex;
+    }
+    
+    /**
+     * Get the index of merge groups (connected plots) for each world<br>
+     *  - The index is updated by {@link Plot#setMerged(int, boolean)} and {@link Plot#setMerged(boolean[])}
+     * @return ConnectedPlotIndex
+     */
+    public ConnectedPlotIndex getConnectedIndex() {
+        return connectedIndex;
+    }
+    
+    /**
+     * Get the index of occupied plot ids for each world, used to find free plots (e.g. for /plot auto)<br>
+     *  - The index is updated by {@link #updatePlot(Plot)}, {@link #removePlot(String, PlotId, boolean)} and when plots
+     *    are moved
+     * @return FreePlotIndex
+     */
+    public FreePlotIndex getFreePlotIndex() {
+        return freeIndex;
+    }
+    
+    /**
+     * Update the index entries for a plot after its owner, trusted, members or denied changed<br>
+     *  - Plots which aren't registered (e.g. temporary plot objects) are ignored
+     * @param plot
+     */
+    public void reindexPlot(final Plot plot) {
+        final ConcurrentHashMap<PlotId, Plot> map = plots.get(plot.world);
+        if (map != null && map.get(plot.id) == plot) {
+            playerIndex.index(plot);
+        } else {
+            playerIndex.remove(plot);
         }
     }
     
@@ -427,7 +500,20 @@ public class PS {
     public void addPlotWorld(final String world, final PlotWorld plotworld, final PlotManager manager) {
         plotworlds.put(world, plotworld);
         plotmanagers.put(world, manager);
-        if (!plots.containsKey(world)) {
+        final ConcurrentHashMap<PlotId, Plot> deferred = deferredPlots.remove(world);
+        if (deferred != null) {
+            final ConcurrentHashMap<PlotId, Plot> existing = plots.putIfAbsent(world, deferred);
+            if (existing != null) {
+                existing.putAll(deferred);
+            }
+            for (final Plot plot : deferred.values()) {
+                playerIndex.index(plot);
+                freeIndex.add(world, plot.id);
+            }
+            RatingIndex.addPlots(deferred.values());
+            connectedIndex.invalidate(world);
+            PlotCellCache.invalidate(world);
+        } else if (!plots.containsKey(world)) {
             plots.put(world, new ConcurrentHashMap<PlotId, Plot>());
         }
     }
@@ -440,6 +526,11 @@ public class PS {
      */
     public void removePlotWorld(final String world) {
         plots.remove(world);
+        playerIndex.removeWorld(world);
+        freeIndex.removeWorld(world);
+        connectedIndex.invalidate(world);
+        PlotCellCache.invalidate(world);
+        RatingIndex.removeWorld(world);
         plotmanagers.remove(world);
         plotworlds.remove(world);
     }
@@ -499,6 +590,10 @@ public class PS {
     @Deprecated
     public void setAllPlotsRaw(final ConcurrentHashMap<String, ConcurrentHashMap<PlotId, Plot>> plots) {
         this.plots = plots;
+        playerIndex.rebuild(plots);
+        freeIndex.rebuild(plots);
+        connectedIndex.clear();
+        PlotCellCache.invalidateAll();
     }
     
     /**
@@ -1025,15 +1120,15 @@ public class PS {
      * @return Set of plot
      */
     public Set<Plot> getPlots(final String world, final UUID uuid) {
-        final ArrayList<Plot> myplots = new ArrayList<>();
-        for (final Plot plot : getPlotsInWorld(world)) {
-            if (plot.hasOwner()) {
-                if (PlotHandler.isOwner(plot, uuid)) {
-                    myplots.add(plot);
-                }
+        final HashSet<Plot> myplots = new HashSet<>();
+        for (final Plot plot : playerIndex.getPlots(world, uuid, Relation.OWNER)) {
+            if (plot.isMerged()) {
+                myplots.addAll(MainUtil.getConnectedPlots(plot));
+            } else {
+                myplots.add(plot);
             }
         }
-        return new HashSet<>(myplots);
+        return myplots;
     }
     
     /**
@@ -1120,20 +1215,18 @@ public class PS {
      * @return Set of Plot
      */
     public Set<Plot> getPlots(final UUID uuid) {
-        final ArrayList<Plot> myplots = new ArrayList<>();
-        for (final Entry<String, ConcurrentHashMap<PlotId, Plot>> entry : plots.entrySet()) {
-            if (isPlotWorld(entry.getKey())) {
-                for (final Entry<PlotId, Plot> entry2 : entry.getValue().entrySet()) {
-                    final Plot plot = entry2.getValue();
-                    if (plot.hasOwner()) {
-                        if (PlotHandler.isOwner(plot, uuid)) {
-                            myplots.add(plot);
-                        }
-                    }
-                }
+        final HashSet<Plot> myplots = new HashSet<>();
+        for (final Plot plot : playerIndex.getPlots(uuid, Relation.OWNER)) {
+            if (!isPlotWorld(plot.world)) {
+                continue;
+            }
+            if (plot.isMerged()) {
+                myplots.addAll(MainUtil.getConnectedPlots(plot));
+            } else {
+                myplots.add(plot);
             }
         }
-        return new HashSet<>(myplots);
+        return myplots;
     }
     
     /**
@@ -1152,14 +1245,12 @@ public class PS {
             return false;
         }
         final Plot plot = allPlots.remove(id);
-        if (MainUtil.lastPlot.containsKey(world)) {
-            final PlotId last = MainUtil.lastPlot.get(world);
-            final int last_max = Math.max(last.x, last.y);
-            final int this_max = Math.max(id.x, id.y);
-            if (this_max < last_max) {
-                MainUtil.lastPlot.put(world, id);
-            }
+        if (plot != null) {
+            playerIndex.remove(plot);
+            connectedIndex.invalidate(plot);
+            freeIndex.remove(world, id);
         }
+        PlotCellCache.invalidate(world);
         return plot != null;
     }
     
@@ -1517,6 +1608,14 @@ public class PS {
         }
     }
     
+    /**
+     * Get the file the plot analysis cache is stored in
+     * @return
+     */
+    public File getAnalysisFile() {
+        return new File(IMP.getDirectory() + File.separator + "analysis.bin");
+    }
+    
     /**
      * Close the database connection
      */
@@ -1527,6 +1626,9 @@ public class PS {
             // Validate that all data in the db is correct
             DBFunc.validatePlots(getPlotsRaw());
             
+            AnalysisCache.save(getAnalysisFile());
+            ExpireManager.saveLastSeen();
+            
             // Close the connection
             DBFunc.close();
             UUIDHandler.handleShutdown();
@@ -1559,9 +1661,19 @@ public class PS {
             }
             DBFunc.dbManager = new SQLManager(database, Settings.DB.PREFIX, false);
             plots = DBFunc.getPlots();
+            if (Settings.DB.LOAD_DEFER_WORLDS) {
+                for (final String world : new ArrayList<>(plots.keySet())) {
+                    if (!isPlotWorld(world)) {
+                        deferredPlots.put(world, plots.remove(world));
+                    }
+                }
+            }
+            playerIndex.rebuild(plots);
+            freeIndex.rebuild(plots);
             if (Settings.ENABLE_CLUSTERS) {
-                ClusterManager.clusters = DBFunc.getClusters();
+                ClusterManager.setClusters(DBFunc.getClusters());
             }
+            ExpireManager.loadLastSeen(DBFunc.getLastSeen());
         } catch (final Exception e) {
             log(C.PREFIX.s() + "&cFailed to open DATABASE connection. The plugin will disable itself.");
             if (Settings.DB.USE_MONGO) {
@@ -1742,6 +1854,12 @@ public class PS {
         options.put("clear.auto.enabled", true);
         options.put("clear.auto.days", 7);
         options.put("clear.auto.clear-interval-seconds", Settings.CLEAR_INTERVAL);
+        options.put("clear.auto.pipeline.analysis-concurrency", Settings.CLEAR_ANALYSIS_CONCURRENCY);
+        options.put("clear.auto.pipeline.analysis-per-minute", Settings.CLEAR_ANALYSIS_PER_MINUTE);
+        options.put("clear.auto.pipeline.clear-concurrency", Settings.CLEAR_CONCURRENCY);
+        options.put("clear.auto.pipeline.clear-per-minute", Settings.CLEAR_PER_MINUTE);
+        options.put("clear.auto.pipeline.queue-size", Settings.CLEAR_QUEUE_SIZE);
+        options.put("clear.auto.pipeline.max-queued-chunks", Settings.CLEAR_MAX_QUEUED_CHUNKS);
         options.put("clear.auto.calibration.changes", 1);
         options.put("clear.auto.calibration.faces", 0);
         options.put("clear.auto.calibration.data", 0);
@@ -1815,6 +1933,15 @@ public class PS {
         options.put("chunk-processor.max-entities", Settings.CHUNK_PROCESSOR_MAX_ENTITIES);
         options.put("chunk-processor.disable-physics", Settings.CHUNK_PROCESSOR_DISABLE_PHYSICS);
         
+        // Block queue
+        options.put("block-queue.adaptive", Settings.QUEUE_ADAPTIVE);
+        options.put("block-queue.min-budget", Settings.QUEUE_MIN_BUDGET);
+        options.put("block-queue.max-budget", Settings.QUEUE_MAX_BUDGET);
+        
+        // Generator
+        options.put("generator.chunk-templates.enabled", Settings.GENERATOR_TEMPLATES);
+        options.put("generator.chunk-templates.max-cached", Settings.GENERATOR_TEMPLATE_CACHE);
+        
         // Comments
         options.put("comments.notifications.enabled", Settings.COMMENT_NOTIFICATIONS);
         
@@ -1874,6 +2001,12 @@ public class PS {
         Settings.CLEAR_THRESHOLD = config.getInt("clear.auto.threshold");
         Settings.AUTO_CLEAR = config.getBoolean("clear.auto.enabled");
         Settings.CLEAR_INTERVAL = config.getInt("clear.auto.clear-interval-seconds");
+        Settings.CLEAR_ANALYSIS_CONCURRENCY = config.getInt("clear.auto.pipeline.analysis-concurrency");
+        Settings.CLEAR_ANALYSIS_PER_MINUTE = config.getInt("clear.auto.pipeline.analysis-per-minute");
+        Settings.CLEAR_CONCURRENCY = config.getInt("clear.auto.pipeline.clear-concurrency");
+        Settings.CLEAR_PER_MINUTE = config.getInt("clear.auto.pipeline.clear-per-minute");
+        Settings.CLEAR_QUEUE_SIZE = config.getInt("clear.auto.pipeline.queue-size");
+        Settings.CLEAR_MAX_QUEUED_CHUNKS = config.getInt("clear.auto.pipeline.max-queued-chunks");
         
         // Clearing modifiers
         PlotAnalysis.MODIFIERS.changes = config.getInt("clear.auto.calibration.changes");
@@ -1932,6 +2065,15 @@ public class PS {
         Settings.CHUNK_PROCESSOR_MAX_ENTITIES = config.getInt("chunk-processor.max-entities");
         Settings.CHUNK_PROCESSOR_DISABLE_PHYSICS = config.getBoolean("chunk-processor.disable-physics");
         
+        // Block queue
+        Settings.QUEUE_ADAPTIVE = config.getBoolean("block-queue.adaptive");
+        Settings.QUEUE_MIN_BUDGET = config.getInt("block-queue.min-budget");
+        Settings.QUEUE_MAX_BUDGET = config.getInt("block-queue.max-budget");
+        
+        // Generator
+        Settings.GENERATOR_TEMPLATES = config.getBoolean("generator.chunk-templates.enabled");
+        Settings.GENERATOR_TEMPLATE_CACHE = Math.max(1, config.getInt("generator.chunk-templates.max-cached"));
+        
         // Comments
         Settings.COMMENT_NOTIFICATIONS = config.getBoolean("comments.notifications.enabled");
         
@@ -2035,6 +2177,11 @@ public class PS {
         options.put("mysql.password", "password");
         options.put("mysql.database", "plot_db");
         options.put("prefix", "");
+        options.put("batch.size", Settings.DB.BATCH_SIZE);
+        options.put("batch.interval", Settings.DB.BATCH_INTERVAL);
+        options.put("load.threads", Settings.DB.LOAD_THREADS);
+        options.put("load.fetch-size", Settings.DB.LOAD_FETCH_SIZE);
+        options.put("load.defer-worlds", Settings.DB.LOAD_DEFER_WORLDS);
         for (final Entry<String, Object> node : options.entrySet()) {
             if (!storage.contains(node.getKey())) {
                 storage.set(node.getKey(), node.getValue());
@@ -2049,6 +2196,11 @@ public class PS {
         Settings.DB.USE_SQLITE = storage.getBoolean("sqlite.use");
         Settings.DB.SQLITE_DB = storage.getString("sqlite.db");
         Settings.DB.PREFIX = storage.getString("prefix");
+        Settings.DB.BATCH_SIZE = Math.max(1, storage.getInt("batch.size"));
+        Settings.DB.BATCH_INTERVAL = Math.max(0, storage.getInt("batch.interval"));
+        Settings.DB.LOAD_THREADS = Math.max(1, storage.getInt("load.threads"));
+        Settings.DB.LOAD_FETCH_SIZE = Math.max(1, storage.getInt("load.fetch-size"));
+        Settings.DB.LOAD_DEFER_WORLDS = storage.getBoolean("load.defer-worlds");
         Settings.METRICS = config.getBoolean("metrics");
         Settings.AUTO_CLEAR = config.getBoolean("clear.auto.enabled");
         Settings.AUTO_CLEAR_DAYS = config.getInt("clear.auto.days");
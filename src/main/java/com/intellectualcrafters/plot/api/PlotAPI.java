@@ -37,6 +37,7 @@ import com.intellectualcrafters.plot.util.BlockManager;
 import com.intellectualcrafters.plot.util.ChunkManager;
 import com.intellectualcrafters.plot.util.ClusterManager;
 import com.intellectualcrafters.plot.util.MainUtil;
+import com.intellectualcrafters.plot.util.PlayerPlotIndex.Relation;
 import com.intellectualcrafters.plot.util.SchematicHandler;
 import com.intellectualcrafters.plot.util.UUIDHandler;
 import com.intellectualcrafters.plot.uuid.UUIDWrapper;
@@ -113,6 +114,34 @@ public class PlotAPI {
         return PS.get().getPlots(BukkitUtil.getPlayer(player));
     }
     
+    /**
+     * Return all plots for a UUID (the player does not need to be online)
+     *
+     * @param uuid UUID, whose plots to search for
+     *
+     * @return all plots that the UUID owns (including connected plots of merged plots)
+     *
+     * @see PS#getPlots(UUID)
+     */
+    public Set<Plot> getPlayerPlots(final UUID uuid) {
+        return PS.get().getPlots(uuid);
+    }
+    
+    /**
+     * Return the plots a UUID is directly related to<br>
+     *  - This is a lookup in the plot index and does not iterate all plots
+     *
+     * @param uuid     UUID, whose plots to search for
+     * @param relation OWNER, TRUSTED, MEMBER or DENIED
+     *
+     * @return a new set of plots
+     *
+     * @see PS#getPlayerIndex()
+     */
+    public Set<Plot> getPlayerPlots(final UUID uuid, final Relation relation) {
+        return PS.get().getPlayerIndex().getPlots(uuid, relation);
+    }
+    
     /**
      * Add a plot world
      *
@@ -483,16 +512,15 @@ public class PlotAPI {
      * @see Plot
      */
     public Plot[] getPlots(final World world, final Player plr, final boolean just_owner) {
+        final UUID uuid = UUIDHandler.getUUID(BukkitUtil.getPlayer(plr));
+        if (just_owner) {
+            final Set<Plot> owned = PS.get().getPlayerIndex().getPlots(world.getName(), uuid, Relation.OWNER);
+            return owned.toArray(new Plot[owned.size()]);
+        }
         final ArrayList<Plot> pPlots = new ArrayList<>();
         for (final Plot plot : PS.get().getPlotsInWorld(world.getName())) {
-            if (just_owner) {
-                if ((plot.owner != null) && (plot.owner.equals(UUIDHandler.getUUID(BukkitUtil.getPlayer(plr))))) {
-                    pPlots.add(plot);
-                }
-            } else {
-                if (plot.isAdded(UUIDHandler.getUUID(BukkitUtil.getPlayer(plr)))) {
-                    pPlots.add(plot);
-                }
+            if (plot.isAdded(uuid)) {
+                pPlots.add(plot);
             }
         }
         return pPlots.toArray(new Plot[pPlots.size()]);
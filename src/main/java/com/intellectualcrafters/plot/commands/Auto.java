@@ -30,6 +30,7 @@ import com.intellectualcrafters.plot.object.PlotId;
 import com.intellectualcrafters.plot.object.PlotPlayer;
 import com.intellectualcrafters.plot.object.PlotWorld;
 import com.intellectualcrafters.plot.util.EconHandler;
+import com.intellectualcrafters.plot.util.FreePlotIndex;
 import com.intellectualcrafters.plot.util.MainUtil;
 import com.intellectualcrafters.plot.util.Permissions;
 import com.plotsquared.general.commands.CommandDeclaration;
@@ -159,6 +160,7 @@ public class Auto extends SubCommand {
         }
         final String worldname = world;
         final PlotWorld plotworld = PS.get().getPlotWorld(worldname);
+        final FreePlotIndex index = PS.get().getFreePlotIndex();
         if (plotworld.TYPE == 2) {
             final Location loc = plr.getLocation();
             final Plot plot = MainUtil.getPlotAbs(new Location(worldname, loc.getX(), loc.getY(), loc.getZ()));
@@ -174,65 +176,54 @@ public class Auto extends SubCommand {
             final PlotId bot = cluster.getP1();
             final PlotId top = cluster.getP2();
             final PlotId origin = new PlotId((bot.x + top.x) / 2, (bot.y + top.y) / 2);
-            PlotId id = new PlotId(0, 0);
             final int width = Math.max((top.x - bot.x) + 1, (top.y - bot.y) + 1);
             final int max = width * width;
             //
             for (int i = 0; i <= max; i++) {
+                final PlotId id = FreePlotIndex.getId(i);
                 final PlotId currentId = new PlotId(origin.x + id.x, origin.y + id.y);
+                if (!index.isFree(worldname, currentId)) {
+                    continue;
+                }
                 final Plot current = MainUtil.getPlotAbs(worldname, currentId);
                 if (MainUtil.canClaim(plr, current) && (current.isMerged() == false) && cluster.equals(current.getCluster())) {
                     Claim.claimPlot(plr, current, true, true);
                     return true;
                 }
-                id = getNextPlot(id, 1);
             }
             // no free plots
             MainUtil.sendMessage(plr, C.NO_FREE_PLOTS);
             return false;
         }
-        boolean br = false;
         if ((size_x == 1) && (size_z == 1)) {
-            while (!br) {
-                final Plot plot = MainUtil.getPlotAbs(worldname, getLastPlot(worldname));
+            int i = index.getNextFree(worldname, 0);
+            while (true) {
+                final Plot plot = MainUtil.getPlotAbs(worldname, FreePlotIndex.getId(i));
                 if (MainUtil.canClaim(plr, plot)) {
                     Claim.claimPlot(plr, plot, true, true);
-                    br = true;
+                    return true;
                 }
-                MainUtil.lastPlot.put(worldname, getNextPlot(getLastPlot(worldname), 1));
+                i = index.getNextFree(worldname, i + 1);
             }
-        } else {
-            while (!br) {
-                final PlotId start = getNextPlot(getLastPlot(worldname), 1);
-                // Checking if the current set of plots is a viable option.
-                MainUtil.lastPlot.put(worldname, start);
-                if ((PS.get().getPlot(worldname, start) != null) && (PS.get().getPlot(worldname, start).owner != null)) {
-                    continue;
-                }
-                final PlotId end = new PlotId((start.x + size_x) - 1, (start.y + size_z) - 1);
-                if (MainUtil.canClaim(plr, worldname, start, end)) {
-                    for (int i = start.x; i <= end.x; i++) {
-                        for (int j = start.y; j <= end.y; j++) {
-                            final Plot plot = MainUtil.getPlotAbs(worldname, new PlotId(i, j));
-                            final boolean teleport = ((i == end.x) && (j == end.y));
-                            Claim.claimPlot(plr, plot, teleport, true);
-                        }
-                    }
-                    if (!MainUtil.mergePlots(worldname, MainUtil.getPlotSelectionIds(start, end), true, true)) {
-                        return false;
+        }
+        int i = index.getNextFree(worldname, 0, size_x, size_z);
+        while (i != -1) {
+            // Checking if the current set of plots is a viable option.
+            final PlotId start = FreePlotIndex.getId(i);
+            final PlotId end = new PlotId((start.x + size_x) - 1, (start.y + size_z) - 1);
+            if (MainUtil.canClaim(plr, worldname, start, end)) {
+                for (int x = start.x; x <= end.x; x++) {
+                    for (int y = start.y; y <= end.y; y++) {
+                        final Plot plot = MainUtil.getPlotAbs(worldname, new PlotId(x, y));
+                        final boolean teleport = ((x == end.x) && (y == end.y));
+                        Claim.claimPlot(plr, plot, teleport, true);
                     }
-                    br = true;
                 }
+                return MainUtil.mergePlots(worldname, MainUtil.getPlotSelectionIds(start, end), true, true);
             }
+            i = index.getNextFree(worldname, i + 1, size_x, size_z);
         }
-        MainUtil.lastPlot.put(worldname, new PlotId(0, 0));
-        return true;
-    }
-    
-    public PlotId getLastPlot(final String world) {
-        if ((MainUtil.lastPlot == null) || !MainUtil.lastPlot.containsKey(world)) {
-            MainUtil.lastPlot.put(world, new PlotId(0, 0));
-        }
-        return MainUtil.lastPlot.get(world);
+        MainUtil.sendMessage(plr, C.NO_FREE_PLOTS);
+        return false;
     }
 }
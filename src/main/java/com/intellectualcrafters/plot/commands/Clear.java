@@ -85,6 +85,7 @@ public class Clear extends SubCommand {
             @Override
             public void run() {
                 final long start = System.currentTimeMillis();
+                SetBlockQueue.setJob("clear " + plot.world + ";" + plot.id);
                 final boolean result = MainUtil.clearAsPlayer(plot, plot.owner == null, new Runnable() {
                     @Override
                     public void run() {
@@ -105,6 +106,7 @@ public class Clear extends SubCommand {
                         });
                     }
                 });
+                SetBlockQueue.setJob(null);
                 if (!result) {
                     MainUtil.sendMessage(plr, C.WAIT_FOR_TIMER);
                 }
@@ -200,10 +200,7 @@ public class Cluster extends SubCommand {
                 // create cluster
                 cluster.settings.setAlias(name);
                 DBFunc.createCluster(world, cluster);
-                if (!ClusterManager.clusters.containsKey(world)) {
-                    ClusterManager.clusters.put(world, new HashSet<PlotCluster>());
-                }
-                ClusterManager.clusters.get(world).add(cluster);
+                ClusterManager.addCluster(cluster);
                 // Add any existing plots to the current cluster
                 for (final Plot plot : plots) {
                     if (plot.hasOwner()) {
@@ -266,8 +263,7 @@ public class Cluster extends SubCommand {
                 if (plotworld.TYPE == 2) {
                     SetupUtils.manager.removePopulator(plr.getLocation().getWorld(), cluster);
                 }
-                ClusterManager.last = null;
-                ClusterManager.clusters.get(cluster.world).remove(cluster);
+                ClusterManager.removeCluster(cluster);
                 ClusterManager.regenCluster(cluster);
                 MainUtil.sendMessage(plr, C.CLUSTER_DELETED);
                 return true;
@@ -352,7 +348,9 @@ public class Cluster extends SubCommand {
                     FlagManager.addPlotFlag(plot, new Flag(FlagManager.getFlag("cluster"), cluster));
                 }
                 // resize cluster
+                ClusterManager.removeCluster(cluster);
                 DBFunc.resizeCluster(cluster, id);
+                ClusterManager.addCluster(cluster);
                 MainUtil.sendMessage(plr, C.CLUSTER_RESIZED);
                 return true;
             }
@@ -33,6 +33,7 @@ import com.intellectualcrafters.plot.object.Plot;
 import com.intellectualcrafters.plot.object.PlotId;
 import com.intellectualcrafters.plot.object.PlotPlayer;
 import com.intellectualcrafters.plot.util.BlockManager;
+import com.intellectualcrafters.plot.util.FreePlotIndex;
 import com.intellectualcrafters.plot.util.MainUtil;
 import com.intellectualcrafters.plot.util.MathMan;
 import com.intellectualcrafters.plot.util.TaskManager;
@@ -117,11 +118,11 @@ public class Condense extends SubCommand {
                 }
                 final List<PlotId> to_move = new ArrayList<>(getPlots(allPlots, radius));
                 final List<PlotId> free = new ArrayList<>();
+                final FreePlotIndex index = PS.get().getFreePlotIndex();
                 PlotId start = new PlotId(0, 0);
                 while ((start.x <= minimum_radius) && (start.y <= minimum_radius)) {
-                    final Plot plot = MainUtil.getPlotAbs(worldname, start);
-                    if (!plot.hasOwner()) {
-                        free.add(plot.getId());
+                    if (index.isFree(worldname, start)) {
+                        free.add(start);
                     }
                     start = Auto.getNextPlot(start, 1);
                 }
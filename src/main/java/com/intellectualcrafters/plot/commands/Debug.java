@@ -22,8 +22,12 @@ package com.intellectualcrafters.plot.commands;
 
 import com.intellectualcrafters.plot.PS;
 import com.intellectualcrafters.plot.config.C;
+import com.intellectualcrafters.plot.database.DBFunc;
+import com.intellectualcrafters.plot.database.SQLManager;
 import com.intellectualcrafters.plot.object.PlotPlayer;
 import com.intellectualcrafters.plot.util.MainUtil;
+import com.intellectualcrafters.plot.util.SetBlockQueue;
+import com.intellectualcrafters.plot.util.TaskManager;
 import com.plotsquared.general.commands.CommandDeclaration;
 
 @CommandDeclaration(command = "debug", category = CommandCategory.DEBUG, description = "Show debug information", usage = "/plot debug [msg]", permission = "plots.admin")
@@ -56,6 +60,18 @@ public class Debug extends SubCommand {
             information.append(getSection(section, "PlotWorld"));
             information.append(getLine(line, "Plot Worlds", worlds));
             information.append(getLine(line, "Owned Plots", PS.get().getPlots().size()));
+            if (DBFunc.dbManager instanceof SQLManager) {
+                final SQLManager manager = (SQLManager) DBFunc.dbManager;
+                information.append(getSection(section, "Database"));
+                information.append(getLine(line, "Queued Statements", manager.getQueueSize()));
+                information.append(getLine(line, "Written Statements", manager.getWrittenCount()));
+                information.append(getLine(line, "Flush Time (last/avg/max)", manager.getLastFlushTime() + "ms / " + Math.round(manager.getAverageFlushTime()) + "ms / " + manager.getMaxFlushTime() + "ms"));
+            }
+            information.append(getSection(section, "Block Queue"));
+            information.append(getLine(line, "Budget", TaskManager.getQueueBudget() + "ms"));
+            for (final SetBlockQueue.Job job : TaskManager.getQueueJobs()) {
+                information.append(getLine(line, "Job " + job.getName(), job.getCompleted() + "/" + job.getTotal() + " chunks (" + Math.round(job.getProgress() * 100) + "%)"));
+            }
             information.append(getSection(section, "Messages"));
             information.append(getLine(line, "Total Messages", C.values().length));
             information.append(getLine(line, "View all captions", "/plot debug msg"));
@@ -153,7 +153,7 @@ public class DebugExec extends SubCommand {
     
     @Override
     public boolean onCommand(final PlotPlayer player, final String... args) {
-        final List<String> allowed_params = Arrays.asList("calibrate-analysis", "remove-flag", "stop-expire", "start-expire", "show-expired", "update-expired", "seen", "trim-check");
+        final List<String> allowed_params = Arrays.asList("calibrate-analysis", "remove-flag", "stop-expire", "start-expire", "expire-status", "show-expired", "update-expired", "seen", "trim-check");
         if (args.length > 0) {
             final String arg = args[0].toLowerCase();
             String script;
@@ -263,6 +263,16 @@ public class DebugExec extends SubCommand {
                     }
                     return MainUtil.sendMessage(player, "Started plot expiry task");
                 }
+                case "expire-status": {
+                    if (ExpireManager.task == -1) {
+                        MainUtil.sendMessage(player, "Plot expiry task is not running");
+                    }
+                    MainUtil.sendMessage(player, "Candidates: " + ExpireManager.getCandidateCount() + " (found " + ExpireManager.getFoundCount() + ")");
+                    MainUtil.sendMessage(player, "Analyzing: " + ExpireManager.getAnalyzingCount() + " (done " + ExpireManager.getAnalyzedCount() + ")");
+                    MainUtil.sendMessage(player, "Waiting to clear: " + ExpireManager.getPendingCount());
+                    MainUtil.sendMessage(player, "Clearing: " + ExpireManager.getClearingCount() + " (done " + ExpireManager.getClearedCount() + ")");
+                    return MainUtil.sendMessage(player, "Skipped: " + ExpireManager.getSkippedCount());
+                }
                 case "update-expired": {
                     if (args.length > 1) {
                         final String world = args[1];
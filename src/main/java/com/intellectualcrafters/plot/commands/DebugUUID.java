@@ -267,6 +267,7 @@ public class DebugUUID extends SubCommand {
                     plot.getTrusted().clear();
                     plot.getMembers().clear();
                     plot.getDenied().clear();
+                    PS.get().reindexPlot(plot);
                 }
                 
                 MainUtil.sendMessage(player, "&7 - Deleting database");
@@ -283,6 +284,7 @@ public class DebugUUID extends SubCommand {
                             final UUID value = uCReverse.get(plot.owner);
                             if (value != null) {
                                 plot.owner = value;
+                                PS.get().reindexPlot(plot);
                             }
                         }
                         database.createPlotsAndData(new ArrayList<>(PS.get().getPlots()), new Runnable() {
@@ -62,7 +62,11 @@ public class Done extends SubCommand {
             @Override
             public void run() {
                 plot.removeRunning();
-                if ((value == null) || (value.getComplexity() >= Settings.CLEAR_THRESHOLD)) {
+                if (value == null) {
+                    MainUtil.sendMessage(plr, C.DONE_ANALYSIS_FAILED);
+                    return;
+                }
+                if (value.getComplexity() >= Settings.CLEAR_THRESHOLD) {
                     final Flag flag = new Flag(FlagManager.getFlag("done"), (System.currentTimeMillis() / 1000));
                     FlagManager.addPlotFlag(plot, flag);
                     MainUtil.sendMessage(plr, C.DONE_SUCCESS);
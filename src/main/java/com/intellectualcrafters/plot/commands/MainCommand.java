@@ -206,9 +206,6 @@ public class MainCommand extends CommandManager<PlotPlayer> {
     }
     
     public static boolean onCommand(final PlotPlayer player, final String cmd, String... args) {
-        // Clear perm caching //
-        player.deleteMeta("perm");
-        ////////////////////////
         int help_index = -1;
         String category = null;
         Location loc = null;
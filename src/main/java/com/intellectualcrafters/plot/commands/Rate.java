@@ -21,10 +21,7 @@
 package com.intellectualcrafters.plot.commands;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
-import java.util.Map.Entry;
 import java.util.UUID;
 
 import org.apache.commons.lang.mutable.MutableInt;
@@ -43,6 +40,7 @@ import com.intellectualcrafters.plot.util.EventUtil;
 import com.intellectualcrafters.plot.util.MainUtil;
 import com.intellectualcrafters.plot.util.MathMan;
 import com.intellectualcrafters.plot.util.Permissions;
+import com.intellectualcrafters.plot.util.RatingIndex;
 import com.intellectualcrafters.plot.util.TaskManager;
 import com.plotsquared.general.commands.Command;
 import com.plotsquared.general.commands.CommandDeclaration;
@@ -61,28 +59,14 @@ public class Rate extends SubCommand {
     public boolean onCommand(final PlotPlayer player, final String[] args) {
         if (args.length == 1) {
             if (args[0].equalsIgnoreCase("next")) {
-                final ArrayList<Plot> plots = new ArrayList<>(PS.get().getBasePlots());
-                Collections.sort(plots, new Comparator<Plot>() {
-                    @Override
-                    public int compare(final Plot p1, final Plot p2) {
-                        double v1 = 0;
-                        double v2 = 0;
-                        if (p1.getSettings().ratings != null) {
-                            for (final Entry<UUID, Rating> entry : p1.getRatings().entrySet()) {
-                                v1 -= 11 - entry.getValue().getAverageRating();
-                            }
-                        }
-                        if (p2.getSettings().ratings != null) {
-                            for (final Entry<UUID, Rating> entry : p2.getRatings().entrySet()) {
-                                v2 -= 11 - entry.getValue().getAverageRating();
-                            }
-                        }
-                        if (v1 == v2) {
-                            return -0;
-                        }
-                        return v2 > v1 ? 1 : -1;
+                // Unrated plots first, then the rated plots with the fewest and lowest ratings
+                final ArrayList<Plot> plots = new ArrayList<>();
+                for (final Plot p : PS.get().getBasePlots()) {
+                    if ((p.getSettings().ratings == null) || (p.getSettings().ratings.size() == 0)) {
+                        plots.add(p);
                     }
-                });
+                }
+                plots.addAll(RatingIndex.getNeedingRatings());
                 final UUID uuid = player.getUUID();
                 for (final Plot p : plots) {
                     if ((!Settings.REQUIRE_DONE || p.getFlags().containsKey("done"))
@@ -128,9 +128,11 @@ public class Set extends SubCommand {
                             return false;
                         }
                         plot.addRunning();
+                        SetBlockQueue.setJob("set " + plot.world + ";" + plot.id);
                         for (Plot current : MainUtil.getConnectedPlots(plot)) {
                             manager.setComponent(plotworld, current.getId(), component, blocks);
                         }
+                        SetBlockQueue.setJob(null);
                         MainUtil.sendMessage(plr, C.GENERATING_COMPONENT);
                         SetBlockQueue.addNotify(new Runnable() {
                             @Override
@@ -25,7 +25,6 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map.Entry;
 import java.util.UUID;
 
 import com.intellectualcrafters.plot.PS;
@@ -36,11 +35,11 @@ import com.intellectualcrafters.plot.flag.FlagManager;
 import com.intellectualcrafters.plot.object.Plot;
 import com.intellectualcrafters.plot.object.PlotMessage;
 import com.intellectualcrafters.plot.object.PlotPlayer;
-import com.intellectualcrafters.plot.object.Rating;
 import com.intellectualcrafters.plot.util.EconHandler;
 import com.intellectualcrafters.plot.util.MainUtil;
 import com.intellectualcrafters.plot.util.MathMan;
 import com.intellectualcrafters.plot.util.Permissions;
+import com.intellectualcrafters.plot.util.RatingIndex;
 import com.intellectualcrafters.plot.util.StringComparison;
 import com.intellectualcrafters.plot.util.StringMan;
 import com.intellectualcrafters.plot.util.UUIDHandler;
@@ -199,36 +198,13 @@ public class list extends SubCommand {
                     MainUtil.sendMessage(plr, C.NO_PERMISSION, "plots.list.top");
                     return false;
                 }
-                plots = new ArrayList<>(PS.get().getPlots());
-                Collections.sort(plots, new Comparator<Plot>() {
-                    @Override
-                    public int compare(final Plot p1, final Plot p2) {
-                        double v1 = 0;
-                        double v2 = 0;
-                        final int p1s = p1.getSettings().ratings != null ? p1.getSettings().ratings.size() : 0;
-                        final int p2s = p2.getSettings().ratings != null ? p2.getSettings().ratings.size() : 0;
-                        if ((p1.getSettings().ratings != null) && (p1s > 0)) {
-                            for (final Entry<UUID, Rating> entry : p1.getRatings().entrySet()) {
-                                final double av = entry.getValue().getAverageRating();
-                                v1 += av * av;
-                            }
-                            v1 /= p1s;
-                            v1 += p1s;
-                        }
-                        if ((p2.getSettings().ratings != null) && (p2s > 0)) {
-                            for (final Entry<UUID, Rating> entry : p2.getRatings().entrySet()) {
-                                final double av = entry.getValue().getAverageRating();
-                                v2 += av * av;
-                            }
-                            v2 /= p2s;
-                            v2 += p2s;
-                        }
-                        if ((v2 == v1) && (v2 != 0)) {
-                            return p2s - p1s;
-                        }
-                        return (int) Math.signum(v2 - v1);
+                // The leaderboard is already sorted, followed by the unrated plots
+                plots = RatingIndex.getTop(null, 0, Integer.MAX_VALUE);
+                for (final Plot plot : PS.get().getPlots()) {
+                    if ((plot.getSettings().ratings == null) || (plot.getSettings().ratings.size() == 0)) {
+                        plots.add(plot);
                     }
-                });
+                }
                 sort = false;
                 break;
             }
@@ -237,6 +237,7 @@ public enum C {
     DONE_NOT_DONE("$2This plot is not marked as done.", "Done"),
     DONE_INSUFFICIENT_COMPLEXITY("$2This plot is too simple. Please add more detail before using this command.", "Done"),
     DONE_SUCCESS("$1Successfully marked this plot as done.", "Done"),
+    DONE_ANALYSIS_FAILED("$2This plot could not be analyzed. Please try again later.", "Done"),
     DONE_REMOVED("$1You may now continue building in this plot.", "Done"),
     /*
      * Ratings
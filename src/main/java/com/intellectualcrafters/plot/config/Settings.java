@@ -80,6 +80,17 @@ public class Settings {
     public static int CHUNK_PROCESSOR_MAX_BLOCKSTATES = 4096;
     public static int CHUNK_PROCESSOR_MAX_ENTITIES = 512;
     public static boolean CHUNK_PROCESSOR_DISABLE_PHYSICS = false;
+    /**
+     * Block queue
+     */
+    public static boolean QUEUE_ADAPTIVE = true;
+    public static int QUEUE_MIN_BUDGET = 2;
+    public static int QUEUE_MAX_BUDGET = 40;
+    /**
+     * Generator
+     */
+    public static boolean GENERATOR_TEMPLATES = true;
+    public static int GENERATOR_TEMPLATE_CACHE = 256;
     /**
      * Redstone disabler
      */
@@ -181,7 +192,28 @@ public class Settings {
      */
     public static int AUTO_CLEAR_DAYS = 360;
     public static int CLEAR_THRESHOLD = 1;
+    /**
+     * The delay (in seconds) before a world is checked for expired plots again, once its expired plots have been handled
+     */
     public static int CLEAR_INTERVAL = 120;
+    /**
+     * The number of expired plots analyzed at once, and how many analyses may start per minute (-1 for no limit)
+     */
+    public static int CLEAR_ANALYSIS_CONCURRENCY = 4;
+    public static int CLEAR_ANALYSIS_PER_MINUTE = 60;
+    /**
+     * The number of expired plots cleared at once, and how many clears may start per minute (-1 for no limit)
+     */
+    public static int CLEAR_CONCURRENCY = 2;
+    public static int CLEAR_PER_MINUTE = 20;
+    /**
+     * The number of analyzed plots which may wait to be cleared
+     */
+    public static int CLEAR_QUEUE_SIZE = 64;
+    /**
+     * Expired plots are not cleared while the block queue has more chunks than this
+     */
+    public static int CLEAR_MAX_QUEUED_CHUNKS = 256;
     /**
      * API Location
      */
@@ -252,5 +284,25 @@ public class Settings {
          * MySQL Prefix
          */
         public static String PREFIX = "";
+        /**
+         * Max statements written per commit
+         */
+        public static int BATCH_SIZE = 1000;
+        /**
+         * Time (ms) to wait for more statements before committing
+         */
+        public static int BATCH_INTERVAL = 50;
+        /**
+         * Number of tables read at the same time when loading plots (each uses its own connection)
+         */
+        public static int LOAD_THREADS = 4;
+        /**
+         * Rows fetched at a time when loading plots
+         */
+        public static int LOAD_FETCH_SIZE = 1000;
+        /**
+         * Keep the plots of worlds that are not loaded out of the plot map until the world loads
+         */
+        public static boolean LOAD_DEFER_WORLDS = false;
     }
 }
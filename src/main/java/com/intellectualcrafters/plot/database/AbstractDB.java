@@ -25,6 +25,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
@@ -115,6 +116,13 @@ public interface AbstractDB {
      */
     int getId(final Plot plot);
     
+    /**
+     * Look up the table entry ID of every plot in a world, so getId does not need to query them one at a time
+     *
+     * @param world World name
+     */
+    void resolveIds(final String world);
+    
     /**
      * Get the id of a given plot cluster
      *
@@ -139,6 +147,18 @@ public interface AbstractDB {
      */
     HashMap<String, HashSet<PlotCluster>> getClusters();
     
+    /**
+     * @return When each player was last seen
+     */
+    HashMap<UUID, Long> getLastSeen();
+    
+    /**
+     * Store when players were last seen
+     *
+     * @param seen The last seen time of each player to store
+     */
+    void setLastSeen(final HashMap<UUID, Long> seen);
+    
     /**
      * Set the merged status for a plot
      *
@@ -191,6 +211,13 @@ public interface AbstractDB {
      */
     void purgeIds(final String world, final Set<Integer> uniqueIds);
     
+    /**
+     * Delete plots and their settings, members, comments and ratings, in a single batch
+     *
+     * @param plots The plots to delete
+     */
+    void deletePlots(final List<Plot> plots);
+    
     /**
      * Purge a whole world
      *
@@ -38,6 +38,7 @@ import com.intellectualcrafters.plot.object.PlotClusterId;
 import com.intellectualcrafters.plot.object.PlotId;
 import com.intellectualcrafters.plot.object.RunnableVal;
 import com.intellectualcrafters.plot.object.comment.PlotComment;
+import com.intellectualcrafters.plot.util.RatingIndex;
 
 /**
  * Database Functions
@@ -147,6 +148,7 @@ public class DBFunc {
      * @param plot Plot to delete
      */
     public static void delete(final Plot plot) {
+        RatingIndex.remove(plot);
         if (plot.temp == -1) {
             return;
         }
@@ -159,6 +161,7 @@ public class DBFunc {
      * @param plot
      */
     public static void deleteRatings(final Plot plot) {
+        RatingIndex.remove(plot);
         if (plot.temp == -1) {
             return;
         }
@@ -262,6 +265,15 @@ public class DBFunc {
         return dbManager.getId(plot);
     }
     
+    /**
+     * Look up the database ids of all plots in a world
+     *
+     * @param world World name
+     */
+    public static void resolveIds(final String world) {
+        dbManager.resolveIds(world);
+    }
+    
     /**
      * @return Plots
      */
@@ -302,6 +314,27 @@ public class DBFunc {
         dbManager.purgeIds(world, uniqueIds);
     }
     
+    /**
+     * Delete many plots at once (e.g. expired plots)
+     * @param plots
+     */
+    public static void deletePlots(final Collection<Plot> plots) {
+        final ArrayList<Plot> stored = new ArrayList<>(plots.size());
+        for (final Plot plot : plots) {
+            RatingIndex.remove(plot);
+            if (plot.temp != -1) {
+                stored.add(plot);
+            }
+        }
+        if (stored.size() == 0) {
+            return;
+        }
+        dbManager.deletePlots(stored);
+        for (final Plot plot : stored) {
+            plot.temp = -1;
+        }
+    }
+    
     public static void purge(final String world, final Set<PlotId> plotIds) {
         dbManager.purge(world, plotIds);
     }
@@ -471,6 +504,7 @@ public class DBFunc {
     }
     
     public static void setRating(final Plot plot, final UUID rater, final int value) {
+        RatingIndex.update(plot);
         if (plot.temp == -1) {
             return;
         }
@@ -481,6 +515,17 @@ public class DBFunc {
         return dbManager.getClusters();
     }
     
+    public static HashMap<UUID, Long> getLastSeen() {
+        return dbManager.getLastSeen();
+    }
+    
+    public static void setLastSeen(final HashMap<UUID, Long> seen) {
+        if (dbManager == null) {
+            return;
+        }
+        dbManager.setLastSeen(seen);
+    }
+    
     public static void setPosition(final PlotCluster cluster, final String position) {
         dbManager.setPosition(cluster, position);
     }
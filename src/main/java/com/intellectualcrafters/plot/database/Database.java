@@ -44,6 +44,16 @@ public abstract class Database {
      */
     public abstract Connection openConnection() throws SQLException, ClassNotFoundException;
     
+    /**
+     * Opens a new connection which is not shared with (and is not closed by) this database
+     *
+     * @return New connection, the caller is responsible for closing it
+     *
+     * @throws SQLException           if the connection can not be opened
+     * @throws ClassNotFoundException if the driver cannot be found
+     */
+    public abstract Connection newConnection() throws SQLException, ClassNotFoundException;
+    
     /**
      * Checks if a connection is open with the database
      *
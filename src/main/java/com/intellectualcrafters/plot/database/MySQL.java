@@ -78,6 +78,12 @@ public class MySQL extends Database {
         return connection;
     }
     
+    @Override
+    public Connection newConnection() throws SQLException, ClassNotFoundException {
+        Class.forName("com.mysql.jdbc.Driver");
+        return DriverManager.getConnection("jdbc:mysql://" + hostname + ":" + port + "/" + database, user, password);
+    }
+    
     @Override
     public boolean checkConnection() throws SQLException {
         return (connection != null) && !connection.isClosed();
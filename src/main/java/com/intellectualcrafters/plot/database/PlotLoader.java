@@ -0,0 +1,522 @@
+package com.intellectualcrafters.plot.database;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.intellectualcrafters.plot.PS;
+import com.intellectualcrafters.plot.config.Settings;
+import com.intellectualcrafters.plot.flag.Flag;
+import com.intellectualcrafters.plot.flag.FlagManager;
+import com.intellectualcrafters.plot.flag.FlagMap;
+import com.intellectualcrafters.plot.object.BlockLoc;
+import com.intellectualcrafters.plot.object.Plot;
+import com.intellectualcrafters.plot.object.PlotId;
+import com.intellectualcrafters.plot.object.PlotSettings;
+
+/**
+ * Loads every plot (and its ratings, helpers, trusted, denied and settings) from the database<br>
+ *  - Each table is read by its own reader, in parallel on separate connections (see Settings.DB.LOAD_THREADS)<br>
+ *  - Results are streamed (MySQL) or fetched in pages of Settings.DB.LOAD_FETCH_SIZE rows (SQLite)<br>
+ *  - Readers only parse rows, the rows are attached to the plots afterwards on the calling thread<br>
+ *  - The time spent in each phase is printed to the debug log
+ */
+public class PlotLoader {
+    
+    private final SQLManager manager;
+    private final Database database;
+    private final String prefix;
+    private final boolean mysql;
+    
+    /**
+     * UUIDs are shared between the readers so each player only has one UUID object
+     */
+    private final ConcurrentHashMap<String, UUID> uuidCache = new ConcurrentHashMap<>();
+    
+    public PlotLoader(final SQLManager manager, final Database database, final String prefix, final boolean mysql) {
+        this.manager = manager;
+        this.database = database;
+        this.prefix = prefix;
+        this.mysql = mysql;
+    }
+    
+    /**
+     * Load all the plots
+     * @return world -&gt; (id -&gt; plot)
+     * @throws SQLException if any of the tables could not be read
+     */
+    public ConcurrentHashMap<String, ConcurrentHashMap<PlotId, Plot>> load() throws SQLException {
+        final long start = System.currentTimeMillis();
+        final Set<String> worlds;
+        if (PS.get().config.contains("worlds")) {
+            worlds = PS.get().config.getConfigurationSection("worlds").getKeys(false);
+        } else {
+            worlds = new HashSet<>();
+        }
+        final PlotReader plotReader = new PlotReader(worlds);
+        final RatingReader ratingReader = Settings.CACHE_RATINGS ? new RatingReader() : null;
+        final MemberReader helperReader = new MemberReader("plot_helpers");
+        final MemberReader trustedReader = new MemberReader("plot_trusted");
+        final MemberReader deniedReader = new MemberReader("plot_denied");
+        final SettingsReader settingsReader = new SettingsReader();
+        final List<Reader> readers = new ArrayList<>();
+        readers.add(plotReader);
+        if (ratingReader != null) {
+            readers.add(ratingReader);
+        }
+        readers.addAll(Arrays.asList(helperReader, trustedReader, deniedReader, settingsReader));
+        read(readers);
+        
+        /*
+         * Attaching the rows to the plots
+         */
+        final long stitch = System.currentTimeMillis();
+        final HashMap<Integer, Plot> plots = plotReader.plots;
+        final int count = plots.size();
+        manager.deleteRows(plotReader.toDelete, "plot", "id");
+        if (ratingReader != null) {
+            final ArrayList<Integer> toDelete = new ArrayList<>();
+            for (int i = 0; i < ratingReader.size; i++) {
+                final int id = ratingReader.ids[i];
+                final Plot plot = plots.get(id);
+                if (plot != null) {
+                    if (plot.getSettings().ratings == null) {
+                        plot.getSettings().ratings = new HashMap<>();
+                    }
+                    plot.getSettings().ratings.put(ratingReader.uuids[i], ratingReader.ratings[i]);
+                } else {
+                    orphan(toDelete, id, "plot_rating");
+                }
+            }
+            manager.deleteRows(toDelete, "plot_rating", "plot_plot_id");
+        }
+        attach(plots, helperReader);
+        attach(plots, trustedReader);
+        attach(plots, deniedReader);
+        final ArrayList<Integer> toDelete = new ArrayList<>();
+        for (final SettingsRow row : settingsReader.rows) {
+            final Plot plot = plots.remove(row.id);
+            if (plot == null) {
+                orphan(toDelete, row.id, "plot_settings");
+                continue;
+            }
+            final PlotSettings settings = plot.getSettings();
+            if (row.alias != null) {
+                settings.setAlias(row.alias);
+            }
+            if (row.position != null) {
+                settings.setPosition(row.position);
+            }
+            settings.setMerged(row.merged);
+            if (row.invalid) {
+                PS.debug("&cPlot " + row.id + " | " + plot + " had an invalid flag. A fix has been attempted.");
+                PS.debug("&c" + row.raw);
+                manager.setFlags(plot, row.flags.values());
+            }
+            settings.flags = row.flags;
+        }
+        manager.deleteRows(toDelete, "plot_settings", "plot_plot_id");
+        if (plots.size() > 0) {
+            manager.createEmptySettings(new ArrayList<>(plots.keySet()), null);
+            for (final Plot plot : plots.values()) {
+                plot.getSettings();
+            }
+        }
+        boolean invalidPlot = false;
+        for (final Entry<String, AtomicInteger> entry : plotReader.noExist.entrySet()) {
+            invalidPlot = true;
+            PS.debug("&c[WARNING] Found " + entry.getValue().intValue() + " plots in DB for non existant world; '" + entry.getKey() + "'.");
+        }
+        if (invalidPlot) {
+            PS.debug("&c[WARNING] - Please create the world/s or remove the plots using the purge command");
+        }
+        final long end = System.currentTimeMillis();
+        final StringBuilder timings = new StringBuilder();
+        for (final Reader reader : readers) {
+            timings.append("&7, &6").append(reader.table).append(": &7").append(reader.rows).append(" rows in ").append(reader.time).append("ms");
+        }
+        PS.debug("&6Loaded " + count + " plots in " + (end - start) + "ms &7(read: " + (stitch - start) + "ms, attach: " + (end - stitch) + "ms" + timings + ")");
+        return plotReader.newplots;
+    }
+    
+    private void orphan(final ArrayList<Integer> toDelete, final int id, final String table) {
+        if (Settings.AUTO_PURGE) {
+            toDelete.add(id);
+        } else {
+            PS.debug("&cENTRY " + id + " in `" + table + "` does not exist. Create this plot or set `auto-purge: true` in the settings.yml.");
+        }
+    }
+    
+    private void attach(final HashMap<Integer, Plot> plots, final MemberReader reader) {
+        final ArrayList<Integer> toDelete = new ArrayList<>();
+        for (int i = 0; i < reader.size; i++) {
+            final int id = reader.ids[i];
+            final Plot plot = plots.get(id);
+            if (plot == null) {
+                orphan(toDelete, id, reader.table);
+                continue;
+            }
+            switch (reader.table) {
+                case "plot_helpers":
+                    plot.getTrusted().add(reader.uuids[i]);
+                    break;
+                case "plot_trusted":
+                    plot.getMembers().add(reader.uuids[i]);
+                    break;
+                case "plot_denied":
+                    plot.getDenied().add(reader.uuids[i]);
+                    break;
+            }
+        }
+        manager.deleteRows(toDelete, reader.table, "plot_plot_id");
+    }
+    
+    /**
+     * Run the readers, in parallel if more than one thread may be used
+     */
+    private void read(final List<Reader> readers) throws SQLException {
+        final int threads = Math.min(Settings.DB.LOAD_THREADS, readers.size());
+        if (threads <= 1) {
+            final Connection connection = manager.getConnection();
+            for (final Reader reader : readers) {
+                reader.read(connection);
+            }
+            return;
+        }
+        final ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (final Reader reader : readers) {
+                futures.add(pool.submit(reader));
+            }
+            for (final Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException("Interrupted while loading plots", e);
+                } catch (final ExecutionException e) {
+                    if (e.getCause() instanceof SQLException) {
+                        throw (SQLException) e.getCause();
+                    }
+                    throw new SQLException("Failed to load plots", e.getCause());
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+    
+    private UUID toUUID(final String value) {
+        UUID uuid = uuidCache.get(value);
+        if (uuid == null) {
+            uuid = UUID.fromString(value);
+            final UUID previous = uuidCache.putIfAbsent(value, uuid);
+            if (previous != null) {
+                return previous;
+            }
+        }
+        return uuid;
+    }
+    
+    /**
+     * Reads a single table
+     */
+    private abstract class Reader implements Callable<Void> {
+        final String table;
+        final String columns;
+        long time;
+        int rows;
+        
+        Reader(final String table, final String columns) {
+            this.table = table;
+            this.columns = columns;
+        }
+        
+        /**
+         * Parse the current row
+         */
+        abstract void next(final ResultSet r) throws SQLException;
+        
+        /**
+         * Read the table on its own connection
+         */
+        @Override
+        public Void call() throws Exception {
+            try (Connection connection = database.newConnection()) {
+                read(connection);
+            }
+            return null;
+        }
+        
+        void read(final Connection connection) throws SQLException {
+            final long start = System.currentTimeMillis();
+            try (Statement stmt = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                // The MySQL driver only streams the results with this fetch size, otherwise it reads the whole table into memory
+                stmt.setFetchSize(mysql ? Integer.MIN_VALUE : Settings.DB.LOAD_FETCH_SIZE);
+                try (ResultSet r = stmt.executeQuery("SELECT " + columns + " FROM `" + prefix + table + "`")) {
+                    while (r.next()) {
+                        next(r);
+                        rows++;
+                    }
+                }
+            }
+            time = System.currentTimeMillis() - start;
+        }
+    }
+    
+    private class PlotReader extends Reader {
+        private final Set<String> worlds;
+        private final ConcurrentHashMap<String, ConcurrentHashMap<PlotId, Plot>> newplots = new ConcurrentHashMap<>();
+        private final HashMap<Integer, Plot> plots = new HashMap<>();
+        private final HashMap<String, AtomicInteger> noExist = new HashMap<>();
+        private final ArrayList<Integer> toDelete = new ArrayList<>();
+        private boolean hasTimestamp = true;
+        
+        PlotReader(final Set<String> worlds) {
+            super("plot", "`id`, `plot_id_x`, `plot_id_z`, `owner`, `world`, `timestamp`");
+            this.worlds = worlds;
+        }
+        
+        @Override
+        void next(final ResultSet r) throws SQLException {
+            final PlotId plot_id = new PlotId(r.getInt("plot_id_x"), r.getInt("plot_id_z"));
+            final int id = r.getInt("id");
+            final String worldname = r.getString("world");
+            if (!worlds.contains(worldname)) {
+                if (Settings.AUTO_PURGE) {
+                    toDelete.add(id);
+                    return;
+                }
+                final AtomicInteger value = noExist.get(worldname);
+                if (value != null) {
+                    value.incrementAndGet();
+                } else {
+                    noExist.put(worldname, new AtomicInteger(1));
+                }
+            }
+            final UUID user = toUUID(r.getString("owner"));
+            Timestamp timestamp = null;
+            if (hasTimestamp) {
+                try {
+                    timestamp = r.getTimestamp("timestamp");
+                } catch (final SQLException ignored) {
+                    hasTimestamp = false;
+                }
+            }
+            final long time = timestamp == null ? plot_id.hashCode() : timestamp.getTime();
+            final Plot p = new Plot(plot_id, user, new HashSet<UUID>(), new HashSet<UUID>(), new HashSet<UUID>(), "", null, null, worldname, new boolean[] { false, false, false, false }, time, id);
+            ConcurrentHashMap<PlotId, Plot> map = newplots.get(worldname);
+            if (map == null) {
+                map = new ConcurrentHashMap<>();
+                newplots.put(worldname, map);
+            } else if (map.containsKey(p.id)) {
+                if (Settings.AUTO_PURGE) {
+                    toDelete.add(id);
+                } else {
+                    PS.debug("&cPLOT " + id + " in `plot` is a duplicate. Delete this plot or set `auto-purge: true` in the settings.yml.");
+                }
+                return;
+            }
+            map.put(p.id, p);
+            plots.put(id, p);
+            manager.getRowIndex().put(worldname, p.id, id);
+        }
+        
+    }
+    
+    /**
+     * Reads the (plot id, uuid) rows of plot_helpers, plot_trusted or plot_denied
+     */
+    private class MemberReader extends Reader {
+        private int size;
+        private int[] ids = new int[256];
+        private UUID[] uuids = new UUID[256];
+        
+        MemberReader(final String table) {
+            super(table, "`user_uuid`, `plot_plot_id`");
+        }
+        
+        @Override
+        void next(final ResultSet r) throws SQLException {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size << 1);
+                uuids = Arrays.copyOf(uuids, size << 1);
+            }
+            ids[size] = r.getInt("plot_plot_id");
+            uuids[size] = toUUID(r.getString("user_uuid"));
+            size++;
+        }
+    }
+    
+    private class RatingReader extends Reader {
+        private int size;
+        private int[] ids = new int[256];
+        private UUID[] uuids = new UUID[256];
+        private int[] ratings = new int[256];
+        
+        RatingReader() {
+            super("plot_rating", "`plot_plot_id`, `player`, `rating`");
+        }
+        
+        @Override
+        void next(final ResultSet r) throws SQLException {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size << 1);
+                uuids = Arrays.copyOf(uuids, size << 1);
+                ratings = Arrays.copyOf(ratings, size << 1);
+            }
+            ids[size] = r.getInt("plot_plot_id");
+            uuids[size] = toUUID(r.getString("player"));
+            ratings[size] = r.getInt("rating");
+            size++;
+        }
+    }
+    
+    /**
+     * A parsed plot_settings row
+     */
+    private static class SettingsRow {
+        private int id;
+        private String alias;
+        private BlockLoc position;
+        private boolean[] merged;
+        private HashMap<String, Flag> flags;
+        private boolean invalid;
+        private String raw;
+    }
+    
+    private class SettingsReader extends Reader {
+        private final ArrayList<SettingsRow> rows = new ArrayList<>();
+        
+        SettingsReader() {
+            super("plot_settings", "*");
+        }
+        
+        @Override
+        void next(final ResultSet r) throws SQLException {
+            final SettingsRow row = new SettingsRow();
+            row.id = r.getInt("plot_plot_id");
+            row.alias = r.getString("alias");
+            row.position = parsePosition(r.getString("position"));
+            final int m = r.getInt("merged");
+            row.merged = new boolean[4];
+            for (int i = 0; i < 4; i++) {
+                row.merged[3 - i] = (m & (1 << i)) != 0;
+            }
+            row.raw = r.getString("flags");
+            row.flags = new FlagMap();
+            if (row.raw != null) {
+                row.invalid = !parseFlags(row.raw, row.flags);
+            }
+            rows.add(row);
+        }
+    }
+    
+    /**
+     * Parse the position column of plot_settings
+     * @param pos
+     * @return the position, or null for the default position
+     */
+    public static BlockLoc parsePosition(final String pos) {
+        if ((pos == null) || pos.isEmpty() || pos.equalsIgnoreCase("default") || pos.equals("0,0,0") || pos.equalsIgnoreCase("center")) {
+            return null;
+        }
+        try {
+            return BlockLoc.fromString(pos);
+        } catch (final Exception ignored) {
+            return null;
+        }
+    }
+    
+    /**
+     * Parse the flags column of plot_settings<br>
+     *  - Flags are separated by ',' and the key and value are separated by ':'<br>
+     *  - In the value, ':' is stored as U+00AF and ',' as U+00B4
+     * @param raw The stored flags
+     * @param flags The map to add the flags to
+     * @return false if a flag could not be parsed (and the stored flags should be rewritten)
+     */
+    public static boolean parseFlags(final String raw, final HashMap<String, Flag> flags) {
+        boolean valid = true;
+        final int length = raw.length();
+        final StringBuilder value = new StringBuilder();
+        int start = 0;
+        while (start < length) {
+            int end = raw.indexOf(',', start);
+            if (end == -1) {
+                end = length;
+            }
+            int colon = -1;
+            for (int i = start; i < end; i++) {
+                if (raw.charAt(i) == ':') {
+                    colon = i;
+                    break;
+                }
+            }
+            value.setLength(0);
+            if (colon != -1) {
+                final String key = raw.substring(start, colon);
+                for (int i = colon + 1; i < end; i++) {
+                    final char c = raw.charAt(i);
+                    if (c == ':') {
+                        break;
+                    }
+                    value.append(decode(c));
+                }
+                try {
+                    final Flag flag = new Flag(FlagManager.getFlag(key, true), value.toString());
+                    flags.put(flag.getKey(), flag);
+                } catch (final Exception e) {
+                    e.printStackTrace();
+                    valid = false;
+                }
+            } else if (end > start) {
+                boolean alpha = true;
+                for (int i = start; i < end; i++) {
+                    final char c = decode(raw.charAt(i));
+                    value.append(c);
+                    if ((c != '_') && (c != '-') && !(((c >= 'a') && (c <= 'z')) || ((c >= 'A') && (c <= 'Z')))) {
+                        alpha = false;
+                    }
+                }
+                if (alpha) {
+                    final Flag flag = new Flag(FlagManager.getFlag(value.toString(), true), "");
+                    flags.put(flag.getKey(), flag);
+                } else {
+                    PS.debug("INVALID FLAG: " + value);
+                }
+            }
+            start = end + 1;
+        }
+        return valid;
+    }
+    
+    private static char decode(final char c) {
+        switch (c) {
+            case '\u00AF':
+                return ':';
+            case '\u00B4':
+                return ',';
+            default:
+                return c;
+        }
+    }
+}
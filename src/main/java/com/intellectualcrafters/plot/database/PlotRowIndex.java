@@ -0,0 +1,84 @@
+package com.intellectualcrafters.plot.database;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.intellectualcrafters.plot.object.PlotId;
+
+/**
+ * The database row id of each plot, by world and plot id<br>
+ *  - Filled when the plots are loaded, from the generated keys of inserted plots and by SQLManager.resolveIds<br>
+ *  - Lets SQLManager.getId find the row of a plot object which was created after loading (where plot.temp is not set)
+ *    without querying the database<br>
+ *  - All methods are safe to call from any thread
+ */
+public class PlotRowIndex {
+    
+    private final ConcurrentHashMap<String, ConcurrentHashMap<PlotId, Integer>> rows = new ConcurrentHashMap<>();
+    
+    /**
+     * Get the row id of a plot
+     * @param world
+     * @param id
+     * @return the row id, or 0 if it is not known
+     */
+    public int get(final String world, final PlotId id) {
+        final ConcurrentHashMap<PlotId, Integer> map = rows.get(world);
+        if (map == null) {
+            return 0;
+        }
+        final Integer row = map.get(id);
+        return row == null ? 0 : row;
+    }
+    
+    public void put(final String world, final PlotId id, final int row) {
+        if (row <= 0) {
+            return;
+        }
+        ConcurrentHashMap<PlotId, Integer> map = rows.get(world);
+        if (map == null) {
+            map = new ConcurrentHashMap<>();
+            final ConcurrentHashMap<PlotId, Integer> previous = rows.putIfAbsent(world, map);
+            if (previous != null) {
+                map = previous;
+            }
+        }
+        // A copy, as the id object of a plot is changed when it is moved
+        map.put(new PlotId(id.x, id.y), row);
+    }
+    
+    /**
+     * Remove a plot, if it is still stored in the given row
+     * @param world
+     * @param id
+     * @param row
+     */
+    public void remove(final String world, final PlotId id, final int row) {
+        final ConcurrentHashMap<PlotId, Integer> map = rows.get(world);
+        if (map != null) {
+            map.remove(id, row);
+        }
+    }
+    
+    /**
+     * Remove all the plots stored in any of the given rows
+     * @param world
+     * @param ids row ids
+     */
+    public void removeRows(final String world, final Collection<Integer> ids) {
+        final ConcurrentHashMap<PlotId, Integer> map = rows.get(world);
+        if (map == null) {
+            return;
+        }
+        for (final Iterator<Integer> iter = map.values().iterator(); iter.hasNext();) {
+            if (ids.contains(iter.next())) {
+                iter.remove();
+            }
+        }
+    }
+    
+    public void clear() {
+        rows.clear();
+    }
+}
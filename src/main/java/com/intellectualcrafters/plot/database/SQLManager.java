@@ -46,6 +46,7 @@ import com.intellectualcrafters.plot.PS;
 import com.intellectualcrafters.plot.config.Settings;
 import com.intellectualcrafters.plot.flag.Flag;
 import com.intellectualcrafters.plot.flag.FlagManager;
+import com.intellectualcrafters.plot.flag.FlagMap;
 import com.intellectualcrafters.plot.object.BlockLoc;
 import com.intellectualcrafters.plot.object.Plot;
 import com.intellectualcrafters.plot.object.PlotCluster;
@@ -78,6 +79,18 @@ public class SQLManager implements AbstractDB {
     private final Database database;
     private final boolean MYSQL;
     
+    /**
+     * The current schema version (see updateSchema)<br>
+     *  - 1: Indexes for the plot location, plot / cluster members, ratings and comments<br>
+     *  - 2: The player_seen table (see getLastSeen)
+     */
+    private static final int SCHEMA_VERSION = 2;
+    
+    /**
+     * The row id of each plot (see getId)
+     */
+    private final PlotRowIndex rowIds = new PlotRowIndex();
+    
     /**
      * important tasks
      */
@@ -107,6 +120,20 @@ public class SQLManager implements AbstractDB {
      */
     public volatile ConcurrentHashMap<PlotCluster, Queue<UniqueStatement>> clusterTasks;
     
+    /**
+     * Number of statements and global tasks waiting to be written
+     */
+    private final AtomicInteger queued = new AtomicInteger();
+    
+    /**
+     * Write statistics (only modified by the writer thread)
+     */
+    private volatile long lastFlushTime;
+    private volatile long maxFlushTime;
+    private volatile long totalFlushTime;
+    private volatile long flushes;
+    private volatile long written;
+    
     public synchronized Queue<Runnable> getGlobalTasks() {
         return globalTasks;
     }
@@ -144,6 +171,7 @@ public class SQLManager implements AbstractDB {
             };
         }
         tasks.add(task);
+        onQueued();
     }
     
     public synchronized void addClusterTask(final PlotCluster cluster, UniqueStatement task) {
@@ -172,18 +200,72 @@ public class SQLManager implements AbstractDB {
             };
         }
         tasks.add(task);
+        onQueued();
     }
     
     public synchronized void addGlobalTask(final Runnable task) {
         getGlobalTasks().add(task);
+        onQueued();
     }
     
     public synchronized void addNotifyTask(final Runnable task) {
         if (task != null) {
             getNotifyTasks().add(task);
+            notifyAll();
         }
     }
     
+    /**
+     * Wake the writer when work arrives, or when a full batch is waiting
+     */
+    private synchronized void onQueued() {
+        final int size = queued.incrementAndGet();
+        if ((size == 1) || (size >= Settings.DB.BATCH_SIZE)) {
+            notifyAll();
+        }
+    }
+    
+    /**
+     * Get the number of statements waiting to be written
+     * @return queue depth
+     */
+    public int getQueueSize() {
+        return queued.get();
+    }
+    
+    /**
+     * Get the time (ms) the last flush took to execute and commit
+     * @return
+     */
+    public long getLastFlushTime() {
+        return lastFlushTime;
+    }
+    
+    /**
+     * Get the longest time (ms) a flush took to execute and commit
+     * @return
+     */
+    public long getMaxFlushTime() {
+        return maxFlushTime;
+    }
+    
+    /**
+     * Get the average time (ms) a flush takes to execute and commit
+     * @return
+     */
+    public double getAverageFlushTime() {
+        final long count = flushes;
+        return count == 0 ? 0 : totalFlushTime / (double) count;
+    }
+    
+    /**
+     * Get the total number of statements written
+     * @return
+     */
+    public long getWrittenCount() {
+        return written;
+    }
+    
     /**
      * Constructor
      *
@@ -205,6 +287,26 @@ public class SQLManager implements AbstractDB {
             public void run() {
                 long last = System.currentTimeMillis();
                 while (true) {
+                    try {
+                        // wait for work
+                        synchronized (SQLManager.this) {
+                            while (!CLOSED && (queued.get() == 0) && (getNotifyTasks().size() == 0)) {
+                                final long timeout = MYSQL ? Math.max(1, (last + 550000) - System.currentTimeMillis()) : 0;
+                                SQLManager.this.wait(timeout);
+                                if (MYSQL && ((System.currentTimeMillis() - last) > 550000)) {
+                                    break;
+                                }
+                            }
+                            // group commit: give a burst of statements a moment to arrive
+                            final long deadline = System.currentTimeMillis() + Settings.DB.BATCH_INTERVAL;
+                            long remaining;
+                            while (!CLOSED && (queued.get() > 0) && (queued.get() < Settings.DB.BATCH_SIZE) && ((remaining = deadline - System.currentTimeMillis()) > 0)) {
+                                SQLManager.this.wait(remaining);
+                            }
+                        }
+                    } catch (final InterruptedException e) {
+                        e.printStackTrace();
+                    }
                     if (CLOSED) {
                         break;
                     }
@@ -219,17 +321,17 @@ public class SQLManager implements AbstractDB {
                             e.printStackTrace();
                         }
                     }
-                    if (!sendBatch()) {
-                        try {
-                            if (getNotifyTasks().size() > 0) {
-                                for (final Runnable task : getNotifyTasks()) {
-                                    TaskManager.runTask(task);
-                                }
-                                getNotifyTasks().clear();
-                            }
-                            Thread.sleep(50);
-                        } catch (final InterruptedException e) {
-                            e.printStackTrace();
+                    // Notify tasks are only run once everything queued before them is committed
+                    final ArrayList<Runnable> notify = new ArrayList<>(getNotifyTasks());
+                    while (sendBatch()) {
+                        if (CLOSED) {
+                            return;
+                        }
+                    }
+                    if (notify.size() > 0) {
+                        getNotifyTasks().removeAll(notify);
+                        for (final Runnable task : notify) {
+                            TaskManager.runTask(task);
                         }
                     }
                 }
@@ -248,8 +350,17 @@ public class SQLManager implements AbstractDB {
         CREATE_CLUSTER = "INSERT INTO `" + prefix + "cluster`(`pos1_x`, `pos1_z`, `pos2_x`, `pos2_z`, `owner`, `world`) VALUES(?, ?, ?, ?, ?, ?)";
         updateTables();
         createTables();
+        updateSchema();
     }
     
+    /**
+     * Write the next batch of queued statements<br>
+     *  - Global tasks are run one at a time<br>
+     *  - Plot and cluster statements are taken one per plot/cluster per round (to keep their order) and grouped by statement type<br>
+     *  - Each statement type in a round is sent as a single JDBC batch<br>
+     *  - Rounds continue until the queue is empty or the batch size is reached, then everything is committed
+     * @return true if anything was written
+     */
     public boolean sendBatch() {
         try {
             if (getGlobalTasks().size() > 0) {
@@ -257,104 +368,97 @@ public class SQLManager implements AbstractDB {
                     connection.setAutoCommit(false);
                 }
                 final Runnable task = getGlobalTasks().remove();
+                queued.decrementAndGet();
                 if (task != null) {
                     task.run();
                 }
                 commit();
                 return true;
             }
-            int count = -1;
-            if (plotTasks.size() > 0) {
-                count = 0;
-                if (connection.getAutoCommit()) {
-                    connection.setAutoCommit(false);
+            if ((plotTasks.size() == 0) && (clusterTasks.size() == 0)) {
+                if (!connection.getAutoCommit()) {
+                    connection.setAutoCommit(true);
                 }
-                String method = null;
-                PreparedStatement stmt = null;
-                UniqueStatement task = null;
-                UniqueStatement lastTask = null;
-                //                ArrayList<Entry<Plot, Queue<UniqueStatement>>> keys = new ArrayList<>(plotTasks.entrySet());
-                for (final Entry<Plot, Queue<UniqueStatement>> entry : plotTasks.entrySet()) {
-                    final Plot plot = entry.getKey();
-                    if (plotTasks.get(plot).size() == 0) {
-                        plotTasks.remove(plot);
-                        continue;
-                    }
-                    task = plotTasks.get(plot).remove();
-                    count++;
-                    if (task != null) {
-                        if ((task._method == null) || !task._method.equals(method)) {
-                            if (stmt != null) {
-                                lastTask.execute(stmt);
-                                stmt.close();
-                            }
-                            method = task._method;
-                            stmt = task.get();
+                return false;
+            }
+            final long start = System.currentTimeMillis();
+            int count = sendBatch(plotTasks, 0);
+            count = sendBatch(clusterTasks, count);
+            if (count > 0) {
+                commit();
+                final long time = System.currentTimeMillis() - start;
+                lastFlushTime = time;
+                if (time > maxFlushTime) {
+                    maxFlushTime = time;
+                }
+                totalFlushTime += time;
+                flushes++;
+                written += count;
+                return true;
+            }
+            if (!connection.getAutoCommit()) {
+                connection.setAutoCommit(true);
+            }
+        } catch (final Exception e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+    
+    private <T> int sendBatch(final ConcurrentHashMap<T, Queue<UniqueStatement>> tasks, int count) throws SQLException {
+        if (tasks.size() == 0) {
+            return count;
+        }
+        if (connection.getAutoCommit()) {
+            connection.setAutoCommit(false);
+        }
+        final HashMap<String, ArrayList<UniqueStatement>> types = new HashMap<>();
+        final ArrayList<ArrayList<UniqueStatement>> round = new ArrayList<>();
+        while ((count < Settings.DB.BATCH_SIZE) && (tasks.size() > 0)) {
+            types.clear();
+            round.clear();
+            for (final Entry<T, Queue<UniqueStatement>> entry : tasks.entrySet()) {
+                final Queue<UniqueStatement> queue = entry.getValue();
+                final UniqueStatement task = queue.poll();
+                if (task == null) {
+                    synchronized (this) {
+                        if (queue.size() == 0) {
+                            tasks.remove(entry.getKey());
                         }
-                        task.set(stmt);
-                        task.addBatch(stmt);
                     }
-                    lastTask = task;
-                }
-                if ((stmt != null) && (task != null)) {
-                    task.execute(stmt);
-                    stmt.close();
+                    continue;
+                }
+                queued.decrementAndGet();
+                count++;
+                ArrayList<UniqueStatement> type = task._method == null ? null : types.get(task._method);
+                if (type == null) {
+                    type = new ArrayList<>();
+                    round.add(type);
+                    if (task._method != null) {
+                        types.put(task._method, type);
+                    }
                 }
+                type.add(task);
             }
-            if (clusterTasks.size() > 0) {
-                count = 0;
-                if (connection.getAutoCommit()) {
-                    connection.setAutoCommit(false);
-                }
-                String method = null;
+            for (final ArrayList<UniqueStatement> type : round) {
                 PreparedStatement stmt = null;
-                UniqueStatement task = null;
-                UniqueStatement lastTask = null;
-                for (final Entry<PlotCluster, Queue<UniqueStatement>> entry : clusterTasks.entrySet()) {
-                    final PlotCluster cluster = entry.getKey();
-                    if (clusterTasks.get(cluster).size() == 0) {
-                        clusterTasks.remove(cluster);
-                        continue;
-                    }
-                    task = clusterTasks.get(cluster).remove();
-                    count++;
-                    if (task != null) {
-                        if ((task._method == null) || !task._method.equals(method)) {
-                            if (stmt != null) {
-                                lastTask.execute(stmt);
-                                stmt.close();
-                            }
-                            method = task._method;
-                            stmt = task.get();
-                        }
+                try {
+                    stmt = type.get(0).get();
+                    for (final UniqueStatement task : type) {
                         task.set(stmt);
                         task.addBatch(stmt);
                     }
-                    lastTask = task;
-                }
-                if ((stmt != null) && (task != null)) {
-                    task.execute(stmt);
-                    stmt.close();
-                }
-            }
-            if (count > 0) {
-                commit();
-                return true;
-            } else if (count != -1) {
-                if (!connection.getAutoCommit()) {
-                    connection.setAutoCommit(true);
+                    type.get(type.size() - 1).execute(stmt);
+                } catch (final Exception e) {
+                    e.printStackTrace();
+                } finally {
+                    if (stmt != null) {
+                        stmt.close();
+                    }
                 }
             }
-            if (clusterTasks.size() > 0) {
-                clusterTasks.clear();
-            }
-            if (plotTasks.size() > 0) {
-                plotTasks.clear();
-            }
-        } catch (final Exception e) {
-            e.printStackTrace();
         }
-        return false;
+        return count;
     }
     
     public abstract class UniqueStatement {
@@ -381,6 +485,15 @@ public class SQLManager implements AbstractDB {
         return connection;
     }
     
+    /**
+     * The plots added to the current createPlot batch, in order (only used by the writer thread)
+     */
+    private final ArrayList<Plot> insertedPlots = new ArrayList<>();
+    
+    public PlotRowIndex getRowIndex() {
+        return rowIds;
+    }
+    
     /**
      * Set Plot owner
      *
@@ -436,6 +549,9 @@ public class SQLManager implements AbstractDB {
                                         final PlotId plotId = new PlotId(x, y);
                                         final Plot plot = plotMap.get(plotId);
                                         if (plot != null) {
+                                            if (plot.world.equals(result.getString("world"))) {
+                                                rowIds.put(plot.world, plotId, id);
+                                            }
                                             settings.add(new SettingsPair(id, plot.getSettings()));
                                             if (plot.getDenied() != null) {
                                                 for (final UUID uuid : plot.getDenied()) {
@@ -925,11 +1041,90 @@ public class SQLManager implements AbstractDB {
             
             @Override
             public PreparedStatement get() throws SQLException {
-                return connection.prepareStatement(CREATE_PLOT);
+                insertedPlots.clear();
+                return connection.prepareStatement(CREATE_PLOT, Statement.RETURN_GENERATED_KEYS);
+            }
+            
+            @Override
+            public void execute(final PreparedStatement stmt) throws SQLException {
+                if (!MYSQL) {
+                    return;
+                }
+                try {
+                    stmt.executeBatch();
+                    readGeneratedIds(stmt, insertedPlots);
+                } finally {
+                    insertedPlots.clear();
+                }
+            }
+            
+            @Override
+            public void addBatch(final PreparedStatement stmt) throws SQLException {
+                if (MYSQL) {
+                    stmt.addBatch();
+                    insertedPlots.add(plot);
+                } else {
+                    // SQLite only returns the key of the last row of a batch, each row is inserted on its own (in the
+                    // same transaction, so this is still cheap)
+                    stmt.executeUpdate();
+                    readGeneratedId(stmt, plot);
+                }
             }
         });
     }
     
+    /**
+     * Set the row ids of the plots inserted by a batch<br>
+     *  - If the driver didn't return a key for every row, the rows of the worlds in the batch are resolved once (see
+     *    resolveIds)
+     * @param stmt The executed batch (prepared with RETURN_GENERATED_KEYS)
+     * @param plots The plots, in the order they were added to the batch
+     * @throws SQLException
+     */
+    private void readGeneratedIds(final PreparedStatement stmt, final List<Plot> plots) throws SQLException {
+        final ArrayList<Integer> ids = new ArrayList<>(plots.size());
+        try (ResultSet keys = stmt.getGeneratedKeys()) {
+            while (keys.next()) {
+                ids.add(keys.getInt(1));
+            }
+        }
+        if (ids.size() == plots.size()) {
+            for (int i = 0; i < ids.size(); i++) {
+                setRowId(plots.get(i), ids.get(i));
+            }
+            return;
+        }
+        final HashSet<String> worlds = new HashSet<>();
+        for (final Plot plot : plots) {
+            worlds.add(plot.world);
+        }
+        for (final String world : worlds) {
+            resolveIds(world);
+        }
+        for (final Plot plot : plots) {
+            plot.temp = rowIds.get(plot.world, plot.getId());
+        }
+    }
+    
+    private void setRowId(final Plot plot, final int id) {
+        plot.temp = id;
+        rowIds.put(plot.world, plot.getId(), id);
+    }
+    
+    /**
+     * Set the row id of a plot which was just inserted
+     * @param stmt The executed insert (prepared with RETURN_GENERATED_KEYS)
+     * @param plot
+     * @throws SQLException
+     */
+    private void readGeneratedId(final PreparedStatement stmt, final Plot plot) throws SQLException {
+        try (ResultSet keys = stmt.getGeneratedKeys()) {
+            if (keys.next()) {
+                setRowId(plot, keys.getInt(1));
+            }
+        }
+    }
+    
     public void commit() {
         try {
             if (CLOSED) {
@@ -969,10 +1164,7 @@ public class SQLManager implements AbstractDB {
             @Override
             public void addBatch(final PreparedStatement stmt) throws SQLException {
                 stmt.executeUpdate();
-                final ResultSet keys = stmt.getGeneratedKeys();
-                if (keys.next()) {
-                    plot.temp = keys.getInt(1);
-                }
+                readGeneratedId(stmt, plot);
             }
         });
         addPlotTask(plot, new UniqueStatement("createPlotAndSettings_settings_" + plot.hashCode()) {
@@ -1316,7 +1508,9 @@ public class SQLManager implements AbstractDB {
         addPlotTask(plot, new UniqueStatement("delete_plot") {
             @Override
             public void set(final PreparedStatement stmt) throws SQLException {
-                stmt.setInt(1, getId(plot));
+                final int id = getId(plot);
+                rowIds.remove(plot.world, plot.getId(), id);
+                stmt.setInt(1, id);
             }
             
             @Override
@@ -1387,35 +1581,41 @@ public class SQLManager implements AbstractDB {
         return Integer.MAX_VALUE;
     }
 
+    /**
+     * Get the row id of a plot<br>
+     *  - plot.temp if it is set, otherwise the row index (see PlotRowIndex)<br>
+     *  - If the plot is not indexed, its row is looked up (by the location index) and added to the row index<br>
+     *  - This is called while statements are being set, so it must not commit (the connection sees its own inserts)
+     */
     @Override
     public int getId(final Plot plot) {
         if (plot.temp > 0) {
             return plot.temp;
         }
-        PreparedStatement stmt = null;
+        final int indexed = rowIds.get(plot.world, plot.getId());
+        if (indexed != 0) {
+            plot.temp = indexed;
+            return indexed;
+        }
         try {
-            commit();
-            if (plot.temp > 0) {
-                return plot.temp;
-            }
-            stmt = connection.prepareStatement("SELECT `id` FROM `" + prefix + "plot` WHERE `plot_id_x` = ? AND `plot_id_z` = ? AND world = ? ORDER BY `timestamp` ASC");
-            stmt.setInt(1, plot.getId().x);
-            stmt.setInt(2, plot.getId().y);
-            stmt.setString(3, plot.world);
-            final ResultSet r = stmt.executeQuery();
-            int id = Integer.MAX_VALUE;
-            while (r.next()) {
-                id = r.getInt("id");
+            int id = 0;
+            try (PreparedStatement stmt = connection.prepareStatement("SELECT `id` FROM `" + prefix + "plot` WHERE `plot_id_x` = ? AND `plot_id_z` = ? AND `world` = ? ORDER BY `timestamp` ASC")) {
+                stmt.setInt(1, plot.getId().x);
+                stmt.setInt(2, plot.getId().y);
+                stmt.setString(3, plot.world);
+                try (ResultSet r = stmt.executeQuery()) {
+                    while (r.next()) {
+                        id = r.getInt("id");
+                    }
+                }
             }
-            r.close();
-            stmt.close();
-            if ((id == Integer.MAX_VALUE) || (id == 0)) {
+            if (id == 0) {
                 if (plot.temp > 0) {
                     return plot.temp;
                 }
                 throw new SQLException("Plot does not exist in database");
             }
-            plot.temp = id;
+            setRowId(plot, id);
             return id;
         } catch (final SQLException e) {
             e.printStackTrace();
@@ -1423,6 +1623,81 @@ public class SQLManager implements AbstractDB {
         return Integer.MAX_VALUE;
     }
     
+    /**
+     * Read the row id of every plot in a world into the row index<br>
+     *  - Used for plots which were not loaded from the database or inserted this session (e.g. rows written by another
+     *    server or by a bulk insert)<br>
+     *  - If a plot has more than one row, the newest row is used
+     * @param world
+     */
+    @Override
+    public void resolveIds(final String world) {
+        try (PreparedStatement stmt = connection.prepareStatement("SELECT `id`, `plot_id_x`, `plot_id_z` FROM `" + prefix + "plot` WHERE `world` = ? ORDER BY `timestamp` ASC")) {
+            stmt.setString(1, world);
+            try (ResultSet r = stmt.executeQuery()) {
+                while (r.next()) {
+                    rowIds.put(world, new PlotId(r.getInt("plot_id_x"), r.getInt("plot_id_z")), r.getInt("id"));
+                }
+            }
+        } catch (final SQLException e) {
+            e.printStackTrace();
+        }
+    }
+    
+    /**
+     * Get when each player was last seen (see ExpireManager.setLastSeen)
+     * @return
+     */
+    @Override
+    public HashMap<UUID, Long> getLastSeen() {
+        final HashMap<UUID, Long> map = new HashMap<>();
+        try (Statement stmt = connection.createStatement(); ResultSet r = stmt.executeQuery("SELECT `user_uuid`, `last_seen` FROM `" + prefix + "player_seen`")) {
+            while (r.next()) {
+                try {
+                    map.put(UUID.fromString(r.getString("user_uuid")), r.getLong("last_seen"));
+                } catch (final IllegalArgumentException e) {
+                    PS.debug("&cInvalid uuid in player_seen: " + r.getString("user_uuid"));
+                }
+            }
+        } catch (final SQLException e) {
+            e.printStackTrace();
+        }
+        return map;
+    }
+    
+    /**
+     * Store when players were last seen, as a single batch
+     * @param seen
+     */
+    @Override
+    public void setLastSeen(final HashMap<UUID, Long> seen) {
+        if (seen.isEmpty()) {
+            return;
+        }
+        addGlobalTask(new Runnable() {
+            @Override
+            public void run() {
+                final String sql;
+                if (MYSQL) {
+                    sql = "INSERT INTO `" + prefix + "player_seen` (`user_uuid`, `last_seen`) VALUES(?, ?) ON DUPLICATE KEY UPDATE `last_seen` = VALUES(`last_seen`)";
+                } else {
+                    sql = "INSERT OR REPLACE INTO `" + prefix + "player_seen` (`user_uuid`, `last_seen`) VALUES(?, ?)";
+                }
+                try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                    for (final Entry<UUID, Long> entry : seen.entrySet()) {
+                        stmt.setString(1, entry.getKey().toString());
+                        stmt.setLong(2, entry.getValue());
+                        stmt.addBatch();
+                    }
+                    stmt.executeBatch();
+                } catch (final SQLException e) {
+                    e.printStackTrace();
+                    PS.debug("&c[ERROR] Failed to save the last seen times of " + seen.size() + " players");
+                }
+            }
+        });
+    }
+    
     public void updateTables() {
         if (PS.get().getVersion().equals(PS.get().getLastVersion()) || (PS.get().getLastVersion() == null)) {
             return;
@@ -1505,6 +1780,124 @@ public class SQLManager implements AbstractDB {
         
     }
     
+    /**
+     * Migrate the database to the current schema version<br>
+     *  - The version is stored in the schema table, so each step only runs once<br>
+     *  - The indexes are checked on every startup, as their tables may be created after the version was set (e.g. the
+     *    cluster tables once clusters are enabled)<br>
+     *  - Each index is added with a separate statement (online on MySQL 5.6+), so the tables stay usable while it is built<br>
+     * <br>
+     * Not covered yet: UUIDs are still stored as VARCHAR(40) and world names on every row. Moving them to BINARY(16) and
+     * a world lookup table needs every query, the UUID conversion and the database import / export to change with it, so
+     * it is left for its own schema version (with a batched copy in updateTables)
+     */
+    public void updateSchema() {
+        try {
+            final int version = getSchemaVersion();
+            createIndexes();
+            if (version < 2) {
+                try (Statement stmt = connection.createStatement()) {
+                    stmt.executeUpdate("CREATE TABLE IF NOT EXISTS `"
+                    + prefix
+                    + "player_seen` ("
+                    + "`user_uuid` VARCHAR(40) NOT NULL,"
+                    + "`last_seen` BIGINT NOT NULL,"
+                    + "PRIMARY KEY (`user_uuid`)"
+                    + (MYSQL ? ") ENGINE=InnoDB DEFAULT CHARSET=utf8" : ")"));
+                }
+            }
+            if (version < SCHEMA_VERSION) {
+                setSchemaVersion(SCHEMA_VERSION);
+            }
+        } catch (final SQLException e) {
+            PS.debug("&cFailed to update the database schema: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+    
+    /**
+     * Add the indexes used by the lookups and deletes of the writer, skipping the ones which already exist
+     */
+    private void createIndexes() {
+        createIndex("plot", "location", "`plot_id_x`, `plot_id_z`, `world`");
+        createIndex("plot", "owner", "`owner`");
+        for (final String table : new String[] { "plot_helpers", "plot_trusted", "plot_denied" }) {
+            createIndex(table, "plot", "`plot_plot_id`, `user_uuid`");
+            createIndex(table, "user", "`user_uuid`");
+        }
+        createIndex("plot_rating", "plot", "`plot_plot_id`");
+        createIndex("plot_comments", "plot", "`world`, `hashcode`");
+        createIndex("cluster", "location", "`world`, `pos1_x`, `pos1_z`, `pos2_x`, `pos2_z`");
+        for (final String table : new String[] { "cluster_helpers", "cluster_invited" }) {
+            createIndex(table, "cluster", "`cluster_id`, `user_uuid`");
+        }
+    }
+    
+    private int getSchemaVersion() throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS `" + prefix + "schema` (`version` INT(11) NOT NULL)");
+            try (ResultSet r = stmt.executeQuery("SELECT MAX(`version`) FROM `" + prefix + "schema`")) {
+                return r.next() ? r.getInt(1) : 0;
+            }
+        }
+    }
+    
+    private void setSchemaVersion(final int version) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("DELETE FROM `" + prefix + "schema`");
+            stmt.executeUpdate("INSERT INTO `" + prefix + "schema` (`version`) VALUES(" + version + ")");
+        }
+        if (!connection.getAutoCommit()) {
+            connection.commit();
+        }
+    }
+    
+    /**
+     * Add an index to a table, if the table exists and the index doesn't
+     * @param table The table (without prefix)
+     * @param name The name of the index (without prefix / table)
+     * @param columns
+     */
+    private void createIndex(final String table, final String name, final String columns) {
+        final String index = prefix + table + "_" + name;
+        try {
+            final DatabaseMetaData meta = connection.getMetaData();
+            try (ResultSet set = meta.getTables(null, null, prefix + table, new String[] { "TABLE" })) {
+                if (!set.next()) {
+                    return;
+                }
+            }
+            try (ResultSet set = meta.getIndexInfo(null, null, prefix + table, false, true)) {
+                while (set.next()) {
+                    if (index.equalsIgnoreCase(set.getString("INDEX_NAME"))) {
+                        return;
+                    }
+                }
+            }
+        } catch (final SQLException e) {
+            e.printStackTrace();
+            return;
+        }
+        try (Statement stmt = connection.createStatement()) {
+            if (MYSQL) {
+                try {
+                    stmt.executeUpdate("ALTER TABLE `" + prefix + table + "` ADD INDEX `" + index + "` (" + columns + "), ALGORITHM=INPLACE, LOCK=NONE");
+                } catch (final SQLException e) {
+                    // Older servers don't support online index changes
+                    stmt.executeUpdate("ALTER TABLE `" + prefix + table + "` ADD INDEX `" + index + "` (" + columns + ")");
+                }
+            } else {
+                stmt.executeUpdate("CREATE INDEX IF NOT EXISTS `" + index + "` ON `" + prefix + table + "` (" + columns + ")");
+            }
+            if (!connection.getAutoCommit()) {
+                connection.commit();
+            }
+            PS.debug("&6 - Added index: " + index);
+        } catch (final SQLException e) {
+            PS.debug("&cFailed to add index " + index + ": " + e.getMessage());
+        }
+    }
+    
     public void deleteRows(final ArrayList<Integer> rowIds, final String table, final String column) {
         setBulk(rowIds, new StmtMod<Integer>() {
             
@@ -1542,288 +1935,17 @@ public class SQLManager implements AbstractDB {
 
     /**
      * Load all plots, helpers, denied, trusted, and every setting from DB into a hashmap
+     * @see PlotLoader
      */
     @Override
     public ConcurrentHashMap<String, ConcurrentHashMap<PlotId, Plot>> getPlots() {
-        final ConcurrentHashMap<String, ConcurrentHashMap<PlotId, Plot>> newplots = new ConcurrentHashMap<>();
-        final HashMap<Integer, Plot> plots = new HashMap<>();
-        Statement stmt;
         try {
-            Set<String> worlds = new HashSet<>();
-            if (PS.get().config.contains("worlds")) {
-                worlds = PS.get().config.getConfigurationSection("worlds").getKeys(false);
-            }
-            final HashMap<String, UUID> uuids = new HashMap<>();
-            final HashMap<String, AtomicInteger> noExist = new HashMap<>();
-            
-            PlotId plot_id;
-            int id;
-            Plot p;
-            String o;
-            UUID user;
-            
-            /*
-             * Getting plots
-             */
-            stmt = connection.createStatement();
-            try (ResultSet r = stmt.executeQuery("SELECT `id`, `plot_id_x`, `plot_id_z`, `owner`, `world`, `timestamp` FROM `" + prefix + "plot`")) {
-                ArrayList<Integer> toDelete = new ArrayList<>();
-                while (r.next()) {
-                    plot_id = new PlotId(r.getInt("plot_id_x"), r.getInt("plot_id_z"));
-                    id = r.getInt("id");
-                    final String worldname = r.getString("world");
-                    if (!worlds.contains(worldname)) {
-                        if (Settings.AUTO_PURGE) {
-                            toDelete.add(id);
-                            continue;
-                        } else {
-                            AtomicInteger value = noExist.get(worldname);
-                            if (value != null) {
-                                value.incrementAndGet();
-                            } else {
-                                noExist.put(worldname, new AtomicInteger(1));
-                            }
-                        }
-                    }
-                    o = r.getString("owner");
-                    user = uuids.get(o);
-                    if (user == null) {
-                        user = UUID.fromString(o);
-                        uuids.put(o, user);
-                    }
-                    Timestamp timestamp = null;
-                    try {
-                        timestamp = r.getTimestamp("timestamp");
-                    } catch (SQLException ignored) {
-                    }
-                    long time;
-                    if (timestamp == null) {
-                        time = plot_id.hashCode();
-                    } else {
-                        time = timestamp.getTime();
-                    }
-                    p = new Plot(plot_id, user, new HashSet<UUID>(), new HashSet<UUID>(), new HashSet<UUID>(), "", null, null, worldname, new boolean[] { false, false, false, false }, time, id);
-                    ConcurrentHashMap<PlotId, Plot> map = newplots.get(worldname);
-                    if (map != null) {
-                        Plot last = map.put(p.id, p);
-                        if (last != null) {
-                            map.put(last.id, last);
-                            if (Settings.AUTO_PURGE) {
-                                toDelete.add(id);
-                            } else {
-                                PS.debug("&cPLOT " + id + " in `plot` is a duplicate. Delete this plot or set `auto-purge: true` in the settings.yml.");
-                            }
-                            continue;
-                        }
-                    } else {
-                        map = new ConcurrentHashMap<PlotId, Plot>();
-                        newplots.put(worldname, map);
-                        map.put(p.id, p);
-                    }
-                    plots.put(id, p);
-                }
-                deleteRows(toDelete, "plot", "id");
-            }
-            if (Settings.CACHE_RATINGS) {
-                try (ResultSet r = stmt.executeQuery("SELECT `plot_plot_id`, `player`, `rating` FROM `" + prefix + "plot_rating`")) {
-                    ArrayList<Integer> toDelete = new ArrayList<>();
-                    while (r.next()) {
-                        id = r.getInt("plot_plot_id");
-                        o = r.getString("player");
-                        user = uuids.get(o);
-                        if (user == null) {
-                            user = UUID.fromString(o);
-                            uuids.put(o, user);
-                        }
-                        final Plot plot = plots.get(id);
-                        if (plot != null) {
-                            if (plot.getSettings().ratings == null) {
-                                plot.getSettings().ratings = new HashMap<>();
-                            }
-                            plot.getSettings().ratings.put(user, r.getInt("rating"));
-                        } else if (Settings.AUTO_PURGE) {
-                            toDelete.add(id);
-                        } else {
-                            PS.debug("&cENTRY " + id + " in `plot_rating` does not exist. Create this plot or set `auto-purge: true` in the settings.yml.");
-                        }
-                    }
-                    deleteRows(toDelete, "plot_rating", "plot_plot_id");
-                }
-            }
-            
-            /*
-             * Getting helpers
-             */
-            try (ResultSet r = stmt.executeQuery("SELECT `user_uuid`, `plot_plot_id` FROM `" + prefix + "plot_helpers`")) {
-                ArrayList<Integer> toDelete = new ArrayList<>();
-                while (r.next()) {
-                    id = r.getInt("plot_plot_id");
-                    o = r.getString("user_uuid");
-                    user = uuids.get(o);
-                    if (user == null) {
-                        user = UUID.fromString(o);
-                        uuids.put(o, user);
-                    }
-                    final Plot plot = plots.get(id);
-                    if (plot != null) {
-                        plot.getTrusted().add(user);
-                    } else if (Settings.AUTO_PURGE) {
-                        toDelete.add(id);
-                    } else {
-                        PS.debug("&cENTRY " + id + " in `plot_helpers` does not exist. Create this plot or set `auto-purge: true` in the settings.yml.");
-                    }
-                }
-                deleteRows(toDelete, "plot_helpers", "plot_plot_id");
-            }
-            
-            /*
-             * Getting trusted
-             */
-            try (ResultSet r = stmt.executeQuery("SELECT `user_uuid`, `plot_plot_id` FROM `" + prefix + "plot_trusted`")) {
-                ArrayList<Integer> toDelete = new ArrayList<>();
-                while (r.next()) {
-                    id = r.getInt("plot_plot_id");
-                    o = r.getString("user_uuid");
-                    user = uuids.get(o);
-                    if (user == null) {
-                        user = UUID.fromString(o);
-                        uuids.put(o, user);
-                    }
-                    final Plot plot = plots.get(id);
-                    if (plot != null) {
-                        plot.getMembers().add(user);
-                    } else if (Settings.AUTO_PURGE) {
-                        toDelete.add(id);
-                    } else {
-                        PS.debug("&cENTRY " + id + " in `plot_trusted` does not exist. Create this plot or set `auto-purge: true` in the settings.yml.");
-                    }
-                }
-                deleteRows(toDelete, "plot_trusted", "plot_plot_id");
-            }
-            
-            /*
-             * Getting denied
-             */
-            try (ResultSet r = stmt.executeQuery("SELECT `user_uuid`, `plot_plot_id` FROM `" + prefix + "plot_denied`")) {
-                ArrayList<Integer> toDelete = new ArrayList<>();
-                while (r.next()) {
-                    id = r.getInt("plot_plot_id");
-                    o = r.getString("user_uuid");
-                    user = uuids.get(o);
-                    if (user == null) {
-                        user = UUID.fromString(o);
-                        uuids.put(o, user);
-                    }
-                    final Plot plot = plots.get(id);
-                    if (plot != null) {
-                        plot.getDenied().add(user);
-                    } else if (Settings.AUTO_PURGE) {
-                        toDelete.add(id);
-                    } else {
-                        PS.debug("&cENTRY " + id + " in `plot_denied` does not exist. Create this plot or set `auto-purge: true` in the settings.yml.");
-                    }
-                }
-                deleteRows(toDelete, "plot_denied", "plot_plot_id");
-            }
-            
-            try (ResultSet r = stmt.executeQuery("SELECT * FROM `" + prefix + "plot_settings`")) {
-                ArrayList<Integer> toDelete = new ArrayList<>();
-                while (r.next()) {
-                    id = r.getInt("plot_plot_id");
-                    final Plot plot = plots.get(id);
-                    if (plot != null) {
-                        plots.remove(id);
-                        final String alias = r.getString("alias");
-                        if (alias != null) {
-                            plot.getSettings().setAlias(alias);
-                        }
-                        final String pos = r.getString("position");
-                        switch (pos.toLowerCase()) {
-                            case "":
-                            case "default":
-                            case "0,0,0":
-                            case "center":
-                                break;
-                            default:
-                                try {
-                                    plot.getSettings().setPosition(BlockLoc.fromString(pos));
-                                } catch (final Exception ignored) {}
-                        }
-                        final Integer m = r.getInt("merged");
-                        final boolean[] merged = new boolean[4];
-                        for (int i = 0; i < 4; i++) {
-                            merged[3 - i] = ((m) & (1 << i)) != 0;
-                        }
-                        plot.getSettings().setMerged(merged);
-                        String[] flags_string;
-                        final String myflags = r.getString("flags");
-                        if (myflags == null) {
-                            flags_string = new String[] {};
-                        } else {
-                            if (myflags.length() > 0) {
-                                flags_string = myflags.split(",");
-                            } else {
-                                flags_string = new String[] {};
-                            }
-                        }
-                        final HashMap<String, Flag> flags = new HashMap<>();
-                        boolean exception = false;
-                        for (String element : flags_string) {
-                            if (element.contains(":")) {
-                                final String[] split = element.split(":");
-                                try {
-                                    final String flag_str = split[1].replaceAll("\u00AF", ":").replaceAll("\u00B4", ",");
-                                    final Flag flag = new Flag(FlagManager.getFlag(split[0], true), flag_str);
-                                    flags.put(flag.getKey(), flag);
-                                } catch (final Exception e) {
-                                    e.printStackTrace();
-                                    exception = true;
-                                }
-                            } else {
-                                element = element.replaceAll("\u00AF", ":").replaceAll("\u00B4", ",");
-                                if (StringMan.isAlpha(element.replaceAll("_", "").replaceAll("-", ""))) {
-                                    final Flag flag = new Flag(FlagManager.getFlag(element, true), "");
-                                    flags.put(flag.getKey(), flag);
-                                } else {
-                                    PS.debug("INVALID FLAG: " + element);
-                                }
-                            }
-                        }
-                        if (exception) {
-                            PS.debug("&cPlot " + id + " | " + plot + " had an invalid flag. A fix has been attempted.");
-                            PS.debug("&c" + myflags);
-                            this.setFlags(plot, flags.values());
-                        }
-                        plot.getSettings().flags = flags;
-                    } else if (Settings.AUTO_PURGE) {
-                        toDelete.add(id);
-                    } else {
-                        PS.debug("&cENTRY " + id + " in `plot_settings` does not exist. Create this plot or set `auto-purge: true` in the settings.yml.");
-                    }
-                }
-                stmt.close();
-                deleteRows(toDelete, "plot_settings", "plot_plot_id");
-            }
-            if (plots.entrySet().size() > 0) {
-                createEmptySettings(new ArrayList<>(plots.keySet()), null);
-                for (Entry<Integer, Plot> entry : plots.entrySet()) {
-                    entry.getValue().getSettings();
-                }
-            }
-            boolean invalidPlot = false;
-            for (final Entry<String, AtomicInteger> entry : noExist.entrySet()) {
-                final String worldname = entry.getKey();
-                invalidPlot = true;
-                PS.debug("&c[WARNING] Found " + entry.getValue().intValue() + " plots in DB for non existant world; '" + worldname + "'.");
-            }
-            if (invalidPlot) {
-                PS.debug("&c[WARNING] - Please create the world/s or remove the plots using the purge command");
-            }
+            return new PlotLoader(this, database, prefix, MYSQL).load();
         } catch (final SQLException e) {
             PS.debug("&7[WARN] " + "Failed to load plots.");
             e.printStackTrace();
         }
-        return newplots;
+        return new ConcurrentHashMap<>();
     }
     
     @Override
@@ -1853,6 +1975,7 @@ public class SQLManager implements AbstractDB {
         addPlotTask(p1, new UniqueStatement("swapPlots") {
             @Override
             public void set(final PreparedStatement stmt) throws SQLException {
+                rowIds.put(p1.world, pos2, id1);
                 stmt.setInt(1, pos2.x);
                 stmt.setInt(2, pos2.y);
                 stmt.setInt(3, id1);
@@ -1866,6 +1989,7 @@ public class SQLManager implements AbstractDB {
         addPlotTask(p2, new UniqueStatement("swapPlots") {
             @Override
             public void set(final PreparedStatement stmt) throws SQLException {
+                rowIds.put(p2.world, pos1, id2);
                 stmt.setInt(1, pos1.x);
                 stmt.setInt(2, pos1.y);
                 stmt.setInt(3, id2);
@@ -1885,8 +2009,11 @@ public class SQLManager implements AbstractDB {
             public void set(final PreparedStatement stmt) throws SQLException {
                 stmt.setInt(1, newPlot.getId().x);
                 stmt.setInt(2, newPlot.getId().y);
+                final int id = getId(original);
+                rowIds.remove(original.world, original.getId(), id);
+                rowIds.put(newPlot.world, newPlot.getId(), id);
                 stmt.setString(3, newPlot.world);
-                stmt.setInt(4, getId(original));
+                stmt.setInt(4, id);
             }
             
             @Override
@@ -1975,6 +2102,7 @@ public class SQLManager implements AbstractDB {
                         stmt = connection.prepareStatement("DELETE FROM `" + prefix + "plot` WHERE `id` = " + idstr2 + "");
                         stmt.executeUpdate();
                         stmt.close();
+                        rowIds.removeRows(world, uniqueIds);
                     } catch (final SQLException e) {
                         e.printStackTrace();
                         PS.debug("&c[ERROR] " + "FAILED TO PURGE WORLD '" + world + "'!");
@@ -1986,6 +2114,68 @@ public class SQLManager implements AbstractDB {
         });
     }
     
+    /**
+     * Delete plots as a single task<br>
+     *  - Each table is cleaned with one statement per 500 plots, rather than one statement per plot and table
+     * @param plots
+     */
+    @Override
+    public void deletePlots(final List<Plot> plots) {
+        // the known row ids (DBFunc.deletePlots resets plot.temp)
+        final int[] rows = new int[plots.size()];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = plots.get(i).temp;
+        }
+        addGlobalTask(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    final ArrayList<Integer> ids = new ArrayList<>(plots.size());
+                    for (int i = 0; i < rows.length; i++) {
+                        final Plot plot = plots.get(i);
+                        final int id = rows[i] > 0 ? rows[i] : getId(plot);
+                        if (id != Integer.MAX_VALUE) {
+                            ids.add(id);
+                            rowIds.remove(plot.world, plot.getId(), id);
+                        }
+                    }
+                    for (int start = 0; start < ids.size(); start += 500) {
+                        final List<Integer> part = ids.subList(start, Math.min(ids.size(), start + 500));
+                        for (final String table : new String[] { "plot_settings", "plot_helpers", "plot_trusted", "plot_denied", "plot_rating" }) {
+                            deleteIn(table, "plot_plot_id", part);
+                        }
+                        deleteIn("plot", "id", part);
+                    }
+                    try (PreparedStatement stmt = connection.prepareStatement("DELETE FROM `" + prefix + "plot_comments` WHERE `world` = ? AND `hashcode` = ?")) {
+                        for (final Plot plot : plots) {
+                            stmt.setString(1, plot.world);
+                            stmt.setInt(2, plot.hashCode());
+                            stmt.addBatch();
+                        }
+                        stmt.executeBatch();
+                    }
+                } catch (final SQLException e) {
+                    e.printStackTrace();
+                    PS.debug("&c[ERROR] Failed to delete " + plots.size() + " plots");
+                }
+            }
+        });
+    }
+    
+    private void deleteIn(final String table, final String column, final List<Integer> ids) throws SQLException {
+        final StringBuilder sql = new StringBuilder("DELETE FROM `" + prefix + table + "` WHERE `" + column + "` IN (");
+        for (int i = 0; i < ids.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(")");
+        try (PreparedStatement stmt = connection.prepareStatement(sql.toString())) {
+            for (int i = 0; i < ids.size(); i++) {
+                stmt.setInt(i + 1, ids.get(i));
+            }
+            stmt.executeUpdate();
+        }
+    }
+    
     @Override
     public void purge(final String world, final Set<PlotId> plots) {
         addGlobalTask(new Runnable() {
@@ -2465,7 +2655,7 @@ public class SQLManager implements AbstractDB {
                             flags_string = new String[] {};
                         }
                     }
-                    final HashMap<String, Flag> flags = new HashMap<>();
+                    final HashMap<String, Flag> flags = new FlagMap();
                     boolean exception = false;
                     for (final String element : flags_string) {
                         if (element.contains(":")) {
@@ -2915,6 +3105,9 @@ public class SQLManager implements AbstractDB {
     public void close() {
         try {
             CLOSED = true;
+            synchronized (this) {
+                notifyAll();
+            }
             connection.close();
         } catch (final SQLException e) {
             e.printStackTrace();
@@ -69,6 +69,12 @@ public class SQLite extends Database {
         return connection;
     }
     
+    @Override
+    public Connection newConnection() throws SQLException, ClassNotFoundException {
+        Class.forName("org.sqlite.JDBC");
+        return DriverManager.getConnection("jdbc:sqlite:" + dbLocation);
+    }
+    
     @Override
     public boolean checkConnection() throws SQLException {
         return (connection != null) && !connection.isClosed();
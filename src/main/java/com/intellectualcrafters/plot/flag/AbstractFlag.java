@@ -29,6 +29,7 @@ import com.intellectualcrafters.plot.util.StringMan;
 public class AbstractFlag {
     public final String key;
     public final FlagValue<?> value;
+    private final int id;
     
     public AbstractFlag(final String key) {
         this(key, new FlagValue.StringValue());
@@ -46,7 +47,8 @@ public class AbstractFlag {
         if (key.length() > 16) {
             throw new IllegalArgumentException("Key must be <= 16 characters");
         }
-        this.key = key.toLowerCase();
+        id = FlagManager.getFlagId(key);
+        this.key = FlagManager.getFlagKey(id);
         if (value == null) {
             this.value = new FlagValue.StringValue();
         } else {
@@ -83,6 +85,15 @@ public class AbstractFlag {
         return key;
     }
     
+    /**
+     * AbstractFlag id (see FlagManager.getFlagId)
+     *
+     * @return int
+     */
+    public int getId() {
+        return id;
+    }
+    
     @Override
     public String toString() {
         return key;
@@ -21,11 +21,13 @@
 package com.intellectualcrafters.plot.flag;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.intellectualcrafters.plot.PS;
 import com.intellectualcrafters.plot.config.C;
@@ -52,6 +54,60 @@ public class FlagManager {
     
     private final static HashSet<AbstractFlag> flags = new HashSet<>();
     
+    /**
+     * Registered flags by (lower case) key
+     */
+    private final static HashMap<String, AbstractFlag> index = new HashMap<>();
+    
+    /**
+     * Flag ids by key (both as used and lower case), and the interned (lower case) key for each id
+     */
+    private final static ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    
+    private static volatile String[] keys = new String[0];
+    
+    /**
+     * Get the id of a flag key<br>
+     *  - Keys are case insensitive, and each key gets a small id the first time it is used<br>
+     *  - Ids are never reused, so they can be kept in static fields (e.g. by listeners)
+     * @param key
+     * @return
+     */
+    public static int getFlagId(final String key) {
+        final Integer id = ids.get(key);
+        if (id != null) {
+            return id;
+        }
+        return assignId(key);
+    }
+    
+    private static synchronized int assignId(final String key) {
+        Integer id = ids.get(key);
+        if (id != null) {
+            return id;
+        }
+        final String lower = key.toLowerCase();
+        id = ids.get(lower);
+        if (id == null) {
+            id = keys.length;
+            final String[] tmp = Arrays.copyOf(keys, id + 1);
+            tmp[id] = lower;
+            keys = tmp;
+            ids.put(lower, id);
+        }
+        ids.put(key, id);
+        return id;
+    }
+    
+    /**
+     * Get the interned (lower case) key for a flag id
+     * @param id
+     * @return
+     */
+    public static String getFlagKey(final int id) {
+        return keys[id];
+    }
+    
     /**
      * Reserve a flag so that it cannot be set by players
      * @param flag
@@ -113,6 +169,9 @@ public class FlagManager {
             }
         }
         if ((getFlag(af.getKey()) == null) && flags.add(af)) {
+            synchronized (index) {
+                index.put(af.getKey(), af);
+            }
             if (reserved) {
                 reserveFlag(af.getKey());
             }
@@ -136,8 +195,44 @@ public class FlagManager {
         return flag;
     }
     
+    private static Flag getFlag(final HashMap<String, Flag> map, final int id) {
+        if (map instanceof FlagMap) {
+            return ((FlagMap) map).get(id);
+        }
+        return map.get(keys[id]);
+    }
+    
+    /**
+     * Same as getSettingFlag, but by flag id (see getFlagId)
+     * @param world
+     * @param settings
+     * @param id
+     * @return
+     */
+    public static Flag getSettingFlag(final String world, final PlotSettings settings, final int id) {
+        Flag flag;
+        if ((settings.flags.size() == 0) || ((flag = getFlag(settings.flags, id)) == null)) {
+            final PlotWorld plotworld = PS.get().getPlotWorld(world);
+            if (plotworld == null) {
+                return null;
+            }
+            if (plotworld.DEFAULT_FLAGS.size() == 0) {
+                return null;
+            }
+            return getFlag(plotworld.DEFAULT_FLAGS, id);
+        }
+        return flag;
+    }
+    
     public static boolean isBooleanFlag(final Plot plot, final String key, final boolean defaultValue) {
-        final Flag flag = FlagManager.getPlotFlagRaw(plot, key);
+        return isBooleanFlag(getPlotFlagRaw(plot, key), defaultValue);
+    }
+    
+    public static boolean isBooleanFlag(final Plot plot, final int id, final boolean defaultValue) {
+        return isBooleanFlag(getPlotFlagRaw(plot, id), defaultValue);
+    }
+    
+    private static boolean isBooleanFlag(final Flag flag, final boolean defaultValue) {
         if (flag == null) {
             return defaultValue;
         }
@@ -174,6 +269,21 @@ public class FlagManager {
         return getSettingFlag(plot.world, plot.getSettings(), flag);
     }
     
+    /**
+     * Returns the raw flag by flag id (see getFlagId)<br>
+     *  - Faster than looking it up by key
+     *  - You should not modify the flag
+     * @param plot
+     * @param id
+     * @return
+     */
+    public static Flag getPlotFlagRaw(final Plot plot, final int id) {
+        if (plot.owner == null) {
+            return null;
+        }
+        return getSettingFlag(plot.world, plot.getSettings(), id);
+    }
+    
     public static boolean isPlotFlagTrue(final Plot plot, final String strFlag) {
         if (plot.owner == null) {
             return false;
@@ -182,6 +292,14 @@ public class FlagManager {
         return !((flag == null) || !((Boolean) flag.getValue()));
     }
     
+    public static boolean isPlotFlagTrue(final Plot plot, final int id) {
+        if (plot.owner == null) {
+            return false;
+        }
+        final Flag flag = getPlotFlagRaw(plot, id);
+        return !((flag == null) || !((Boolean) flag.getValue()));
+    }
+    
     public static boolean isPlotFlagFalse(final Plot plot, final String strFlag) {
         if (plot.owner == null) {
             return false;
@@ -193,6 +311,14 @@ public class FlagManager {
         return false;
     }
     
+    public static boolean isPlotFlagFalse(final Plot plot, final int id) {
+        if (plot.owner == null) {
+            return false;
+        }
+        final Flag flag = getPlotFlagRaw(plot, id);
+        return (flag != null) && !((Boolean) flag.getValue());
+    }
+    
     /**
      * Get the value of a flag for a plot (ignores flag defaults)
      * @param plot
@@ -397,6 +523,16 @@ public class FlagManager {
      * @return AbstractFlag
      */
     public static AbstractFlag getFlag(final String string) {
+        synchronized (index) {
+            AbstractFlag flag = index.get(string);
+            if (flag == null) {
+                flag = index.get(string.toLowerCase());
+            }
+            if ((flag != null) || (index.size() == flags.size())) {
+                return flag;
+            }
+        }
+        // Flags were added to the set directly (see getFlags), so the index is out of date
         for (final AbstractFlag flag : flags) {
             if (flag.getKey().equalsIgnoreCase(string)) {
                 return flag;
@@ -428,11 +564,17 @@ public class FlagManager {
      * @return boolean Result of operation
      */
     public static boolean removeFlag(final AbstractFlag flag) {
-        return flags.remove(flag);
+        synchronized (index) {
+            final boolean result = flags.remove(flag);
+            if (result) {
+                index.remove(flag.getKey());
+            }
+            return result;
+        }
     }
     
     public static HashMap<String, Flag> parseFlags(final List<String> flagstrings) {
-        final HashMap<String, Flag> map = new HashMap<>();
+        final HashMap<String, Flag> map = new FlagMap();
         for (final String key : flagstrings) {
             final String[] split;
             if (key.contains(";")) {
@@ -0,0 +1,209 @@
+package com.intellectualcrafters.plot.flag;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The flags of a plot, cluster or world<br>
+ *  - Behaves as a normal HashMap (keyed by flag key)<br>
+ *  - Also keeps the flags in an array indexed by flag id (see FlagManager.getFlagId), so hot paths can look up a flag
+ *    without hashing the key<br>
+ *  - The array is only as long as the highest flag id in the map, and is not allocated for an empty map
+ */
+public class FlagMap extends HashMap<String, Flag> {
+    
+    private static final long serialVersionUID = 1L;
+    
+    private transient Flag[] byId;
+    
+    public FlagMap() {
+        super();
+    }
+    
+    public FlagMap(final Map<String, Flag> flags) {
+        super();
+        putAll(flags);
+    }
+    
+    /**
+     * Get a flag by its id
+     * @param id
+     * @return Flag, or null if the map does not contain it
+     */
+    public Flag get(final int id) {
+        final Flag[] array = byId;
+        if ((array == null) || (id < 0) || (id >= array.length)) {
+            return null;
+        }
+        return array[id];
+    }
+    
+    @Override
+    public Flag put(final String key, final Flag value) {
+        final Flag previous = super.put(key, value);
+        final int id = FlagManager.getFlagId(key);
+        if ((byId == null) || (id >= byId.length)) {
+            byId = byId == null ? new Flag[id + 1] : Arrays.copyOf(byId, id + 1);
+        }
+        byId[id] = value;
+        return previous;
+    }
+    
+    @Override
+    public void putAll(final Map<? extends String, ? extends Flag> map) {
+        for (final Map.Entry<? extends String, ? extends Flag> entry : map.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+    
+    @Override
+    public Flag remove(final Object key) {
+        final Flag previous = super.remove(key);
+        if ((previous != null) && (key instanceof String)) {
+            final int id = FlagManager.getFlagId((String) key);
+            if ((byId != null) && (id < byId.length) && (byId[id] == previous)) {
+                byId[id] = null;
+            }
+        }
+        return previous;
+    }
+    
+    @Override
+    public void clear() {
+        super.clear();
+        byId = null;
+    }
+    
+    @Override
+    public Object clone() {
+        final FlagMap clone = (FlagMap) super.clone();
+        if (byId != null) {
+            clone.byId = byId.clone();
+        }
+        return clone;
+    }
+    
+    /**
+     * Rebuild the id index (after a removal through one of the views)
+     */
+    private void rebuild() {
+        byId = null;
+        for (final Map.Entry<String, Flag> entry : super.entrySet()) {
+            final int id = FlagManager.getFlagId(entry.getKey());
+            if ((byId == null) || (id >= byId.length)) {
+                byId = byId == null ? new Flag[id + 1] : Arrays.copyOf(byId, id + 1);
+            }
+            byId[id] = entry.getValue();
+        }
+    }
+    
+    private class ViewIterator<T> implements Iterator<T> {
+        private final Iterator<T> parent;
+        
+        public ViewIterator(final Iterator<T> parent) {
+            this.parent = parent;
+        }
+        
+        @Override
+        public boolean hasNext() {
+            return parent.hasNext();
+        }
+        
+        @Override
+        public T next() {
+            return parent.next();
+        }
+        
+        @Override
+        public void remove() {
+            parent.remove();
+            rebuild();
+        }
+    }
+    
+    private class EntryIterator extends ViewIterator<Map.Entry<String, Flag>> {
+        public EntryIterator(final Iterator<Map.Entry<String, Flag>> parent) {
+            super(parent);
+        }
+        
+        @Override
+        public Map.Entry<String, Flag> next() {
+            final Map.Entry<String, Flag> entry = super.next();
+            return new AbstractMap.SimpleEntry<String, Flag>(entry) {
+                private static final long serialVersionUID = 1L;
+                
+                @Override
+                public Flag setValue(final Flag value) {
+                    super.setValue(value);
+                    // Not a structural change, so this is safe while iterating
+                    return put(entry.getKey(), value);
+                }
+            };
+        }
+    }
+    
+    @Override
+    public Set<String> keySet() {
+        final Set<String> parent = super.keySet();
+        return new AbstractSet<String>() {
+            @Override
+            public Iterator<String> iterator() {
+                return new ViewIterator<>(parent.iterator());
+            }
+            
+            @Override
+            public int size() {
+                return FlagMap.this.size();
+            }
+            
+            @Override
+            public boolean contains(final Object o) {
+                return containsKey(o);
+            }
+        };
+    }
+    
+    @Override
+    public Collection<Flag> values() {
+        final Collection<Flag> parent = super.values();
+        return new AbstractCollection<Flag>() {
+            @Override
+            public Iterator<Flag> iterator() {
+                return new ViewIterator<>(parent.iterator());
+            }
+            
+            @Override
+            public int size() {
+                return FlagMap.this.size();
+            }
+        };
+    }
+    
+    @Override
+    public Set<Map.Entry<String, Flag>> entrySet() {
+        final Set<Map.Entry<String, Flag>> parent = super.entrySet();
+        return new AbstractSet<Map.Entry<String, Flag>>() {
+            @Override
+            public Iterator<Map.Entry<String, Flag>> iterator() {
+                return new EntryIterator(parent.iterator());
+            }
+            
+            @Override
+            public int size() {
+                return FlagMap.this.size();
+            }
+            
+            @Override
+            public boolean contains(final Object o) {
+                return parent.contains(o);
+            }
+        };
+    }
+}
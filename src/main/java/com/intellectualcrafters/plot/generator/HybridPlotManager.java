@@ -24,11 +24,11 @@ import com.intellectualcrafters.plot.PS;
 import com.intellectualcrafters.plot.commands.Template;
 import com.intellectualcrafters.plot.object.ChunkLoc;
 import com.intellectualcrafters.plot.object.FileBytes;
+import com.intellectualcrafters.plot.object.GenerationContext;
 import com.intellectualcrafters.plot.object.Location;
 import com.intellectualcrafters.plot.object.Plot;
 import com.intellectualcrafters.plot.object.PlotBlock;
 import com.intellectualcrafters.plot.object.PlotId;
-import com.intellectualcrafters.plot.object.PlotLoc;
 import com.intellectualcrafters.plot.object.PlotWorld;
 import com.intellectualcrafters.plot.object.RegionWrapper;
 import com.intellectualcrafters.plot.object.RunnableVal;
@@ -40,7 +40,6 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 
 public class HybridPlotManager extends ClassicPlotManager {
@@ -100,26 +99,23 @@ public class HybridPlotManager extends ClassicPlotManager {
                 if (absZ < 0) {
                     absZ += size;
                 }
-                final PlotLoc loc = new PlotLoc(absX, absZ);
-                final HashMap<Short, Short> blocks = hpw.G_SCH.get(loc);
+                final short[] blocks = hpw.G_SCH.getIds(absX, absZ);
                 if (clear) {
                     for (short y = (short) (height); y <= (height + hpw.SCHEMATIC_HEIGHT); y++) {
                         SetBlockQueue.setBlock(hpw.worldname, x, y + y, z, 0);
                     }
                 }
                 if (blocks != null) {
-                    final HashMap<Short, Byte> datas = hpw.G_SCH_DATA.get(loc);
-                    if (datas == null) {
-                        for (final Short y : blocks.keySet()) {
-                            SetBlockQueue.setBlock(hpw.worldname, x, height + y, z, blocks.get(y));
+                    final byte[] datas = hpw.G_SCH.getDatas(absX, absZ);
+                    final int y0 = height + hpw.G_SCH.getBottom(absX, absZ);
+                    for (int i = 0; i < blocks.length; i++) {
+                        if (blocks[i] == -1) {
+                            continue;
                         }
-                    } else {
-                        for (final Short y : blocks.keySet()) {
-                            Byte data = datas.get(y);
-                            if (data == null) {
-                                data = 0;
-                            }
-                            SetBlockQueue.setBlock(hpw.worldname, x, height + y, z, new PlotBlock(blocks.get(y), data));
+                        if (datas == null) {
+                            SetBlockQueue.setBlock(hpw.worldname, x, y0 + i, z, blocks[i]);
+                        } else {
+                            SetBlockQueue.setBlock(hpw.worldname, x, y0 + i, z, blocks[i], datas[i]);
                         }
                     }
                 }
@@ -187,9 +183,8 @@ public class HybridPlotManager extends ClassicPlotManager {
             public void run() {
                 // If the chunk isn't near the edge and it isn't an augmented world we can just regen the whole chunk
                 if (canRegen && (value[6] == 0)) {
-                    ChunkManager.CURRENT_PLOT_CLEAR = new RegionWrapper(value[2], value[4], value[3], value[5]);
-                    ChunkManager.manager.regenerateChunk(world, new ChunkLoc(value[0], value[1]));
-                    ChunkManager.CURRENT_PLOT_CLEAR = null;
+                    final GenerationContext context = new GenerationContext(world, new RegionWrapper(value[2], value[4], value[3], value[5]), null, false);
+                    ChunkManager.manager.regenerateChunk(new ChunkLoc(value[0], value[1]), context);
                     return;
                 }
                 ///////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
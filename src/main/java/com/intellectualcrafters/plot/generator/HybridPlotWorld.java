@@ -26,6 +26,7 @@ import java.util.HashSet;
 import com.intellectualcrafters.configuration.ConfigurationSection;
 import com.intellectualcrafters.plot.PS;
 import com.intellectualcrafters.plot.config.C;
+import com.intellectualcrafters.plot.object.BlockColumns;
 import com.intellectualcrafters.plot.object.PlotBlock;
 import com.intellectualcrafters.plot.object.PlotLoc;
 import com.intellectualcrafters.plot.object.PlotWorld;
@@ -49,8 +50,10 @@ public class HybridPlotWorld extends ClassicPlotWorld {
         super(worldname);
     }
     
-    public HashMap<PlotLoc, HashMap<Short, Short>> G_SCH;
-    public HashMap<PlotLoc, HashMap<Short, Byte>> G_SCH_DATA;
+    /**
+     * The schematic blocks, by position within the plot grid (0 - SIZE), with heights relative to the road or plot
+     */
+    public BlockColumns G_SCH;
     public HashMap<PlotLoc, HashSet<PlotItem>> G_SCH_STATE;
     
     /**
@@ -82,14 +85,15 @@ public class HybridPlotWorld extends ClassicPlotWorld {
     }
 
     public void setupSchematics() {
-        G_SCH_DATA = new HashMap<>();
-        G_SCH = new HashMap<>();
         final String schem1Str = "GEN_ROAD_SCHEMATIC/" + worldname + "/sideroad";
         final String schem2Str = "GEN_ROAD_SCHEMATIC/" + worldname + "/intersection";
         final String schem3Str = "GEN_ROAD_SCHEMATIC/" + worldname + "/plot";
         final Schematic schem1 = SchematicHandler.manager.getSchematic(schem1Str);
         final Schematic schem2 = SchematicHandler.manager.getSchematic(schem2Str);
         final Schematic schem3 = SchematicHandler.manager.getSchematic(schem3Str);
+        // Only allocate the columns if there is a schematic to store
+        final boolean roads = (schem1 != null) && (schem2 != null) && (ROAD_WIDTH != 0);
+        G_SCH = ((schem3 != null) || roads) ? new BlockColumns(SIZE, SIZE) : null;
         final int shift = ROAD_WIDTH / 2;
         int oddshift = 0;
         if ((ROAD_WIDTH & 1) != 0) {
@@ -140,7 +144,7 @@ public class HybridPlotWorld extends ClassicPlotWorld {
                 }
             }
         }
-        if ((schem1 == null) || (schem2 == null) || (ROAD_WIDTH == 0)) {
+        if (!roads) {
             PS.debug(C.PREFIX.s() + "&3 - schematic: &7false");
             return;
         }
@@ -314,21 +318,9 @@ public class HybridPlotWorld extends ClassicPlotWorld {
         if (x < 0) {
             x += SIZE;
         }
-        final PlotLoc loc = new PlotLoc(x, z);
-        if (!G_SCH.containsKey(loc)) {
-            G_SCH.put(loc, new HashMap<Short, Short>());
-        }
-        G_SCH.get(loc).put(y, id);
         if (rotate) {
-            final byte newdata = rotate(id, data);
-            if ((data == 0) && (newdata == 0)) {
-                return;
-            }
-            data = newdata;
-        }
-        if (!G_SCH_DATA.containsKey(loc)) {
-            G_SCH_DATA.put(loc, new HashMap<Short, Byte>());
+            data = rotate(id, data);
         }
-        G_SCH_DATA.get(loc).put(y, data);
+        G_SCH.setBlock(x, y, z, id, data);
     }
 }
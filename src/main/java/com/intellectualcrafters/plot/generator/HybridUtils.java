@@ -11,11 +11,11 @@ import com.intellectualcrafters.plot.object.Plot;
 import com.intellectualcrafters.plot.object.PlotAnalysis;
 import com.intellectualcrafters.plot.object.PlotBlock;
 import com.intellectualcrafters.plot.object.PlotId;
-import com.intellectualcrafters.plot.object.PlotLoc;
 import com.intellectualcrafters.plot.object.PlotManager;
 import com.intellectualcrafters.plot.object.PlotWorld;
 import com.intellectualcrafters.plot.object.RegionWrapper;
 import com.intellectualcrafters.plot.object.RunnableVal;
+import com.intellectualcrafters.plot.util.AnalysisCache;
 import com.intellectualcrafters.plot.util.ChunkManager;
 import com.intellectualcrafters.plot.util.MainUtil;
 import com.intellectualcrafters.plot.util.SchematicHandler;
@@ -26,7 +26,6 @@ import java.io.File;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -39,41 +38,48 @@ public abstract class HybridUtils {
     
     public abstract void analyzeRegion(final String world, final RegionWrapper region, final RunnableVal<PlotAnalysis> whenDone);
     
+    /**
+     * Analyze each region of a plot, and combine the results<br>
+     *  - whenDone is run on the main thread, with a null value if any region could not be analyzed
+     * @param origin
+     * @param whenDone
+     */
     public void analyzePlot(final Plot origin, final RunnableVal<PlotAnalysis> whenDone) {
         final ArrayDeque<RegionWrapper> zones = new ArrayDeque<>(MainUtil.getRegions(origin));
         final ArrayList<PlotAnalysis> analysis = new ArrayList<>();
+        final int epoch = AnalysisCache.getModifications(origin);
         Runnable run = new Runnable() {
             @Override
             public void run() {
                 if (zones.size() == 0) {
-                    if (analysis.size() > 0) {
-                        whenDone.value = new PlotAnalysis();
-                        for (PlotAnalysis data : analysis) {
-                            whenDone.value.air += data.air;
-                            whenDone.value.air_sd += data.air_sd;
-                            whenDone.value.changes += data.changes;
-                            whenDone.value.changes_sd += data.changes_sd;
-                            whenDone.value.data += data.data;
-                            whenDone.value.data_sd += data.data_sd;
-                            whenDone.value.faces += data.faces;
-                            whenDone.value.faces_sd += data.faces_sd;
-                            whenDone.value.variety += data.variety;
-                            whenDone.value.variety_sd += data.variety_sd;
-                        }
-                        whenDone.value.air /= analysis.size();
-                        whenDone.value.air_sd /= analysis.size();
-                        whenDone.value.changes /= analysis.size();
-                        whenDone.value.changes_sd /= analysis.size();
-                        whenDone.value.data /= analysis.size();
-                        whenDone.value.data_sd /= analysis.size();
-                        whenDone.value.faces /= analysis.size();
-                        whenDone.value.faces_sd /= analysis.size();
-                        whenDone.value.variety /= analysis.size();
-                        whenDone.value.variety_sd /= analysis.size();
+                    if (analysis.size() == 0) {
+                        whenDone.value = null;
+                        TaskManager.runTask(whenDone);
+                        return;
                     }
-                    else {
-                        whenDone.value = analysis.get(0);
+                    whenDone.value = new PlotAnalysis();
+                    for (PlotAnalysis data : analysis) {
+                        whenDone.value.air += data.air;
+                        whenDone.value.air_sd += data.air_sd;
+                        whenDone.value.changes += data.changes;
+                        whenDone.value.changes_sd += data.changes_sd;
+                        whenDone.value.data += data.data;
+                        whenDone.value.data_sd += data.data_sd;
+                        whenDone.value.faces += data.faces;
+                        whenDone.value.faces_sd += data.faces_sd;
+                        whenDone.value.variety += data.variety;
+                        whenDone.value.variety_sd += data.variety_sd;
                     }
+                    whenDone.value.air /= analysis.size();
+                    whenDone.value.air_sd /= analysis.size();
+                    whenDone.value.changes /= analysis.size();
+                    whenDone.value.changes_sd /= analysis.size();
+                    whenDone.value.data /= analysis.size();
+                    whenDone.value.data_sd /= analysis.size();
+                    whenDone.value.faces /= analysis.size();
+                    whenDone.value.faces_sd /= analysis.size();
+                    whenDone.value.variety /= analysis.size();
+                    whenDone.value.variety_sd /= analysis.size();
                     final List<Integer> result = new ArrayList<>();
                     result.add(whenDone.value.changes);
                     result.add(whenDone.value.faces);
@@ -88,6 +94,7 @@ public abstract class HybridUtils {
                     result.add(whenDone.value.variety_sd);
                     final Flag flag = new Flag(FlagManager.getFlag("analysis"), result);
                     FlagManager.addPlotFlag(origin, flag);
+                    AnalysisCache.put(origin, epoch, whenDone.value);
                     TaskManager.runTask(whenDone);
                     return;
                 }
@@ -96,6 +103,11 @@ public abstract class HybridUtils {
                 analyzeRegion(origin.world, region, new RunnableVal<PlotAnalysis>() {
                     @Override
                     public void run() {
+                        if (value == null) {
+                            whenDone.value = null;
+                            TaskManager.runTask(whenDone);
+                            return;
+                        }
                         analysis.add(value);
                         TaskManager.runTaskLater(task, 1);
                     }
@@ -374,6 +386,7 @@ public abstract class HybridUtils {
                     }
                 }
                 final int size = plotworld.SIZE;
+                SetBlockQueue.setJob("roads " + world);
                 for (int X = 0; X < 16; X++) {
                     short absX = (short) ((x + X) % size);
                     for (int Z = 0; Z < 16; Z++) {
@@ -396,31 +409,28 @@ public abstract class HybridUtils {
                             condition = (!gx || !gz || !lx || !lz);
                         }
                         if (condition) {
-                            final int sy = plotworld.ROAD_HEIGHT;
-                            final PlotLoc loc = new PlotLoc(absX, absZ);
-                            final HashMap<Short, Short> blocks = plotworld.G_SCH.get(loc);
+                            final int sy = plotworld.ROAD_HEIGHT + plotworld.G_SCH.getBottom(absX, absZ);
+                            final short[] blocks = plotworld.G_SCH.getIds(absX, absZ);
                             for (short y = (short) (plotworld.ROAD_HEIGHT); y <= (plotworld.ROAD_HEIGHT + plotworld.SCHEMATIC_HEIGHT + extend); y++) {
                                 SetBlockQueue.setBlock(world, x + X + plotworld.ROAD_OFFSET_X, y, z + Z + plotworld.ROAD_OFFSET_Z, 0);
                             }
                             if (blocks != null) {
-                                final HashMap<Short, Byte> datas = plotworld.G_SCH_DATA.get(loc);
-                                if (datas == null) {
-                                    for (final Short y : blocks.keySet()) {
-                                        SetBlockQueue.setBlock(world, x + X + plotworld.ROAD_OFFSET_X, sy + y, z + Z + plotworld.ROAD_OFFSET_Z, blocks.get(y));
+                                final byte[] datas = plotworld.G_SCH.getDatas(absX, absZ);
+                                for (int i = 0; i < blocks.length; i++) {
+                                    if (blocks[i] == -1) {
+                                        continue;
                                     }
-                                } else {
-                                    for (final Short y : blocks.keySet()) {
-                                        Byte data = datas.get(y);
-                                        if (data == null) {
-                                            data = 0;
-                                        }
-                                        SetBlockQueue.setBlock(world, x + X + plotworld.ROAD_OFFSET_X, sy + y, z + Z + plotworld.ROAD_OFFSET_Z, new PlotBlock(blocks.get(y), data));
+                                    if (datas == null) {
+                                        SetBlockQueue.setBlock(world, x + X + plotworld.ROAD_OFFSET_X, sy + i, z + Z + plotworld.ROAD_OFFSET_Z, blocks[i]);
+                                    } else {
+                                        SetBlockQueue.setBlock(world, x + X + plotworld.ROAD_OFFSET_X, sy + i, z + Z + plotworld.ROAD_OFFSET_Z, blocks[i], datas[i]);
                                     }
                                 }
                             }
                         }
                     }
                 }
+                SetBlockQueue.setJob(null);
                 SetBlockQueue.addNotify(new Runnable() {
                     @Override
                     public void run() {
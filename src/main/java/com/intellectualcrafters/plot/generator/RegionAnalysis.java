@@ -0,0 +1,228 @@
+package com.intellectualcrafters.plot.generator;
+
+import com.intellectualcrafters.plot.PS;
+import com.intellectualcrafters.plot.object.PlotAnalysis;
+import com.intellectualcrafters.plot.object.RunnableVal;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An analysis of a region, computed in slices (usually one per chunk)<br>
+ *  - Each slice is processed on a shared ForkJoin pool, and only its per column totals are kept<br>
+ *  - The totals of all slices are merged into a PlotAnalysis once the last slice is done<br>
+ *  - Use isBusy() to limit how many slices are waiting, so only a few chunks are held in memory at once
+ */
+public class RegionAnalysis {
+    
+    private static ForkJoinPool pool;
+    
+    private static final int CHANGES = 0;
+    private static final int FACES = 1;
+    private static final int DATA = 2;
+    private static final int AIR = 3;
+    private static final int VARIETY = 4;
+    
+    private final int width;
+    private final int length;
+    private final byte[] weights;
+    private final RunnableVal<PlotAnalysis> whenDone;
+    private final AtomicInteger remaining;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final long[] sums = new long[5];
+    private final long[] squares = new long[5];
+    private long columns;
+    
+    /**
+     * A part of the region to analyze<br>
+     *  - Coordinates are relative to the bottom corner of the region
+     */
+    public static abstract class Slice {
+        public final int minX;
+        public final int minZ;
+        public final int maxX;
+        public final int maxZ;
+        
+        public Slice(final int minX, final int minZ, final int maxX, final int maxZ) {
+            this.minX = minX;
+            this.minZ = minZ;
+            this.maxX = maxX;
+            this.maxZ = maxZ;
+        }
+        
+        /**
+         * Get the block id the terrain would have if it was freshly generated
+         */
+        public abstract int getOldId(final int x, final int y, final int z);
+        
+        /**
+         * Get the current block id<br>
+         *  - This is also called for the columns directly next to the slice, if they are inside the region
+         */
+        public abstract int getId(final int x, final int y, final int z);
+    }
+    
+    /**
+     * @param width The width of the region (x)
+     * @param length The length of the region (z)
+     * @param slices The number of slices which will be submitted
+     * @param weights The data weight for each block id (e.g. directional blocks weigh more)
+     * @param whenDone Run with the result once all slices are done (from a pool thread)
+     */
+    public RegionAnalysis(final int width, final int length, final int slices, final byte[] weights, final RunnableVal<PlotAnalysis> whenDone) {
+        this.width = width;
+        this.length = length;
+        this.weights = weights;
+        this.whenDone = whenDone;
+        remaining = new AtomicInteger(slices);
+    }
+    
+    private static synchronized ForkJoinPool getPool() {
+        if (pool == null) {
+            pool = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors()));
+        }
+        return pool;
+    }
+    
+    /**
+     * Check if enough slices are waiting that no more should be prepared for now
+     * @return
+     */
+    public boolean isBusy() {
+        return pending.get() >= (getPool().getParallelism() * 2);
+    }
+    
+    /**
+     * Queue a slice to be analyzed
+     * @param slice
+     */
+    public void submit(final Slice slice) {
+        pending.incrementAndGet();
+        getPool().execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    analyze(slice);
+                } catch (final Throwable e) {
+                    PS.debug("&cFailed to analyze part of a region: " + slice.minX + "," + slice.minZ + " -> " + slice.maxX + "," + slice.maxZ);
+                    e.printStackTrace();
+                }
+                pending.decrementAndGet();
+                if (remaining.decrementAndGet() == 0) {
+                    finish();
+                }
+            }
+        });
+    }
+    
+    private void analyze(final Slice slice) {
+        final long[] sums = new long[5];
+        final long[] squares = new long[5];
+        final int[] column = new int[5];
+        final boolean[] types = new boolean[4096];
+        final short[] found = new short[256];
+        long count = 0;
+        for (int x = slice.minX; x <= slice.maxX; x++) {
+            final boolean edgeX = (x <= 0) || (x >= (width - 1));
+            for (int z = slice.minZ; z <= slice.maxZ; z++) {
+                final boolean edge = edgeX || (z <= 0) || (z >= (length - 1));
+                int changes = 0;
+                int faces = 0;
+                int data = 0;
+                int air = 0;
+                int variety = 0;
+                for (int y = 0; y < 256; y++) {
+                    final int now = slice.getId(x, y, z);
+                    if (slice.getOldId(x, y, z) != now) {
+                        changes++;
+                    }
+                    if (now == 0) {
+                        air++;
+                        continue;
+                    }
+                    // exposed faces
+                    if (!edge && (y > 0) && (y < 255)) {
+                        if (slice.getId(x, y - 1, z) == 0) {
+                            faces++;
+                        }
+                        if (slice.getId(x - 1, y, z) == 0) {
+                            faces++;
+                        }
+                        if (slice.getId(x, y, z - 1) == 0) {
+                            faces++;
+                        }
+                        if (slice.getId(x, y + 1, z) == 0) {
+                            faces++;
+                        }
+                        if (slice.getId(x + 1, y, z) == 0) {
+                            faces++;
+                        }
+                        if (slice.getId(x, y, z + 1) == 0) {
+                            faces++;
+                        }
+                    }
+                    final int type = now & 4095;
+                    data += weights[type];
+                    if (!types[type]) {
+                        types[type] = true;
+                        found[variety++] = (short) type;
+                    }
+                }
+                for (int i = 0; i < variety; i++) {
+                    types[found[i]] = false;
+                }
+                column[CHANGES] = changes;
+                column[FACES] = faces;
+                column[DATA] = data;
+                column[AIR] = air;
+                column[VARIETY] = variety;
+                for (int i = 0; i < 5; i++) {
+                    final long value = column[i];
+                    sums[i] += value;
+                    squares[i] += value * value;
+                }
+                count++;
+            }
+        }
+        synchronized (this) {
+            for (int i = 0; i < 5; i++) {
+                this.sums[i] += sums[i];
+                this.squares[i] += squares[i];
+            }
+            columns += count;
+        }
+    }
+    
+    private int getMean(final int index) {
+        return (int) (((double) sums[index] / columns) * 100);
+    }
+    
+    /**
+     * Same as MathMan.getSD over all column values, calculated from the merged totals
+     */
+    private int getSD(final int index, final double av) {
+        final double sd = (squares[index] - (2 * av * sums[index])) + (columns * av * av);
+        return (int) Math.sqrt(Math.max(0, sd / columns));
+    }
+    
+    private void finish() {
+        final PlotAnalysis analysis = new PlotAnalysis();
+        synchronized (this) {
+            if (columns > 0) {
+                analysis.changes = getMean(CHANGES);
+                analysis.faces = getMean(FACES);
+                analysis.data = getMean(DATA);
+                analysis.air = getMean(AIR);
+                analysis.variety = getMean(VARIETY);
+                
+                analysis.changes_sd = getSD(CHANGES, analysis.changes);
+                analysis.faces_sd = getSD(FACES, analysis.faces);
+                analysis.data_sd = getSD(DATA, analysis.data);
+                analysis.air_sd = getSD(AIR, analysis.air);
+                analysis.variety_sd = getSD(VARIETY, analysis.variety);
+            }
+        }
+        whenDone.value = analysis;
+        whenDone.run();
+    }
+}
@@ -0,0 +1,194 @@
+package com.intellectualcrafters.plot.object;
+
+import java.util.Arrays;
+
+/**
+ * Blocks stored by column, for a rectangular area<br>
+ *  - Columns are indexed by ((x - minX) * length + (z - minZ))<br>
+ *  - Each column only stores (about) the range of heights which has blocks set, as primitive arrays<br>
+ *  - Heights without a block have the id -1 (and data 0)
+ */
+public class BlockColumns {
+    
+    public final int minX;
+    public final int minZ;
+    public final int width;
+    public final int length;
+    
+    private final int[] bottom;
+    private final short[][] ids;
+    private final byte[][] datas;
+    private boolean hasData;
+    
+    /**
+     * @param width The number of columns along x (starting at 0)
+     * @param length The number of columns along z (starting at 0)
+     */
+    public BlockColumns(final int width, final int length) {
+        this(0, 0, width, length);
+    }
+    
+    /**
+     * @param minX The lowest x of the area
+     * @param minZ The lowest z of the area
+     * @param width The number of columns along x
+     * @param length The number of columns along z
+     */
+    public BlockColumns(final int minX, final int minZ, final int width, final int length) {
+        this.minX = minX;
+        this.minZ = minZ;
+        this.width = width;
+        this.length = length;
+        bottom = new int[width * length];
+        ids = new short[width * length][];
+        datas = new byte[width * length][];
+    }
+    
+    private int getIndex(final int x, final int z) {
+        final int rx = x - minX;
+        final int rz = z - minZ;
+        if ((rx < 0) || (rz < 0) || (rx >= width) || (rz >= length)) {
+            return -1;
+        }
+        return (rx * length) + rz;
+    }
+    
+    /**
+     * Set a block (blocks outside the area are ignored)
+     * @param x
+     * @param y
+     * @param z
+     * @param id
+     * @param data
+     */
+    public void setBlock(final int x, final int y, final int z, final short id, final byte data) {
+        final int index = getIndex(x, z);
+        if (index == -1) {
+            return;
+        }
+        short[] column = ids[index];
+        if (column == null) {
+            column = new short[] { -1 };
+            ids[index] = column;
+            bottom[index] = y;
+        } else if (y < bottom[index]) {
+            resize(index, y, (bottom[index] + column.length) - y);
+            column = ids[index];
+        } else if (y >= (bottom[index] + column.length)) {
+            // Columns are usually filled from the bottom up, so grow by at least double
+            resize(index, bottom[index], Math.max((y - bottom[index]) + 1, column.length * 2));
+            column = ids[index];
+        }
+        final int i = y - bottom[index];
+        column[i] = id;
+        byte[] columnData = datas[index];
+        if (data != 0) {
+            if (columnData == null) {
+                columnData = new byte[column.length];
+                datas[index] = columnData;
+            }
+            hasData = true;
+        }
+        if (columnData != null) {
+            columnData[i] = data;
+        }
+    }
+    
+    private void resize(final int index, final int newBottom, final int newLength) {
+        final int offset = bottom[index] - newBottom;
+        final short[] column = ids[index];
+        final short[] newColumn = new short[newLength];
+        Arrays.fill(newColumn, (short) -1);
+        System.arraycopy(column, 0, newColumn, offset, column.length);
+        ids[index] = newColumn;
+        final byte[] columnData = datas[index];
+        if (columnData != null) {
+            final byte[] newData = new byte[newLength];
+            System.arraycopy(columnData, 0, newData, offset, columnData.length);
+            datas[index] = newData;
+        }
+        bottom[index] = newBottom;
+    }
+    
+    /**
+     * Get the ids of a column, starting at getBottom(x, z)<br>
+     *  - Heights without a block are -1<br>
+     *  - The returned array must not be modified
+     * @param x
+     * @param z
+     * @return The ids, or null if the column has no blocks
+     */
+    public short[] getIds(final int x, final int z) {
+        final int index = getIndex(x, z);
+        return index == -1 ? null : ids[index];
+    }
+    
+    /**
+     * Get the data of a column, starting at getBottom(x, z)<br>
+     *  - The returned array must not be modified
+     * @param x
+     * @param z
+     * @return The data, or null if all data in the column is 0
+     */
+    public byte[] getDatas(final int x, final int z) {
+        final int index = getIndex(x, z);
+        return index == -1 ? null : datas[index];
+    }
+    
+    /**
+     * Get the lowest height stored for a column
+     * @param x
+     * @param z
+     * @return
+     */
+    public int getBottom(final int x, final int z) {
+        final int index = getIndex(x, z);
+        return index == -1 ? 0 : bottom[index];
+    }
+    
+    /**
+     * Get the id of a block
+     * @param x
+     * @param y
+     * @param z
+     * @return The id, or -1 if no block is set
+     */
+    public short getId(final int x, final int y, final int z) {
+        final int index = getIndex(x, z);
+        if ((index == -1) || (ids[index] == null)) {
+            return -1;
+        }
+        final int i = y - bottom[index];
+        if ((i < 0) || (i >= ids[index].length)) {
+            return -1;
+        }
+        return ids[index][i];
+    }
+    
+    /**
+     * Get the data of a block
+     * @param x
+     * @param y
+     * @param z
+     * @return
+     */
+    public byte getData(final int x, final int y, final int z) {
+        final int index = getIndex(x, z);
+        if ((index == -1) || (datas[index] == null)) {
+            return 0;
+        }
+        final int i = y - bottom[index];
+        if ((i < 0) || (i >= datas[index].length)) {
+            return 0;
+        }
+        return datas[index][i];
+    }
+    
+    /**
+     * Get if any block has data other than 0
+     * @return
+     */
+    public boolean hasData() {
+        return hasData;
+    }
+}
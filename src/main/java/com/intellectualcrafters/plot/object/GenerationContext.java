@@ -0,0 +1,34 @@
+package com.intellectualcrafters.plot.object;
+
+/**
+ * The state of a single clear / regenerate operation<br>
+ *  - Registered per chunk with ChunkManager.setContext while that chunk is regenerated<br>
+ *  - Generators and populators look it up for the chunk they are generating, instead of using shared globals, so
+ *    several regions can be regenerated at the same time
+ */
+public class GenerationContext {
+    
+    public final String world;
+    
+    /**
+     * The region being cleared (world coordinates), or null
+     */
+    public final RegionWrapper requiredRegion;
+    
+    /**
+     * The blocks to restore after the chunk is generated (world coordinates), or null
+     */
+    public final BlockColumns blocks;
+    
+    /**
+     * If only the stored blocks should be set (nothing is generated)
+     */
+    public final boolean forcePaste;
+    
+    public GenerationContext(final String world, final RegionWrapper requiredRegion, final BlockColumns blocks, final boolean forcePaste) {
+        this.world = world;
+        this.requiredRegion = requiredRegion;
+        this.blocks = blocks;
+        this.forcePaste = forcePaste;
+    }
+}
@@ -42,7 +42,9 @@ import com.intellectualcrafters.plot.util.BO3Handler;
 import com.intellectualcrafters.plot.util.BlockManager;
 import com.intellectualcrafters.plot.util.ChunkManager;
 import com.intellectualcrafters.plot.util.ClusterManager;
+import com.intellectualcrafters.plot.util.ConnectedPlotIndex;
 import com.intellectualcrafters.plot.util.MainUtil;
+import com.intellectualcrafters.plot.util.RatingIndex;
 import com.intellectualcrafters.plot.util.SchematicHandler;
 import com.intellectualcrafters.plot.util.StringMan;
 import com.intellectualcrafters.plot.util.TaskManager;
@@ -757,12 +759,8 @@ public class Plot {
      * @return average rating as double
      */
     public double getAverageRating() {
-        double sum = 0;
-        final Collection<Rating> ratings = getRatings().values();
-        for (final Rating rating : ratings) {
-            sum += rating.getAverageRating();
-        }
-        return (sum / ratings.size());
+        final RatingIndex.Aggregate aggregate = RatingIndex.get(getBasePlot(false));
+        return aggregate == null ? Double.NaN : aggregate.getAverage();
     }
     
     /**
@@ -1242,9 +1240,12 @@ public class Plot {
      */
     public void setMerged(boolean[] merged) {
         getSettings().setMerged(merged);
+        final ConnectedPlotIndex index = PS.get().getConnectedIndex();
+        index.invalidate(this);
+        for (int i = 0; i < 4; i++) {
+            index.invalidate(MainUtil.getPlotRelative(this, i));
+        }
         DBFunc.setMerged(this, merged);
-        MainUtil.connected_cache = null;
-        MainUtil.regions_cache = null;
         if (origin != null) {
             origin.origin = null;
             origin = null;
@@ -1266,6 +1267,9 @@ public class Plot {
      */
     public void setMerged(int direction, boolean value) {
         if (getSettings().setMerged(direction, value)) {
+            final ConnectedPlotIndex index = PS.get().getConnectedIndex();
+            index.invalidate(this);
+            index.invalidate(MainUtil.getPlotRelative(this, direction));
             if (value) {
                 Plot other = MainUtil.getPlotRelative(this, direction).getBasePlot(false);
                 if (!other.equals(getBasePlot(false))) {
@@ -1273,7 +1277,6 @@ public class Plot {
                     origin.origin = base;
                     other.origin = base;
                     origin = base;
-                    MainUtil.connected_cache = null;
                 }
             }
             else {
@@ -1281,10 +1284,8 @@ public class Plot {
                     origin.origin = null;
                     origin = null;
                 }
-                MainUtil.connected_cache = null;
             }
             DBFunc.setMerged(this, getSettings().getMerged());
-            MainUtil.regions_cache = null;
         }
     }
 
@@ -14,6 +14,7 @@ import com.intellectualcrafters.plot.PS;
 import com.intellectualcrafters.plot.flag.Flag;
 import com.intellectualcrafters.plot.flag.FlagManager;
 import com.intellectualcrafters.plot.generator.HybridUtils;
+import com.intellectualcrafters.plot.util.AnalysisCache;
 import com.intellectualcrafters.plot.util.MathMan;
 import com.intellectualcrafters.plot.util.TaskManager;
 
@@ -162,6 +163,11 @@ public class PlotAnalysis {
                     if (queuePlot == null) {
                         break;
                     }
+                    if (AnalysisCache.get(queuePlot) != null) {
+                        // Not modified since it was last analyzed
+                        queuePlot.removeRunning();
+                        continue;
+                    }
                     PS.debug(" | " + queuePlot);
                     final Object lock = new Object();
                     TaskManager.runTask(new Runnable() {
@@ -205,7 +211,10 @@ public class PlotAnalysis {
                 for (int i = 0; i < plots.size(); i++) {
                     final Plot plot = plots.get(i);
                     PS.debug(" | " + plot);
-                    final PlotAnalysis analysis = plot.getComplexity();
+                    PlotAnalysis analysis = AnalysisCache.get(plot);
+                    if (analysis == null) {
+                        analysis = plot.getComplexity();
+                    }
                     
                     changes[i] = analysis.changes;
                     faces[i] = analysis.faces;
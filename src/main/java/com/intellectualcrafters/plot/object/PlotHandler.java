@@ -73,6 +73,7 @@ public class PlotHandler {
         if (!plot.isMerged()) {
             if (!plot.owner.equals(owner)) {
                 plot.owner = owner;
+                PS.get().reindexPlot(plot);
                 DBFunc.setOwner(plot, owner);
             }
             return;
@@ -80,6 +81,7 @@ public class PlotHandler {
         for (Plot current : MainUtil.getConnectedPlots(plot)) {
             if (!owner.equals(current.owner)) {
                 current.owner = owner;
+                PS.get().reindexPlot(current);
                 DBFunc.setOwner(current, owner);
             }
         }
@@ -178,6 +180,7 @@ public class PlotHandler {
     public static void addDenied(Plot plot, UUID uuid) {
         for (Plot current : MainUtil.getConnectedPlots(plot)) {
             if (current.getDenied().add(uuid)) {
+                PS.get().reindexPlot(current);
                 DBFunc.setDenied(current, uuid);
             }
         }
@@ -186,6 +189,7 @@ public class PlotHandler {
     public static void addMember(Plot plot, UUID uuid) {
         for (Plot current : MainUtil.getConnectedPlots(plot)) {
             if (current.getMembers().add(uuid)) {
+                PS.get().reindexPlot(current);
                 DBFunc.setMember(current, uuid);
             }
         }
@@ -194,6 +198,7 @@ public class PlotHandler {
     public static void addTrusted(Plot plot, UUID uuid) {
         for (Plot current : MainUtil.getConnectedPlots(plot)) {
             if (current.getTrusted().add(uuid)) {
+                PS.get().reindexPlot(current);
                 DBFunc.setTrusted(current, uuid);
             }
         }
@@ -202,6 +207,7 @@ public class PlotHandler {
     public static boolean removeDenied(Plot plot, UUID uuid) {
         for (Plot current : MainUtil.getConnectedPlots(plot)) {
             if (current.getDenied().remove(uuid)) {
+                PS.get().reindexPlot(current);
                 DBFunc.removeDenied(current, uuid);
             } else {
                 return false;
@@ -213,6 +219,7 @@ public class PlotHandler {
     public static boolean removeMember(Plot plot, UUID uuid) {
         for (Plot current : MainUtil.getConnectedPlots(plot)) {
             if (current.getMembers().remove(uuid)) {
+                PS.get().reindexPlot(current);
                 DBFunc.removeMember(current, uuid);
             } else {
                 return false;
@@ -224,6 +231,7 @@ public class PlotHandler {
     public static boolean removeTrusted(Plot plot, UUID uuid) {
         for (Plot current : MainUtil.getConnectedPlots(plot)) {
             if (current.getTrusted().remove(uuid)) {
+                PS.get().reindexPlot(current);
                 DBFunc.removeTrusted(current, uuid);
             } else {
                 return false;
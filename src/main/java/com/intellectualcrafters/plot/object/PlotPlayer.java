@@ -1,5 +1,6 @@
 package com.intellectualcrafters.plot.object;
 
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
@@ -203,6 +204,16 @@ public abstract class PlotPlayer implements CommandCaller {
     @Override
     public abstract boolean hasPermission(final String perm);
     
+    /**
+     * Get all the permissions set for the player (used to compile their permissions, see PermissionTree)<br>
+     *  - Permissions which are not in the map must not be granted to the player<br>
+     *  - Returns null if the permissions can't be listed, in which case each permission is checked with hasPermission
+     * @return permission -&gt; value, or null
+     */
+    public Map<String, Boolean> getEffectivePermissions() {
+        return null;
+    }
+    
     /**
      * Send the player a message
      */
@@ -331,7 +342,8 @@ public abstract class PlotPlayer implements CommandCaller {
             }
         }
         String name = getName();
-        ExpireManager.dates.put(getUUID(), System.currentTimeMillis());
+        ExpireManager.setLastSeen(getUUID(), System.currentTimeMillis());
+        ExpireManager.saveLastSeen();
         SetupUtils.setupMap.remove(name);
         CmdConfirm.removePending(name);
         UUIDHandler.getPlayers().remove(name);
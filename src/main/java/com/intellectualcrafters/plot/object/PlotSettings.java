@@ -28,6 +28,7 @@ import java.util.UUID;
 
 import com.intellectualcrafters.plot.flag.Flag;
 import com.intellectualcrafters.plot.flag.FlagManager;
+import com.intellectualcrafters.plot.flag.FlagMap;
 import com.intellectualcrafters.plot.object.comment.PlotComment;
 
 /**
@@ -80,7 +81,7 @@ public class PlotSettings {
      *
      */
     public PlotSettings() {
-        flags = new HashMap<>();
+        flags = new FlagMap();
     }
     
     /**
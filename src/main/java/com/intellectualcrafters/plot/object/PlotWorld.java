@@ -27,6 +27,7 @@ import com.intellectualcrafters.plot.config.ConfigurationNode;
 import com.intellectualcrafters.plot.config.Settings;
 import com.intellectualcrafters.plot.flag.Flag;
 import com.intellectualcrafters.plot.flag.FlagManager;
+import com.intellectualcrafters.plot.flag.FlagMap;
 import com.intellectualcrafters.plot.util.EconHandler;
 import com.intellectualcrafters.plot.util.PlotGamemode;
 import com.intellectualcrafters.plot.util.StringMan;
@@ -213,7 +214,7 @@ public abstract class PlotWorld {
         } catch (final Exception e) {
             e.printStackTrace();
             PS.debug("&cInvalid default flags for " + worldname + ": " + StringMan.join(flags, ","));
-            DEFAULT_FLAGS = new HashMap<>();
+            DEFAULT_FLAGS = new FlagMap();
         }
         SPAWN_EGGS = config.getBoolean("event.spawn.egg");
         SPAWN_CUSTOM = config.getBoolean("event.spawn.custom");
@@ -0,0 +1,220 @@
+package com.intellectualcrafters.plot.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.intellectualcrafters.plot.PS;
+import com.intellectualcrafters.plot.object.Plot;
+import com.intellectualcrafters.plot.object.PlotAnalysis;
+import com.intellectualcrafters.plot.object.PlotId;
+
+/**
+ * Cache of plot analysis results, so plots which have not changed are not analyzed again<br>
+ *  - Each (base) plot has a modification counter, which is bumped when blocks in it are changed<br>
+ *  - A result is only used if no modification happened since the analysis started<br>
+ *  - Results are saved to a small binary file, and are dropped as soon as the plot is modified
+ */
+public class AnalysisCache {
+    
+    private static final int VERSION = 1;
+    
+    private static final ConcurrentHashMap<String, ConcurrentHashMap<PlotId, Entry>> worlds = new ConcurrentHashMap<>();
+    
+    private static volatile boolean dirty = false;
+    
+    private static class Entry {
+        private final AtomicInteger modifications = new AtomicInteger();
+        private volatile int epoch;
+        private volatile int[] values;
+    }
+    
+    private static Entry getEntry(final Plot plot, final boolean create) {
+        final Plot base = plot.getBasePlot(false);
+        ConcurrentHashMap<PlotId, Entry> map = worlds.get(base.world);
+        if (map == null) {
+            if (!create) {
+                return null;
+            }
+            map = new ConcurrentHashMap<>();
+            final ConcurrentHashMap<PlotId, Entry> existing = worlds.putIfAbsent(base.world, map);
+            if (existing != null) {
+                map = existing;
+            }
+        }
+        final PlotId id = base.getId();
+        Entry entry = map.get(id);
+        if ((entry == null) && create) {
+            entry = new Entry();
+            // Copy the id, as plot ids are modified when plots are moved or swapped
+            final Entry existing = map.putIfAbsent(new PlotId(id.x, id.y), entry);
+            if (existing != null) {
+                entry = existing;
+            }
+        }
+        return entry;
+    }
+    
+    /**
+     * Get the modification counter of a plot (call this before starting an analysis)
+     * @param plot
+     * @return
+     */
+    public static int getModifications(final Plot plot) {
+        final Entry entry = getEntry(plot, false);
+        return entry == null ? 0 : entry.modifications.get();
+    }
+    
+    /**
+     * Mark a plot as modified, dropping any cached result
+     * @param plot
+     */
+    public static void modified(final Plot plot) {
+        final Entry entry = getEntry(plot, true);
+        entry.modifications.incrementAndGet();
+        if (entry.values != null) {
+            entry.values = null;
+            dirty = true;
+        }
+    }
+    
+    /**
+     * Get the cached analysis for a plot
+     * @param plot
+     * @return The analysis, or null if the plot was modified since it was analyzed
+     */
+    public static PlotAnalysis get(final Plot plot) {
+        final Entry entry = getEntry(plot, false);
+        if (entry == null) {
+            return null;
+        }
+        final int[] values = entry.values;
+        if ((values == null) || (entry.epoch != entry.modifications.get())) {
+            return null;
+        }
+        final PlotAnalysis analysis = new PlotAnalysis();
+        analysis.changes = values[0];
+        analysis.faces = values[1];
+        analysis.data = values[2];
+        analysis.air = values[3];
+        analysis.variety = values[4];
+        analysis.changes_sd = values[5];
+        analysis.faces_sd = values[6];
+        analysis.data_sd = values[7];
+        analysis.air_sd = values[8];
+        analysis.variety_sd = values[9];
+        return analysis;
+    }
+    
+    /**
+     * Cache the result of an analysis
+     * @param plot
+     * @param epoch The modification counter from when the analysis started
+     * @param analysis
+     */
+    public static void put(final Plot plot, final int epoch, final PlotAnalysis analysis) {
+        final Entry entry = getEntry(plot, true);
+        if (entry.modifications.get() != epoch) {
+            // Modified while being analyzed
+            return;
+        }
+        entry.values = new int[] { analysis.changes, analysis.faces, analysis.data, analysis.air, analysis.variety, analysis.changes_sd, analysis.faces_sd, analysis.data_sd, analysis.air_sd,
+        analysis.variety_sd };
+        entry.epoch = epoch;
+        dirty = true;
+    }
+    
+    /**
+     * Load the cached results from a file
+     * @param file
+     */
+    public static void load(final File file) {
+        if (!file.exists()) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != VERSION) {
+                return;
+            }
+            final int size = in.readInt();
+            for (int i = 0; i < size; i++) {
+                final String world = in.readUTF();
+                final PlotId id = new PlotId(in.readInt(), in.readInt());
+                final int[] values = new int[10];
+                for (int j = 0; j < values.length; j++) {
+                    values[j] = in.readInt();
+                }
+                ConcurrentHashMap<PlotId, Entry> map = worlds.get(world);
+                if (map == null) {
+                    map = new ConcurrentHashMap<>();
+                    worlds.put(world, map);
+                }
+                final Entry entry = new Entry();
+                entry.values = values;
+                map.put(id, entry);
+            }
+        } catch (final IOException e) {
+            PS.debug("&cFailed to load the plot analysis cache: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Save the cached results to a file, if anything changed since the last save
+     * @param file
+     */
+    public static synchronized void save(final File file) {
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+        final ArrayList<String> names = new ArrayList<>();
+        final ArrayList<PlotId> ids = new ArrayList<>();
+        final ArrayList<int[]> results = new ArrayList<>();
+        for (final Map.Entry<String, ConcurrentHashMap<PlotId, Entry>> world : worlds.entrySet()) {
+            for (final Map.Entry<PlotId, Entry> plot : world.getValue().entrySet()) {
+                final Entry entry = plot.getValue();
+                final int[] values = entry.values;
+                if ((values != null) && (entry.epoch == entry.modifications.get())) {
+                    names.add(world.getKey());
+                    ids.add(plot.getKey());
+                    results.add(values);
+                }
+            }
+        }
+        final File tmp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(VERSION);
+            out.writeInt(results.size());
+            for (int i = 0; i < results.size(); i++) {
+                out.writeUTF(names.get(i));
+                out.writeInt(ids.get(i).x);
+                out.writeInt(ids.get(i).y);
+                for (final int value : results.get(i)) {
+                    out.writeInt(value);
+                }
+            }
+        } catch (final IOException e) {
+            PS.debug("&cFailed to save the plot analysis cache: " + e.getMessage());
+            dirty = true;
+            return;
+        }
+        if (file.exists() && !file.delete()) {
+            PS.debug("&cFailed to replace the plot analysis cache: " + file);
+            dirty = true;
+            return;
+        }
+        if (!tmp.renameTo(file)) {
+            PS.debug("&cFailed to replace the plot analysis cache: " + file);
+            dirty = true;
+        }
+    }
+}
@@ -39,6 +39,67 @@ public abstract class BlockManager {
     
     public abstract void functionSetBlock(final String worldname, final int x, final int y, final int z, final int id, final byte data);
     
+    /**
+     * Set the blocks of a chunk section (16x16x16), see {@link #setSection}
+     * @param worldname
+     * @param cx chunk x
+     * @param cy section y (0-15)
+     * @param cz chunk z
+     * @param section
+     * @param count The number of non 0 values
+     * @param deadline The time to stop at, or -1 to set every block
+     * @return The number of values left in the section
+     */
+    public int functionSetSection(final String worldname, final int cx, final int cy, final int cz, final char[] section, final int count, final long deadline) {
+        return setSection(cx, cy, cz, section, count, deadline, new SectionSetter() {
+            @Override
+            public void set(final int x, final int y, final int z, final int id, final byte data) {
+                functionSetBlock(worldname, x, y, z, id, data);
+            }
+        });
+    }
+    
+    /**
+     * Receives each block of a section, see {@link BlockManager#setSection}
+     */
+    public interface SectionSetter {
+        void set(final int x, final int y, final int z, final int id, final byte data);
+    }
+    
+    /**
+     * Set the blocks of a chunk section (16x16x16) with a setter<br>
+     *  - The values are packed with {@link SetBlockQueue#encode(int, byte)}, indexed by (y << 8) | (z << 4) | x<br>
+     *  - Values of 0 are left unchanged, and values are cleared once set (so a section stopped at the deadline can be
+     *    continued)<br>
+     *  - The deadline is checked every 256 blocks, so at least 256 blocks are set per call
+     * @param cx chunk x
+     * @param cy section y (0-15)
+     * @param cz chunk z
+     * @param section
+     * @param count The number of non 0 values
+     * @param deadline The time to stop at, or -1 to set every block
+     * @param setter
+     * @return The number of values left in the section
+     */
+    public static int setSection(final int cx, final int cy, final int cz, final char[] section, final int count, final long deadline, final SectionSetter setter) {
+        final int bx = cx << 4;
+        final int by = cy << 4;
+        final int bz = cz << 4;
+        int remaining = count;
+        for (int i = 0; (i < 4096) && (remaining > 0); i++) {
+            final char value = section[i];
+            if (value != 0) {
+                setter.set(bx + (i & 15), by | (i >> 8), bz + ((i >> 4) & 15), SetBlockQueue.decodeId(value), SetBlockQueue.decodeData(value));
+                section[i] = 0;
+                remaining--;
+                if ((deadline != -1) && (((count - remaining) & 255) == 0) && (remaining > 0) && (System.currentTimeMillis() > deadline)) {
+                    return remaining;
+                }
+            }
+        }
+        return 0;
+    }
+    
     public abstract void functionSetBiomes(final String worldname, final int[] x, final int z[], final String biome);
     
     public static void setBiomes(final String worldname, final int[] x, final int z[], final String biome) {
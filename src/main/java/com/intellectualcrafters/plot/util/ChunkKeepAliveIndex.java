@@ -0,0 +1,341 @@
+package com.intellectualcrafters.plot.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Index of the chunks which are close to a player, used to pick chunks to unload<br>
+ *  - Each player keeps the square of chunks within the radius around them alive<br>
+ *  - The index is updated when a player crosses into another chunk (only the cells entering and leaving the square are
+ *    touched) and when they leave<br>
+ *  - Chunks are keyed by their packed coordinates (see getKey), so lookups don't allocate<br>
+ *  - A loaded chunk which is not kept alive remembers when it was first seen idle (see getIdleSince), until it
+ *    unloads<br>
+ *  - Not thread safe, only use from the main thread
+ */
+public class ChunkKeepAliveIndex {
+    
+    private final int radius;
+    private final HashMap<String, Table> worlds = new HashMap<>();
+    private final HashMap<Object, Viewer> viewers = new HashMap<>();
+    
+    private static class Viewer {
+        private String world;
+        private int x;
+        private int z;
+    }
+    
+    /**
+     * @param radius The number of chunks around a player to keep alive
+     */
+    public ChunkKeepAliveIndex(final int radius) {
+        this.radius = radius;
+    }
+    
+    public int getRadius() {
+        return radius;
+    }
+    
+    public static long getKey(final int x, final int z) {
+        return (((long) x) << 32) | (z & 0xFFFFFFFFL);
+    }
+    
+    /**
+     * Set the chunk a player is in
+     * @param player The player key (e.g. their UUID)
+     * @param world
+     * @param x chunk x
+     * @param z chunk z
+     */
+    public void update(final Object player, final String world, final int x, final int z) {
+        Viewer viewer = viewers.get(player);
+        if (viewer == null) {
+            viewer = new Viewer();
+            viewers.put(player, viewer);
+        } else if ((viewer.x == x) && (viewer.z == z) && viewer.world.equals(world)) {
+            return;
+        }
+        final long now = System.currentTimeMillis();
+        if ((viewer.world != null) && viewer.world.equals(world)) {
+            final Table table = getTable(world);
+            // leaving cells
+            for (int cx = viewer.x - radius; cx <= (viewer.x + radius); cx++) {
+                final boolean inX = Math.abs(cx - x) <= radius;
+                for (int cz = viewer.z - radius; cz <= (viewer.z + radius); cz++) {
+                    if (!inX || (Math.abs(cz - z) > radius)) {
+                        table.add(getKey(cx, cz), -1, now);
+                    }
+                }
+            }
+            // entering cells
+            for (int cx = x - radius; cx <= (x + radius); cx++) {
+                final boolean inX = Math.abs(cx - viewer.x) <= radius;
+                for (int cz = z - radius; cz <= (z + radius); cz++) {
+                    if (!inX || (Math.abs(cz - viewer.z) > radius)) {
+                        table.add(getKey(cx, cz), 1, now);
+                    }
+                }
+            }
+        } else {
+            if (viewer.world != null) {
+                setSquare(viewer, -1, now);
+            }
+            viewer.world = world;
+            viewer.x = x;
+            viewer.z = z;
+            setSquare(viewer, 1, now);
+            return;
+        }
+        viewer.x = x;
+        viewer.z = z;
+    }
+    
+    /**
+     * Remove a player (e.g. when they quit)
+     * @param player
+     */
+    public void remove(final Object player) {
+        final Viewer viewer = viewers.remove(player);
+        if ((viewer != null) && (viewer.world != null)) {
+            setSquare(viewer, -1, System.currentTimeMillis());
+        }
+    }
+    
+    private void setSquare(final Viewer viewer, final int delta, final long now) {
+        final Table table = getTable(viewer.world);
+        for (int cx = viewer.x - radius; cx <= (viewer.x + radius); cx++) {
+            for (int cz = viewer.z - radius; cz <= (viewer.z + radius); cz++) {
+                table.add(getKey(cx, cz), delta, now);
+            }
+        }
+    }
+    
+    /**
+     * If any player is within the radius of a chunk
+     * @param world
+     * @param x
+     * @param z
+     * @return
+     */
+    public boolean isAlive(final String world, final int x, final int z) {
+        final Table table = worlds.get(world);
+        if (table == null) {
+            return false;
+        }
+        final int slot = table.find(getKey(x, z));
+        return (slot != -1) && (table.counts[slot] > 0);
+    }
+    
+    /**
+     * Get when a chunk was first seen idle (no player within the radius)<br>
+     *  - Chunks are considered idle from the first time this is called while no player is within the radius
+     * @param world
+     * @param x
+     * @param z
+     * @param now The current time
+     * @return The time it became idle, or -1 if a player is within the radius
+     */
+    public long getIdleSince(final String world, final int x, final int z, final long now) {
+        final Table table = getTable(world);
+        final long key = getKey(x, z);
+        int slot = table.find(key);
+        if (slot == -1) {
+            table.add(key, 0, now);
+            slot = table.find(key);
+        }
+        return table.counts[slot] > 0 ? -1 : table.since[slot];
+    }
+    
+    /**
+     * If there are any players in a world
+     * @param world
+     * @return
+     */
+    public boolean hasPlayers(final String world) {
+        for (final Viewer viewer : viewers.values()) {
+            if (world.equals(viewer.world)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Get the distance (in chunks, along the furthest axis) to the nearest player in a world
+     * @param world
+     * @param x
+     * @param z
+     * @return The distance, or Integer.MAX_VALUE if there are no players in the world
+     */
+    public int getDistance(final String world, final int x, final int z) {
+        int distance = Integer.MAX_VALUE;
+        for (final Viewer viewer : viewers.values()) {
+            if (world.equals(viewer.world)) {
+                final int d = Math.max(Math.abs(viewer.x - x), Math.abs(viewer.z - z));
+                if (d < distance) {
+                    distance = d;
+                }
+            }
+        }
+        return distance;
+    }
+    
+    /**
+     * Forget the idle time of a chunk (e.g. when it unloads)
+     * @param world
+     * @param x
+     * @param z
+     */
+    public void unloaded(final String world, final int x, final int z) {
+        final Table table = worlds.get(world);
+        if (table == null) {
+            return;
+        }
+        final int slot = table.find(getKey(x, z));
+        if ((slot != -1) && (table.counts[slot] <= 0)) {
+            table.delete(slot);
+        }
+    }
+    
+    private Table getTable(final String world) {
+        Table table = worlds.get(world);
+        if (table == null) {
+            table = new Table();
+            worlds.put(world, table);
+        }
+        return table;
+    }
+    
+    /**
+     * Open addressing (linear probing) map of chunk key -&gt; (players in range, idle since)
+     */
+    private static class Table {
+        private long[] keys = new long[64];
+        private int[] counts = new int[64];
+        private long[] since = new long[64];
+        private boolean[] used = new boolean[64];
+        private int size;
+        
+        private int slot(final long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            h ^= (h >>> 32);
+            return ((int) h) & (keys.length - 1);
+        }
+        
+        private int find(final long key) {
+            int slot = slot(key);
+            while (used[slot]) {
+                if (keys[slot] == key) {
+                    return slot;
+                }
+                slot = (slot + 1) & (keys.length - 1);
+            }
+            return -1;
+        }
+        
+        /**
+         * Add to the player count of a chunk<br>
+         *  - Chunks whose count drops to 0 are removed (so the cells players walk past aren't kept)
+         */
+        private void add(final long key, final int delta, final long now) {
+            int slot = slot(key);
+            while (used[slot]) {
+                if (keys[slot] == key) {
+                    final int count = counts[slot] + delta;
+                    if (count <= 0) {
+                        delete(slot);
+                    } else {
+                        counts[slot] = count;
+                    }
+                    return;
+                }
+                slot = (slot + 1) & (keys.length - 1);
+            }
+            if (delta < 0) {
+                return;
+            }
+            used[slot] = true;
+            keys[slot] = key;
+            counts[slot] = delta;
+            since[slot] = now;
+            if (++size > ((keys.length * 3) >> 2)) {
+                grow();
+            }
+        }
+        
+        /**
+         * Remove a slot, shifting back any entries after it which would no longer be found
+         */
+        private void delete(int slot) {
+            final int mask = keys.length - 1;
+            used[slot] = false;
+            size--;
+            int next = (slot + 1) & mask;
+            while (used[next]) {
+                final int home = slot(keys[next]);
+                // move the entry back if its home isn't between the hole and its current slot
+                if (((next > slot) && ((home <= slot) || (home > next))) || ((next < slot) && ((home <= slot) && (home > next)))) {
+                    keys[slot] = keys[next];
+                    counts[slot] = counts[next];
+                    since[slot] = since[next];
+                    used[slot] = true;
+                    used[next] = false;
+                    slot = next;
+                }
+                next = (next + 1) & mask;
+            }
+        }
+        
+        private void grow() {
+            final long[] oldKeys = keys;
+            final int[] oldCounts = counts;
+            final long[] oldSince = since;
+            final boolean[] oldUsed = used;
+            final int length = oldKeys.length << 1;
+            keys = new long[length];
+            counts = new int[length];
+            since = new long[length];
+            used = new boolean[length];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldUsed[i]) {
+                    int slot = slot(oldKeys[i]);
+                    while (used[slot]) {
+                        slot = (slot + 1) & (length - 1);
+                    }
+                    used[slot] = true;
+                    keys[slot] = oldKeys[i];
+                    counts[slot] = oldCounts[i];
+                    since[slot] = oldSince[i];
+                }
+            }
+        }
+    }
+    
+    /**
+     * Sort the candidates for unloading<br>
+     *  - Each candidate is packed as (idle seconds, distance, index), see packCandidate<br>
+     *  - After sorting, the best candidates (idle the longest, then furthest away) are at the end
+     * @param candidates
+     * @param size
+     */
+    public static void sortCandidates(final long[] candidates, final int size) {
+        Arrays.sort(candidates, 0, size);
+    }
+    
+    /**
+     * Pack an unload candidate into a long (so a list of candidates can be sorted without allocating)
+     * @param idleMillis How long the chunk has been idle
+     * @param distance The distance to the nearest player
+     * @param index The index of the chunk (&lt; 2^20)
+     * @return
+     */
+    public static long packCandidate(final long idleMillis, final int distance, final int index) {
+        final long seconds = Math.min(idleMillis / 1000, (1L << 27) - 1);
+        final long d = Math.min(Math.max(distance, 0), 0xFFFF);
+        return (seconds << 36) | (d << 20) | (index & 0xFFFFF);
+    }
+    
+    public static int getCandidateIndex(final long candidate) {
+        return (int) (candidate & 0xFFFFF);
+    }
+}
@@ -2,30 +2,73 @@ package com.intellectualcrafters.plot.util;
 
 import java.io.File;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.intellectualcrafters.plot.PS;
 import com.intellectualcrafters.plot.object.ChunkLoc;
 import com.intellectualcrafters.plot.object.ConsolePlayer;
+import com.intellectualcrafters.plot.object.GenerationContext;
 import com.intellectualcrafters.plot.object.Location;
 import com.intellectualcrafters.plot.object.Plot;
 import com.intellectualcrafters.plot.object.PlotBlock;
-import com.intellectualcrafters.plot.object.PlotLoc;
-import com.intellectualcrafters.plot.object.RegionWrapper;
 import com.intellectualcrafters.plot.object.RunnableVal;
 import com.intellectualcrafters.plot.util.SetBlockQueue.ChunkWrapper;
 
 public abstract class ChunkManager {
     
     public static ChunkManager manager = null;
-    public static RegionWrapper CURRENT_PLOT_CLEAR = null;
-    public static boolean FORCE_PASTE = false;
     
-    public static HashMap<PlotLoc, HashMap<Short, Short>> GENERATE_BLOCKS = new HashMap<>();
-    public static HashMap<PlotLoc, HashMap<Short, Byte>> GENERATE_DATA = new HashMap<>();
+    /**
+     * The generation context of each chunk currently being regenerated (world, chunk)
+     */
+    private static final ConcurrentHashMap<String, ConcurrentHashMap<ChunkLoc, GenerationContext>> contexts = new ConcurrentHashMap<>();
+    
+    /**
+     * Register the generation context for a chunk, to be used while it is regenerated
+     * @param loc
+     * @param context
+     */
+    public static void setContext(final ChunkLoc loc, final GenerationContext context) {
+        ConcurrentHashMap<ChunkLoc, GenerationContext> map = contexts.get(context.world);
+        if (map == null) {
+            map = new ConcurrentHashMap<>();
+            final ConcurrentHashMap<ChunkLoc, GenerationContext> existing = contexts.putIfAbsent(context.world, map);
+            if (existing != null) {
+                map = existing;
+            }
+        }
+        map.put(new ChunkLoc(loc.x, loc.z), context);
+    }
+    
+    /**
+     * Remove the generation context of a chunk (only if it is still the given context)
+     * @param loc
+     * @param context
+     */
+    public static void removeContext(final ChunkLoc loc, final GenerationContext context) {
+        final ConcurrentHashMap<ChunkLoc, GenerationContext> map = contexts.get(context.world);
+        if (map != null) {
+            map.remove(loc, context);
+        }
+    }
+    
+    /**
+     * Get the generation context of a chunk
+     * @param world
+     * @param cx
+     * @param cz
+     * @return The context, or null if the chunk is not being regenerated by PlotSquared
+     */
+    public static GenerationContext getContext(final String world, final int cx, final int cz) {
+        final ConcurrentHashMap<ChunkLoc, GenerationContext> map = contexts.get(world);
+        if ((map == null) || map.isEmpty()) {
+            return null;
+        }
+        return map.get(new ChunkLoc(cx, cz));
+    }
     
     public static ChunkLoc getChunkChunk(final Location loc) {
         final int x = loc.getX() >> 9;
@@ -58,10 +101,13 @@ public abstract class ChunkManager {
             }
         }
         
+        // The task runs over several ticks, so the blocks it queues are kept in the caller's job (see SetBlockQueue.setJob)
+        final String job = SetBlockQueue.getJob();
         TaskManager.runTask(new Runnable() {
             @Override
             public void run() {
                 final long start = System.currentTimeMillis();
+                SetBlockQueue.setJob(job);
                 while ((chunks.size() > 0) && ((System.currentTimeMillis() - start) < allocate)) {
                     final ChunkLoc chunk = chunks.remove(0);
                     task.value = new int[7];
@@ -89,6 +135,7 @@ public abstract class ChunkManager {
                     }
                     task.run();
                 }
+                SetBlockQueue.setJob(null);
                 if (chunks.size() != 0) {
                     TaskManager.runTaskLater(this, 1);
                 } else {
@@ -140,6 +187,20 @@ public abstract class ChunkManager {
     
     public abstract void regenerateChunk(final String world, final ChunkLoc loc);
     
+    /**
+     * Regenerate a chunk with a generation context (e.g. the region being cleared)
+     * @param loc
+     * @param context
+     */
+    public void regenerateChunk(final ChunkLoc loc, final GenerationContext context) {
+        setContext(loc, context);
+        try {
+            regenerateChunk(context.world, loc);
+        } finally {
+            removeContext(loc, context);
+        }
+    }
+    
     public void deleteRegionFiles(String world, List<ChunkLoc> chunks) {
         deleteRegionFiles(world, chunks, null);
     }
@@ -0,0 +1,166 @@
+package com.intellectualcrafters.plot.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Index of the players who can see each chunk, used to send changed chunks only to the players viewing them<br>
+ *  - Each player views the square of chunks within the radius around them<br>
+ *  - The index is updated when a player crosses into another chunk (only the cells entering and leaving the square are
+ *    touched) and when they leave<br>
+ *  - Chunks are keyed by their packed coordinates (see {@link ChunkKeepAliveIndex#getKey(int, int)})<br>
+ *  - Not thread safe, only use from the main thread
+ */
+public class ChunkViewerIndex {
+    
+    private final int radius;
+    private final HashMap<String, HashMap<Long, ArrayList<Object>>> worlds = new HashMap<>();
+    private final HashMap<Object, Viewer> viewers = new HashMap<>();
+    
+    private static class Viewer {
+        private String world;
+        private int x;
+        private int z;
+    }
+    
+    /**
+     * @param radius The number of chunks around a player they can see
+     */
+    public ChunkViewerIndex(final int radius) {
+        this.radius = radius;
+    }
+    
+    public int getRadius() {
+        return radius;
+    }
+    
+    /**
+     * Set the chunk a player is in
+     * @param player The player object (returned by getViewers)
+     * @param world
+     * @param x chunk x
+     * @param z chunk z
+     */
+    public void update(final Object player, final String world, final int x, final int z) {
+        Viewer viewer = viewers.get(player);
+        if (viewer == null) {
+            viewer = new Viewer();
+            viewers.put(player, viewer);
+        } else if ((viewer.x == x) && (viewer.z == z) && viewer.world.equals(world)) {
+            return;
+        }
+        if ((viewer.world == null) || !viewer.world.equals(world)) {
+            if (viewer.world != null) {
+                setSquare(player, viewer, false);
+            }
+            viewer.world = world;
+            viewer.x = x;
+            viewer.z = z;
+            setSquare(player, viewer, true);
+            return;
+        }
+        final HashMap<Long, ArrayList<Object>> chunks = getChunks(world);
+        // leaving cells
+        for (int cx = viewer.x - radius; cx <= (viewer.x + radius); cx++) {
+            final boolean inX = Math.abs(cx - x) <= radius;
+            for (int cz = viewer.z - radius; cz <= (viewer.z + radius); cz++) {
+                if (!inX || (Math.abs(cz - z) > radius)) {
+                    remove(chunks, ChunkKeepAliveIndex.getKey(cx, cz), player);
+                }
+            }
+        }
+        // entering cells
+        for (int cx = x - radius; cx <= (x + radius); cx++) {
+            final boolean inX = Math.abs(cx - viewer.x) <= radius;
+            for (int cz = z - radius; cz <= (z + radius); cz++) {
+                if (!inX || (Math.abs(cz - viewer.z) > radius)) {
+                    add(chunks, ChunkKeepAliveIndex.getKey(cx, cz), player);
+                }
+            }
+        }
+        viewer.x = x;
+        viewer.z = z;
+    }
+    
+    /**
+     * Remove a player (e.g. when they quit)
+     * @param player
+     */
+    public void remove(final Object player) {
+        final Viewer viewer = viewers.remove(player);
+        if ((viewer != null) && (viewer.world != null)) {
+            setSquare(player, viewer, false);
+        }
+    }
+    
+    /**
+     * Get the players who can see a chunk
+     * @param world
+     * @param x chunk x
+     * @param z chunk z
+     * @return The players (do not modify), or an empty list
+     */
+    public List<Object> getViewers(final String world, final int x, final int z) {
+        final HashMap<Long, ArrayList<Object>> chunks = worlds.get(world);
+        if (chunks == null) {
+            return Collections.emptyList();
+        }
+        final ArrayList<Object> players = chunks.get(ChunkKeepAliveIndex.getKey(x, z));
+        if (players == null) {
+            return Collections.emptyList();
+        }
+        return players;
+    }
+    
+    private void setSquare(final Object player, final Viewer viewer, final boolean add) {
+        final HashMap<Long, ArrayList<Object>> chunks = getChunks(viewer.world);
+        for (int cx = viewer.x - radius; cx <= (viewer.x + radius); cx++) {
+            for (int cz = viewer.z - radius; cz <= (viewer.z + radius); cz++) {
+                if (add) {
+                    add(chunks, ChunkKeepAliveIndex.getKey(cx, cz), player);
+                } else {
+                    remove(chunks, ChunkKeepAliveIndex.getKey(cx, cz), player);
+                }
+            }
+        }
+    }
+    
+    private static void add(final HashMap<Long, ArrayList<Object>> chunks, final long key, final Object player) {
+        ArrayList<Object> players = chunks.get(key);
+        if (players == null) {
+            players = new ArrayList<>(1);
+            chunks.put(key, players);
+        }
+        players.add(player);
+    }
+    
+    /**
+     * Remove a player from a chunk, and the chunk once no one can see it
+     */
+    private static void remove(final HashMap<Long, ArrayList<Object>> chunks, final long key, final Object player) {
+        final ArrayList<Object> players = chunks.get(key);
+        if (players == null) {
+            return;
+        }
+        for (int i = 0; i < players.size(); i++) {
+            if (players.get(i).equals(player)) {
+                players.remove(i);
+                break;
+            }
+        }
+        if (players.isEmpty()) {
+            chunks.remove(key);
+        }
+    }
+    
+    private HashMap<Long, ArrayList<Object>> getChunks(final String world) {
+        HashMap<Long, ArrayList<Object>> chunks = worlds.get(world);
+        if (chunks == null) {
+            chunks = new HashMap<>();
+            worlds.put(world, chunks);
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,203 @@
+package com.intellectualcrafters.plot.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map.Entry;
+
+import com.intellectualcrafters.plot.object.PlotCluster;
+import com.intellectualcrafters.plot.object.PlotId;
+
+/**
+ * Spatial index of the clusters in a world, used by {@link ClusterManager}<br>
+ *  - The plot grid is split into square cells of 2^CELL_SHIFT plots, each cell lists the clusters overlapping it<br>
+ *  - Clusters overlapping more than MAX_CELLS cells are kept in a separate list which is always checked (there are
+ *    normally few of them)<br>
+ *  - Clusters are also indexed by name<br>
+ *  - A cluster is indexed with the bounds it had when it was added, so it must be removed before it is resized and added
+ *    again after
+ */
+public class ClusterIndex {
+    
+    private static final int CELL_SHIFT = 4;
+    private static final int MAX_CELLS = 64;
+    
+    private final HashMap<Long, ArrayList<PlotCluster>> cells = new HashMap<>();
+    private final ArrayList<PlotCluster> large = new ArrayList<>();
+    private final HashMap<String, PlotCluster> names = new HashMap<>();
+    /**
+     * The bounds each cluster was indexed with (p1.x, p1.y, p2.x, p2.y)
+     */
+    private final IdentityHashMap<PlotCluster, int[]> bounds = new IdentityHashMap<>();
+    
+    private static long getKey(final int cx, final int cy) {
+        return (((long) cx) << 32) | (cy & 0xFFFFFFFFL);
+    }
+    
+    private static long getCells(final int[] b) {
+        final long width = ((b[2] >> CELL_SHIFT) - (b[0] >> CELL_SHIFT)) + 1L;
+        final long height = ((b[3] >> CELL_SHIFT) - (b[1] >> CELL_SHIFT)) + 1L;
+        return width * height;
+    }
+    
+    private static boolean isLarge(final int[] b) {
+        return getCells(b) > MAX_CELLS;
+    }
+    
+    public int size() {
+        return bounds.size();
+    }
+    
+    public void add(final PlotCluster cluster) {
+        if (bounds.containsKey(cluster)) {
+            remove(cluster);
+        }
+        final PlotId p1 = cluster.getP1();
+        final PlotId p2 = cluster.getP2();
+        final int[] b = new int[] { Math.min(p1.x, p2.x), Math.min(p1.y, p2.y), Math.max(p1.x, p2.x), Math.max(p1.y, p2.y) };
+        bounds.put(cluster, b);
+        final String name = cluster.getName();
+        if (name != null) {
+            names.put(name, cluster);
+        }
+        if (isLarge(b)) {
+            large.add(cluster);
+            return;
+        }
+        for (int cx = b[0] >> CELL_SHIFT; cx <= (b[2] >> CELL_SHIFT); cx++) {
+            for (int cy = b[1] >> CELL_SHIFT; cy <= (b[3] >> CELL_SHIFT); cy++) {
+                final long key = getKey(cx, cy);
+                ArrayList<PlotCluster> cell = cells.get(key);
+                if (cell == null) {
+                    cell = new ArrayList<>(1);
+                    cells.put(key, cell);
+                }
+                cell.add(cluster);
+            }
+        }
+    }
+    
+    public boolean remove(final PlotCluster cluster) {
+        final int[] b = bounds.remove(cluster);
+        if (b == null) {
+            return false;
+        }
+        final String name = cluster.getName();
+        if ((name != null) && (names.get(name) == cluster)) {
+            names.remove(name);
+        }
+        if (isLarge(b)) {
+            removeIdentity(large, cluster);
+            return true;
+        }
+        for (int cx = b[0] >> CELL_SHIFT; cx <= (b[2] >> CELL_SHIFT); cx++) {
+            for (int cy = b[1] >> CELL_SHIFT; cy <= (b[3] >> CELL_SHIFT); cy++) {
+                final long key = getKey(cx, cy);
+                final ArrayList<PlotCluster> cell = cells.get(key);
+                if ((cell != null) && removeIdentity(cell, cluster) && cell.isEmpty()) {
+                    cells.remove(key);
+                }
+            }
+        }
+        return true;
+    }
+    
+    private static boolean removeIdentity(final ArrayList<PlotCluster> list, final PlotCluster cluster) {
+        for (int i = 0; i < list.size(); i++) {
+            if (list.get(i) == cluster) {
+                list.remove(i);
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Get the cluster containing a plot id
+     * @param x
+     * @param y
+     * @return
+     */
+    public PlotCluster get(final int x, final int y) {
+        final ArrayList<PlotCluster> cell = cells.get(getKey(x >> CELL_SHIFT, y >> CELL_SHIFT));
+        if (cell != null) {
+            for (int i = 0; i < cell.size(); i++) {
+                final PlotCluster cluster = cell.get(i);
+                if (contains(bounds.get(cluster), x, y)) {
+                    return cluster;
+                }
+            }
+        }
+        for (int i = 0; i < large.size(); i++) {
+            final PlotCluster cluster = large.get(i);
+            if (contains(bounds.get(cluster), x, y)) {
+                return cluster;
+            }
+        }
+        return null;
+    }
+    
+    private static boolean contains(final int[] b, final int x, final int y) {
+        return (b[0] <= x) && (b[1] <= y) && (b[2] >= x) && (b[3] >= y);
+    }
+    
+    /**
+     * Get a cluster by its name
+     * @param name
+     * @return
+     */
+    public PlotCluster get(final String name) {
+        final PlotCluster cluster = names.get(name);
+        if ((cluster != null) && name.equals(cluster.getName())) {
+            return cluster;
+        }
+        return null;
+    }
+    
+    /**
+     * Get the clusters overlapping an area of plots
+     * @param x1
+     * @param y1
+     * @param x2
+     * @param y2
+     * @return
+     */
+    public HashSet<PlotCluster> getIntersects(final int x1, final int y1, final int x2, final int y2) {
+        final HashSet<PlotCluster> result = new HashSet<>();
+        final int[] area = new int[] { Math.min(x1, x2), Math.min(y1, y2), Math.max(x1, x2), Math.max(y1, y2) };
+        if (getCells(area) > bounds.size()) {
+            // cheaper to check every cluster than every cell
+            for (final Entry<PlotCluster, int[]> entry : bounds.entrySet()) {
+                if (intersects(entry.getValue(), area)) {
+                    result.add(entry.getKey());
+                }
+            }
+            return result;
+        }
+        for (int cx = area[0] >> CELL_SHIFT; cx <= (area[2] >> CELL_SHIFT); cx++) {
+            for (int cy = area[1] >> CELL_SHIFT; cy <= (area[3] >> CELL_SHIFT); cy++) {
+                final ArrayList<PlotCluster> cell = cells.get(getKey(cx, cy));
+                if (cell != null) {
+                    for (int i = 0; i < cell.size(); i++) {
+                        final PlotCluster cluster = cell.get(i);
+                        if (intersects(bounds.get(cluster), area)) {
+                            result.add(cluster);
+                        }
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < large.size(); i++) {
+            final PlotCluster cluster = large.get(i);
+            if (intersects(bounds.get(cluster), area)) {
+                result.add(cluster);
+            }
+        }
+        return result;
+    }
+    
+    private static boolean intersects(final int[] a, final int[] b) {
+        return (a[0] <= b[2]) && (a[2] >= b[0]) && (a[1] <= b[3]) && (a[3] >= b[1]);
+    }
+}
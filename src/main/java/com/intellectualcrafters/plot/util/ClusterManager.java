@@ -27,9 +27,59 @@ import com.plotsquared.bukkit.generator.AugmentedPopulator;
 
 public class ClusterManager {
     public static HashMap<String, HashSet<PlotCluster>> clusters;
-    public static PlotCluster last;
+    /**
+     * The spatial index of the clusters in each world (see addCluster / removeCluster)
+     */
+    private static HashMap<String, ClusterIndex> indexes = new HashMap<>();
     private static HashSet<String> regenerating = new HashSet<>();
     
+    /**
+     * Set the clusters (e.g. after loading them from the database) and index them
+     * @param map
+     */
+    public static void setClusters(final HashMap<String, HashSet<PlotCluster>> map) {
+        clusters = map;
+        indexes = new HashMap<>();
+        PlotCellCache.invalidateAll();
+        if (map == null) {
+            return;
+        }
+        for (final HashSet<PlotCluster> set : map.values()) {
+            for (final PlotCluster cluster : set) {
+                getIndex(cluster.world).add(cluster);
+            }
+        }
+    }
+    
+    private static ClusterIndex getIndex(final String world) {
+        ClusterIndex index = indexes.get(world);
+        if (index == null) {
+            index = new ClusterIndex();
+            indexes.put(world, index);
+        }
+        return index;
+    }
+    
+    /**
+     * Add a cluster<br>
+     *  - A cluster being resized should be removed before its bounds are changed, and added again after<br>
+     *  - The cached plot cells of the world are invalidated, as the plots of a partial plot world depend on its clusters
+     * @param cluster
+     */
+    public static void addCluster(final PlotCluster cluster) {
+        if (clusters == null) {
+            clusters = new HashMap<>();
+        }
+        HashSet<PlotCluster> set = clusters.get(cluster.world);
+        if (set == null) {
+            set = new HashSet<>();
+            clusters.put(cluster.world, set);
+        }
+        set.add(cluster);
+        getIndex(cluster.world).add(cluster);
+        PlotCellCache.invalidate(cluster.world);
+    }
+    
     public static boolean contains(final PlotCluster cluster, final PlotId id) {
         return (cluster.getP1().x <= id.x) && (cluster.getP1().y <= id.y) && (cluster.getP2().x >= id.x) && (cluster.getP2().y >= id.y);
     }
@@ -108,15 +158,11 @@ public class ClusterManager {
     }
     
     public static PlotCluster getCluster(final String world, final String name) {
-        if (!clusters.containsKey(world)) {
+        final ClusterIndex index = indexes.get(world);
+        if (index == null) {
             return null;
         }
-        for (final PlotCluster cluster : clusters.get(world)) {
-            if (cluster.getName().equals(name)) {
-                return cluster;
-            }
-        }
-        return null;
+        return index.get(name);
     }
     
     public static boolean contains(final PlotCluster cluster, final Location loc) {
@@ -129,16 +175,11 @@ public class ClusterManager {
     }
     
     public static HashSet<PlotCluster> getIntersects(final String world, final PlotClusterId id) {
-        if (!clusters.containsKey(world)) {
+        final ClusterIndex index = indexes.get(world);
+        if (index == null) {
             return new HashSet<>(0);
         }
-        final HashSet<PlotCluster> list = new HashSet<PlotCluster>();
-        for (final PlotCluster cluster : clusters.get(world)) {
-            if (intersects(cluster, id)) {
-                list.add(cluster);
-            }
-        }
-        return list;
+        return index.getIntersects(id.pos1.x, id.pos1.y, id.pos2.x, id.pos2.y);
     }
     
     public static boolean intersects(final PlotCluster cluster, final PlotClusterId id) {
@@ -151,29 +192,40 @@ public class ClusterManager {
         return getCluster(plot.world, plot.getId());
     }
     
+    /**
+     * Get the cluster containing a location, including the roads inside the cluster
+     * @param loc
+     * @return
+     */
     public static PlotCluster getClusterAbs(final Location loc) {
         final String world = loc.getWorld();
-        if ((last != null) && last.world.equals(world)) {
-            if (contains(last, loc)) {
-                return last;
-            }
-        }
-        if (clusters == null) {
+        final ClusterIndex index = indexes.get(world);
+        if ((index == null) || (index.size() == 0)) {
             return null;
         }
-        final HashSet<PlotCluster> local = clusters.get(world);
-        if (local == null) {
+        final PlotWorld plotworld = PS.get().getPlotWorld(world);
+        final PlotManager manager = PS.get().getPlotManager(world);
+        if ((plotworld == null) || (manager == null)) {
             return null;
         }
-        for (final PlotCluster cluster : local) {
+        // the plot the location would be in (ignoring roads), only the clusters around it can contain the location
+        final Location a = manager.getPlotBottomLocAbs(plotworld, new PlotId(0, 0));
+        final Location b = manager.getPlotBottomLocAbs(plotworld, new PlotId(1, 1));
+        final int x = floorDiv(loc.getX() - a.getX(), Math.max(1, b.getX() - a.getX()));
+        final int y = floorDiv(loc.getZ() - a.getZ(), Math.max(1, b.getZ() - a.getZ()));
+        for (final PlotCluster cluster : index.getIntersects(x - 1, y - 1, x + 1, y + 1)) {
             if (contains(cluster, loc)) {
-                last = cluster;
                 return cluster;
             }
         }
         return null;
     }
     
+    private static int floorDiv(final int a, final int b) {
+        final int div = a / b;
+        return ((a % b) != 0) && ((a < 0) != (b < 0)) ? div - 1 : div;
+    }
+    
     public static PlotCluster getCluster(final Location loc) {
         final String world = loc.getWorld();
         final PlotManager manager = PS.get().getPlotManager(world);
@@ -188,28 +240,19 @@ public class ClusterManager {
     }
     
     public static PlotCluster getCluster(final String world, final PlotId id) {
-        if ((last != null) && last.world.equals(world)) {
-            if (contains(last, id)) {
-                return last;
-            }
-        }
-        if (clusters == null) {
+        final ClusterIndex index = indexes.get(world);
+        if (index == null) {
             return null;
         }
-        final HashSet<PlotCluster> local = clusters.get(world);
-        if (local == null) {
-            return null;
-        }
-        for (final PlotCluster cluster : local) {
-            if (contains(cluster, id)) {
-                last = cluster;
-                return cluster;
-            }
-        }
-        return null;
+        return index.get(id.x, id.y);
     }
     
     public static boolean removeCluster(final PlotCluster cluster) {
+        final ClusterIndex index = indexes.get(cluster.world);
+        if (index != null) {
+            index.remove(cluster);
+        }
+        PlotCellCache.invalidate(cluster.world);
         if (clusters != null) {
             if (clusters.containsKey(cluster.world)) {
                 clusters.get(cluster.world).remove(cluster);
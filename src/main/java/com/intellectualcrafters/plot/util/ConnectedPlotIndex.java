@@ -0,0 +1,120 @@
+package com.intellectualcrafters.plot.util;
+
+import java.util.HashMap;
+import java.util.HashSet;
+
+import com.intellectualcrafters.plot.object.Plot;
+import com.intellectualcrafters.plot.object.PlotId;
+import com.intellectualcrafters.plot.object.RegionWrapper;
+
+/**
+ * Index of merge groups (connected plots) for each world<br>
+ *  - Each plot id in a group maps to the same group, so lookups are a single map access<br>
+ *  - The regions of a group are calculated once, when first requested<br>
+ *  - A group is dropped when the merge state of any of its plots changes, and is rebuilt on the next lookup<br>
+ *  - All methods are safe to call from any thread
+ */
+public class ConnectedPlotIndex {
+    
+    private final HashMap<String, HashMap<PlotId, Group>> worlds = new HashMap<>();
+    
+    private static class Group {
+        private final HashSet<Plot> plots;
+        private final PlotId[] keys;
+        private HashSet<RegionWrapper> regions;
+        
+        public Group(final HashSet<Plot> plots) {
+            this.plots = plots;
+            keys = new PlotId[plots.size()];
+            int i = 0;
+            for (final Plot plot : plots) {
+                // Copy the id, as plot ids are modified when plots are moved or swapped
+                keys[i++] = new PlotId(plot.getId().x, plot.getId().y);
+            }
+        }
+    }
+    
+    private Group getGroup(final Plot plot) {
+        HashMap<PlotId, Group> map = worlds.get(plot.world);
+        if (map == null) {
+            map = new HashMap<>();
+            worlds.put(plot.world, map);
+        }
+        Group group = map.get(plot.getId());
+        if (group != null) {
+            return group;
+        }
+        group = new Group(MainUtil.findConnectedPlots(plot));
+        for (final PlotId key : group.keys) {
+            final Group previous = map.put(key, group);
+            if ((previous != null) && (previous != group)) {
+                // An invalid merge was fixed while searching
+                remove(map, previous);
+                map.put(key, group);
+            }
+        }
+        return group;
+    }
+    
+    private void remove(final HashMap<PlotId, Group> map, final Group group) {
+        for (final PlotId key : group.keys) {
+            if (map.get(key) == group) {
+                map.remove(key);
+            }
+        }
+    }
+    
+    /**
+     * Get the plots connected to a plot (including the plot itself)<br>
+     *  - The returned set is shared and must not be modified
+     * @param plot A merged plot
+     * @return
+     */
+    public synchronized HashSet<Plot> getConnectedPlots(final Plot plot) {
+        return getGroup(plot).plots;
+    }
+    
+    /**
+     * Get the regions which make up the merge group of a plot<br>
+     *  - The returned set is shared and must not be modified
+     * @param plot A merged plot
+     * @return
+     */
+    public synchronized HashSet<RegionWrapper> getRegions(final Plot plot) {
+        final Group group = getGroup(plot);
+        if (group.regions == null) {
+            group.regions = MainUtil.findRegions(plot, group.plots);
+        }
+        return group.regions;
+    }
+    
+    /**
+     * Drop the merge group containing a plot (it will be rebuilt on the next lookup)
+     * @param plot
+     */
+    public synchronized void invalidate(final Plot plot) {
+        final HashMap<PlotId, Group> map = worlds.get(plot.world);
+        if (map == null) {
+            return;
+        }
+        final Group group = map.get(plot.getId());
+        if (group != null) {
+            remove(map, group);
+        }
+    }
+    
+    /**
+     * Drop all merge groups for a world
+     * @param world
+     */
+    public synchronized void invalidate(final String world) {
+        worlds.remove(world);
+    }
+    
+    /**
+     * Drop all merge groups
+     */
+    public synchronized void clear() {
+        worlds.clear();
+    }
+}
@@ -1,10 +1,19 @@
 package com.intellectualcrafters.plot.util;
 
+import java.io.File;
+import java.io.FilenameFilter;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
@@ -12,6 +21,7 @@ import org.bukkit.OfflinePlayer;
 import com.intellectualcrafters.plot.PS;
 import com.intellectualcrafters.plot.config.C;
 import com.intellectualcrafters.plot.config.Settings;
+import com.intellectualcrafters.plot.database.DBFunc;
 import com.intellectualcrafters.plot.flag.Flag;
 import com.intellectualcrafters.plot.flag.FlagManager;
 import com.intellectualcrafters.plot.generator.HybridUtils;
@@ -24,12 +34,154 @@ import com.intellectualcrafters.plot.object.PlotWorld;
 import com.intellectualcrafters.plot.object.RunnableVal;
 
 public class ExpireManager {
-    public static ConcurrentHashMap<String, List<Plot>> expiredPlots = new ConcurrentHashMap<>();
+    /**
+     * The expired plots of each world which haven't been analyzed yet
+     */
+    public static ConcurrentHashMap<String, ConcurrentLinkedQueue<Plot>> expiredPlots = new ConcurrentHashMap<>();
     public static ConcurrentHashMap<String, Boolean> updatingPlots = new ConcurrentHashMap<>();
     public static ConcurrentHashMap<String, Long> timestamp = new ConcurrentHashMap<>();
+    /**
+     * When each player was last seen (see setLastSeen)
+     */
     public static ConcurrentHashMap<UUID, Long> dates = new ConcurrentHashMap<>();
+    /**
+     * Last seen times which haven't been saved to the database yet
+     */
+    private static ConcurrentHashMap<UUID, Long> unsaved = new ConcurrentHashMap<>();
+    private static volatile boolean seeded;
     public static int task;
     
+    /**
+     * Pipeline state (only used on the main thread, see runTask)
+     */
+    private static final ArrayDeque<Plot> pending = new ArrayDeque<>();
+    private static final HashSet<Plot> inPipeline = new HashSet<>();
+    private static final ArrayList<Plot> deleted = new ArrayList<>();
+    private static int analyzing;
+    private static int clearing;
+    private static double analysisTokens;
+    private static double clearTokens;
+    private static long lastTick;
+    
+    /**
+     * Progress counters
+     */
+    private static final AtomicLong found = new AtomicLong();
+    private static final AtomicLong analyzed = new AtomicLong();
+    private static final AtomicLong skipped = new AtomicLong();
+    private static final AtomicLong cleared = new AtomicLong();
+    
+    /**
+     * Get when a player was last seen
+     * @param uuid
+     * @return the time, or 0 if the player is not known
+     */
+    public static long getLastSeen(final UUID uuid) {
+        final Long last = dates.get(uuid);
+        return last == null ? 0 : last;
+    }
+    
+    /**
+     * Set when a player was last seen (e.g. when they join or quit)<br>
+     *  - Ignored if the player is already known to have been seen later<br>
+     *  - Saved to the database by saveLastSeen
+     * @param uuid
+     * @param time
+     */
+    public static void setLastSeen(final UUID uuid, final long time) {
+        if (putLastSeen(uuid, time)) {
+            unsaved.put(uuid, time);
+        }
+    }
+    
+    private static boolean putLastSeen(final UUID uuid, final long time) {
+        while (true) {
+            final Long last = dates.putIfAbsent(uuid, time);
+            if (last == null) {
+                return true;
+            }
+            if (last >= time) {
+                return false;
+            }
+            if (dates.replace(uuid, last, time)) {
+                return true;
+            }
+        }
+    }
+    
+    /**
+     * Load the last seen times stored in the database
+     * @param map
+     */
+    public static void loadLastSeen(final Map<UUID, Long> map) {
+        for (final Entry<UUID, Long> entry : map.entrySet()) {
+            putLastSeen(entry.getKey(), entry.getValue());
+        }
+        // The playerdata only needs to be read if the database doesn't have the times yet
+        seeded = !map.isEmpty();
+    }
+    
+    /**
+     * Queue the last seen times which changed since the last call to be saved to the database
+     */
+    public static void saveLastSeen() {
+        if (unsaved.isEmpty()) {
+            return;
+        }
+        final HashMap<UUID, Long> map = new HashMap<>();
+        for (final Entry<UUID, Long> entry : unsaved.entrySet()) {
+            final UUID uuid = entry.getKey();
+            final Long time = entry.getValue();
+            // Only remove the time which is saved, a newer one set meanwhile is kept for the next save
+            if (unsaved.remove(uuid, time)) {
+                map.put(uuid, time);
+            }
+        }
+        DBFunc.setLastSeen(map);
+    }
+    
+    /**
+     * Seed the last seen times from the modification time of each playerdata file (once, when the database has none)
+     */
+    public static void seedLastSeen() {
+        if (seeded) {
+            return;
+        }
+        seeded = true;
+        final File container = PS.get().IMP.getWorldContainer();
+        final File[] worlds = container == null ? null : container.listFiles();
+        if (worlds == null) {
+            return;
+        }
+        final FilenameFilter filter = new FilenameFilter() {
+            @Override
+            public boolean accept(final File dir, final String name) {
+                return name.endsWith(".dat");
+            }
+        };
+        int count = 0;
+        for (final File world : worlds) {
+            final File[] files = new File(world, "playerdata").listFiles(filter);
+            if (files == null) {
+                continue;
+            }
+            for (final File file : files) {
+                try {
+                    final UUID uuid = UUID.fromString(file.getName().substring(0, file.getName().length() - 4));
+                    final long last = file.lastModified();
+                    if (last != 0) {
+                        setLastSeen(uuid, last);
+                        count++;
+                    }
+                } catch (final IllegalArgumentException e) {
+                    PS.debug(C.PREFIX.s() + "Invalid playerdata: " + file.getName());
+                }
+            }
+        }
+        PS.debug("$2[&5Expire&dManager$2] $4Seeded the last seen time of " + count + " players from playerdata");
+        saveLastSeen();
+    }
+    
     public static long getTimeStamp(final String world) {
         if (timestamp.containsKey(world)) {
             return timestamp.get(world);
@@ -39,22 +191,28 @@ public class ExpireManager {
         }
     }
     
+    /**
+     * Look up the expired plots in a world (async), unless they were looked up less than CLEAR_INTERVAL seconds ago
+     * @param world
+     * @return true if the lookup was started
+     */
     public static boolean updateExpired(final String world) {
         updatingPlots.put(world, true);
         final long now = System.currentTimeMillis();
         if (now > getTimeStamp(world)) {
-            timestamp.put(world, now + 86400000l);
+            timestamp.put(world, now + (Settings.CLEAR_INTERVAL * 1000l));
             TaskManager.runTaskAsync(new Runnable() {
                 @Override
                 public void run() {
                     try {
                         final List<Plot> plots = getOldPlots(world);
                         PS.debug("$2[&5Expire&dManager$2] $4Found " + plots.size() + " expired plots for " + world + "!");
-                        expiredPlots.put(world, plots);
-                        updatingPlots.put(world, false);
+                        found.addAndGet(plots.size());
+                        expiredPlots.put(world, new ConcurrentLinkedQueue<>(plots));
                     } catch (final Exception e) {
                         e.printStackTrace();
                     }
+                    updatingPlots.put(world, false);
                 }
             });
             return true;
@@ -64,114 +222,301 @@ public class ExpireManager {
         }
     }
     
+    /**
+     * Start the expiry pipeline, which runs each second on the main thread:<br>
+     *  - Candidates: the expired plots of each world are looked up async (see updateExpired)<br>
+     *  - Analysis: up to CLEAR_ANALYSIS_CONCURRENCY candidates are checked / analyzed at once (at most
+     *    CLEAR_ANALYSIS_PER_MINUTE start per minute), plots which are still expired and not modified wait to be cleared<br>
+     *  - Clear: up to CLEAR_CONCURRENCY plots are cleared at once (at most CLEAR_PER_MINUTE per minute), only while the
+     *    block queue has fewer than CLEAR_MAX_QUEUED_CHUNKS chunks<br>
+     *  - The plots waiting to be cleared (and being analyzed) are bounded by CLEAR_QUEUE_SIZE, so analysis can't run ahead
+     *    of clearing<br>
+     *  - The cleared plots are deleted from the database in one batch each second
+     */
     public static void runTask() {
-        ExpireManager.task = TaskManager.runTaskRepeatAsync(new Runnable() {
+        TaskManager.runTaskAsync(new Runnable() {
+            @Override
+            public void run() {
+                seedLastSeen();
+            }
+        });
+        lastTick = System.currentTimeMillis();
+        ExpireManager.task = TaskManager.runTaskRepeat(new Runnable() {
             @Override
             public void run() {
                 try {
-                    for (final String world : PS.get().getPlotWorldsString()) {
-                        if (!ExpireManager.updatingPlots.containsKey(world)) {
-                            ExpireManager.updatingPlots.put(world, false);
-                        }
-                        final Boolean updating = ExpireManager.updatingPlots.get(world);
-                        if (updating) {
-                            PS.debug("$2[&5Expire&dManager$2] $4Waiting on fetch...");
-                            return;
-                        }
-                        if (!expiredPlots.containsKey(world)) {
-                            PS.debug("$2[&5Expire&dManager$2] $4Updating expired plots for: " + world);
-                            updateExpired(world);
-                            return;
-                        }
-                        final List<Plot> plots = expiredPlots.get(world);
-                        if ((plots == null) || (plots.size() == 0)) {
-                            if (updateExpired(world)) {
-                                PS.debug("$2[&5Expire&dManager$2] $4Re-evaluating expired plots for: " + world);
-                                return;
-                            }
-                            continue;
-                        }
-                        final Plot plot = plots.iterator().next();
-                        if (!isExpired(plot)) {
-                            expiredPlots.get(world).remove(plot);
-                            PS.debug("$2[&5Expire&dManager$2] &bSkipping no longer expired: " + plot);
-                            return;
-                        }
-                        for (final UUID helper : plot.getTrusted()) {
-                            final PlotPlayer player = UUIDHandler.getPlayer(helper);
-                            if (player != null) {
-                                MainUtil.sendMessage(player, C.PLOT_REMOVED_USER, plot.getId().toString());
-                            }
-                        }
-                        for (final UUID helper : plot.getMembers()) {
-                            final PlotPlayer player = UUIDHandler.getPlayer(helper);
-                            if (player != null) {
-                                MainUtil.sendMessage(player, C.PLOT_REMOVED_USER, plot.getId().toString());
-                            }
-                        }
-                        final PlotManager manager = PS.get().getPlotManager(world);
-                        if (manager == null) {
-                            PS.debug("$2[&5Expire&dManager$2] &cThis is a friendly reminder to create or delete " + world + " as it is currently setup incorrectly");
-                            expiredPlots.get(world).remove(plot);
-                            return;
-                        }
-                        final PlotWorld plotworld = PS.get().getPlotWorld(world);
-                        final RunnableVal<PlotAnalysis> run = new RunnableVal<PlotAnalysis>() {
-                            @Override
-                            public void run() {
-                                final PlotAnalysis changed = value;
-                                if ((Settings.CLEAR_THRESHOLD != -1) && (plotworld.TYPE == 0) && (changed != null)) {
-                                    if ((changed.changes != 0) && (changed.getComplexity() > Settings.CLEAR_THRESHOLD)) {
-                                        PS.debug("$2[&5Expire&dManager$2] &bIgnoring modified plot: " + plot + " : " + changed.getComplexity() + " - " + changed.changes);
-                                        expiredPlots.get(world).remove(plot);
-                                        FlagManager.addPlotFlag(plot, new Flag(FlagManager.getFlag("analysis"), changed.asList()));
-                                        return;
-                                    }
-                                }
-                                if (plot.isMerged()) {
-                                    MainUtil.unlinkPlot(plot, true, false);
-                                }
-                                plot.deletePlot(null);
-                                expiredPlots.get(world).remove(plot);
-                                final int complexity = changed == null ? 0 : changed.getComplexity();
-                                final int modified = changed == null ? 0 : changed.changes;
-                                PS.debug("$2[&5Expire&dManager$2] &cDeleted expired plot: " + plot + " : " + complexity + " - " + modified);
-                                PS.debug("$4 - World: " + plot.world);
-                                if (plot.hasOwner()) {
-                                    PS.debug("$4 - Owner: " + UUIDHandler.getName(plot.owner));
-                                } else {
-                                    PS.debug("$4 - Owner: Unowned");
-                                }
-                            }
-                        };
-                        if (plot.getRunning() > 0) {
-                            PS.debug("$2[&5Expire&dManager$2] &bSkipping plot in use: " + plot);
-                            expiredPlots.get(world).remove(plot);
-                            run();
-                            return;
-                        }
-                        if ((Settings.CLEAR_THRESHOLD != -1) && (plotworld.TYPE == 0)) {
-                            final PlotAnalysis analysis = plot.getComplexity();
-                            if (analysis != null) {
-                                if (analysis.getComplexity() > Settings.CLEAR_THRESHOLD) {
-                                    PS.debug("$2[&5Expire&dManager$2] &bSkipping modified: " + plot);
-                                    expiredPlots.get(world).remove(plot);
-                                    run();
-                                    return;
-                                }
-                            }
-                            HybridUtils.manager.analyzePlot(plot, run);
-                        } else {
-                            run.value = null;
-                            run.run();
-                        }
-                        return;
-                    }
+                    tick();
                 } catch (final Exception e) {
                     e.printStackTrace();
                 }
             }
-        }, Settings.CLEAR_INTERVAL * 20);
+        }, 20);
+    }
+    
+    private static void tick() {
+        saveLastSeen();
+        final long now = System.currentTimeMillis();
+        final long elapsed = now - lastTick;
+        lastTick = now;
+        analysisTokens = refill(analysisTokens, Settings.CLEAR_ANALYSIS_PER_MINUTE, Settings.CLEAR_ANALYSIS_CONCURRENCY, elapsed);
+        clearTokens = refill(clearTokens, Settings.CLEAR_PER_MINUTE, Settings.CLEAR_CONCURRENCY, elapsed);
+        // candidates
+        for (final String world : PS.get().getPlotWorldsString()) {
+            if (Boolean.TRUE.equals(updatingPlots.get(world))) {
+                continue;
+            }
+            final ConcurrentLinkedQueue<Plot> plots = expiredPlots.get(world);
+            if ((plots == null) || plots.isEmpty()) {
+                updateExpired(world);
+            }
+        }
+        // analysis
+        while ((analyzing < Settings.CLEAR_ANALYSIS_CONCURRENCY) && (analysisTokens >= 1) && ((pending.size() + analyzing) < Settings.CLEAR_QUEUE_SIZE)) {
+            final Plot plot = nextCandidate();
+            if (plot == null) {
+                break;
+            }
+            analysisTokens--;
+            analyze(plot);
+        }
+        // clear
+        while ((clearing < Settings.CLEAR_CONCURRENCY) && (clearTokens >= 1) && (SetBlockQueue.getQueuedChunks() < Settings.CLEAR_MAX_QUEUED_CHUNKS)) {
+            final Plot plot = pending.poll();
+            if (plot == null) {
+                break;
+            }
+            if (!plot.hasOwner() || !isExpired(plot) || (plot.getRunning() > 0)) {
+                // claimed again, or the owner came back while it was waiting
+                inPipeline.remove(plot);
+                skipped.incrementAndGet();
+                continue;
+            }
+            clearTokens--;
+            clear(plot);
+        }
+        if (deleted.size() > 0) {
+            DBFunc.deletePlots(deleted);
+            deleted.clear();
+        }
+    }
+    
+    /**
+     * Add the tokens earned since the last tick to a rate limit
+     * @param tokens
+     * @param perMinute The rate, or -1 for no limit
+     * @param burst The most tokens which may be saved up
+     * @param elapsed
+     * @return
+     */
+    private static double refill(final double tokens, final int perMinute, final int burst, final long elapsed) {
+        if (perMinute < 0) {
+            return Integer.MAX_VALUE;
+        }
+        return Math.min(Math.max(1, burst), Math.min(tokens, Math.max(1, burst)) + ((perMinute * elapsed) / 60000d));
+    }
+    
+    private static Plot nextCandidate() {
+        for (final ConcurrentLinkedQueue<Plot> plots : expiredPlots.values()) {
+            Plot plot;
+            while ((plot = plots.poll()) != null) {
+                if (!inPipeline.contains(plot)) {
+                    return plot;
+                }
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Check that a candidate is still expired and unmodified, analyzing it if needed
+     * @param plot
+     */
+    private static void analyze(final Plot plot) {
+        final Flag keepFlag = FlagManager.getPlotFlagRaw(plot, "keep");
+        if (!plot.hasOwner() || ((keepFlag != null) && (Boolean) keepFlag.getValue()) || !isExpired(plot)) {
+            PS.debug("$2[&5Expire&dManager$2] &bSkipping no longer expired: " + plot);
+            skipped.incrementAndGet();
+            return;
+        }
+        if (plot.getRunning() > 0) {
+            PS.debug("$2[&5Expire&dManager$2] &bSkipping plot in use: " + plot);
+            skipped.incrementAndGet();
+            return;
+        }
+        final PlotWorld plotworld = PS.get().getPlotWorld(plot.world);
+        final PlotManager manager = PS.get().getPlotManager(plot.world);
+        if ((plotworld == null) || (manager == null)) {
+            PS.debug("$2[&5Expire&dManager$2] &cThis is a friendly reminder to create or delete " + plot.world + " as it is currently setup incorrectly");
+            skipped.incrementAndGet();
+            return;
+        }
+        if ((Settings.CLEAR_THRESHOLD == -1) || (plotworld.TYPE != 0)) {
+            analyzed(plot, null);
+            return;
+        }
+        final PlotAnalysis cached = AnalysisCache.get(plot);
+        if (cached != null) {
+            // Not modified since it was last analyzed
+            analyzed(plot, cached);
+            return;
+        }
+        final PlotAnalysis flagged = plot.getComplexity();
+        if ((flagged != null) && (flagged.getComplexity() > Settings.CLEAR_THRESHOLD)) {
+            PS.debug("$2[&5Expire&dManager$2] &bSkipping modified: " + plot);
+            skipped.incrementAndGet();
+            return;
+        }
+        analyzing++;
+        inPipeline.add(plot);
+        try {
+            HybridUtils.manager.analyzePlot(plot, new RunnableVal<PlotAnalysis>() {
+                @Override
+                public void run() {
+                    final PlotAnalysis result = value;
+                    // The pipeline is only used from the main thread
+                    TaskManager.runTask(new Runnable() {
+                        @Override
+                        public void run() {
+                            analysisDone(plot, result);
+                        }
+                    });
+                }
+            });
+        } catch (final Exception e) {
+            e.printStackTrace();
+            analysisDone(plot, null);
+        }
+    }
+    
+    /**
+     * Release the analysis slot of a plot
+     * @param plot
+     * @param result The analysis, or null if it failed (the plot is then skipped)
+     */
+    private static void analysisDone(final Plot plot, final PlotAnalysis result) {
+        analyzing--;
+        inPipeline.remove(plot);
+        if (result == null) {
+            PS.debug("$2[&5Expire&dManager$2] &cSkipping plot which could not be analyzed: " + plot);
+            skipped.incrementAndGet();
+            return;
+        }
+        analyzed(plot, result);
+    }
+    
+    private static void analyzed(final Plot plot, final PlotAnalysis changed) {
+        analyzed.incrementAndGet();
+        if ((changed != null) && (Settings.CLEAR_THRESHOLD != -1)) {
+            if ((changed.changes != 0) && (changed.getComplexity() > Settings.CLEAR_THRESHOLD)) {
+                PS.debug("$2[&5Expire&dManager$2] &bIgnoring modified plot: " + plot + " : " + changed.getComplexity() + " - " + changed.changes);
+                FlagManager.addPlotFlag(plot, new Flag(FlagManager.getFlag("analysis"), changed.asList()));
+                skipped.incrementAndGet();
+                return;
+            }
+        }
+        inPipeline.add(plot);
+        pending.add(plot);
+    }
+    
+    private static void clear(final Plot plot) {
+        for (final UUID helper : plot.getTrusted()) {
+            final PlotPlayer player = UUIDHandler.getPlayer(helper);
+            if (player != null) {
+                MainUtil.sendMessage(player, C.PLOT_REMOVED_USER, plot.getId().toString());
+            }
+        }
+        for (final UUID helper : plot.getMembers()) {
+            final PlotPlayer player = UUIDHandler.getPlayer(helper);
+            if (player != null) {
+                MainUtil.sendMessage(player, C.PLOT_REMOVED_USER, plot.getId().toString());
+            }
+        }
+        final UUID owner = plot.owner;
+        final HashSet<Plot> plots = MainUtil.getConnectedPlots(plot);
+        clearing++;
+        SetBlockQueue.setJob("expire " + plot.world + ";" + plot.id);
+        final boolean started = MainUtil.clear(plot, true, new Runnable() {
+            @Override
+            public void run() {
+                TaskManager.runTask(new Runnable() {
+                    @Override
+                    public void run() {
+                        clearing--;
+                        inPipeline.remove(plot);
+                        for (final Plot current : plots) {
+                            PS.get().removePlot(current.world, current.id, true);
+                            deleted.add(current);
+                        }
+                        cleared.incrementAndGet();
+                        PS.debug("$2[&5Expire&dManager$2] &cDeleted expired plot: " + plot);
+                        PS.debug("$4 - World: " + plot.world);
+                        PS.debug("$4 - Owner: " + UUIDHandler.getName(owner));
+                    }
+                });
+            }
+        });
+        SetBlockQueue.setJob(null);
+        if (!started) {
+            clearing--;
+            inPipeline.remove(plot);
+            skipped.incrementAndGet();
+        }
+    }
+    
+    /**
+     * Get the number of expired plots found since the pipeline started
+     * @return
+     */
+    public static long getFoundCount() {
+        return found.get();
+    }
+    
+    /**
+     * Get the number of plots which passed analysis (or were analyzed and kept)
+     * @return
+     */
+    public static long getAnalyzedCount() {
+        return analyzed.get();
+    }
+    
+    /**
+     * Get the number of candidates which were not cleared (no longer expired, modified or in use)
+     * @return
+     */
+    public static long getSkippedCount() {
+        return skipped.get();
+    }
+    
+    public static long getClearedCount() {
+        return cleared.get();
+    }
+    
+    /**
+     * Get the number of candidates which haven't been analyzed yet
+     * @return
+     */
+    public static int getCandidateCount() {
+        int count = 0;
+        for (final ConcurrentLinkedQueue<Plot> plots : expiredPlots.values()) {
+            count += plots.size();
+        }
+        return count;
+    }
+    
+    public static int getAnalyzingCount() {
+        return analyzing;
+    }
+    
+    /**
+     * Get the number of analyzed plots waiting to be cleared
+     * @return
+     */
+    public static int getPendingCount() {
+        return pending.size();
+    }
+    
+    public static int getClearingCount() {
+        return clearing;
     }
     
     public static boolean isExpired(final UUID uuid) {
@@ -180,10 +525,8 @@ public class ExpireManager {
         }
         final String name = UUIDHandler.getName(uuid);
         if (name != null) {
-            long last;
-            if (dates.contains(uuid)) {
-                last = dates.get(uuid);
-            } else {
+            long last = getLastSeen(uuid);
+            if (last == 0) {
                 OfflinePlayer op;
                 if (Settings.TWIN_MODE_UUID) {
                     op = Bukkit.getOfflinePlayer(uuid);
@@ -192,7 +535,7 @@ public class ExpireManager {
                 }
                 if (op.hasPlayedBefore()) {
                     last = op.getLastPlayed();
-                    dates.put(uuid, last);
+                    setLastSeen(uuid, last);
                 } else {
                     return false;
                 }
@@ -209,8 +552,24 @@ public class ExpireManager {
     }
     
     public static boolean isExpired(final Plot plot) {
+        return isExpired(plot, null);
+    }
+    
+    /**
+     * @param plot
+     * @param checked The owners already checked (to check each owner once per pass), or null
+     * @return
+     */
+    private static boolean isExpired(final Plot plot, final HashMap<UUID, Boolean> checked) {
         for (final UUID owner : PlotHandler.getOwners(plot)) {
-            if (!isExpired(owner)) {
+            Boolean expired = checked == null ? null : checked.get(owner);
+            if (expired == null) {
+                expired = isExpired(owner);
+                if (checked != null) {
+                    checked.put(owner, expired);
+                }
+            }
+            if (!expired) {
                 return false;
             }
         }
@@ -220,6 +579,7 @@ public class ExpireManager {
     public static List<Plot> getOldPlots(final String world) {
         final ArrayList<Plot> plots = new ArrayList<>(PS.get().getPlotsInWorld(world));
         final List<Plot> toRemove = new ArrayList<>();
+        final HashMap<UUID, Boolean> checked = new HashMap<>();
         final Iterator<Plot> iter = plots.iterator();
         while (iter.hasNext()) {
             final Plot plot = iter.next();
@@ -236,7 +596,7 @@ public class ExpireManager {
             if (player != null) {
                 continue;
             }
-            if (isExpired(plot)) {
+            if (isExpired(plot, checked)) {
                 toRemove.add(plot);
             }
         }
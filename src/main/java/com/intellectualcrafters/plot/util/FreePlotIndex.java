@@ -0,0 +1,282 @@
+package com.intellectualcrafters.plot.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.intellectualcrafters.plot.object.Plot;
+import com.intellectualcrafters.plot.object.PlotId;
+
+/**
+ * Index of the occupied (registered) plot ids in each world, used to find free plots without checking every plot<br>
+ *  - Plot ids are numbered along a square spiral around 0;0 (see getIndex), so the nearest free plot is the lowest clear
+ *    bit<br>
+ *  - The bits are stored in pages, so plots far from the origin don't use any memory for the plots in between<br>
+ *  - Plots further than about 23000 plots from the origin are not indexed (and are considered free)<br>
+ *  - The index is updated by {@link com.intellectualcrafters.plot.PS#updatePlot(Plot)},
+ *    {@link com.intellectualcrafters.plot.PS#removePlot(String, PlotId, boolean)} and when plots are moved<br>
+ *  - All methods are safe to call from any thread
+ */
+public class FreePlotIndex {
+    
+    private static final int PAGE_BITS = 12;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int MAX_RING = 23169;
+    
+    private final HashMap<String, Occupancy> worlds = new HashMap<>();
+    
+    private static class Occupancy {
+        private final HashMap<Integer, long[]> pages = new HashMap<>();
+        /**
+         * All indexes below this are occupied
+         */
+        private int firstFree = 0;
+        
+        private void set(final int index, final boolean value) {
+            final Integer key = index >> PAGE_BITS;
+            long[] page = pages.get(key);
+            if (page == null) {
+                if (!value) {
+                    return;
+                }
+                page = new long[PAGE_SIZE >> 6];
+                pages.put(key, page);
+            }
+            final int bit = index & (PAGE_SIZE - 1);
+            if (value) {
+                page[bit >> 6] |= 1L << bit;
+            } else {
+                page[bit >> 6] &= ~(1L << bit);
+                if (index < firstFree) {
+                    firstFree = index;
+                }
+            }
+        }
+        
+        private boolean get(final int index) {
+            final long[] page = pages.get(index >> PAGE_BITS);
+            if (page == null) {
+                return false;
+            }
+            final int bit = index & (PAGE_SIZE - 1);
+            return (page[bit >> 6] & (1L << bit)) != 0;
+        }
+        
+        private int nextClear(final int from) {
+            int index = Math.max(from, 0);
+            while (true) {
+                final long[] page = pages.get(index >> PAGE_BITS);
+                if (page == null) {
+                    return index;
+                }
+                int bit = index & (PAGE_SIZE - 1);
+                while (bit < PAGE_SIZE) {
+                    final long word = ~page[bit >> 6] & (-1L << bit);
+                    if (word != 0) {
+                        return (index & ~(PAGE_SIZE - 1)) + ((bit & ~63) + Long.numberOfTrailingZeros(word));
+                    }
+                    bit = (bit & ~63) + 64;
+                }
+                index = (index & ~(PAGE_SIZE - 1)) + PAGE_SIZE;
+            }
+        }
+    }
+    
+    /**
+     * Get the position of a plot id along the spiral around 0;0<br>
+     *  - Ring r (the plots where max(|x|, |y|) == r) starts at (2r - 1)^2
+     * @param x
+     * @param y
+     * @return The index, or -1 if the id is too far from the origin
+     */
+    public static int getIndex(final int x, final int y) {
+        final int r = Math.max(Math.abs(x), Math.abs(y));
+        if (r == 0) {
+            return 0;
+        }
+        if (r > MAX_RING) {
+            return -1;
+        }
+        final int start = ((2 * r) - 1) * ((2 * r) - 1);
+        if ((x == r) && (y > -r)) {
+            return (start + y + r) - 1;
+        }
+        if (y == r) {
+            return (start + (3 * r)) - 1 - x;
+        }
+        if (x == -r) {
+            return (start + (5 * r)) - 1 - y;
+        }
+        return start + (7 * r) - 1 + x;
+    }
+    
+    /**
+     * Get the plot id at a position along the spiral (the inverse of getIndex)
+     * @param index
+     * @return
+     */
+    public static PlotId getId(final int index) {
+        if (index <= 0) {
+            return new PlotId(0, 0);
+        }
+        int r = (int) ((Math.sqrt(index) + 1) / 2);
+        while ((((2L * r) + 1) * ((2L * r) + 1)) <= index) {
+            r++;
+        }
+        while ((r > 1) && (((2L * r) - 1) * ((2L * r) - 1)) > index) {
+            r--;
+        }
+        final int offset = index - (((2 * r) - 1) * ((2 * r) - 1));
+        final int side = offset / (2 * r);
+        final int pos = offset % (2 * r);
+        switch (side) {
+            case 0:
+                return new PlotId(r, (pos - r) + 1);
+            case 1:
+                return new PlotId((r - 1) - pos, r);
+            case 2:
+                return new PlotId(-r, (r - 1) - pos);
+            default:
+                return new PlotId((pos - r) + 1, -r);
+        }
+    }
+    
+    private Occupancy getOccupancy(final String world, final boolean create) {
+        Occupancy occupancy = worlds.get(world);
+        if ((occupancy == null) && create) {
+            occupancy = new Occupancy();
+            worlds.put(world, occupancy);
+        }
+        return occupancy;
+    }
+    
+    /**
+     * Mark a plot id as occupied
+     * @param world
+     * @param id
+     */
+    public synchronized void add(final String world, final PlotId id) {
+        final int index = getIndex(id.x, id.y);
+        if (index != -1) {
+            getOccupancy(world, true).set(index, true);
+        }
+    }
+    
+    /**
+     * Mark a plot id as free
+     * @param world
+     * @param id
+     */
+    public synchronized void remove(final String world, final PlotId id) {
+        final int index = getIndex(id.x, id.y);
+        final Occupancy occupancy = getOccupancy(world, false);
+        if ((index != -1) && (occupancy != null)) {
+            occupancy.set(index, false);
+        }
+    }
+    
+    /**
+     * Remove all entries for a world
+     * @param world
+     */
+    public synchronized void removeWorld(final String world) {
+        worlds.remove(world);
+    }
+    
+    /**
+     * Rebuild the index from the plot registry
+     * @param plots
+     */
+    public synchronized void rebuild(final Map<String, ConcurrentHashMap<PlotId, Plot>> plots) {
+        worlds.clear();
+        for (final Map.Entry<String, ConcurrentHashMap<PlotId, Plot>> entry : plots.entrySet()) {
+            final Occupancy occupancy = getOccupancy(entry.getKey(), true);
+            for (final PlotId id : entry.getValue().keySet()) {
+                final int index = getIndex(id.x, id.y);
+                if (index != -1) {
+                    occupancy.set(index, true);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Check if a plot id is free (not registered)
+     * @param world
+     * @param id
+     * @return
+     */
+    public synchronized boolean isFree(final String world, final PlotId id) {
+        final Occupancy occupancy = getOccupancy(world, false);
+        if (occupancy == null) {
+            return true;
+        }
+        final int index = getIndex(id.x, id.y);
+        return (index == -1) || !occupancy.get(index);
+    }
+    
+    /**
+     * Check if all plot ids in a rectangle are free
+     * @param world
+     * @param pos1 The bottom corner
+     * @param pos2 The top corner
+     * @return
+     */
+    public synchronized boolean isFree(final String world, final PlotId pos1, final PlotId pos2) {
+        final Occupancy occupancy = getOccupancy(world, false);
+        if (occupancy == null) {
+            return true;
+        }
+        for (int x = pos1.x; x <= pos2.x; x++) {
+            for (int y = pos1.y; y <= pos2.y; y++) {
+                final int index = getIndex(x, y);
+                if ((index != -1) && occupancy.get(index)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Get the position of the next free plot along the spiral
+     * @param world
+     * @param from The position to start at (inclusive)
+     * @return
+     */
+    public synchronized int getNextFree(final String world, final int from) {
+        final Occupancy occupancy = getOccupancy(world, false);
+        if (occupancy == null) {
+            return Math.max(from, 0);
+        }
+        if (from <= occupancy.firstFree) {
+            occupancy.firstFree = occupancy.nextClear(occupancy.firstFree);
+            return occupancy.firstFree;
+        }
+        return occupancy.nextClear(from);
+    }
+    
+    /**
+     * Get the position of the next rectangle of free plots along the spiral (its bottom corner is on the spiral)
+     * @param world
+     * @param from The position to start at (inclusive)
+     * @param width The number of plots along x
+     * @param length The number of plots along y
+     * @return The position of the bottom corner, or -1 if no free area was found
+     */
+    public synchronized int getNextFree(final String world, final int from, final int width, final int length) {
+        int index = getNextFree(world, from);
+        while (index != -1) {
+            final PlotId pos1 = getId(index);
+            final PlotId pos2 = new PlotId((pos1.x + width) - 1, (pos1.y + length) - 1);
+            if (isFree(world, pos1, pos2)) {
+                return index;
+            }
+            if (Math.max(Math.abs(pos1.x), Math.abs(pos1.y)) >= MAX_RING) {
+                return -1;
+            }
+            index = getNextFree(world, index + 1);
+        }
+        return -1;
+    }
+}
@@ -60,6 +60,7 @@ import com.intellectualcrafters.plot.object.PseudoRandom;
 import com.intellectualcrafters.plot.object.RegionWrapper;
 import com.intellectualcrafters.plot.object.RunnableVal;
 import com.intellectualcrafters.plot.object.StringWrapper;
+import com.intellectualcrafters.plot.util.PlayerPlotIndex.Relation;
 import com.plotsquared.listener.PlotListener;
 
 /**
@@ -74,12 +75,6 @@ public class MainUtil {
      */
     public static boolean canSendChunk = false;
     
-    /**
-     * Cache for last auto claimed plot.<br>
-     *  - Used for efficiently calculating the next claimable plot<br>
-     */
-    public static HashMap<String, PlotId> lastPlot = new HashMap<>();
-    
     /**
      * Cache of the furthest claimed plot<br>
      *  - Used for efficiently calculating the plot border distance
@@ -149,19 +144,25 @@ public class MainUtil {
      * @return
      */
     public static HashSet<RegionWrapper> getRegions(Plot origin) {
-        if (regions_cache != null && connected_cache != null && connected_cache.contains(origin)) {
-            return regions_cache;
-        }
         if (!origin.isMerged()) {
             final Location pos1 = MainUtil.getPlotBottomLocAbs(origin.world, origin.getId());
             final Location pos2 = MainUtil.getPlotTopLocAbs(origin.world, origin.getId());
-            connected_cache = new HashSet<>(Collections.singletonList(origin));
-            regions_cache = new HashSet<>(1);
-            regions_cache.add(new RegionWrapper(pos1.getX(), pos2.getX(), pos1.getY(), pos2.getY(), pos1.getZ(), pos2.getZ()));
-            return regions_cache;
+            final HashSet<RegionWrapper> regions = new HashSet<>(1);
+            regions.add(new RegionWrapper(pos1.getX(), pos2.getX(), pos1.getY(), pos2.getY(), pos1.getZ(), pos2.getZ()));
+            return regions;
         }
-        HashSet<Plot> plots = getConnectedPlots(origin);
-        regions_cache = new HashSet<>();
+        return PS.get().getConnectedIndex().getRegions(origin);
+    }
+    
+    /**
+     * Calculate the regions of a merge group
+     * @see ConnectedPlotIndex#getRegions(Plot)
+     * @param origin
+     * @param plots The connected plots
+     * @return
+     */
+    static HashSet<RegionWrapper> findRegions(Plot origin, HashSet<Plot> plots) {
+        final HashSet<RegionWrapper> regions = new HashSet<>();
         HashSet<PlotId> visited = new HashSet<>();
         ArrayList<PlotId> ids;
         for (Plot current : plots) {
@@ -235,9 +236,9 @@ public class MainUtil {
                     Location toploc = getPlotTopLoc_(plot);
                     Location botabs = plot.getBottomAbs();
                     Location topabs = plot.getTopAbs();
-                    regions_cache.add(new RegionWrapper(botabs.getX(), topabs.getX(), topabs.getZ() + 1, toploc.getZ()));
+                    regions.add(new RegionWrapper(botabs.getX(), topabs.getX(), topabs.getZ() + 1, toploc.getZ()));
                     if (plot.getMerged(5)) {
-                        regions_cache.add(new RegionWrapper(topabs.getX() + 1, toploc.getX(), topabs.getZ() + 1, toploc.getZ()));
+                        regions.add(new RegionWrapper(topabs.getX() + 1, toploc.getX(), topabs.getZ() + 1, toploc.getZ()));
                         // intersection
                     }
                 }
@@ -250,16 +251,16 @@ public class MainUtil {
                     Location toploc = getPlotTopLoc_(plot);
                     Location botabs = plot.getBottomAbs();
                     Location topabs = plot.getTopAbs();
-                    regions_cache.add(new RegionWrapper(topabs.getX() + 1, toploc.getX(), botabs.getZ(), topabs.getZ()));
+                    regions.add(new RegionWrapper(topabs.getX() + 1, toploc.getX(), botabs.getZ(), topabs.getZ()));
                     if (plot.getMerged(5)) {
-                        regions_cache.add(new RegionWrapper(topabs.getX() + 1, toploc.getX(), topabs.getZ() + 1, toploc.getZ()));
+                        regions.add(new RegionWrapper(topabs.getX() + 1, toploc.getX(), topabs.getZ() + 1, toploc.getZ()));
                         // intersection
                     }
                 }
             }
-            regions_cache.add(new RegionWrapper(gbotabs.getX(), gtopabs.getX(), gbotabs.getZ(), gtopabs.getZ()));
+            regions.add(new RegionWrapper(gbotabs.getX(), gtopabs.getX(), gbotabs.getZ(), gtopabs.getZ()));
         }
-        return regions_cache;
+        return regions;
     }
     
     /**
@@ -425,9 +426,37 @@ public class MainUtil {
             plotList.add(new ArrayList<Plot>());
         }
         
-        for (final Plot plot : PS.get().getPlots()) {
+        // Only plots related to one of the UUIDs (or to everyone) can match a UUID term
+        final HashSet<Plot> related = new HashSet<>();
+        if (uuids.size() > 0) {
+            final PlayerPlotIndex index = PS.get().getPlayerIndex();
+            for (final UUID uuid : uuids) {
+                for (final Plot plot : index.getPlots(uuid, Relation.OWNER)) {
+                    if (plot.isMerged()) {
+                        related.addAll(getConnectedPlots(plot));
+                    } else {
+                        related.add(plot);
+                    }
+                }
+                related.addAll(index.getPlots(uuid, Relation.TRUSTED));
+                related.addAll(index.getPlots(uuid, Relation.MEMBER));
+            }
+            related.addAll(index.getPlots(DBFunc.everyone, Relation.TRUSTED));
+            related.addAll(index.getPlots(DBFunc.everyone, Relation.MEMBER));
+        }
+        final Collection<Plot> candidates;
+        if ((id == null) && (world == null) && (alias == null)) {
+            candidates = related;
+        } else {
+            candidates = PS.get().getPlots();
+        }
+        
+        for (final Plot plot : candidates) {
+            if (!PS.get().isPlotWorld(plot.world)) {
+                continue;
+            }
             int count = 0;
-            if (uuids.size() > 0) {
+            if (related.contains(plot)) {
                 for (final UUID uuid : uuids) {
                     if (plot.isOwner(uuid)) {
                         count += 2;
@@ -565,6 +594,8 @@ public class MainUtil {
         if (!plot.isMerged()) {
             return false;
         }
+        PlotCellCache.invalidate(plot.world);
+        AnalysisCache.modified(plot);
         HashSet<Plot> plots = getConnectedPlots(plot);
         ArrayList<PlotId> ids = new ArrayList<>(plots.size());
         for (Plot current : plots) {
@@ -677,8 +708,8 @@ public class MainUtil {
     public static int getPlayerPlotCount(final String world, final PlotPlayer plr) {
         final UUID uuid = plr.getUUID();
         int count = 0;
-        for (final Plot plot : PS.get().getPlotsInWorld(world)) {
-            if (plot.hasOwner() && plot.owner.equals(uuid) && (!Settings.DONE_COUNTS_TOWARDS_LIMIT || !plot.getFlags().containsKey("done"))) {
+        for (final Plot plot : PS.get().getPlayerIndex().getPlots(world, uuid, Relation.OWNER)) {
+            if (!Settings.DONE_COUNTS_TOWARDS_LIMIT || !plot.getFlags().containsKey("done")) {
                 count++;
             }
         }
@@ -1118,6 +1149,9 @@ public class MainUtil {
      * @param greaterPlot
      */
     public static void mergePlot(final String world, Plot lesserPlot, Plot greaterPlot, final boolean removeRoads) {
+        PlotCellCache.invalidate(world);
+        AnalysisCache.modified(lesserPlot);
+        AnalysisCache.modified(greaterPlot);
         final PlotWorld plotworld = PS.get().getPlotWorld(world);
         if (lesserPlot.getId().x.equals(greaterPlot.getId().x)) {
             if (lesserPlot.getId().y > greaterPlot.getId().y) {
@@ -1624,6 +1658,7 @@ public class MainUtil {
         if (!EventUtil.manager.callClear(plot.world, plot.getId())) {
             return false;
         }
+        AnalysisCache.modified(plot);
         final HashSet<RegionWrapper> regions = getRegions(plot);
         final HashSet<Plot> plots = getConnectedPlots(plot);
         final ArrayDeque<Plot> queue = new ArrayDeque<>(plots);
@@ -1723,15 +1758,7 @@ public class MainUtil {
             setSimpleCuboidAsync(world, pos1, pos2, blocks[0]);
             return;
         }
-        for (int y = pos1.getY(); y <= Math.min(255, pos2.getY()); y++) {
-            for (int x = pos1.getX(); x <= pos2.getX(); x++) {
-                for (int z = pos1.getZ(); z <= pos2.getZ(); z++) {
-                    final int i = random.random(blocks.length);
-                    final PlotBlock block = blocks[i];
-                    SetBlockQueue.setBlock(world, x, y, z, block);
-                }
-            }
-        }
+        SetBlockQueue.setCuboid(world, pos1.getX(), pos1.getY(), pos1.getZ(), pos2.getX(), pos2.getY(), pos2.getZ(), blocks);
     }
     
     /**
@@ -1772,13 +1799,7 @@ public class MainUtil {
      * @param newblock
      */
     public static void setSimpleCuboidAsync(final String world, final Location pos1, final Location pos2, final PlotBlock newblock) {
-        for (int y = pos1.getY(); y <= Math.min(255, pos2.getY()); y++) {
-            for (int x = pos1.getX(); x <= pos2.getX(); x++) {
-                for (int z = pos1.getZ(); z <= pos2.getZ(); z++) {
-                    SetBlockQueue.setBlock(world, x, y, z, newblock);
-                }
-            }
-        }
+        SetBlockQueue.setCuboid(world, pos1.getX(), pos1.getY(), pos1.getZ(), pos2.getX(), pos2.getY(), pos2.getZ(), newblock.id, newblock.data);
     }
     
     /**
@@ -2100,6 +2121,12 @@ public class MainUtil {
      * @return
      */
     public static boolean swapData(Plot p1, Plot p2, final Runnable whenDone) {
+        if (p1 != null) {
+            AnalysisCache.modified(p1);
+        }
+        if (p2 != null) {
+            AnalysisCache.modified(p2);
+        }
         if ((p1 == null) || (p1.owner == null)) {
             if ((p2 != null) && (p2.owner != null)) {
                 moveData(p2, p1, whenDone);
@@ -2127,6 +2154,12 @@ public class MainUtil {
         p2.getId().recalculateHash();
         raw.get(p1.world).put(p1.getId(), p1);
         raw.get(p2.world).put(p2.getId(), p2);
+        PS.get().reindexPlot(p1);
+        PS.get().reindexPlot(p2);
+        PlotCellCache.invalidate(p1.world);
+        PlotCellCache.invalidate(p2.world);
+        PS.get().getConnectedIndex().invalidate(p1.world);
+        PS.get().getConnectedIndex().invalidate(p2.world);
         // Swap database
         DBFunc.dbManager.swapPlots(p2, p1);
         TaskManager.runTaskLater(whenDone, 1);
@@ -2141,6 +2174,8 @@ public class MainUtil {
      * @return
      */
     public static boolean moveData(final Plot pos1, final Plot pos2, final Runnable whenDone) {
+        AnalysisCache.modified(pos1);
+        AnalysisCache.modified(pos2);
         if (pos1.owner == null) {
             PS.debug(pos2 + " is unowned (single)");
             TaskManager.runTask(whenDone);
@@ -2153,10 +2188,15 @@ public class MainUtil {
         }
         final Map<String, ConcurrentHashMap<PlotId, Plot>> raw = PS.get().getAllPlotsRaw();
         raw.get(pos1.world).remove(pos1.getId());
+        PS.get().getFreePlotIndex().remove(pos1.world, pos1.getId());
         pos1.getId().x = (int) pos2.getId().x;
         pos1.getId().y = (int) pos2.getId().y;
         pos1.getId().recalculateHash();
         raw.get(pos2.world).put(pos1.getId(), pos1);
+        PS.get().getFreePlotIndex().add(pos2.world, pos1.getId());
+        PS.get().reindexPlot(pos1);
+        PlotCellCache.invalidate(pos2.world);
+        PS.get().getConnectedIndex().invalidate(pos2.world);
         DBFunc.movePlot(pos1, pos2);
         TaskManager.runTaskLater(whenDone, 1);
         return true;
@@ -2258,6 +2298,7 @@ public class MainUtil {
      * @return
      */
     public static boolean copy(final Plot origin, final Plot destination, final Runnable whenDone) {
+        AnalysisCache.modified(destination);
         PlotId offset = new PlotId(destination.getId().x - origin.getId().x, destination.getId().y - origin.getId().y);
         Location db = destination.getBottomAbs();
         Location ob = origin.getBottomAbs();
@@ -2411,12 +2452,11 @@ public class MainUtil {
     }
     
     /**
-     * @deprecated raw access is deprecated
+     * Get the plots connected to a plot (including the plot itself)<br>
+     *  - For merged plots the set comes from the {@link ConnectedPlotIndex} and must not be modified
+     * @param plot
+     * @return
      */
-    @Deprecated
-    public static HashSet<Plot> connected_cache;
-    public static HashSet<RegionWrapper> regions_cache;
-    
     public static HashSet<Plot> getConnectedPlots(Plot plot) {
         if (plot == null) {
             return null;
@@ -2424,19 +2464,24 @@ public class MainUtil {
         if (plot.settings == null) {
             return new HashSet<>(Collections.singletonList(plot));
         }
-        boolean[] merged = plot.getMerged();
-        int hash = hash(merged);
-        if (hash == 0) {
+        if (hash(plot.getMerged()) == 0) {
             return new HashSet<>(Collections.singletonList(plot));
         }
-        if (connected_cache != null && connected_cache.contains(plot)) {
-            return connected_cache;
-        }
-        regions_cache = null;
-        connected_cache = new HashSet<Plot>();
+        return PS.get().getConnectedIndex().getConnectedPlots(plot);
+    }
+    
+    /**
+     * Search for the plots connected to a merged plot (fixing any invalid merges found)
+     * @see ConnectedPlotIndex#getConnectedPlots(Plot)
+     * @param plot
+     * @return
+     */
+    static HashSet<Plot> findConnectedPlots(Plot plot) {
+        boolean[] merged = plot.getMerged();
+        final HashSet<Plot> connected = new HashSet<Plot>();
         ArrayDeque<Plot> frontier = new ArrayDeque<>();
         HashSet<Object> queuecache = new HashSet<>();
-        connected_cache.add(plot);
+        connected.add(plot);
         Plot tmp;
         if (merged[0]) {
             tmp = getPlotAbs(plot.world, getPlotIdRelative(plot.getId(), 0));
@@ -2510,39 +2555,39 @@ public class MainUtil {
                 PS.debug("Ignoring invalid merged plot: " + current + " | " + current.owner);
                 continue;
             }
-            connected_cache.add(current);
+            connected.add(current);
             queuecache.remove(current);
             merged = current.getMerged();
             if (merged[0]) {
                 tmp = getPlotAbs(current.world, getPlotIdRelative(current.getId(), 0));
-                if (!queuecache.contains(tmp) && !connected_cache.contains(tmp)) {
+                if (!queuecache.contains(tmp) && !connected.contains(tmp)) {
                     queuecache.add(tmp);
                     frontier.add(tmp);
                 }
             }
             if (merged[1]) {
                 tmp = getPlotAbs(current.world, getPlotIdRelative(current.getId(), 1));
-                if (!queuecache.contains(tmp) && !connected_cache.contains(tmp)) {
+                if (!queuecache.contains(tmp) && !connected.contains(tmp)) {
                     queuecache.add(tmp);
                     frontier.add(tmp);
                 }
             }
             if (merged[2]) {
                 tmp = getPlotAbs(current.world, getPlotIdRelative(current.getId(), 2));
-                if (!queuecache.contains(tmp) && !connected_cache.contains(tmp)) {
+                if (!queuecache.contains(tmp) && !connected.contains(tmp)) {
                     queuecache.add(tmp);
                     frontier.add(tmp);
                 }
             }
             if (merged[3]) {
                 tmp = getPlotAbs(current.world, getPlotIdRelative(current.getId(), 3));
-                if (!queuecache.contains(tmp) && !connected_cache.contains(tmp)) {
+                if (!queuecache.contains(tmp) && !connected.contains(tmp)) {
                     queuecache.add(tmp);
                     frontier.add(tmp);
                 }
             }
         }
-        return connected_cache;
+        return connected;
     }
     
     /**
@@ -2639,7 +2684,8 @@ public class MainUtil {
     public static double getAverageRating(final Plot plot) {
         HashMap<UUID, Integer> rating;
         if (plot.getSettings().ratings != null) {
-            rating = plot.getSettings().ratings;
+            final RatingIndex.Aggregate aggregate = RatingIndex.get(plot);
+            return aggregate == null ? 0 : aggregate.getAverage();
         } else if (Settings.CACHE_RATINGS) {
             rating = new HashMap<>();
         } else {
@@ -2675,6 +2721,10 @@ public class MainUtil {
     public static double[] getAverageRatings(final Plot plot) {
         HashMap<UUID, Integer> rating;
         if (plot.getSettings().ratings != null) {
+            final RatingIndex.Aggregate aggregate = RatingIndex.get(plot);
+            if (aggregate != null) {
+                return aggregate.getCategoryAverages();
+            }
             rating = plot.getSettings().ratings;
         } else if (Settings.CACHE_RATINGS) {
             rating = new HashMap<>();
@@ -2716,6 +2766,7 @@ public class MainUtil {
      * @return
      */
     public static boolean setComponent(final Plot plot, final String component, final PlotBlock[] blocks) {
+        AnalysisCache.modified(plot);
         return plot.getManager().setComponent(plot.getWorld(), plot.getId(), component, blocks);
     }
     
@@ -0,0 +1,233 @@
+package com.intellectualcrafters.plot.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.intellectualcrafters.plot.config.C;
+import com.intellectualcrafters.plot.object.PlotPlayer;
+import com.plotsquared.general.commands.CommandCaller;
+
+/**
+ * The compiled permissions of a player, used by {@link Permissions} when permission caching is enabled<br>
+ *  - Built once from {@link PlotPlayer#getEffectivePermissions()} as a tree of permission nodes (split on '.')<br>
+ *  - A permission, its * nodes and plots.admin are checked with a single walk of the tree<br>
+ *  - The granted numeric children of each node are kept sorted, so ranges (e.g. the highest plots.plot.#) are a single
+ *    lookup<br>
+ *  - If the player can't list their permissions, each permission is checked with the player once and remembered<br>
+ *  - Stored in the player's "perm" metadata, see {@link Permissions#invalidate(PlotPlayer)}
+ */
+public class PermissionTree {
+    
+    private static final int[] NONE = new int[0];
+    
+    /**
+     * The invalidation epoch this was compiled in (see Permissions.invalidateAll)
+     */
+    int epoch;
+    
+    private static class Node {
+        private Boolean value;
+        private HashMap<String, Node> children;
+        /**
+         * The numbers of the granted numeric children (sorted)
+         */
+        private int[] numbers = NONE;
+        
+        private Node get(final String key) {
+            return children == null ? null : children.get(key);
+        }
+        
+        private Node getOrCreate(final String key) {
+            if (children == null) {
+                children = new HashMap<>();
+            }
+            Node node = children.get(key);
+            if (node == null) {
+                node = new Node();
+                children.put(key, node);
+            }
+            return node;
+        }
+        
+        private boolean isStar() {
+            final Node star = get(C.PERMISSION_STAR.s());
+            return (star != null) && (star.value == Boolean.TRUE);
+        }
+    }
+    
+    private final PlotPlayer player;
+    private final Node root;
+    private final boolean admin;
+    
+    /**
+     * Permissions already checked with the player (if the player can't list their permissions)
+     */
+    private final HashMap<String, Boolean> checked;
+    private final HashMap<String, Integer> ranges;
+    
+    public PermissionTree(final PlotPlayer player) {
+        this.player = player;
+        final Map<String, Boolean> permissions = player.getEffectivePermissions();
+        if (permissions == null) {
+            root = null;
+            checked = new HashMap<>();
+            ranges = new HashMap<>();
+            admin = player.hasPermission(C.PERMISSION_ADMIN.s());
+            return;
+        }
+        checked = null;
+        ranges = null;
+        root = new Node();
+        for (final Entry<String, Boolean> entry : permissions.entrySet()) {
+            final String[] split = entry.getKey().toLowerCase().split("\\.");
+            Node node = root;
+            for (int i = 0; i < split.length; i++) {
+                final String key = split[i];
+                if ((i == (split.length - 1)) && entry.getValue() && MathMan.isInteger(key)) {
+                    final int number = parseNumber(key);
+                    final int index = Arrays.binarySearch(node.numbers, number);
+                    if (index < 0) {
+                        final int insert = -index - 1;
+                        final int[] numbers = new int[node.numbers.length + 1];
+                        System.arraycopy(node.numbers, 0, numbers, 0, insert);
+                        numbers[insert] = number;
+                        System.arraycopy(node.numbers, insert, numbers, insert + 1, node.numbers.length - insert);
+                        node.numbers = numbers;
+                    }
+                }
+                node = node.getOrCreate(key);
+            }
+            node.value = entry.getValue();
+        }
+        admin = isSet(C.PERMISSION_ADMIN.s());
+    }
+    
+    /**
+     * Parse a numeric node, clamping it to the int range (e.g. plots.plot.99999999999)
+     * @param key
+     * @return
+     */
+    private static int parseNumber(final String key) {
+        long number;
+        try {
+            number = Long.parseLong(key);
+        } catch (final NumberFormatException e) {
+            number = key.charAt(0) == '-' ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, number));
+    }
+    
+    /**
+     * If the permissions were compiled (and are not checked with the player)
+     * @return
+     */
+    public boolean isCompiled() {
+        return root != null;
+    }
+    
+    private boolean isSet(final String perm) {
+        Node node = root;
+        int start = 0;
+        final int length = perm.length();
+        while ((node != null) && (start <= length)) {
+            int end = perm.indexOf('.', start);
+            if (end == -1) {
+                end = length;
+            }
+            node = node.get(perm.substring(start, end));
+            start = end + 1;
+        }
+        return (node != null) && (node.value == Boolean.TRUE);
+    }
+    
+    /**
+     * Check a permission, same as {@link Permissions#hasPermission(CommandCaller, String)}
+     * @param perm
+     * @return
+     */
+    public boolean has(final String perm) {
+        if (admin) {
+            return true;
+        }
+        if (root == null) {
+            Boolean result = checked.get(perm);
+            if (result == null) {
+                result = Permissions.hasPermission((CommandCaller) player, perm);
+                checked.put(perm, result);
+            }
+            return result;
+        }
+        final String lower = perm.toLowerCase();
+        Node node = root;
+        int start = 0;
+        final int length = lower.length();
+        while (start <= length) {
+            if ((node != root) && node.isStar()) {
+                return true;
+            }
+            int end = lower.indexOf('.', start);
+            if (end == -1) {
+                end = length;
+            }
+            node = node.get(lower.substring(start, end));
+            if (node == null) {
+                return false;
+            }
+            start = end + 1;
+        }
+        return node.value == Boolean.TRUE;
+    }
+    
+    /**
+     * Get the highest number a permission stub is granted, same as
+     * {@link Permissions#hasPermissionRange(PlotPlayer, String, int)}
+     * @param stub The permission stub e.g. for `plots.plot.#` the stub is `plots.plot`
+     * @param range The highest number to check
+     * @return The highest number granted (up to range), Integer.MAX_VALUE for * nodes and admins, or 0
+     */
+    public int getRange(final String stub, final int range) {
+        if (admin) {
+            return Integer.MAX_VALUE;
+        }
+        if (root == null) {
+            final String key = stub + ":" + range;
+            Integer result = ranges.get(key);
+            if (result == null) {
+                result = Permissions.checkPermissionRange(player, stub, range);
+                ranges.put(key, result);
+            }
+            return result;
+        }
+        final String lower = stub.toLowerCase();
+        Node node = root;
+        int start = 0;
+        final int length = lower.length();
+        while (start <= length) {
+            if ((node != root) && node.isStar()) {
+                return Integer.MAX_VALUE;
+            }
+            int end = lower.indexOf('.', start);
+            if (end == -1) {
+                end = length;
+            }
+            node = node.get(lower.substring(start, end));
+            if (node == null) {
+                return 0;
+            }
+            start = end + 1;
+        }
+        if (node.isStar()) {
+            return Integer.MAX_VALUE;
+        }
+        int index = Arrays.binarySearch(node.numbers, range);
+        if (index < 0) {
+            index = -index - 2;
+        }
+        if (index < 0) {
+            return 0;
+        }
+        return Math.max(0, node.numbers[index]);
+    }
+}
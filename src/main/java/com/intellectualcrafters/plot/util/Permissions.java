@@ -1,7 +1,5 @@
 package com.intellectualcrafters.plot.util;
 
-import java.util.HashMap;
-
 import com.intellectualcrafters.plot.config.C;
 import com.intellectualcrafters.plot.config.Settings;
 import com.intellectualcrafters.plot.object.PlotPlayer;
@@ -14,6 +12,11 @@ import com.plotsquared.general.commands.CommandCaller;
  */
 public class Permissions {
     
+    /**
+     * Bumped when the permissions of any player may have changed, see invalidateAll
+     */
+    private static volatile int epoch;
+    
     /**
      * Check if a player has a permission (C class helps keep track of permissions)
      * @param player
@@ -34,19 +37,39 @@ public class Permissions {
         if (!Settings.PERMISSION_CACHING) {
             return hasPermission((CommandCaller) player, perm);
         }
-        HashMap<String, Boolean> map = (HashMap<String, Boolean>) player.getMeta("perm");
-        if (map != null) {
-            Boolean result = map.get(perm);
-            if (result != null) {
-                return result;
-            }
-        } else {
-            map = new HashMap<>();
-            player.setMeta("perm", map);
+        return getPermissions(player).has(perm);
+    }
+    
+    /**
+     * Get the cached permissions of a player (compiling them if required)
+     * @param player
+     * @return
+     */
+    public static PermissionTree getPermissions(final PlotPlayer player) {
+        PermissionTree tree = (PermissionTree) player.getMeta("perm");
+        final int current = epoch;
+        if ((tree == null) || (tree.epoch != current)) {
+            tree = new PermissionTree(player);
+            tree.epoch = current;
+            player.setMeta("perm", tree);
         }
-        boolean result = hasPermission((CommandCaller) player, perm);
-        map.put(perm, result);
-        return result;
+        return tree;
+    }
+    
+    /**
+     * Discard the cached permissions of a player (e.g. when their permissions may have changed)
+     * @param player
+     */
+    public static void invalidate(final PlotPlayer player) {
+        player.deleteMeta("perm");
+    }
+    
+    /**
+     * Discard the cached permissions of every player (e.g. after a permission plugin command)<br>
+     *  - Each player's permissions are compiled again when they are next checked
+     */
+    public static void invalidateAll() {
+        epoch++;
     }
     
     /**
@@ -100,6 +123,17 @@ public class Permissions {
      * @return The highest permission they have within that range
      */
     public static int hasPermissionRange(final PlotPlayer player, final String stub, final int range) {
+        if (Settings.PERMISSION_CACHING) {
+            return getPermissions(player).getRange(stub, range);
+        }
+        return checkPermissionRange(player, stub, range);
+    }
+    
+    /**
+     * Check a permission range with the player (one permission at a time)
+     * @see #hasPermissionRange(PlotPlayer, String, int)
+     */
+    static int checkPermissionRange(final PlotPlayer player, final String stub, final int range) {
         if (player.hasPermission(C.PERMISSION_ADMIN.s())) {
             return Integer.MAX_VALUE;
         }
@@ -0,0 +1,182 @@
+package com.intellectualcrafters.plot.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.intellectualcrafters.plot.object.Plot;
+import com.intellectualcrafters.plot.object.PlotId;
+
+/**
+ * Secondary index of UUID to plots for the in-memory plot registry<br>
+ *  - Plots are tracked by identity, as a PlotId can change while a plot is moved or swapped<br>
+ *  - Each indexed plot remembers the UUIDs it was indexed under, so re-indexing only needs the plot<br>
+ *  - Only direct relations are stored (e.g. a merged plot is only indexed under its own owner)
+ */
+public class PlayerPlotIndex {
+    
+    public enum Relation {
+        OWNER,
+        TRUSTED,
+        MEMBER,
+        DENIED
+    }
+    
+    private static final Relation[] RELATIONS = Relation.values();
+    
+    private final HashMap<UUID, Set<Plot>>[] byRelation;
+    private final IdentityHashMap<Plot, UUID[][]> indexed = new IdentityHashMap<>();
+    
+    @SuppressWarnings("unchecked")
+    public PlayerPlotIndex() {
+        byRelation = new HashMap[RELATIONS.length];
+        for (int i = 0; i < byRelation.length; i++) {
+            byRelation[i] = new HashMap<>();
+        }
+    }
+    
+    /**
+     * Index (or re-index) a plot with its current owner, trusted, members and denied<br>
+     *  - An unowned plot is removed from the index
+     * @param plot
+     */
+    public synchronized void index(final Plot plot) {
+        remove(plot);
+        if (plot.owner == null) {
+            return;
+        }
+        final UUID[][] entry = new UUID[RELATIONS.length][];
+        entry[Relation.OWNER.ordinal()] = new UUID[] { plot.owner };
+        entry[Relation.TRUSTED.ordinal()] = toArray(plot.trusted);
+        entry[Relation.MEMBER.ordinal()] = toArray(plot.members);
+        entry[Relation.DENIED.ordinal()] = toArray(plot.denied);
+        for (int i = 0; i < entry.length; i++) {
+            final HashMap<UUID, Set<Plot>> map = byRelation[i];
+            for (final UUID uuid : entry[i]) {
+                Set<Plot> plots = map.get(uuid);
+                if (plots == null) {
+                    plots = Collections.newSetFromMap(new IdentityHashMap<Plot, Boolean>());
+                    map.put(uuid, plots);
+                }
+                plots.add(plot);
+            }
+        }
+        indexed.put(plot, entry);
+    }
+    
+    /**
+     * Remove a plot from the index
+     * @param plot
+     * @return true if the plot was indexed
+     */
+    public synchronized boolean remove(final Plot plot) {
+        final UUID[][] entry = indexed.remove(plot);
+        if (entry == null) {
+            return false;
+        }
+        for (int i = 0; i < entry.length; i++) {
+            final HashMap<UUID, Set<Plot>> map = byRelation[i];
+            for (final UUID uuid : entry[i]) {
+                final Set<Plot> plots = map.get(uuid);
+                if (plots != null) {
+                    plots.remove(plot);
+                    if (plots.isEmpty()) {
+                        map.remove(uuid);
+                    }
+                }
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Remove all plots in a world from the index
+     * @param world
+     */
+    public synchronized void removeWorld(final String world) {
+        for (final Plot plot : new ArrayList<>(indexed.keySet())) {
+            if (plot.world.equals(world)) {
+                remove(plot);
+            }
+        }
+    }
+    
+    /**
+     * Rebuild the index from the raw plot map
+     * @param plots
+     */
+    public synchronized void rebuild(final Map<String, ConcurrentHashMap<PlotId, Plot>> plots) {
+        indexed.clear();
+        for (final HashMap<UUID, Set<Plot>> map : byRelation) {
+            map.clear();
+        }
+        if (plots == null) {
+            return;
+        }
+        for (final ConcurrentHashMap<PlotId, Plot> map : plots.values()) {
+            for (final Plot plot : map.values()) {
+                index(plot);
+            }
+        }
+    }
+    
+    /**
+     * Get the plots a UUID has a direct relation with
+     * @param uuid
+     * @param relation
+     * @return a new set of plots (empty if there are none)
+     */
+    public synchronized HashSet<Plot> getPlots(final UUID uuid, final Relation relation) {
+        final Set<Plot> plots = byRelation[relation.ordinal()].get(uuid);
+        if (plots == null) {
+            return new HashSet<>(0);
+        }
+        return new HashSet<>(plots);
+    }
+    
+    /**
+     * Get the plots in a world a UUID has a direct relation with
+     * @param world
+     * @param uuid
+     * @param relation
+     * @return a new set of plots (empty if there are none)
+     */
+    public synchronized HashSet<Plot> getPlots(final String world, final UUID uuid, final Relation relation) {
+        final Set<Plot> plots = byRelation[relation.ordinal()].get(uuid);
+        if (plots == null) {
+            return new HashSet<>(0);
+        }
+        final HashSet<Plot> result = new HashSet<>();
+        for (final Plot plot : plots) {
+            if (plot.world.equals(world)) {
+                result.add(plot);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Get the number of plots a UUID has a direct relation with
+     * @param uuid
+     * @param relation
+     * @return
+     */
+    public synchronized int count(final UUID uuid, final Relation relation) {
+        final Set<Plot> plots = byRelation[relation.ordinal()].get(uuid);
+        return plots == null ? 0 : plots.size();
+    }
+    
+    private static UUID[] toArray(final Collection<UUID> uuids) {
+        if (uuids == null || uuids.isEmpty()) {
+            return new UUID[0];
+        }
+        return uuids.toArray(new UUID[uuids.size()]);
+    }
+}
@@ -0,0 +1,131 @@
+package com.intellectualcrafters.plot.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.intellectualcrafters.plot.object.Location;
+import com.intellectualcrafters.plot.object.Plot;
+import com.intellectualcrafters.plot.object.PlotId;
+import com.intellectualcrafters.plot.object.PlotPlayer;
+
+/**
+ * Cache of the plot cell a player is standing in<br>
+ *  - Each player remembers the bounds of the last plot they were resolved to<br>
+ *  - While they stay within those bounds, the plot is returned without any lookups or allocation<br>
+ *  - Each world has a version which is bumped when plots are claimed, deleted, merged or unlinked, and when clusters are
+ *    added, removed or resized
+ */
+public class PlotCellCache {
+    
+    private static final ConcurrentHashMap<String, AtomicInteger> versions = new ConcurrentHashMap<>();
+    
+    /**
+     * Invalidate all cached cells for a world
+     * @param world
+     */
+    public static void invalidate(final String world) {
+        getVersion(world).incrementAndGet();
+    }
+    
+    /**
+     * Invalidate all cached cells
+     */
+    public static void invalidateAll() {
+        for (final AtomicInteger version : versions.values()) {
+            version.incrementAndGet();
+        }
+    }
+    
+    private static AtomicInteger getVersion(final String world) {
+        AtomicInteger version = versions.get(world);
+        if (version == null) {
+            version = new AtomicInteger();
+            final AtomicInteger existing = versions.putIfAbsent(world, version);
+            if (existing != null) {
+                version = existing;
+            }
+        }
+        return version;
+    }
+    
+    /**
+     * Get the cached cell for a player (created on first use)
+     * @param player
+     * @return
+     */
+    public static Cell getCell(final PlotPlayer player) {
+        Cell cell = (Cell) player.getMeta("plotcell");
+        if (cell == null) {
+            cell = new Cell();
+            player.setMeta("plotcell", cell);
+        }
+        return cell;
+    }
+    
+    public static class Cell {
+        private String world;
+        private AtomicInteger version;
+        private int stamp;
+        private int minX;
+        private int maxX;
+        private int minZ;
+        private int maxZ;
+        private Plot plot;
+        
+        /**
+         * Check if a position is within the cached plot, and the cache is still valid
+         * @param world
+         * @param x
+         * @param z
+         * @return
+         */
+        public boolean contains(final String world, final int x, final int z) {
+            return (plot != null) && (x >= minX) && (x <= maxX) && (z >= minZ) && (z <= maxZ) && (version.get() == stamp) && world.equals(this.world);
+        }
+        
+        /**
+         * Get the cached plot (the base plot if merged)
+         * @return
+         */
+        public Plot getPlot() {
+            return plot;
+        }
+        
+        /**
+         * Resolve the plot at a location and cache its bounds<br>
+         *  - Only plots are cached, positions on the road are always resolved
+         * @param loc
+         * @return The plot at the location (the base plot if merged)
+         */
+        public Plot update(final Location loc) {
+            final String world = loc.getWorld();
+            final AtomicInteger version = getVersion(world);
+            // Read the version first, so a change while resolving invalidates the result
+            final int stamp = version.get();
+            final PlotId id = MainUtil.getPlotId(loc);
+            if (id == null) {
+                plot = null;
+                return null;
+            }
+            final Plot result = MainUtil.getPlot(MainUtil.getPlotAbs(world, id));
+            final Location bot = MainUtil.getPlotBottomLocAbs(world, id);
+            final Location top = MainUtil.getPlotTopLocAbs(world, id);
+            this.world = world;
+            this.version = version;
+            this.stamp = stamp;
+            minX = bot.getX();
+            minZ = bot.getZ();
+            maxX = top.getX();
+            maxZ = top.getZ();
+            plot = result;
+            return result;
+        }
+        
+        /**
+         * Clear the cached plot
+         */
+        public void clear() {
+            plot = null;
+        }
+    }
+}
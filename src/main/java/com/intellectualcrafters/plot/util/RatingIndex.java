@@ -0,0 +1,306 @@
+package com.intellectualcrafters.plot.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+
+import com.intellectualcrafters.plot.PS;
+import com.intellectualcrafters.plot.config.Settings;
+import com.intellectualcrafters.plot.object.Plot;
+import com.intellectualcrafters.plot.object.Rating;
+
+/**
+ * The rating totals of each rated plot, and the plots sorted by rating<br>
+ *  - The totals of a plot are recalculated from its ratings when one is set (see DBFunc.setRating), and when its rating
+ *    map was replaced or added to directly<br>
+ *  - The leaderboard (see {@link Aggregate#getScore()}) is kept sorted globally and per world, so pages of the top plots
+ *    don't need any sorting<br>
+ *  - Plots are kept in the order they least need ratings, for /plot rate next<br>
+ *  - Only plots with their ratings loaded (see Settings.CACHE_RATINGS) are indexed, the index is filled on first use
+ *    and plots of worlds added later are indexed with addPlots<br>
+ *  - The index is synchronized, but the rating maps it reads are not, so only use it from the main thread
+ */
+public class RatingIndex {
+    
+    /**
+     * The rating totals of a plot<br>
+     *  - Each rating is decoded by {@link Rating}
+     */
+    public static class Aggregate {
+        private final Plot plot;
+        private final long order;
+        private final Map<UUID, Integer> source;
+        private final int sourceSize;
+        private int count;
+        private double sum;
+        private double sumSquares;
+        private double penalty;
+        private final double[] categories;
+        
+        private Aggregate(final Plot plot, final long order, final Map<UUID, Integer> ratings) {
+            this.plot = plot;
+            this.order = order;
+            source = ratings;
+            sourceSize = ratings.size();
+            final int size = (Settings.RATING_CATEGORIES == null) || (Settings.RATING_CATEGORIES.size() <= 1) ? 0 : Settings.RATING_CATEGORIES.size();
+            categories = new double[Math.max(1, size)];
+            for (final Integer value : ratings.values()) {
+                final Rating rating = new Rating(value);
+                final double average = rating.getAverageRating();
+                if (size == 0) {
+                    categories[0] += average;
+                } else {
+                    for (int i = 0; i < size; i++) {
+                        categories[i] += rating.getRating(Settings.RATING_CATEGORIES.get(i));
+                    }
+                }
+                count++;
+                sum += average;
+                sumSquares += average * average;
+                penalty += 11 - average;
+            }
+        }
+        
+        public Plot getPlot() {
+            return plot;
+        }
+        
+        /**
+         * @return The number of players who rated the plot
+         */
+        public int getCount() {
+            return count;
+        }
+        
+        /**
+         * @return The average rating (of each player's average over the categories)
+         */
+        public double getAverage() {
+            return count == 0 ? 0 : sum / count;
+        }
+        
+        /**
+         * @return The average rating of each category (in the order of the config)
+         */
+        public double[] getCategoryAverages() {
+            final double[] averages = new double[categories.length];
+            if (count != 0) {
+                for (int i = 0; i < averages.length; i++) {
+                    averages[i] = categories[i] / count;
+                }
+            }
+            return averages;
+        }
+        
+        /**
+         * The leaderboard score used by /plot list top<br>
+         *  - The mean of the squared average ratings, plus the number of ratings
+         * @return
+         */
+        public double getScore() {
+            return count == 0 ? 0 : (sumSquares / count) + count;
+        }
+    }
+    
+    private static final Comparator<Aggregate> TOP = new Comparator<Aggregate>() {
+        @Override
+        public int compare(final Aggregate a, final Aggregate b) {
+            final int score = Double.compare(b.getScore(), a.getScore());
+            if (score != 0) {
+                return score;
+            }
+            if (a.count != b.count) {
+                return b.count - a.count;
+            }
+            return Long.compare(a.order, b.order);
+        }
+    };
+    
+    private static final Comparator<Aggregate> NEXT = new Comparator<Aggregate>() {
+        @Override
+        public int compare(final Aggregate a, final Aggregate b) {
+            final int penalty = Double.compare(a.penalty, b.penalty);
+            if (penalty != 0) {
+                return penalty;
+            }
+            return Long.compare(a.order, b.order);
+        }
+    };
+    
+    /**
+     * Keyed by identity, as the id of a plot changes when it is moved
+     */
+    private static final IdentityHashMap<Plot, Aggregate> aggregates = new IdentityHashMap<>();
+    private static final TreeSet<Aggregate> top = new TreeSet<>(TOP);
+    private static final HashMap<String, TreeSet<Aggregate>> worldTop = new HashMap<>();
+    private static final TreeSet<Aggregate> next = new TreeSet<>(NEXT);
+    private static boolean loaded;
+    private static long order;
+    
+    private static void load() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        for (final Plot plot : PS.get().getPlots()) {
+            final Map<UUID, Integer> ratings = plot.getSettings().ratings;
+            if ((ratings != null) && (ratings.size() > 0)) {
+                index(plot, ratings);
+            }
+        }
+    }
+    
+    private static Aggregate index(final Plot plot, final Map<UUID, Integer> ratings) {
+        final Aggregate previous = unindex(plot);
+        if ((ratings == null) || (ratings.size() == 0)) {
+            return null;
+        }
+        final Aggregate aggregate = new Aggregate(plot, previous == null ? order++ : previous.order, ratings);
+        aggregates.put(plot, aggregate);
+        top.add(aggregate);
+        next.add(aggregate);
+        TreeSet<Aggregate> world = worldTop.get(plot.world);
+        if (world == null) {
+            world = new TreeSet<>(TOP);
+            worldTop.put(plot.world, world);
+        }
+        world.add(aggregate);
+        return aggregate;
+    }
+    
+    private static Aggregate unindex(final Plot plot) {
+        final Aggregate aggregate = aggregates.remove(plot);
+        if (aggregate != null) {
+            top.remove(aggregate);
+            next.remove(aggregate);
+            final TreeSet<Aggregate> world = worldTop.get(plot.world);
+            if (world != null) {
+                world.remove(aggregate);
+            }
+        }
+        return aggregate;
+    }
+    
+    /**
+     * Get the rating totals of a plot
+     * @param plot
+     * @return The totals, or null if the plot has no (loaded) ratings
+     */
+    public static synchronized Aggregate get(final Plot plot) {
+        load();
+        final Map<UUID, Integer> ratings = plot.getSettings().ratings;
+        final Aggregate aggregate = aggregates.get(plot);
+        if ((aggregate != null) && (aggregate.source == ratings) && (aggregate.sourceSize == ratings.size())) {
+            return aggregate;
+        }
+        return index(plot, ratings);
+    }
+    
+    /**
+     * Recalculate the totals of a plot after its ratings changed
+     * @param plot
+     */
+    public static synchronized void update(final Plot plot) {
+        load();
+        index(plot, plot.getSettings().ratings);
+    }
+    
+    /**
+     * Remove a plot (e.g. when it or its ratings are deleted)
+     * @param plot
+     */
+    public static synchronized void remove(final Plot plot) {
+        unindex(plot);
+    }
+    
+    /**
+     * Index the rated plots of a world which was added (or loaded again) after the index was filled
+     * @param plots
+     */
+    public static synchronized void addPlots(final Collection<Plot> plots) {
+        if (!loaded) {
+            // They are indexed on first use
+            return;
+        }
+        for (final Plot plot : plots) {
+            final Map<UUID, Integer> ratings = plot.getSettings().ratings;
+            if ((ratings != null) && (ratings.size() > 0)) {
+                index(plot, ratings);
+            }
+        }
+    }
+    
+    /**
+     * Remove the plots of a world (e.g. when it is unloaded)
+     * @param world
+     */
+    public static synchronized void removeWorld(final String world) {
+        final TreeSet<Aggregate> set = worldTop.remove(world);
+        if (set == null) {
+            return;
+        }
+        for (final Aggregate aggregate : set) {
+            aggregates.remove(aggregate.plot);
+            top.remove(aggregate);
+            next.remove(aggregate);
+        }
+    }
+    
+    /**
+     * Get a page of the highest rated plots
+     * @param world The world, or null for all worlds
+     * @param offset The number of plots to skip
+     * @param limit The maximum number of plots to return
+     * @return
+     */
+    public static synchronized List<Plot> getTop(final String world, final int offset, final int limit) {
+        load();
+        final TreeSet<Aggregate> set = world == null ? top : worldTop.get(world);
+        final ArrayList<Plot> plots = new ArrayList<>();
+        if (set == null) {
+            return plots;
+        }
+        final Iterator<Aggregate> iter = set.iterator();
+        for (int i = 0; (i < offset) && iter.hasNext(); i++) {
+            iter.next();
+        }
+        while (iter.hasNext() && (plots.size() < limit)) {
+            plots.add(iter.next().plot);
+        }
+        return plots;
+    }
+    
+    /**
+     * Get the number of rated plots
+     * @param world The world, or null for all worlds
+     * @return
+     */
+    public static synchronized int size(final String world) {
+        load();
+        if (world == null) {
+            return top.size();
+        }
+        final TreeSet<Aggregate> set = worldTop.get(world);
+        return set == null ? 0 : set.size();
+    }
+    
+    /**
+     * Get the rated plots, from the one which most needs ratings (fewest and lowest) to the least
+     * @return
+     */
+    public static synchronized List<Plot> getNeedingRatings() {
+        load();
+        final ArrayList<Plot> plots = new ArrayList<>(next.size());
+        for (final Aggregate aggregate : next) {
+            plots.add(aggregate.plot);
+        }
+        return plots;
+    }
+}
@@ -20,6 +20,9 @@
 ////////////////////////////////////////////////////////////////////////////////////////////////////
 package com.intellectualcrafters.plot.util;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
@@ -495,6 +498,7 @@ public class ReflectionUtils {
      */
     public static class RefMethod {
         private final Method method;
+        private MethodHandle handle;
         
         private RefMethod(final Method method) {
             this.method = method;
@@ -508,6 +512,37 @@ public class ReflectionUtils {
             return method;
         }
         
+        /**
+         * Get a method handle for this method (resolved once)<br>
+         *  - For instance methods the first parameter is the object the method is applied to
+         *
+         * @return the method handle
+         */
+        public MethodHandle getHandle() {
+            if (handle == null) {
+                try {
+                    handle = MethodHandles.lookup().unreflect(method);
+                } catch (final IllegalAccessException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            return handle;
+        }
+        
+        /**
+         * Get a method handle for this method adapted to the given type, so it can be called with invokeExact (without
+         * boxing or a varargs array) by code which can't refer to the real classes<br>
+         *  - e.g. getHandle(Object.class, Object.class, int.class) for an instance method taking an int
+         *
+         * @param returnType
+         * @param parameterTypes including the object the method is applied to, for instance methods
+         *
+         * @return the adapted method handle
+         */
+        public MethodHandle getHandle(final Class<?> returnType, final Class<?>... parameterTypes) {
+            return getHandle().asType(MethodType.methodType(returnType, parameterTypes));
+        }
+        
         /**
          * @return owner class of method
          */
@@ -579,6 +614,7 @@ public class ReflectionUtils {
      */
     public static class RefConstructor {
         private final Constructor constructor;
+        private MethodHandle handle;
         
         private RefConstructor(final Constructor constructor) {
             this.constructor = constructor;
@@ -592,6 +628,34 @@ public class ReflectionUtils {
             return constructor;
         }
         
+        /**
+         * Get a method handle for this constructor (resolved once)
+         *
+         * @return the method handle
+         */
+        public MethodHandle getHandle() {
+            if (handle == null) {
+                try {
+                    handle = MethodHandles.lookup().unreflectConstructor(constructor);
+                } catch (final IllegalAccessException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            return handle;
+        }
+        
+        /**
+         * Get a method handle for this constructor returning Object, adapted to the given parameter types (see
+         * {@link RefMethod#getHandle(Class, Class...)})
+         *
+         * @param parameterTypes
+         *
+         * @return the adapted method handle
+         */
+        public MethodHandle getHandle(final Class<?>... parameterTypes) {
+            return getHandle().asType(MethodType.methodType(Object.class, parameterTypes));
+        }
+        
         /**
          * @return owner class of method
          */
@@ -200,6 +200,7 @@ public abstract class SchematicHandler {
                         @Override
                         public void run() {
                             int count = 0;
+                            SetBlockQueue.setJob("paste " + plot.world + ";" + plot.id);
                             while ((chunks.size() > 0) && (count < 256)) {
                                 count++;
                                 final ChunkLoc chunk = chunks.remove(0);
@@ -315,7 +316,7 @@ public abstract class SchematicHandler {
                                                     break;
                                                 }
                                                 default: {
-                                                    SetBlockQueue.setBlock(plot.world, xx, yy, zz, new PlotBlock((short) id, datas[i]));
+                                                    SetBlockQueue.setBlock(plot.world, xx, yy, zz, id, datas[i]);
                                                     break;
                                                 }
                                             }
@@ -323,6 +324,7 @@ public abstract class SchematicHandler {
                                     }
                                 }
                             }
+                            SetBlockQueue.setJob(null);
                             if (chunks.size() != 0) {
                                 final Runnable task = this;
                                 // Run when the queue is free
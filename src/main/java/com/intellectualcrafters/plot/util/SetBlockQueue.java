@@ -1,25 +1,42 @@
 package com.intellectualcrafters.plot.util;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
-import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.intellectualcrafters.plot.PS;
+import com.intellectualcrafters.plot.config.Settings;
 import com.intellectualcrafters.plot.object.ChunkLoc;
 import com.intellectualcrafters.plot.object.PlotBlock;
 
+/**
+ * Queue of block changes which are applied on the main thread<br>
+ *  - Blocks can be added from any thread<br>
+ *  - Each chunk stores up to 16 sections of 4096 packed id/data values (see {@link #encode(int, byte)})<br>
+ *  - A bitmask per chunk keeps track of which sections are present<br>
+ *  - Adding a block does not allocate, unless a new chunk or section is needed<br>
+ *  - Chunks are grouped into jobs (see {@link #setJob(String)}), which take turns each tick<br>
+ *  - In adaptive mode the time spent each tick follows how far the server is behind
+ */
 public class SetBlockQueue {
     
-    private volatile static HashMap<ChunkWrapper, PlotBlock[][]> blocks;
+    private static final ConcurrentHashMap<ChunkWrapper, QueuedChunk> blocks = new ConcurrentHashMap<>();
+    private static final ArrayDeque<Runnable> runnables = new ArrayDeque<>();
+    private static final ThreadLocal<QueuedChunk> lastChunk = new ThreadLocal<>();
+    private static final ThreadLocal<String> currentJob = new ThreadLocal<>();
+    private static final HashMap<String, Job> jobs = new HashMap<>();
+    private static final ArrayDeque<Job> order = new ArrayDeque<>();
     private volatile static int allocate = 25;
+    private volatile static int budget = 25;
     private volatile static boolean running = false;
-    private volatile static boolean locked = false;
-    private volatile static ArrayDeque<Runnable> runnables;
     private volatile static boolean slow = false;
-    private static long last;
-    private static int lastInt = 0;
-    private static PlotBlock lastBlock = new PlotBlock((short) 0, (byte) 0);
+    private static long lastTick;
+    
+    /**
+     * The name of the job blocks are added to when none is set
+     */
+    public static final String DEFAULT_JOB = "default";
     
     public synchronized static void allocate(final int t) {
         allocate = t;
@@ -33,252 +50,500 @@ public class SetBlockQueue {
         slow = value;
     }
     
-    public synchronized static boolean addNotify(final Runnable whenDone) {
-        if (runnables == null) {
-            if ((blocks == null) || (blocks.size() == 0)) {
+    /**
+     * Get the number of chunks waiting to be applied
+     * @return
+     */
+    public static int getQueuedChunks() {
+        return blocks.size();
+    }
+    
+    /**
+     * Get the time (ms) the queue may use for the next tick
+     * @return
+     */
+    public static int getBudget() {
+        return budget;
+    }
+    
+    /**
+     * Set the job that blocks added by the current thread belong to<br>
+     *  - Each job gets a fair share of the budget, so a large job cannot hold up a small one<br>
+     *  - Jobs are removed once all of their chunks are applied
+     * @param name The job name, or null for the default job
+     */
+    public static void setJob(final String name) {
+        if (name == null) {
+            currentJob.remove();
+        } else {
+            currentJob.set(name);
+        }
+    }
+    
+    /**
+     * Get the job that blocks added by the current thread belong to (see setJob)
+     * @return The job name, or null for the default job
+     */
+    public static String getJob() {
+        return currentJob.get();
+    }
+    
+    /**
+     * Get a snapshot of the jobs which are still running
+     * @return
+     */
+    public synchronized static ArrayList<Job> getJobs() {
+        return new ArrayList<>(order);
+    }
+    
+    /**
+     * Run a task once the queue is empty
+     * @param whenDone
+     * @return true if the queue was already free
+     */
+    public static boolean addNotify(final Runnable whenDone) {
+        final ArrayList<Runnable> tasks;
+        final boolean free;
+        synchronized (SetBlockQueue.class) {
+            if (blocks.size() != 0) {
                 if (whenDone != null) {
-                    whenDone.run();
+                    init();
+                    runnables.add(whenDone);
                 }
-                slow = false;
-                locked = false;
-                return true;
+                return false;
             }
-            runnables = new ArrayDeque<>();
-        }
-        if (whenDone != null) {
-            init();
-            runnables.add(whenDone);
-        }
-        if ((blocks == null) || (blocks.size() == 0) || !blocks.entrySet().iterator().hasNext()) {
-            final ArrayDeque<Runnable> tasks = runnables;
-            lastInt = -1;
-            lastBlock = null;
-            runnables = null;
-            running = false;
-            blocks = null;
-            slow = false;
-            if (tasks != null) {
-                for (final Runnable runnable : tasks) {
-                    runnable.run();
-                }
+            free = runnables.size() == 0;
+            if (whenDone != null) {
+                runnables.add(whenDone);
             }
+            tasks = pollTasks();
+        }
+        for (final Runnable runnable : tasks) {
+            runnable.run();
         }
-        return false;
+        return free;
+    }
+    
+    private static ArrayList<Runnable> pollTasks() {
+        final ArrayList<Runnable> tasks = new ArrayList<>(runnables);
+        runnables.clear();
+        slow = false;
+        return tasks;
     }
     
     public synchronized static void init() {
-        if (blocks == null) {
-            if (MainUtil.x_loc == null) {
-                MainUtil.initCache();
-            }
-            blocks = new HashMap<>();
-            runnables = new ArrayDeque<>();
+        if (running) {
+            return;
         }
-        if (!running) {
-            TaskManager.index.incrementAndGet();
-            final int current = TaskManager.index.intValue();
-            final int task = TaskManager.runTaskRepeat(new Runnable() {
-                @Override
-                public void run() {
-                    if (locked) {
-                        return;
-                    }
-                    if ((blocks == null) || (blocks.size() == 0)) {
-                        PS.get().TASK.cancelTask(TaskManager.tasks.get(current));
-                        final ArrayDeque<Runnable> tasks = runnables;
-                        lastInt = -1;
-                        lastBlock = null;
-                        runnables = null;
+        TaskManager.index.incrementAndGet();
+        final int current = TaskManager.index.intValue();
+        final int task = TaskManager.runTaskRepeat(new Runnable() {
+            @Override
+            public void run() {
+                if (blocks.size() == 0) {
+                    final ArrayList<Runnable> tasks;
+                    synchronized (SetBlockQueue.class) {
                         running = false;
-                        blocks = null;
-                        slow = false;
-                        if (tasks != null) {
-                            for (final Runnable runnable : tasks) {
-                                runnable.run();
-                            }
-                        }
-                        return;
-                    }
-                    final long newLast = System.currentTimeMillis();
-                    last = Math.max(newLast - 50, last);
-                    while ((blocks.size() > 0) && ((System.currentTimeMillis() - last) < (50 + allocate))) {
-                        if (locked) {
+                        if (blocks.size() != 0) {
+                            // Something was added while stopping
+                            running = true;
                             return;
                         }
-                        final Iterator<Entry<ChunkWrapper, PlotBlock[][]>> iter = blocks.entrySet().iterator();
-                        if (!iter.hasNext()) {
-                            PS.get().TASK.cancelTask(TaskManager.tasks.get(current));
-                            final ArrayDeque<Runnable> tasks = runnables;
-                            lastInt = -1;
-                            lastBlock = null;
-                            runnables = null;
-                            running = false;
-                            blocks = null;
-                            slow = false;
-                            if (tasks != null) {
-                                for (final Runnable runnable : tasks) {
-                                    runnable.run();
-                                }
-                            }
+                        PS.get().TASK.cancelTask(TaskManager.tasks.get(current));
+                        TaskManager.tasks.remove(current);
+                        lastTick = 0;
+                        tasks = pollTasks();
+                    }
+                    for (final Runnable runnable : tasks) {
+                        runnable.run();
+                    }
+                    return;
+                }
+                final long now = System.currentTimeMillis();
+                updateBudget(now);
+                final long deadline = now + budget;
+                final boolean adaptive = Settings.QUEUE_ADAPTIVE && !slow;
+                do {
+                    final Job job;
+                    final QueuedChunk chunk;
+                    synchronized (SetBlockQueue.class) {
+                        job = order.poll();
+                        if (job == null) {
                             return;
                         }
-                        final Entry<ChunkWrapper, PlotBlock[][]> n = iter.next();
-                        final ChunkWrapper chunk = n.getKey();
-                        final PlotBlock[][] blocks = n.getValue();
-                        final int X = chunk.x << 4;
-                        final int Z = chunk.z << 4;
-                        final String world = chunk.world;
-                        if (slow) {
-                            boolean once = false;
-                            for (int j = 0; j < blocks.length; j++) {
-                                final PlotBlock[] blocksj = blocks[j];
-                                if (blocksj != null) {
-                                    final long start = System.currentTimeMillis();
-                                    for (int k = 0; k < blocksj.length; k++) {
-                                        if (once && ((System.currentTimeMillis() - start) > allocate)) {
-                                            SetBlockQueue.blocks.put(n.getKey(), blocks);
-                                            return;
-                                        }
-                                        final PlotBlock block = blocksj[k];
-                                        if (block != null) {
-                                            final int x = MainUtil.x_loc[j][k];
-                                            final int y = MainUtil.y_loc[j][k];
-                                            final int z = MainUtil.z_loc[j][k];
-                                            BlockManager.manager.functionSetBlock(world, X + x, y, Z + z, block.id, block.data);
-                                            blocks[j][k] = null;
-                                            once = true;
-                                        }
-                                    }
-                                }
-                            }
-                            SetBlockQueue.blocks.remove(n.getKey());
-                            return;
+                        chunk = job.chunks.peek();
+                    }
+                    final boolean done = (chunk == null) || chunk.apply(adaptive || slow ? deadline : -1);
+                    synchronized (SetBlockQueue.class) {
+                        if (done && (chunk != null)) {
+                            job.chunks.poll();
+                            job.completed++;
                         }
-                        SetBlockQueue.blocks.remove(n.getKey());
-                        for (int j = 0; j < blocks.length; j++) {
-                            final PlotBlock[] blocksj = blocks[j];
-                            if (blocksj != null) {
-                                for (int k = 0; k < blocksj.length; k++) {
-                                    final PlotBlock block = blocksj[k];
-                                    if (block != null) {
-                                        final int x = MainUtil.x_loc[j][k];
-                                        final int y = MainUtil.y_loc[j][k];
-                                        final int z = MainUtil.z_loc[j][k];
-                                        BlockManager.manager.functionSetBlock(world, X + x, y, Z + z, block.id, block.data);
-                                    }
-                                }
-                            }
+                        if (job.chunks.isEmpty()) {
+                            jobs.remove(job.name);
+                        } else {
+                            // Let the next job have a turn
+                            order.add(job);
                         }
                     }
-                }
-            }, 1);
-            TaskManager.tasks.put(current, task);
-            running = true;
+                } while (!slow && (System.currentTimeMillis() < deadline));
+            }
+        }, 1);
+        TaskManager.tasks.put(current, task);
+        running = true;
+    }
+    
+    /**
+     * Update the budget from the length of the last tick<br>
+     *  - While ticks take 50ms or less, the budget slowly grows<br>
+     *  - When a tick runs over, the budget shrinks by the time it ran over
+     * @param now
+     */
+    private static void updateBudget(final long now) {
+        if (!Settings.QUEUE_ADAPTIVE || slow) {
+            budget = allocate;
+            lastTick = now;
+            return;
         }
+        final int min = Math.max(1, Settings.QUEUE_MIN_BUDGET);
+        final int max = Math.max(min, Settings.QUEUE_MAX_BUDGET);
+        int value = budget;
+        if (lastTick != 0) {
+            final long overrun = (now - lastTick) - 50;
+            if (overrun <= 1) {
+                value++;
+            } else {
+                value -= (int) Math.min(overrun, max);
+            }
+        }
+        budget = Math.max(min, Math.min(max, value));
+        lastTick = now;
     }
     
-    public static void setChunk(final String world, final ChunkLoc loc, final PlotBlock[][] result) {
-        locked = true;
+    /**
+     * Pack a block id and data value<br>
+     *  - 0 is reserved for "no change"<br>
+     *  - An id of -1 only changes the data value
+     * @param id the block id (-1 to 4093)
+     * @param data the data value (0 to 15)
+     * @return packed value
+     */
+    public static char encode(final int id, final byte data) {
+        return (char) (((id + 2) << 4) | (data & 15));
+    }
+    
+    public static int decodeId(final char value) {
+        return (value >> 4) - 2;
+    }
+    
+    public static byte decodeData(final char value) {
+        return (byte) (value & 15);
+    }
+    
+    private static QueuedChunk getChunk(final String world, final int X, final int Z) {
+        QueuedChunk chunk = lastChunk.get();
+        if ((chunk != null) && !chunk.removed && (chunk.loc.x == X) && (chunk.loc.z == Z) && chunk.loc.world.equals(world)) {
+            return chunk;
+        }
+        final ChunkWrapper wrap = new ChunkWrapper(world, X, Z);
+        chunk = blocks.get(wrap);
+        if (chunk == null) {
+            synchronized (SetBlockQueue.class) {
+                chunk = blocks.get(wrap);
+                if (chunk == null) {
+                    String name = currentJob.get();
+                    if (name == null) {
+                        name = DEFAULT_JOB;
+                    }
+                    Job job = jobs.get(name);
+                    if (job == null) {
+                        job = new Job(name);
+                        jobs.put(name, job);
+                        order.add(job);
+                    }
+                    chunk = new QueuedChunk(wrap);
+                    job.chunks.add(chunk);
+                    job.total++;
+                    blocks.put(wrap, chunk);
+                }
+            }
+        }
+        lastChunk.set(chunk);
         if (!running) {
             init();
         }
-        final ChunkWrapper wrap = new ChunkWrapper(world, loc.x, loc.z);
-        blocks.put(wrap, result);
-        locked = false;
+        return chunk;
     }
     
-    public static void setBlock(final String world, int x, final int y, int z, final PlotBlock block) {
-        locked = true;
-        if (!running) {
-            init();
+    private static void set(final String world, final int x, final int y, final int z, final char value) {
+        if ((y > 255) || (y < 0)) {
+            return;
         }
         final int X = x >> 4;
         final int Z = z >> 4;
-        x -= X << 4;
-        z -= Z << 4;
-        
-        final ChunkWrapper wrap = new ChunkWrapper(world, X, Z);
-        PlotBlock[][] result;
-        result = blocks.get(wrap);
-        if (!blocks.containsKey(wrap)) {
-            result = new PlotBlock[16][];
-            blocks.put(wrap, result);
+        while (!getChunk(world, X, Z).set(x & 15, y, z & 15, value)) {
+            // The chunk was taken by the main thread, try again with a new one
         }
-        if ((y > 255) || (y < 0)) {
-            locked = false;
+    }
+    
+    public static void setChunk(final String world, final ChunkLoc loc, final PlotBlock[][] result) {
+        final int X = loc.x << 4;
+        final int Z = loc.z << 4;
+        for (int j = 0; j < result.length; j++) {
+            final PlotBlock[] section = result[j];
+            if (section == null) {
+                continue;
+            }
+            for (int i = 0; i < section.length; i++) {
+                final PlotBlock block = section[i];
+                if (block != null) {
+                    set(world, X + (i & 15), (j << 4) | (i >> 8), Z + ((i >> 4) & 15), encode(block.id, block.data));
+                }
+            }
+        }
+    }
+    
+    public static void setBlock(final String world, final int x, final int y, final int z, final PlotBlock block) {
+        set(world, x, y, z, encode(block.id, block.data));
+    }
+    
+    public static void setData(final String world, final int x, final int y, final int z, final byte data) {
+        set(world, x, y, z, encode(-1, data));
+    }
+    
+    public static void setBlock(final String world, final int x, final int y, final int z, final int id) {
+        set(world, x, y, z, encode(id, (byte) 0));
+    }
+    
+    public static void setBlock(final String world, final int x, final int y, final int z, final int id, final byte data) {
+        set(world, x, y, z, encode(id, data));
+    }
+    
+    /**
+     * Queue a cuboid of a single block (inclusive coordinates)
+     * @see #setCuboid(String, int, int, int, int, int, int, PlotBlock[])
+     */
+    public static void setCuboid(final String world, final int x1, final int y1, final int z1, final int x2, final int y2, final int z2, final int id, final byte data) {
+        setCuboid(world, x1, y1, z1, x2, y2, z2, new char[] { encode(id, data) });
+    }
+    
+    /**
+     * Queue a cuboid (inclusive coordinates)<br>
+     *  - The cuboid is written a chunk at a time<br>
+     *  - If multiple blocks are provided, the result will be a random mix
+     * @param world
+     * @param x1
+     * @param y1
+     * @param z1
+     * @param x2
+     * @param y2
+     * @param z2
+     * @param blocks
+     */
+    public static void setCuboid(final String world, final int x1, final int y1, final int z1, final int x2, final int y2, final int z2, final PlotBlock[] blocks) {
+        final char[] values = new char[blocks.length];
+        for (int i = 0; i < blocks.length; i++) {
+            values[i] = encode(blocks[i].id, blocks[i].data);
+        }
+        setCuboid(world, x1, y1, z1, x2, y2, z2, values);
+    }
+    
+    private static void setCuboid(final String world, final int x1, int y1, final int z1, final int x2, int y2, final int z2, final char[] values) {
+        y1 = Math.max(0, y1);
+        y2 = Math.min(255, y2);
+        if ((y1 > y2) || (x1 > x2) || (z1 > z2) || (values.length == 0)) {
             return;
         }
-        if (result[y >> 4] == null) {
-            result[y >> 4] = new PlotBlock[4096];
+        for (int X = x1 >> 4; X <= (x2 >> 4); X++) {
+            final int minX = Math.max(x1, X << 4) & 15;
+            final int maxX = Math.min(x2, (X << 4) + 15) & 15;
+            for (int Z = z1 >> 4; Z <= (z2 >> 4); Z++) {
+                final int minZ = Math.max(z1, Z << 4) & 15;
+                final int maxZ = Math.min(z2, (Z << 4) + 15) & 15;
+                while (!getChunk(world, X, Z).setCuboid(minX, y1, minZ, maxX, y2, maxZ, values)) {
+                    // The chunk was taken by the main thread, try again with a new one
+                }
+            }
         }
-        result[y >> 4][((y & 0xF) << 8) | (z << 4) | x] = block;
-        locked = false;
     }
     
-    public static void setData(final String world, int x, final int y, int z, final byte data) {
-        locked = true;
-        if (!running) {
-            init();
+    /**
+     * The pending changes for a chunk<br>
+     *  - All access is synchronized on the instance<br>
+     *  - Once removed from the queue, the chunk no longer accepts changes
+     */
+    private static class QueuedChunk {
+        private final ChunkWrapper loc;
+        private final char[][] sections = new char[16][];
+        private final int[] counts = new int[16];
+        private int mask;
+        private volatile boolean removed;
+        
+        public QueuedChunk(final ChunkWrapper loc) {
+            this.loc = loc;
         }
-        final int X = x >> 4;
-        final int Z = z >> 4;
-        x -= X << 4;
-        z -= Z << 4;
-        final ChunkWrapper wrap = new ChunkWrapper(world, X, Z);
-        PlotBlock[][] result;
-        result = blocks.get(wrap);
-        if (result == null) {
-            if (blocks == null) {
-                init();
+        
+        private char[] getSection(final int j) {
+            char[] section = sections[j];
+            if (section == null) {
+                section = new char[4096];
+                sections[j] = section;
+                mask |= 1 << j;
             }
-            result = new PlotBlock[16][];
-            blocks.put(wrap, result);
+            return section;
         }
-        if ((y > 255) || (y < 0)) {
-            locked = false;
-            return;
+        
+        public synchronized boolean set(final int x, final int y, final int z, final char value) {
+            if (removed) {
+                return false;
+            }
+            final int j = y >> 4;
+            final char[] section = getSection(j);
+            final int i = ((y & 15) << 8) | (z << 4) | x;
+            if (section[i] == 0) {
+                counts[j]++;
+            }
+            section[i] = value;
+            return true;
         }
-        if (result[y >> 4] == null) {
-            result[y >> 4] = new PlotBlock[4096];
+        
+        public synchronized boolean setCuboid(final int x1, final int y1, final int z1, final int x2, final int y2, final int z2, final char[] values) {
+            if (removed) {
+                return false;
+            }
+            for (int y = y1; y <= y2; y++) {
+                final int j = y >> 4;
+                final char[] section = getSection(j);
+                int count = counts[j];
+                for (int z = z1; z <= z2; z++) {
+                    int i = ((y & 15) << 8) | (z << 4) | x1;
+                    for (int x = x1; x <= x2; x++, i++) {
+                        if (section[i] == 0) {
+                            count++;
+                        }
+                        section[i] = values.length == 1 ? values[0] : values[MainUtil.random.random(values.length)];
+                    }
+                }
+                counts[j] = count;
+            }
+            return true;
+        }
+        
+        private void remove() {
+            removed = true;
+            blocks.remove(loc, this);
+        }
+        
+        /**
+         * Apply the changes for this chunk
+         * @param deadline The time to stop at, or -1 to apply everything
+         * @return true if all changes were applied
+         */
+        public boolean apply(final long deadline) {
+            if (deadline == -1) {
+                synchronized (this) {
+                    remove();
+                }
+                // No other thread can modify the sections now
+                for (int j = 0; j < 16; j++) {
+                    if (((mask >> j) & 1) != 0) {
+                        applySection(j, -1);
+                    }
+                }
+                return true;
+            }
+            synchronized (this) {
+                boolean first = true;
+                for (int j = 0; j < 16; j++) {
+                    if (((mask >> j) & 1) != 0) {
+                        // always make progress, then stop once the deadline is reached (between sections, or every 256
+                        // blocks within a section)
+                        if (!first && (System.currentTimeMillis() > deadline)) {
+                            return false;
+                        }
+                        if (!applySection(j, deadline)) {
+                            return false;
+                        }
+                        first = false;
+                    }
+                }
+                remove();
+                return true;
+            }
+        }
+        
+        /**
+         * Apply a section at once (so the platform only has to look up the chunk once)
+         * @param j
+         * @param deadline The time to stop at, or -1 to apply the whole section
+         * @return true if the whole section was applied
+         */
+        private boolean applySection(final int j, final long deadline) {
+            if (counts[j] > 0) {
+                final int remaining = BlockManager.manager.functionSetSection(loc.world, loc.x, j, loc.z, sections[j], counts[j], deadline);
+                if (remaining > 0) {
+                    // the blocks which were set are cleared from the section
+                    counts[j] = remaining;
+                    return false;
+                }
+            }
+            counts[j] = 0;
+            sections[j] = null;
+            mask &= ~(1 << j);
+            return true;
         }
-        result[y >> 4][((y & 0xF) << 8) | (z << 4) | x] = new PlotBlock((short) -1, data);
-        locked = false;
     }
     
-    public static void setBlock(final String world, int x, final int y, int z, final int id) {
-        locked = true;
-        if (!running) {
-            init();
+    /**
+     * A named group of queued chunks
+     */
+    public static class Job {
+        private final String name;
+        private final ArrayDeque<QueuedChunk> chunks = new ArrayDeque<>();
+        private final long start = System.currentTimeMillis();
+        private volatile int total;
+        private volatile int completed;
+        
+        private Job(final String name) {
+            this.name = name;
         }
-        final int X = x >> 4;
-        final int Z = z >> 4;
-        x -= X << 4;
-        z -= Z << 4;
-        final ChunkWrapper wrap = new ChunkWrapper(world, X, Z);
-        PlotBlock[][] result;
-        result = blocks.get(wrap);
-        if (result == null) {
-            if (blocks == null) {
-                init();
-            }
-            result = new PlotBlock[16][];
-            blocks.put(wrap, result);
+        
+        public String getName() {
+            return name;
         }
-        if ((y > 255) || (y < 0)) {
-            locked = false;
-            return;
+        
+        /**
+         * Get the number of chunks added to this job
+         * @return
+         */
+        public int getTotal() {
+            return total;
+        }
+        
+        /**
+         * Get the number of chunks which have been applied
+         * @return
+         */
+        public int getCompleted() {
+            return completed;
         }
-        if (result[y >> 4] == null) {
-            result[y >> 4] = new PlotBlock[4096];
+        
+        /**
+         * Get the fraction of chunks which have been applied (0 to 1)
+         * @return
+         */
+        public double getProgress() {
+            final int value = total;
+            return value == 0 ? 1 : (double) completed / value;
         }
-        if (id == lastInt) {
-            result[y >> 4][((y & 0xF) << 8) | (z << 4) | x] = lastBlock;
-        } else {
-            lastInt = id;
-            lastBlock = new PlotBlock((short) id, (byte) 0);
+        
+        /**
+         * Get the time (ms) since the job was started
+         * @return
+         */
+        public long getElapsed() {
+            return System.currentTimeMillis() - start;
         }
-        result[y >> 4][((y & 0xF) << 8) | (z << 4) | x] = lastBlock;
-        locked = false;
     }
     
     public static class ChunkWrapper {
@@ -2,6 +2,7 @@ package com.intellectualcrafters.plot.util;
 
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import com.intellectualcrafters.plot.PS;
@@ -77,6 +78,22 @@ public abstract class TaskManager {
         }
     }
     
+    /**
+     * Get the time (ms) the block queue may currently use each tick
+     * @return
+     */
+    public static int getQueueBudget() {
+        return SetBlockQueue.getBudget();
+    }
+    
+    /**
+     * Get the block queue jobs which are still running, with their progress
+     * @return
+     */
+    public static List<SetBlockQueue.Job> getQueueJobs() {
+        return SetBlockQueue.getJobs();
+    }
+    
     public abstract int taskRepeat(final Runnable r, final int interval);
     
     public abstract int taskRepeatAsync(final Runnable r, final int interval);
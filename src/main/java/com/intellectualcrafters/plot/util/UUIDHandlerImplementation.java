@@ -125,6 +125,7 @@ public abstract class UUIDHandlerImplementation {
                         if (plots.size() > 0) {
                             for (final Plot plot : plots) {
                                 plot.owner = uuid;
+                                PS.get().reindexPlot(plot);
                             }
                             DBFunc.replaceUUID(offline, uuid);
                             PS.debug("&cDetected invalid UUID stored for: " + name.value);
@@ -143,6 +144,7 @@ public abstract class UUIDHandlerImplementation {
                     if (plots.size() > 0) {
                         for (final Plot plot : plots) {
                             plot.owner = uuid;
+                            PS.get().reindexPlot(plot);
                         }
                         DBFunc.replaceUUID(offline, uuid);
                         PS.debug("&cDetected invalid UUID stored for (1): " + name.value);
@@ -58,6 +58,7 @@ import com.plotsquared.bukkit.generator.BukkitGeneratorWrapper;
 import com.plotsquared.bukkit.generator.BukkitPlotGenerator;
 import com.plotsquared.bukkit.generator.HybridGen;
 import com.plotsquared.bukkit.listeners.ChunkListener;
+import com.plotsquared.bukkit.listeners.ChunkViewerListener;
 import com.plotsquared.bukkit.listeners.ForceFieldListener;
 import com.plotsquared.bukkit.listeners.PlayerEvents;
 import com.plotsquared.bukkit.listeners.PlayerEvents_1_8;
@@ -420,6 +421,7 @@ public class BukkitMain extends JavaPlugin implements Listener, IPlotMain {
             try {
                 new SendChunk();
                 MainUtil.canSendChunk = true;
+                getServer().getPluginManager().registerEvents(new ChunkViewerListener(), this);
             } catch (final Throwable e) {
                 e.printStackTrace();
                 MainUtil.canSendChunk = false;
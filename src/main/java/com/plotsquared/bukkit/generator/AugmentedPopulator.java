@@ -1,8 +1,6 @@
 package com.plotsquared.bukkit.generator;
 
-import java.util.HashMap;
 import java.util.Iterator;
-import java.util.Map.Entry;
 import java.util.Random;
 
 import org.bukkit.Bukkit;
@@ -12,13 +10,15 @@ import org.bukkit.block.Biome;
 import org.bukkit.generator.BlockPopulator;
 
 import com.intellectualcrafters.plot.PS;
+import com.intellectualcrafters.plot.object.BlockColumns;
 import com.intellectualcrafters.plot.object.BlockWrapper;
+import com.intellectualcrafters.plot.object.GenerationContext;
 import com.intellectualcrafters.plot.object.Location;
 import com.intellectualcrafters.plot.object.PlotCluster;
 import com.intellectualcrafters.plot.object.PlotId;
-import com.intellectualcrafters.plot.object.PlotLoc;
 import com.intellectualcrafters.plot.object.PlotManager;
 import com.intellectualcrafters.plot.object.PlotWorld;
+import com.intellectualcrafters.plot.object.RegionWrapper;
 import com.intellectualcrafters.plot.util.ChunkManager;
 import com.intellectualcrafters.plot.util.MainUtil;
 import com.intellectualcrafters.plot.util.TaskManager;
@@ -111,47 +111,24 @@ public class AugmentedPopulator extends BlockPopulator {
         if (!inX || !inZ) {
             return;
         }
+        final GenerationContext context = ChunkManager.getContext(world.getName(), cx, cz);
+        final RegionWrapper region = context == null ? null : context.requiredRegion;
         if (plotworld.TERRAIN == 3) {
             final int X = chunk.getX() << 4;
             final int Z = chunk.getZ() << 4;
-            if (ChunkManager.FORCE_PASTE) {
+            if ((context != null) && (context.forcePaste || (region != null)) && (context.blocks != null)) {
+                final BlockColumns blocks = context.blocks;
                 for (short x = 0; x < 16; x++) {
                     for (short z = 0; z < 16; z++) {
-                        final PlotLoc loc = new PlotLoc((short) (X + x), (short) (Z + z));
-                        final HashMap<Short, Short> blocks = ChunkManager.GENERATE_BLOCKS.get(loc);
-                        final HashMap<Short, Byte> datas = ChunkManager.GENERATE_DATA.get(loc);
-                        for (final Entry<Short, Short> entry : blocks.entrySet()) {
-                            final int y = entry.getKey();
-                            byte data;
-                            if (datas != null) {
-                                data = datas.get(y);
-                            } else {
-                                data = 0;
-                            }
-                            BukkitSetBlockManager.setBlockManager.set(world, x, y, z, blocks.get(y), data);
-                        }
-                    }
-                }
-                return;
-            }
-            if (ChunkManager.CURRENT_PLOT_CLEAR != null) {
-                PlotLoc loc;
-                for (final Entry<PlotLoc, HashMap<Short, Byte>> entry : ChunkManager.GENERATE_DATA.entrySet()) {
-                    final HashMap<Short, Byte> datas = ChunkManager.GENERATE_DATA.get(entry.getKey());
-                    for (final Entry<Short, Byte> entry2 : entry.getValue().entrySet()) {
-                        final Short y = entry2.getKey();
-                        byte data;
-                        if (datas != null) {
-                            data = datas.get(y);
-                        } else {
-                            data = 0;
+                        final short[] ids = blocks.getIds(X + x, Z + z);
+                        if (ids == null) {
+                            continue;
                         }
-                        loc = entry.getKey();
-                        final int xx = loc.x - X;
-                        final int zz = loc.z - Z;
-                        if ((xx >= 0) && (xx < 16)) {
-                            if ((zz >= 0) && (zz < 16)) {
-                                BukkitSetBlockManager.setBlockManager.set(world, xx, y, zz, entry2.getValue(), data);
+                        final byte[] datas = blocks.getDatas(X + x, Z + z);
+                        final int y0 = blocks.getBottom(X + x, Z + z);
+                        for (int i = 0; i < ids.length; i++) {
+                            if (ids[i] != -1) {
+                                BukkitSetBlockManager.setBlockManager.set(world, x, y0 + i, z, ids[i], datas == null ? 0 : datas[i]);
                             }
                         }
                     }
@@ -169,7 +146,7 @@ public class AugmentedPopulator extends BlockPopulator {
             }
         }
         if (o) {
-            populateBlocks(world, rand, cx, cz, bx, bz, check);
+            populateBlocks(world, rand, cx, cz, bx, bz, check, region);
         } else {
             TaskManager.runTaskLater(new Runnable() {
                 @Override
@@ -181,7 +158,7 @@ public class AugmentedPopulator extends BlockPopulator {
                 @Override
                 public void run() {
                     chunk.load(true);
-                    populateBlocks(world, rand, cx, cz, bx, bz, check);
+                    populateBlocks(world, rand, cx, cz, bx, bz, check, region);
                 }
             }, 40 + rand.nextInt(40));
         }
@@ -198,7 +175,7 @@ public class AugmentedPopulator extends BlockPopulator {
         }
     }
     
-    private void populateBlocks(final World world, final Random rand, final int X, final int Z, final int x, final int z, final boolean check) {
+    private void populateBlocks(final World world, final Random rand, final int X, final int Z, final int x, final int z, final boolean check, final RegionWrapper region) {
         final short[][] result = generator.generateExtBlockSections(world, rand, X, Z, null);
         for (int i = 0; i < result.length; i++) {
             if (result[i] != null) {
@@ -213,8 +190,8 @@ public class AugmentedPopulator extends BlockPopulator {
                         continue;
                     }
                     if (p) {
-                        if (ChunkManager.CURRENT_PLOT_CLEAR != null) {
-                            if (BukkitChunkManager.isIn(ChunkManager.CURRENT_PLOT_CLEAR, xx, zz)) {
+                        if (region != null) {
+                            if (BukkitChunkManager.isIn(region, xx, zz)) {
                                 continue;
                             }
                         } else if (manager.getPlotIdAbs(plotworld, xx, 0, zz) != null) {
@@ -232,8 +209,8 @@ public class AugmentedPopulator extends BlockPopulator {
                                 continue;
                             }
                             if (p) {
-                                if (ChunkManager.CURRENT_PLOT_CLEAR != null) {
-                                    if (BukkitChunkManager.isIn(ChunkManager.CURRENT_PLOT_CLEAR, x1, z1)) {
+                                if (region != null) {
+                                    if (BukkitChunkManager.isIn(region, x1, z1)) {
                                         continue;
                                     }
                                 } else if (manager.getPlotIdAbs(plotworld, x1, 0, z1) != null) {
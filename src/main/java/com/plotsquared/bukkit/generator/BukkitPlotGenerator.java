@@ -21,9 +21,7 @@
 package com.plotsquared.bukkit.generator;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map.Entry;
 import java.util.Random;
 
 import org.bukkit.World;
@@ -32,7 +30,8 @@ import org.bukkit.generator.BlockPopulator;
 import org.bukkit.generator.ChunkGenerator;
 
 import com.intellectualcrafters.plot.PS;
-import com.intellectualcrafters.plot.object.PlotLoc;
+import com.intellectualcrafters.plot.object.BlockColumns;
+import com.intellectualcrafters.plot.object.GenerationContext;
 import com.intellectualcrafters.plot.object.PlotManager;
 import com.intellectualcrafters.plot.object.PlotWorld;
 import com.intellectualcrafters.plot.object.PseudoRandom;
@@ -113,8 +112,11 @@ public abstract class BukkitPlotGenerator extends ChunkGenerator {
         this.result = result;
     }
     
+    /**
+     * Synchronized, as the chunk being generated is kept in this (per world) instance
+     */
     @Override
-    public short[][] generateExtBlockSections(final World world, final Random r, final int cx, final int cz, final BiomeGrid biomes) {
+    public synchronized short[][] generateExtBlockSections(final World world, final Random r, final int cx, final int cz, final BiomeGrid biomes) {
         try {
             if (!loaded) {
                 final String name = WorldEvents.getName(world);
@@ -129,7 +131,8 @@ public abstract class BukkitPlotGenerator extends ChunkGenerator {
             result = new short[16][];
             X = cx << 4;
             Z = cz << 4;
-            if (ChunkManager.FORCE_PASTE) {
+            final GenerationContext context = ChunkManager.getContext(world.getName(), cx, cz);
+            if ((context != null) && context.forcePaste) {
                 final PlotWorld plotworld = PS.get().getPlotWorld(world.getName());
                 final Biome biome = Biome.valueOf(plotworld.PLOT_BIOME);
                 for (short x = 0; x < 16; x++) {
@@ -137,28 +140,16 @@ public abstract class BukkitPlotGenerator extends ChunkGenerator {
                         if (biomes != null) {
                             biomes.setBiome(x, z, biome);
                         }
-                        final PlotLoc loc = new PlotLoc((X + x), (Z + z));
-                        final HashMap<Short, Short> blocks = ChunkManager.GENERATE_BLOCKS.get(loc);
-                        for (final Entry<Short, Short> entry : blocks.entrySet()) {
-                            setBlock(x, entry.getKey(), z, entry.getValue());
-                        }
+                        setColumn(context.blocks, x, z);
                     }
                 }
                 return result;
             }
-            generateChunk(world, ChunkManager.CURRENT_PLOT_CLEAR, random, cx, cz, biomes);
-            if (ChunkManager.CURRENT_PLOT_CLEAR != null) {
-                PlotLoc loc;
-                for (final Entry<PlotLoc, HashMap<Short, Short>> entry : ChunkManager.GENERATE_BLOCKS.entrySet()) {
-                    for (final Entry<Short, Short> entry2 : entry.getValue().entrySet()) {
-                        loc = entry.getKey();
-                        final int xx = loc.x - X;
-                        final int zz = loc.z - Z;
-                        if ((xx >= 0) && (xx < 16)) {
-                            if ((zz >= 0) && (zz < 16)) {
-                                setBlock(xx, entry2.getKey(), zz, entry2.getValue());
-                            }
-                        }
+            generateChunk(world, context == null ? null : context.requiredRegion, random, cx, cz, biomes);
+            if ((context != null) && (context.requiredRegion != null)) {
+                for (short x = 0; x < 16; x++) {
+                    for (short z = 0; z < 16; z++) {
+                        setColumn(context.blocks, x, z);
                     }
                 }
             }
@@ -168,6 +159,28 @@ public abstract class BukkitPlotGenerator extends ChunkGenerator {
         return result;
     }
     
+    /**
+     * Set the blocks stored for a column of this chunk
+     * @param columns
+     * @param x
+     * @param z
+     */
+    private void setColumn(final BlockColumns columns, final int x, final int z) {
+        if (columns == null) {
+            return;
+        }
+        final short[] ids = columns.getIds(X + x, Z + z);
+        if (ids == null) {
+            return;
+        }
+        final int y0 = columns.getBottom(X + x, Z + z);
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] != -1) {
+                setBlock(x, y0 + i, z, ids[i]);
+            }
+        }
+    }
+    
     public void setBlock(final int x, final int y, final int z, final short blkid) {
         if (result[CACHE_I[y][x][z]] == null) {
             result[CACHE_I[y][x][z]] = new short[4096];
@@ -1,15 +1,14 @@
 package com.plotsquared.bukkit.generator;
 
-import java.util.HashMap;
-import java.util.Map.Entry;
 import java.util.Random;
 
 import org.bukkit.Chunk;
 import org.bukkit.World;
 import org.bukkit.generator.BlockPopulator;
 
+import com.intellectualcrafters.plot.object.BlockColumns;
+import com.intellectualcrafters.plot.object.GenerationContext;
 import com.intellectualcrafters.plot.object.PlotBlock;
-import com.intellectualcrafters.plot.object.PlotLoc;
 import com.intellectualcrafters.plot.object.PseudoRandom;
 import com.intellectualcrafters.plot.object.RegionWrapper;
 import com.intellectualcrafters.plot.util.ChunkManager;
@@ -24,8 +23,11 @@ public abstract class BukkitPlotPopulator extends BlockPopulator {
     public String worldname;
     private Chunk chunk;
     
+    /**
+     * Synchronized, as the chunk being populated is kept in this (per world) instance
+     */
     @Override
-    public void populate(final World world, final Random rand, final Chunk chunk) {
+    public synchronized void populate(final World world, final Random rand, final Chunk chunk) {
         try {
             this.chunk = chunk;
             worldname = world.getName();
@@ -38,31 +40,20 @@ public abstract class BukkitPlotPopulator extends BlockPopulator {
             h = (prime * h) + cx;
             h = (prime * h) + cz;
             random.state = h;
-            if (ChunkManager.FORCE_PASTE) {
+            final GenerationContext context = ChunkManager.getContext(worldname, cx, cz);
+            if ((context != null) && context.forcePaste) {
                 for (short x = 0; x < 16; x++) {
                     for (short z = 0; z < 16; z++) {
-                        final PlotLoc loc = new PlotLoc((short) (X + x), (short) (Z + z));
-                        final HashMap<Short, Byte> blocks = ChunkManager.GENERATE_DATA.get(loc);
-                        for (final Entry<Short, Byte> entry : blocks.entrySet()) {
-                            setBlock(x, entry.getKey(), z, entry.getValue());
-                        }
+                        setColumnData(context.blocks, x, z);
                     }
                 }
                 return;
             }
-            populate(world, ChunkManager.CURRENT_PLOT_CLEAR, random, cx, cz);
-            if (ChunkManager.CURRENT_PLOT_CLEAR != null) {
-                PlotLoc loc;
-                for (final Entry<PlotLoc, HashMap<Short, Byte>> entry : ChunkManager.GENERATE_DATA.entrySet()) {
-                    for (final Entry<Short, Byte> entry2 : entry.getValue().entrySet()) {
-                        loc = entry.getKey();
-                        final int xx = loc.x - X;
-                        final int zz = loc.z - Z;
-                        if ((xx >= 0) && (xx < 16)) {
-                            if ((zz >= 0) && (zz < 16)) {
-                                setBlock(xx, entry2.getKey(), zz, entry2.getValue());
-                            }
-                        }
+            populate(world, context == null ? null : context.requiredRegion, random, cx, cz);
+            if ((context != null) && (context.requiredRegion != null)) {
+                for (short x = 0; x < 16; x++) {
+                    for (short z = 0; z < 16; z++) {
+                        setColumnData(context.blocks, x, z);
                     }
                 }
             }
@@ -74,6 +65,26 @@ public abstract class BukkitPlotPopulator extends BlockPopulator {
     
     public abstract void populate(final World world, final RegionWrapper requiredRegion, final PseudoRandom random, final int cx, final int cz);
     
+    /**
+     * Set the data stored for a column of this chunk
+     * @param columns
+     * @param x
+     * @param z
+     */
+    private void setColumnData(final BlockColumns columns, final int x, final int z) {
+        if (columns == null) {
+            return;
+        }
+        final byte[] datas = columns.getDatas(X + x, Z + z);
+        if (datas == null) {
+            return;
+        }
+        final int y0 = columns.getBottom(X + x, Z + z);
+        for (int i = 0; i < datas.length; i++) {
+            setBlock(x, y0 + i, z, datas[i]);
+        }
+    }
+    
     /**
      * Set the id and data at a location. (x, y, z) must be between [0,15], [0,255], [0,15]
      * @param x
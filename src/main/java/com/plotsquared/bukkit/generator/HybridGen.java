@@ -20,9 +20,9 @@
 ////////////////////////////////////////////////////////////////////////////////////////////////////
 package com.plotsquared.bukkit.generator;
 
+import com.intellectualcrafters.plot.config.Settings;
 import com.intellectualcrafters.plot.generator.HybridPlotManager;
 import com.intellectualcrafters.plot.generator.HybridPlotWorld;
-import com.intellectualcrafters.plot.object.PlotLoc;
 import com.intellectualcrafters.plot.object.PlotManager;
 import com.intellectualcrafters.plot.object.PlotWorld;
 import com.intellectualcrafters.plot.object.PseudoRandom;
@@ -32,9 +32,9 @@ import org.bukkit.World;
 import org.bukkit.block.Biome;
 
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map.Entry;
+import java.util.Map;
 
 /**
  * The default generator is very messy, as we have decided to try externalize all calculations from within the loop. -
@@ -78,6 +78,10 @@ public class HybridGen extends BukkitPlotGenerator {
     boolean doState = false;
     int maxY = 0;
     short[][] cached;
+    /**
+     * Generated chunks by their offset within the plot grid (see getTemplate)
+     */
+    LinkedHashMap<Integer, short[][]> templates;
     
     /**
      * Initialize variables, and create plotworld object used in calculations
@@ -145,6 +149,41 @@ public class HybridGen extends BukkitPlotGenerator {
                 }
             }
         }
+        
+        // The plot grid repeats every (size) blocks, so a chunk only depends on its offset within the grid
+        // - Not used if the floor or filling is random, as chunks with the same offset would then look the same
+        if (Settings.GENERATOR_TEMPLATES && !doState) {
+            final int max = Settings.GENERATOR_TEMPLATE_CACHE;
+            templates = new LinkedHashMap<Integer, short[][]>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+                
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<Integer, short[][]> eldest) {
+                    return size() > max;
+                }
+            };
+        } else {
+            templates = null;
+        }
+    }
+    
+    /**
+     * Get the generated chunk for an offset within the plot grid, generating it if it is not cached<br>
+     *  - The returned sections must not be modified
+     * @param sx
+     * @param sz
+     * @return
+     */
+    private short[][] getTemplate(final int sx, final int sz) {
+        final Integer key = (sx * size) + sz;
+        short[][] template = templates.get(key);
+        if (template == null) {
+            template = new short[16][];
+            setResult(template);
+            generateColumns(sx, sz);
+            templates.put(key, template);
+        }
+        return template;
     }
     
     /**
@@ -209,6 +248,18 @@ public class HybridGen extends BukkitPlotGenerator {
                 return;
             }
         }
+        
+        if ((templates != null) && (region == null)) {
+            final short[][] template = getTemplate(sx, sz);
+            final short[][] copy = new short[template.length][];
+            for (int i = 0; i < template.length; i++) {
+                if (template[i] != null) {
+                    copy[i] = template[i].clone();
+                }
+            }
+            setResult(copy);
+            return;
+        }
 
         if (region != null) {
             for (short x = 0; x < 16; x++) {
@@ -221,19 +272,46 @@ public class HybridGen extends BukkitPlotGenerator {
                             setBlock(x, y, z, filling);
                         }
                         final int absZ = ((sz + z) % size);
-                        final PlotLoc loc = new PlotLoc(absX, absZ);
-                        final HashMap<Short, Short> blocks = plotworld.G_SCH.get(loc);
-                        if (blocks != null) {
-                            for (final Entry<Short, Short> entry : blocks.entrySet()) {
-                                setBlock(x, plotheight + entry.getKey(), z, entry.getValue());
-                            }
-                        }
+                        setSchematic(x, z, absX, absZ, plotheight);
                     }
                 }
             }
             return;
         }
         
+        generateColumns(sx, sz);
+    }
+    
+    /**
+     * Set the schematic blocks for a column
+     * @param x The x within the chunk
+     * @param z The z within the chunk
+     * @param absX The x within the plot grid
+     * @param absZ The z within the plot grid
+     * @param height The height the schematic starts at
+     */
+    private void setSchematic(final int x, final int z, final int absX, final int absZ, final int height) {
+        if (plotworld.G_SCH == null) {
+            return;
+        }
+        final short[] ids = plotworld.G_SCH.getIds(absX, absZ);
+        if (ids == null) {
+            return;
+        }
+        final int y0 = height + plotworld.G_SCH.getBottom(absX, absZ);
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] != -1) {
+                setBlock(x, y0 + i, z, ids[i]);
+            }
+        }
+    }
+    
+    /**
+     * Generate all the columns of a chunk
+     * @param sx The x offset of the chunk within the plot grid
+     * @param sz The z offset of the chunk within the plot grid
+     */
+    private void generateColumns(final int sx, final int sz) {
         if (plotworld.PLOT_BEDROCK) {
             for (short x = 0; x < 16; x++) {
                 for (short z = 0; z < 16; z++) {
@@ -257,13 +335,7 @@ public class HybridGen extends BukkitPlotGenerator {
                         setBlock(x, y, z, filling);
                     }
                     if (plotworld.PLOT_SCHEMATIC) {
-                        final PlotLoc loc = new PlotLoc(absX, absZ);
-                        final HashMap<Short, Short> blocks = plotworld.G_SCH.get(loc);
-                        if (blocks != null) {
-                            for (final Entry<Short, Short> entry : blocks.entrySet()) {
-                                setBlock(x, plotheight + entry.getKey(), z, entry.getValue());
-                            }
-                        }
+                        setSchematic(x, z, absX, absZ, plotheight);
                     }
                 } else if (pathsize != 0) {
                     // wall
@@ -282,13 +354,7 @@ public class HybridGen extends BukkitPlotGenerator {
                         }
                     }
                     if (plotworld.ROAD_SCHEMATIC_ENABLED) {
-                        final PlotLoc loc = new PlotLoc(absX, absZ);
-                        final HashMap<Short, Short> blocks = plotworld.G_SCH.get(loc);
-                        if (blocks != null) {
-                            for (final Entry<Short, Short> entry : blocks.entrySet()) {
-                                setBlock(x, roadheight + entry.getKey(), z, entry.getValue());
-                            }
-                        }
+                        setSchematic(x, z, absX, absZ, roadheight);
                     }
                 }
             }
@@ -1,8 +1,6 @@
 package com.plotsquared.bukkit.generator;
 
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Map.Entry;
 
 import org.bukkit.World;
 import org.bukkit.block.Biome;
@@ -91,6 +89,28 @@ public class HybridPop extends BukkitPlotPopulator {
         }
     }
     
+    /**
+     * Set the data of the schematic blocks for a column
+     * @param x The x within the chunk
+     * @param z The z within the chunk
+     * @param absX The x within the plot grid
+     * @param absZ The z within the plot grid
+     * @param height The height the schematic starts at
+     */
+    private void setSchematicData(final int x, final int z, final int absX, final int absZ, final int height) {
+        final short[] ids = plotworld.G_SCH.getIds(absX, absZ);
+        if (ids == null) {
+            return;
+        }
+        final byte[] datas = plotworld.G_SCH.getDatas(absX, absZ);
+        final int y0 = height + plotworld.G_SCH.getBottom(absX, absZ);
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] != -1) {
+                setBlockAbs(x, y0 + i, z, datas == null ? 0 : datas[i]);
+            }
+        }
+    }
+    
     @Override
     public void populate(final World world, final RegionWrapper requiredRegion, final PseudoRandom random, final int cx, final int cz) {
         PS.get().getPlotManager(world.getName());
@@ -110,7 +130,7 @@ public class HybridPop extends BukkitPlotPopulator {
         }
 
         if (requiredRegion != null) {
-            if (!doFloor && !doFilling && plotworld.G_SCH_DATA == null) {
+            if (!doFloor && !doFilling && plotworld.G_SCH == null) {
                 return;
             }
             for (short x = 0; x < 16; x++) {
@@ -126,12 +146,7 @@ public class HybridPop extends BukkitPlotPopulator {
                             final int absX = ((sx + x) % size);
                             final int absZ = ((sz + z) % size);
                             final PlotLoc loc = new PlotLoc(absX, absZ);
-                            final HashMap<Short, Byte> blocks = plotworld.G_SCH_DATA.get(loc);
-                            if (blocks != null) {
-                                for (Entry<Short, Byte> entry : blocks.entrySet()) {
-                                    setBlockAbs(x, (short) (plotheight + entry.getKey()), z, entry.getValue());
-                                }
-                            }
+                            setSchematicData(x, z, absX, absZ, plotheight);
                             if (plotworld.G_SCH_STATE != null) {
                                 final HashSet<PlotItem> states = plotworld.G_SCH_STATE.get(loc);
                                 if (states != null) {
@@ -163,12 +178,7 @@ public class HybridPop extends BukkitPlotPopulator {
                     }
                     if (plotworld.PLOT_SCHEMATIC) {
                         final PlotLoc loc = new PlotLoc(absX, absZ);
-                        final HashMap<Short, Byte> blocks = plotworld.G_SCH_DATA.get(loc);
-                        if (blocks != null) {
-                            for (Entry<Short, Byte> entry : blocks.entrySet()) {
-                                setBlockAbs(x, (short) (plotheight + entry.getKey()), z, entry.getValue());
-                            }
-                        }
+                        setSchematicData(x, z, absX, absZ, plotheight);
                         if (plotworld.G_SCH_STATE != null) {
                             final HashSet<PlotItem> states = plotworld.G_SCH_STATE.get(loc);
                             if (states != null) {
@@ -197,13 +207,7 @@ public class HybridPop extends BukkitPlotPopulator {
                         }
                     }
                     if (plotworld.ROAD_SCHEMATIC_ENABLED) {
-                        final PlotLoc loc = new PlotLoc(absX, absZ);
-                        final HashMap<Short, Byte> blocks = plotworld.G_SCH_DATA.get(loc);
-                        if (blocks != null) {
-                            for (Entry<Short, Byte> entry : blocks.entrySet()) {
-                                setBlockAbs(x, (short) (roadheight + entry.getKey()), z, entry.getValue());
-                            }
-                        }
+                        setSchematicData(x, z, absX, absZ, roadheight);
                     }
                 }
             }
@@ -3,8 +3,6 @@ package com.plotsquared.bukkit.listeners;
 import static com.intellectualcrafters.plot.util.ReflectionUtils.getRefClass;
 
 import java.util.ArrayDeque;
-import java.util.HashMap;
-import java.util.Map.Entry;
 
 import org.bukkit.Bukkit;
 import org.bukkit.Chunk;
@@ -21,21 +19,28 @@ import org.bukkit.event.Listener;
 import org.bukkit.event.block.BlockPhysicsEvent;
 import org.bukkit.event.entity.CreatureSpawnEvent;
 import org.bukkit.event.entity.ItemSpawnEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+import org.bukkit.event.vehicle.VehicleMoveEvent;
 import org.bukkit.event.world.ChunkLoadEvent;
 import org.bukkit.event.world.ChunkUnloadEvent;
 
 import com.intellectualcrafters.plot.PS;
 import com.intellectualcrafters.plot.config.Settings;
-import com.intellectualcrafters.plot.object.ChunkLoc;
 import com.intellectualcrafters.plot.object.Location;
 import com.intellectualcrafters.plot.object.Plot;
 import com.intellectualcrafters.plot.object.PlotPlayer;
+import com.intellectualcrafters.plot.util.ChunkKeepAliveIndex;
 import com.intellectualcrafters.plot.util.MainUtil;
 import com.intellectualcrafters.plot.util.ReflectionUtils.RefClass;
 import com.intellectualcrafters.plot.util.ReflectionUtils.RefField;
 import com.intellectualcrafters.plot.util.ReflectionUtils.RefMethod;
 import com.intellectualcrafters.plot.util.TaskManager;
 import com.intellectualcrafters.plot.util.UUIDHandler;
+import com.plotsquared.bukkit.object.BukkitPlayer;
 
 public class ChunkListener implements Listener {
     
@@ -46,6 +51,36 @@ public class ChunkListener implements Listener {
     private RefMethod methodGetHandleChunk;
     private final RefField mustSave = classChunk.getField("mustSave");
     
+    /**
+     * Max time (ms) spent unloading chunks per tick
+     */
+    private static final int GC_BUDGET = 5;
+    
+    /**
+     * Max chunks ranked by distance per world in a pass (the rest are left for the next pass)
+     */
+    private static final int MAX_CANDIDATES = 1024;
+    
+    /**
+     * The chunks kept alive by players (null if auto-unload is disabled)
+     */
+    private ChunkKeepAliveIndex keepAlive;
+    
+    /**
+     * The plot worlds left to plan in this pass
+     */
+    private final ArrayDeque<World> worldQueue = new ArrayDeque<>();
+    
+    /**
+     * The world being unloaded, with its candidates (see ChunkKeepAliveIndex.packCandidate) sorted from worst to best
+     */
+    private World planWorld;
+    private String planName;
+    private boolean planAutoSave;
+    private Chunk[] planChunks;
+    private long[] plan = new long[0];
+    private int planIndex;
+    
     
     public ChunkListener() {
         RefMethod method;
@@ -60,97 +95,166 @@ public class ChunkListener implements Listener {
         if (!Settings.CHUNK_PROCESSOR_GC) {
             return;
         }
+        keepAlive = new ChunkKeepAliveIndex(Bukkit.getViewDistance() + 1);
         TaskManager.runTask(new Runnable() {
             @Override
             public void run() {
-                int time = 300;
-                final int distance = Bukkit.getViewDistance() + 2;
-                final HashMap<String, HashMap<ChunkLoc, Integer>> players = new HashMap<>();
-                for (final Entry<String, PlotPlayer> entry : UUIDHandler.getPlayers().entrySet()) {
-                    final PlotPlayer pp = entry.getValue();
-                    final Location loc = pp.getLocation();
-                    final String world = loc.getWorld();
-                    if (!PS.get().isPlotWorld(world)) {
-                        continue;
-                    }
-                    HashMap<ChunkLoc, Integer> map = players.get(world);
-                    if (map == null) {
-                        map = new HashMap<>();
-                        players.put(world, map);
-                    }
-                    final ChunkLoc origin = new ChunkLoc(loc.getX() >> 4, loc.getZ() >> 4);
-                    Integer val = map.get(origin);
-                    int check;
-                    if (val != null) {
-                        if (val == distance) {
-                            continue;
-                        }
-                        check = distance - val;
-                    } else {
-                        check = distance;
-                        map.put(origin, distance);
-                    }
-                    for (int x = -distance; x <= distance; x++) {
-                        if ((x >= check) || (-x >= check)) {
-                            continue;
-                        }
-                        for (int z = -distance; z <= distance; z++) {
-                            if ((z >= check) || (-z >= check)) {
-                                continue;
-                            }
-                            final int weight = distance - Math.max(Math.abs(x), Math.abs(z));
-                            final ChunkLoc chunk = new ChunkLoc(x + origin.x, z + origin.z);
-                            val = map.get(chunk);
-                            if ((val == null) || (val < weight)) {
-                                map.put(chunk, weight);
-                            }
-
-                        }
-                    }
+                TaskManager.runTaskLater(this, unloadChunks() ? 1 : 300);
+            }
+        });
+    }
+    
+    /**
+     * Unload idle chunks in plot worlds, for at most GC_BUDGET ms<br>
+     *  - When there are no chunks waiting to be unloaded, the candidates of the next plot world (with players in it) are
+     *    planned: loaded chunks with no player within the view distance, idle the longest and then furthest away first<br>
+     *  - The player positions are synced at the start of each pass, in case a move was missed (e.g. players who were
+     *    online before the listener was registered)<br>
+     *  - Candidates are checked again just before they unload, as players may have moved since
+     * @return true if there are more chunks waiting to be unloaded
+     */
+    private boolean unloadChunks() {
+        if ((planWorld == null) && worldQueue.isEmpty()) {
+            for (final PlotPlayer pp : UUIDHandler.getPlayers().values()) {
+                if (pp instanceof BukkitPlayer) {
+                    final Player player = ((BukkitPlayer) pp).player;
+                    update(player, player.getLocation());
                 }
-                for (final World world : Bukkit.getWorlds()) {
-                    final String name = world.getName();
-                    if (!PS.get().isPlotWorld(name)) {
-                        continue;
-                    }
-                    final boolean autosave = world.isAutoSave();
-                    if (autosave) {
-                        world.setAutoSave(false);
-                    }
-                    final HashMap<ChunkLoc, Integer> map = players.get(name);
-                    if ((map == null) || (map.size() == 0)) {
-                        continue;
-                    }
-                    Chunk[] chunks = world.getLoadedChunks();
-                    ArrayDeque<Chunk> toUnload = new ArrayDeque<Chunk>();
-                    for (final Chunk chunk : chunks) {
-                        final int x = chunk.getX();
-                        final int z = chunk.getZ();
-                        if (!map.containsKey(new ChunkLoc(x, z))) {
-                            toUnload.add(chunk);
-                        }
-                    }
-                    if (toUnload.size() > 0) {
-                        long start = System.currentTimeMillis();
-                        Chunk chunk;
-                        while ((chunk = toUnload.poll()) != null && (System.currentTimeMillis() - start < 5)) {
-                            if (!Settings.CHUNK_PROCESSOR_TRIM_ON_SAVE || !unloadChunk(name, chunk)) {
-                                if (chunk.isLoaded()) {
-                                    chunk.unload(true, false);
-                                }
-                            }
-                        }
-                        if (toUnload.size() > 0) {
-                            time = 1;
-                        }
-                    }
-                    if (!Settings.CHUNK_PROCESSOR_TRIM_ON_SAVE && autosave) {
-                        world.setAutoSave(true);
-                    }
+            }
+            for (final World world : Bukkit.getWorlds()) {
+                if (PS.get().isPlotWorld(world.getName())) {
+                    worldQueue.add(world);
                 }
-                TaskManager.runTaskLater(this, time);
             }
-        });
+        }
+        final long start = System.currentTimeMillis();
+        while ((System.currentTimeMillis() - start) < GC_BUDGET) {
+            if (planWorld == null) {
+                final World world = worldQueue.poll();
+                if (world == null) {
+                    return false;
+                }
+                plan(world);
+                continue;
+            }
+            if (planIndex < 0) {
+                finishWorld();
+                continue;
+            }
+            final Chunk chunk = planChunks[ChunkKeepAliveIndex.getCandidateIndex(plan[planIndex--])];
+            if (!chunk.isLoaded() || keepAlive.isAlive(planName, chunk.getX(), chunk.getZ())) {
+                continue;
+            }
+            if (!Settings.CHUNK_PROCESSOR_TRIM_ON_SAVE || !unloadChunk(planName, chunk)) {
+                if (chunk.isLoaded()) {
+                    chunk.unload(true, false);
+                }
+            }
+        }
+        return true;
+    }
+    
+    private void plan(final World world) {
+        final String name = world.getName();
+        if (!keepAlive.hasPlayers(name)) {
+            return;
+        }
+        planAutoSave = world.isAutoSave();
+        if (planAutoSave) {
+            world.setAutoSave(false);
+        }
+        final long now = System.currentTimeMillis();
+        final Chunk[] chunks = world.getLoadedChunks();
+        if (plan.length < chunks.length) {
+            plan = new long[chunks.length];
+        }
+        int size = 0;
+        for (int i = 0; i < chunks.length; i++) {
+            final Chunk chunk = chunks[i];
+            final long idle = keepAlive.getIdleSince(name, chunk.getX(), chunk.getZ(), now);
+            if (idle != -1) {
+                plan[size++] = ChunkKeepAliveIndex.packCandidate(now - idle, 0, i);
+            }
+        }
+        // Only the chunks idle the longest are ranked by distance, as each distance is checked against every player
+        int first = 0;
+        if (size > MAX_CANDIDATES) {
+            ChunkKeepAliveIndex.sortCandidates(plan, size);
+            first = size - MAX_CANDIDATES;
+        }
+        for (int i = first; i < size; i++) {
+            final int index = ChunkKeepAliveIndex.getCandidateIndex(plan[i]);
+            final Chunk chunk = chunks[index];
+            final int x = chunk.getX();
+            final int z = chunk.getZ();
+            final long idle = keepAlive.getIdleSince(name, x, z, now);
+            plan[i - first] = ChunkKeepAliveIndex.packCandidate(now - idle, keepAlive.getDistance(name, x, z), index);
+        }
+        size -= first;
+        ChunkKeepAliveIndex.sortCandidates(plan, size);
+        planWorld = world;
+        planName = name;
+        planChunks = chunks;
+        planIndex = size - 1;
+    }
+    
+    private void finishWorld() {
+        if (!Settings.CHUNK_PROCESSOR_TRIM_ON_SAVE && planAutoSave) {
+            planWorld.setAutoSave(true);
+        }
+        planWorld = null;
+        planName = null;
+        planChunks = null;
+    }
+    
+    private void update(final Player player, final org.bukkit.Location loc) {
+        keepAlive.update(player.getUniqueId(), loc.getWorld().getName(), loc.getBlockX() >> 4, loc.getBlockZ() >> 4);
+    }
+    
+    private static boolean changedChunk(final org.bukkit.Location from, final org.bukkit.Location to) {
+        return ((from.getBlockX() >> 4) != (to.getBlockX() >> 4)) || ((from.getBlockZ() >> 4) != (to.getBlockZ() >> 4)) || (from.getWorld() != to.getWorld());
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onMove(final PlayerMoveEvent event) {
+        if ((keepAlive != null) && changedChunk(event.getFrom(), event.getTo())) {
+            update(event.getPlayer(), event.getTo());
+        }
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onTeleport(final PlayerTeleportEvent event) {
+        onMove(event);
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onVehicleMove(final VehicleMoveEvent event) {
+        // Players riding a vehicle don't fire move events
+        if ((keepAlive != null) && (event.getVehicle().getPassenger() instanceof Player) && changedChunk(event.getFrom(), event.getTo())) {
+            update((Player) event.getVehicle().getPassenger(), event.getTo());
+        }
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onRespawn(final PlayerRespawnEvent event) {
+        if (keepAlive != null) {
+            update(event.getPlayer(), event.getRespawnLocation());
+        }
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(final PlayerJoinEvent event) {
+        if (keepAlive != null) {
+            final Player player = event.getPlayer();
+            update(player, player.getLocation());
+        }
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(final PlayerQuitEvent event) {
+        if (keepAlive != null) {
+            keepAlive.remove(event.getPlayer().getUniqueId());
+        }
     }
     
     public boolean unloadChunk(final String world, final Chunk chunk) {
@@ -189,6 +293,14 @@ public class ChunkListener implements Listener {
         return true;
     }
     
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onChunkUnloaded(final ChunkUnloadEvent event) {
+        if (keepAlive != null) {
+            final Chunk chunk = event.getChunk();
+            keepAlive.unloaded(chunk.getWorld().getName(), chunk.getX(), chunk.getZ());
+        }
+    }
+    
     @EventHandler
     public void onChunkUnload(final ChunkUnloadEvent event) {
         if (Settings.CHUNK_PROCESSOR_TRIM_ON_SAVE) {
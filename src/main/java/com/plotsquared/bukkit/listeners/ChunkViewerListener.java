@@ -0,0 +1,78 @@
+package com.plotsquared.bukkit.listeners;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+import org.bukkit.event.vehicle.VehicleMoveEvent;
+
+import com.intellectualcrafters.plot.util.TaskManager;
+import com.plotsquared.bukkit.util.SendChunk;
+
+/**
+ * Keeps {@link SendChunk#viewers} up to date with the chunk each player is in
+ */
+public class ChunkViewerListener implements Listener {
+    
+    public ChunkViewerListener() {
+        TaskManager.runTask(new Runnable() {
+            @Override
+            public void run() {
+                // Players who were online before the listener was registered
+                for (final Player player : Bukkit.getOnlinePlayers()) {
+                    update(player, player.getLocation());
+                }
+            }
+        });
+    }
+    
+    private void update(final Player player, final org.bukkit.Location loc) {
+        SendChunk.viewers.update(player, loc.getWorld().getName(), loc.getBlockX() >> 4, loc.getBlockZ() >> 4);
+    }
+    
+    private static boolean changedChunk(final org.bukkit.Location from, final org.bukkit.Location to) {
+        return ((from.getBlockX() >> 4) != (to.getBlockX() >> 4)) || ((from.getBlockZ() >> 4) != (to.getBlockZ() >> 4)) || (from.getWorld() != to.getWorld());
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onMove(final PlayerMoveEvent event) {
+        if (changedChunk(event.getFrom(), event.getTo())) {
+            update(event.getPlayer(), event.getTo());
+        }
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onTeleport(final PlayerTeleportEvent event) {
+        onMove(event);
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onVehicleMove(final VehicleMoveEvent event) {
+        // Players riding a vehicle don't fire move events
+        if ((event.getVehicle().getPassenger() instanceof Player) && changedChunk(event.getFrom(), event.getTo())) {
+            update((Player) event.getVehicle().getPassenger(), event.getTo());
+        }
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onRespawn(final PlayerRespawnEvent event) {
+        update(event.getPlayer(), event.getRespawnLocation());
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(final PlayerJoinEvent event) {
+        final Player player = event.getPlayer();
+        update(player, player.getLocation());
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(final PlayerQuitEvent event) {
+        SendChunk.viewers.remove(event.getPlayer());
+    }
+}
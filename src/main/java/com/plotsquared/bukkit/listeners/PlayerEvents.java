@@ -80,6 +80,7 @@ import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.event.player.PlayerTeleportEvent;
 import org.bukkit.event.vehicle.VehicleCreateEvent;
 import org.bukkit.event.vehicle.VehicleDestroyEvent;
+import org.bukkit.event.server.ServerCommandEvent;
 import org.bukkit.event.world.ChunkLoadEvent;
 import org.bukkit.event.world.StructureGrowEvent;
 import org.bukkit.help.HelpTopic;
@@ -106,12 +107,14 @@ import com.intellectualcrafters.plot.object.PlotManager;
 import com.intellectualcrafters.plot.object.PlotPlayer;
 import com.intellectualcrafters.plot.object.PlotWorld;
 import com.intellectualcrafters.plot.object.StringWrapper;
+import com.intellectualcrafters.plot.util.AnalysisCache;
 import com.intellectualcrafters.plot.util.ClusterManager;
 import com.intellectualcrafters.plot.util.EventUtil;
 import com.intellectualcrafters.plot.util.ExpireManager;
 import com.intellectualcrafters.plot.util.MainUtil;
 import com.intellectualcrafters.plot.util.MathMan;
 import com.intellectualcrafters.plot.util.Permissions;
+import com.intellectualcrafters.plot.util.PlotCellCache;
 import com.intellectualcrafters.plot.util.RegExUtil;
 import com.intellectualcrafters.plot.util.StringMan;
 import com.intellectualcrafters.plot.util.TaskManager;
@@ -130,6 +133,31 @@ import com.plotsquared.bukkit.util.BukkitUtil;
 @SuppressWarnings({ "deprecation", "unchecked" })
 public class PlayerEvents extends com.plotsquared.listener.PlotListener implements Listener {
     
+    /**
+     * Ids of the flags checked by this listener (see FlagManager.getFlagId)
+     */
+    private static final int FLAG_ANIMAL_ATTACK = FlagManager.getFlagId("animal-attack");
+    private static final int FLAG_ANIMAL_INTERACT = FlagManager.getFlagId(C.FLAG_ANIMAL_INTERACT.s());
+    private static final int FLAG_BLOCKED_CMDS = FlagManager.getFlagId("blocked-cmds");
+    private static final int FLAG_BREAK = FlagManager.getFlagId(C.FLAG_BREAK.s());
+    private static final int FLAG_DISABLE_PHYSICS = FlagManager.getFlagId(C.FLAG_DISABLE_PHYSICS.s());
+    private static final int FLAG_EXPLOSION = FlagManager.getFlagId("explosion");
+    private static final int FLAG_HANGING_BREAK = FlagManager.getFlagId(C.FLAG_HANGING_BREAK.s());
+    private static final int FLAG_HANGING_PLACE = FlagManager.getFlagId(C.FLAG_HANGING_PLACE.s());
+    private static final int FLAG_HOSTILE_ATTACK = FlagManager.getFlagId("hostile-attack");
+    private static final int FLAG_HOSTILE_INTERACT = FlagManager.getFlagId(C.FLAG_HOSTILE_INTERACT.s());
+    private static final int FLAG_MISC_BREAK = FlagManager.getFlagId(C.FLAG_MISC_BREAK.s());
+    private static final int FLAG_PLACE = FlagManager.getFlagId(C.FLAG_PLACE.s());
+    private static final int FLAG_PLAYER_INTERACT = FlagManager.getFlagId(C.FLAG_PLAYER_INTERACT.s());
+    private static final int FLAG_PVE = FlagManager.getFlagId("pve");
+    private static final int FLAG_PVP = FlagManager.getFlagId(C.FLAG_PVP.s());
+    private static final int FLAG_REDSTONE = FlagManager.getFlagId("redstone");
+    private static final int FLAG_TAMED_ATTACK = FlagManager.getFlagId("tamed-attack");
+    private static final int FLAG_TAMED_INTERACT = FlagManager.getFlagId(C.FLAG_TAMED_INTERACT.s());
+    private static final int FLAG_USE = FlagManager.getFlagId(C.FLAG_USE.s());
+    private static final int FLAG_VEHICLE_BREAK = FlagManager.getFlagId(C.FLAG_VEHICLE_BREAK.s());
+    private static final int FLAG_VEHICLE_USE = FlagManager.getFlagId(C.FLAG_VEHICLE_USE.s());
+    
     private boolean pistonBlocks = true;
     
     public static void sendBlockChange(final org.bukkit.Location bloc, final Material type, final byte data) {
@@ -199,7 +227,7 @@ public class PlayerEvents extends com.plotsquared.listener.PlotListener implemen
                 if ((plot == null) || !plot.hasOwner()) {
                     return;
                 }
-                final Flag redstone = FlagManager.getPlotFlagRaw(plot, "redstone");
+                final Flag redstone = FlagManager.getPlotFlagRaw(plot, FLAG_REDSTONE);
                 if (redstone != null) {
                     if ((Boolean) redstone.getValue()) {
                         return;
@@ -247,7 +275,7 @@ public class PlayerEvents extends com.plotsquared.listener.PlotListener implemen
                 if (plot == null) {
                     return;
                 }
-                if (FlagManager.isPlotFlagFalse(plot, "redstone")) {
+                if (FlagManager.isPlotFlagFalse(plot, FLAG_REDSTONE)) {
                     event.setCancelled(true);
                 }
                 return;
@@ -259,7 +287,7 @@ public class PlayerEvents extends com.plotsquared.listener.PlotListener implemen
                 final Block block = event.getBlock();
                 final Location loc = BukkitUtil.getLocation(block.getLocation());
                 final Plot plot = MainUtil.getPlot(loc);
-                if ((plot != null) && FlagManager.isPlotFlagTrue(plot, "disable-physics")) {
+                if ((plot != null) && FlagManager.isPlotFlagTrue(plot, FLAG_DISABLE_PHYSICS)) {
                     event.setCancelled(true);
                     return;
                 }
@@ -312,6 +340,36 @@ public class PlayerEvents extends com.plotsquared.listener.PlotListener implemen
         }
     }
     
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void onOtherCommand(final PlayerCommandPreprocessEvent event) {
+        invalidatePermissions(event.getMessage());
+    }
+    
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void onServerCommand(final ServerCommandEvent event) {
+        invalidatePermissions(event.getCommand());
+    }
+    
+    /**
+     * Commands of other plugins (e.g. permission plugins) may change permissions, so the cached permissions are
+     * compiled again when next checked
+     * @param command
+     */
+    private void invalidatePermissions(final String command) {
+        if (!Settings.PERMISSION_CACHING) {
+            return;
+        }
+        String label = command.trim().split(" ")[0].toLowerCase();
+        if (label.startsWith("/")) {
+            label = label.substring(1);
+        }
+        final PluginCommand cmd = Bukkit.getServer().getPluginCommand(label);
+        if ((cmd != null) && (cmd.getPlugin() == BukkitMain.THIS)) {
+            return;
+        }
+        Permissions.invalidateAll();
+    }
+    
     @EventHandler(ignoreCancelled = true, priority = EventPriority.HIGHEST)
     public void PlayerCommand(final PlayerCommandPreprocessEvent event) {
         String msg = event.getMessage().toLowerCase().replaceAll("/", "").trim();
@@ -338,7 +396,7 @@ public class PlayerEvents extends com.plotsquared.listener.PlotListener implemen
         if (plot == null) {
             return;
         }
-        Flag flag = FlagManager.getPlotFlagRaw(plot, "blocked-cmds");
+        Flag flag = FlagManager.getPlotFlagRaw(plot, FLAG_BLOCKED_CMDS);
         if (flag == null || Permissions.hasPermission(pp, C.PERMISSION_ADMIN_INTERACT_BLOCKED_CMDS)) {
             return;
         }
@@ -419,6 +477,9 @@ public class PlayerEvents extends com.plotsquared.listener.PlotListener implemen
         final Player player = event.getPlayer();
         BukkitUtil.getPlayer(event.getPlayer()).unregister();
         final PlotPlayer pp = BukkitUtil.getPlayer(player);
+        if (Settings.PERMISSION_CACHING) {
+            Permissions.invalidate(pp);
+        }
         // Now
         String name = pp.getName();
         StringWrapper sw = new StringWrapper(name);
@@ -441,7 +502,7 @@ public class PlayerEvents extends com.plotsquared.listener.PlotListener implemen
                 if (!player.hasPlayedBefore() && player.isOnline()) {
                     player.saveData();
                 }
-                ExpireManager.dates.put(uuid, System.currentTimeMillis());
+                ExpireManager.setLastSeen(uuid, System.currentTimeMillis());
                 if (BukkitMain.worldEdit != null) {
                     if (pp.getAttribute("worldedit")) {
                         MainUtil.sendMessage(pp, C.WORLDEDIT_BYPASSED);
@@ -466,17 +527,25 @@ public class PlayerEvents extends com.plotsquared.listener.PlotListener implemen
         if (MathMan.roundInt(from.getX()) != (x2 = MathMan.roundInt(to.getX()))) {
             final Player player = event.getPlayer();
             final PlotPlayer pp = BukkitUtil.getPlayer(player);
-            
-            // Set last location
-            Location loc = BukkitUtil.getLocation(to);
-            pp.setMeta("location", loc);
-            
             final String worldname = to.getWorld().getName();
-            final PlotWorld plotworld = PS.get().getPlotWorld(worldname);
-            if (plotworld == null) {
-                return;
+            final PlotCellCache.Cell cell = PlotCellCache.getCell(pp);
+            Plot now;
+            if (cell.contains(worldname, x2, MathMan.roundInt(to.getZ()))) {
+                // Still in the same plot, the live location is used instead
+                pp.deleteMeta("location");
+                now = cell.getPlot();
+            } else {
+                // Set last location
+                Location loc = BukkitUtil.getLocation(to);
+                pp.setMeta("location", loc);
+                
+                final PlotWorld plotworld = PS.get().getPlotWorld(worldname);
+                if (plotworld == null) {
+                    cell.clear();
+                    return;
+                }
+                now = cell.update(loc);
             }
-            Plot now = MainUtil.getPlot(loc);
             final Plot lastPlot = (Plot) pp.getMeta("lastplot");
             if (now == null) {
                 if ((lastPlot != null) && !plotExit(pp, lastPlot)) {
@@ -523,17 +592,25 @@ public class PlayerEvents extends com.plotsquared.listener.PlotListener implemen
         if (MathMan.roundInt(from.getZ()) != (z2 = MathMan.roundInt(to.getZ()))) {
             final Player player = event.getPlayer();
             final PlotPlayer pp = BukkitUtil.getPlayer(player);
-            
-            // Set last location
-            Location loc = BukkitUtil.getLocation(to);
-            pp.setMeta("location", loc);
-            
             final String worldname = to.getWorld().getName();
-            final PlotWorld plotworld = PS.get().getPlotWorld(worldname);
-            if (plotworld == null) {
-                return;
+            final PlotCellCache.Cell cell = PlotCellCache.getCell(pp);
+            Plot now;
+            if (cell.contains(worldname, MathMan.roundInt(to.getX()), z2)) {
+                // Still in the same plot, the live location is used instead
+                pp.deleteMeta("location");
+                now = cell.getPlot();
+            } else {
+                // Set last location
+                Location loc = BukkitUtil.getLocation(to);
+                pp.setMeta("location", loc);
+                
+                final PlotWorld plotworld = PS.get().getPlotWorld(worldname);
+                if (plotworld == null) {
+                    cell.clear();
+                    return;
+                }
+                now = cell.update(loc);
             }
-            Plot now = MainUtil.getPlot(loc);
             final Plot lastPlot = (Plot) pp.getMeta("lastplot");
             if (now == null) {
                 if ((lastPlot != null) && !plotExit(pp, lastPlot)) {
@@ -636,7 +713,7 @@ public class PlayerEvents extends com.plotsquared.listener.PlotListener implemen
                 event.setCancelled(true);
                 return;
             } else if (!plot.isAdded(pp.getUUID())) {
-                final Flag destroy = FlagManager.getPlotFlagRaw(plot, "break");
+                final Flag destroy = FlagManager.getPlotFlagRaw(plot, FLAG_BREAK);
                 final Block block = event.getBlock();
                 if ((destroy != null) && ((HashSet<PlotBlock>) destroy.getValue()).contains(new PlotBlock((short) block.getTypeId(), block.getData()))) {
                     return;
@@ -674,7 +751,7 @@ public class PlayerEvents extends com.plotsquared.listener.PlotListener implemen
         }
         Plot plot = MainUtil.getPlot(loc);
         if ((plot != null) && plot.hasOwner()) {
-            if (FlagManager.isPlotFlagTrue(plot, "explosion")) {
+            if (FlagManager.isPlotFlagTrue(plot, FLAG_EXPLOSION)) {
                 List<MetadataValue> meta = event.getEntity().getMetadata("plot");
                 Plot origin;
                 if (meta.size() == 0) {
@@ -738,7 +815,7 @@ public class PlayerEvents extends com.plotsquared.listener.PlotListener implemen
             }
         }
         if (Settings.PERMISSION_CACHING) {
-            pp.deleteMeta("perm");
+            Permissions.invalidate(pp);
         }
     }
     
@@ -860,7 +937,7 @@ public class PlayerEvents extends com.plotsquared.listener.PlotListener implemen
             }
             final PlotPlayer pp = BukkitUtil.getPlayer(player);
             if (!plot.isAdded(pp.getUUID())) {
-                final Flag destroy = FlagManager.getPlotFlagRaw(plot, "break");
+                final Flag destroy = FlagManager.getPlotFlagRaw(plot, FLAG_BREAK);
                 final Block block = event.getBlock();
                 if ((destroy != null) && ((HashSet<PlotBlock>) destroy.getValue()).contains(new PlotBlock((short) block.getTypeId(), block.getData()))) {
                     return;
@@ -912,7 +989,7 @@ public class PlayerEvents extends com.plotsquared.listener.PlotListener implemen
                 return;
             } else {
                 final Plot plot = MainUtil.getPlot(loc);
-                if ((plot != null) && FlagManager.isPlotFlagTrue(plot, "disable-physics")) {
+                if ((plot != null) && FlagManager.isPlotFlagTrue(plot, FLAG_DISABLE_PHYSICS)) {
                     e.setCancelled(true);
                     return;
                 }
@@ -1278,7 +1355,7 @@ public class PlayerEvents extends com.plotsquared.listener.PlotListener implemen
             }
             return;
         }
-        if (FlagManager.isPlotFlagTrue(plot, "disable-physics")) {
+        if (FlagManager.isPlotFlagTrue(plot, FLAG_DISABLE_PHYSICS)) {
             event.setCancelled(true);
             return;
         }
@@ -1717,7 +1794,7 @@ public class PlayerEvents extends com.plotsquared.listener.PlotListener implemen
                     MainUtil.sendMessage(pp, C.NO_PERMISSION_EVENT, C.PERMISSION_ADMIN_BUILD_UNOWNED);
                     e.setCancelled(true);
                 } else if (!plot.isAdded(pp.getUUID())) {
-                    final Flag use = FlagManager.getPlotFlagRaw(plot, C.FLAG_USE.s());
+                    final Flag use = FlagManager.getPlotFlagRaw(plot, FLAG_USE);
                     if ((use != null) && ((HashSet<PlotBlock>) use.getValue()).contains(new PlotBlock((short) e.getBucket().getId(), (byte) 0))) {
                         return;
                     }
@@ -1790,7 +1867,7 @@ public class PlayerEvents extends com.plotsquared.listener.PlotListener implemen
                     MainUtil.sendMessage(pp, C.NO_PERMISSION_EVENT, C.PERMISSION_ADMIN_BUILD_UNOWNED);
                     e.setCancelled(true);
                 } else if (!plot.isAdded(pp.getUUID())) {
-                    final Flag use = FlagManager.getPlotFlagRaw(plot, C.FLAG_USE.s());
+                    final Flag use = FlagManager.getPlotFlagRaw(plot, FLAG_USE);
                     final Block block = e.getBlockClicked();
                     if ((use != null) && ((HashSet<PlotBlock>) use.getValue()).contains(new PlotBlock((short) block.getTypeId(), block.getData()))) {
                         return;
@@ -1852,7 +1929,7 @@ public class PlayerEvents extends com.plotsquared.listener.PlotListener implemen
                         e.setCancelled(true);
                     }
                 } else if (!plot.isAdded(pp.getUUID())) {
-                    if (!FlagManager.isPlotFlagTrue(plot, C.FLAG_HANGING_PLACE.s())) {
+                    if (!FlagManager.isPlotFlagTrue(plot, FLAG_HANGING_PLACE)) {
                         if (!Permissions.hasPermission(pp, C.PERMISSION_ADMIN_BUILD_OTHER)) {
                             if (MainUtil.isPlotArea(loc)) {
                                 MainUtil.sendMessage(pp, C.NO_PERMISSION_EVENT, C.PERMISSION_ADMIN_BUILD_OTHER);
@@ -1894,7 +1971,7 @@ public class PlayerEvents extends com.plotsquared.listener.PlotListener implemen
                             e.setCancelled(true);
                         }
                     } else if (!plot.isAdded(pp.getUUID())) {
-                        if (FlagManager.isPlotFlagTrue(plot, C.FLAG_HANGING_BREAK.s())) {
+                        if (FlagManager.isPlotFlagTrue(plot, FLAG_HANGING_BREAK)) {
                             return;
                         }
                         if (!Permissions.hasPermission(pp, C.PERMISSION_ADMIN_DESTROY_OTHER)) {
@@ -1920,7 +1997,7 @@ public class PlayerEvents extends com.plotsquared.listener.PlotListener implemen
                                 e.setCancelled(true);
                             }
                         } else if (!plot.isAdded(player.getUUID())) {
-                            if (!FlagManager.isPlotFlagTrue(plot, C.FLAG_HANGING_BREAK.s())) {
+                            if (!FlagManager.isPlotFlagTrue(plot, FLAG_HANGING_BREAK)) {
                                 if (!Permissions.hasPermission(player, C.PERMISSION_ADMIN_DESTROY_OTHER)) {
                                     if (MainUtil.isPlotArea(BukkitUtil.getLocation(e.getEntity()))) {
                                         MainUtil.sendMessage(player, C.NO_PERMISSION_EVENT, C.PERMISSION_ADMIN_DESTROY_OTHER);
@@ -1960,19 +2037,19 @@ public class PlayerEvents extends com.plotsquared.listener.PlotListener implemen
                     }
                 } else if (!plot.isAdded(pp.getUUID())) {
                     final Entity entity = e.getRightClicked();
-                    if ((entity instanceof Monster) && FlagManager.isPlotFlagTrue(plot, C.FLAG_HOSTILE_INTERACT.s())) {
+                    if ((entity instanceof Monster) && FlagManager.isPlotFlagTrue(plot, FLAG_HOSTILE_INTERACT)) {
                         return;
                     }
-                    if ((entity instanceof Animals) && FlagManager.isPlotFlagTrue(plot, C.FLAG_ANIMAL_INTERACT.s())) {
+                    if ((entity instanceof Animals) && FlagManager.isPlotFlagTrue(plot, FLAG_ANIMAL_INTERACT)) {
                         return;
                     }
-                    if ((entity instanceof Tameable) && ((Tameable) entity).isTamed() && FlagManager.isPlotFlagTrue(plot, C.FLAG_TAMED_INTERACT.s())) {
+                    if ((entity instanceof Tameable) && ((Tameable) entity).isTamed() && FlagManager.isPlotFlagTrue(plot, FLAG_TAMED_INTERACT)) {
                         return;
                     }
-                    if ((entity instanceof Vehicle) && FlagManager.isPlotFlagTrue(plot, C.FLAG_VEHICLE_USE.s())) {
+                    if ((entity instanceof Vehicle) && FlagManager.isPlotFlagTrue(plot, FLAG_VEHICLE_USE)) {
                         return;
                     }
-                    if ((entity instanceof Player) && FlagManager.isPlotFlagTrue(plot, C.FLAG_PLAYER_INTERACT.s())) {
+                    if ((entity instanceof Player) && FlagManager.isPlotFlagTrue(plot, FLAG_PLAYER_INTERACT)) {
                         return;
                     }
                     if (!Permissions.hasPermission(pp, C.PERMISSION_ADMIN_INTERACT_OTHER)) {
@@ -2014,7 +2091,7 @@ public class PlayerEvents extends com.plotsquared.listener.PlotListener implemen
                         return;
                     }
                     if (!plot.isAdded(pp.getUUID())) {
-                        if (FlagManager.isPlotFlagTrue(plot, "vehicle-break")) {
+                        if (FlagManager.isPlotFlagTrue(plot, FLAG_VEHICLE_BREAK)) {
                             return;
                         }
                         if (!Permissions.hasPermission(pp, "plots.admin.vehicle.break.other")) {
@@ -2094,7 +2171,7 @@ public class PlayerEvents extends com.plotsquared.listener.PlotListener implemen
         if (player != null) {
             final PlotPlayer pp = BukkitUtil.getPlayer(player);
             if (victim instanceof Hanging) { // hanging
-                if ((plot != null) && ((FlagManager.isPlotFlagTrue(plot, "hanging-break") || plot.isAdded(pp.getUUID())))) {
+                if ((plot != null) && ((FlagManager.isPlotFlagTrue(plot, FLAG_HANGING_BREAK) || plot.isAdded(pp.getUUID())))) {
                     return true;
                 }
                 if (!Permissions.hasPermission(pp, "plots.admin.destroy." + stub)) {
@@ -2102,7 +2179,7 @@ public class PlayerEvents extends com.plotsquared.listener.PlotListener implemen
                     return false;
                 }
             } else if (victim.getEntityId() == 30) {
-                if ((plot != null) && ((FlagManager.isPlotFlagTrue(plot, "misc-break") || plot.isAdded(pp.getUUID())))) {
+                if ((plot != null) && ((FlagManager.isPlotFlagTrue(plot, FLAG_MISC_BREAK) || plot.isAdded(pp.getUUID())))) {
                     return true;
                 }
                 if (!Permissions.hasPermission(pp, "plots.admin.destroy." + stub)) {
@@ -2110,7 +2187,7 @@ public class PlayerEvents extends com.plotsquared.listener.PlotListener implemen
                     return false;
                 }
             } else if ((victim instanceof Monster) || (victim instanceof EnderDragon)) { // victim is monster
-                if ((plot != null) && ((FlagManager.isPlotFlagTrue(plot, "hostile-attack") || FlagManager.isPlotFlagTrue(plot, "pve") || plot.isAdded(pp.getUUID())))) {
+                if ((plot != null) && ((FlagManager.isPlotFlagTrue(plot, FLAG_HOSTILE_ATTACK) || FlagManager.isPlotFlagTrue(plot, FLAG_PVE) || plot.isAdded(pp.getUUID())))) {
                     return true;
                 }
                 if (!Permissions.hasPermission(pp, "plots.admin.pve." + stub)) {
@@ -2118,7 +2195,7 @@ public class PlayerEvents extends com.plotsquared.listener.PlotListener implemen
                     return false;
                 }
             } else if (victim instanceof Tameable) { // victim is tameable
-                if ((plot != null) && ((FlagManager.isPlotFlagTrue(plot, "tamed-attack") || FlagManager.isPlotFlagTrue(plot, "pve") || plot.isAdded(pp.getUUID())))) {
+                if ((plot != null) && ((FlagManager.isPlotFlagTrue(plot, FLAG_TAMED_ATTACK) || FlagManager.isPlotFlagTrue(plot, FLAG_PVE) || plot.isAdded(pp.getUUID())))) {
                     return true;
                 }
                 if (!Permissions.hasPermission(pp, "plots.admin.pve." + stub)) {
@@ -2127,7 +2204,7 @@ public class PlayerEvents extends com.plotsquared.listener.PlotListener implemen
                 }
             } else if (victim instanceof Player) {
                 if (plot != null) {
-                    final Flag pvp = FlagManager.getPlotFlagRaw(plot, C.FLAG_PVP.s());
+                    final Flag pvp = FlagManager.getPlotFlagRaw(plot, FLAG_PVP);
                     if (pvp == null) {
                         return true;
                     } else {
@@ -2144,7 +2221,7 @@ public class PlayerEvents extends com.plotsquared.listener.PlotListener implemen
                     return false;
                 }
             } else if (victim instanceof Creature) { // victim is animal
-                if ((plot != null) && ((FlagManager.isPlotFlagTrue(plot, "animal-attack") || FlagManager.isPlotFlagTrue(plot, "pve") || plot.isAdded(pp.getUUID())))) {
+                if ((plot != null) && ((FlagManager.isPlotFlagTrue(plot, FLAG_ANIMAL_ATTACK) || FlagManager.isPlotFlagTrue(plot, FLAG_PVE) || plot.isAdded(pp.getUUID())))) {
                     return true;
                 }
                 if (!Permissions.hasPermission(pp, "plots.admin.pve." + stub)) {
@@ -2154,7 +2231,7 @@ public class PlayerEvents extends com.plotsquared.listener.PlotListener implemen
             } else if (victim instanceof Vehicle) { // Vehicles are managed in vehicle destroy event
                 return true;
             } else { // victim is something else
-                if ((plot != null) && ((FlagManager.isPlotFlagTrue(plot, "pve") || plot.isAdded(pp.getUUID())))) {
+                if ((plot != null) && ((FlagManager.isPlotFlagTrue(plot, FLAG_PVE) || plot.isAdded(pp.getUUID())))) {
                     return true;
                 }
                 if (!Permissions.hasPermission(pp, "plots.admin.pve." + stub)) {
@@ -2204,6 +2281,30 @@ public class PlayerEvents extends com.plotsquared.listener.PlotListener implemen
         }
     }
     
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockModified(final BlockPlaceEvent event) {
+        markModified(event.getBlock());
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockModified(final BlockBreakEvent event) {
+        markModified(event.getBlock());
+    }
+    
+    /**
+     * Bump the modification counter of the plot containing a block (invalidates its cached analysis)
+     * @param block
+     */
+    private void markModified(final Block block) {
+        if (!PS.get().isPlotWorld(block.getWorld().getName())) {
+            return;
+        }
+        final Plot plot = MainUtil.getPlotAbs(BukkitUtil.getLocation(block.getLocation()));
+        if ((plot != null) && plot.hasOwner()) {
+            AnalysisCache.modified(plot);
+        }
+    }
+    
     @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
     public void BlockCreate(final BlockPlaceEvent event) {
         final Player player = event.getPlayer();
@@ -2222,7 +2323,7 @@ public class PlayerEvents extends com.plotsquared.listener.PlotListener implemen
                     return;
                 }
             } else if (!plot.isAdded(pp.getUUID())) {
-                final Flag place = FlagManager.getPlotFlagRaw(plot, C.FLAG_PLACE.s());
+                final Flag place = FlagManager.getPlotFlagRaw(plot, FLAG_PLACE);
                 final Block block = event.getBlock();
                 if (((place == null) || !((HashSet<PlotBlock>) place.getValue()).contains(new PlotBlock((short) block.getTypeId(), block.getData())))
                 && !Permissions.hasPermission(pp, C.PERMISSION_ADMIN_BUILD_OTHER)) {
@@ -2237,7 +2338,7 @@ public class PlayerEvents extends com.plotsquared.listener.PlotListener implemen
                     return;
                 }
             }
-            if (FlagManager.isPlotFlagTrue(plot, C.FLAG_DISABLE_PHYSICS.s())) {
+            if (FlagManager.isPlotFlagTrue(plot, FLAG_DISABLE_PHYSICS)) {
                 final Block block = event.getBlockPlaced();
                 if (block.getType().hasGravity()) {
                     sendBlockChange(block.getLocation(), block.getType(), block.getData());
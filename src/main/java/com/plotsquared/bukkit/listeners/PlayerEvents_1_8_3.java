@@ -16,6 +16,9 @@ import com.intellectualcrafters.plot.util.MainUtil;
 import com.plotsquared.bukkit.util.BukkitUtil;
 
 public class PlayerEvents_1_8_3 implements Listener {
+    
+    private static final int FLAG_EXPLOSION = FlagManager.getFlagId("explosion");
+    
     @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
     public void onBigBoom(final BlockExplodeEvent event) {
         final Block block = event.getBlock();
@@ -26,7 +29,7 @@ public class PlayerEvents_1_8_3 implements Listener {
         }
         final Plot plot = MainUtil.getPlotAbs(loc);
         if ((plot != null) && plot.hasOwner()) {
-            if (FlagManager.isPlotFlagTrue(plot, "explosion")) {
+            if (FlagManager.isPlotFlagTrue(plot, FLAG_EXPLOSION)) {
                 final Iterator<Block> iter = event.blockList().iterator();
                 while (iter.hasNext()) {
                     final Block b = iter.next();
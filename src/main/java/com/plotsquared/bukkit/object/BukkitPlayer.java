@@ -1,5 +1,8 @@
 package com.plotsquared.bukkit.object;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 import org.bukkit.Bukkit;
@@ -9,6 +12,7 @@ import org.bukkit.WeatherType;
 import org.bukkit.entity.Player;
 import org.bukkit.event.player.PlayerTeleportEvent.TeleportCause;
 import org.bukkit.permissions.Permission;
+import org.bukkit.permissions.PermissionAttachmentInfo;
 import org.bukkit.permissions.PermissionDefault;
 import org.bukkit.plugin.PluginManager;
 
@@ -73,6 +77,24 @@ public class BukkitPlayer extends PlotPlayer {
         return player.hasPermission(node);
     }
     
+    /**
+     * The permissions attached to the player<br>
+     *  - Returns null for operators and offline players, as they can have permissions which aren't attached
+     *    (operators have every unregistered permission)
+     */
+    @Override
+    public Map<String, Boolean> getEffectivePermissions() {
+        if (offline || player.isOp()) {
+            return null;
+        }
+        final Set<PermissionAttachmentInfo> effective = player.getEffectivePermissions();
+        final HashMap<String, Boolean> permissions = new HashMap<>(effective.size());
+        for (final PermissionAttachmentInfo info : effective) {
+            permissions.put(info.getPermission(), info.getValue());
+        }
+        return permissions;
+    }
+    
     public Permission getPermission(final String node) {
         final PluginManager manager = Bukkit.getPluginManager();
         Permission perm = manager.getPermission(node);
@@ -1,11 +1,13 @@
 package com.plotsquared.bukkit.util;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Random;
 
 import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
 import org.bukkit.Material;
 import org.bukkit.World;
 import org.bukkit.block.Biome;
@@ -18,19 +20,43 @@ import org.bukkit.material.MaterialData;
 import com.intellectualcrafters.plot.flag.Flag;
 import com.intellectualcrafters.plot.flag.FlagManager;
 import com.intellectualcrafters.plot.generator.HybridUtils;
-import com.intellectualcrafters.plot.object.Location;
+import com.intellectualcrafters.plot.generator.RegionAnalysis;
+import com.intellectualcrafters.plot.object.ChunkLoc;
 import com.intellectualcrafters.plot.object.Plot;
 import com.intellectualcrafters.plot.object.PlotAnalysis;
 import com.intellectualcrafters.plot.object.PlotBlock;
 import com.intellectualcrafters.plot.object.RegionWrapper;
 import com.intellectualcrafters.plot.object.RunnableVal;
-import com.intellectualcrafters.plot.util.ChunkManager;
-import com.intellectualcrafters.plot.util.MainUtil;
-import com.intellectualcrafters.plot.util.MathMan;
 import com.intellectualcrafters.plot.util.TaskManager;
 
 public class BukkitHybridUtils extends HybridUtils {
     
+    private static byte[] weights;
+    
+    /**
+     * The data weight of each block id: 8 for directional blocks, 1 for other blocks with data
+     * @return
+     */
+    private static byte[] getWeights() {
+        if (weights == null) {
+            final byte[] values = new byte[4096];
+            for (final Material material : Material.values()) {
+                final int id = material.getId();
+                if ((id < 0) || (id >= values.length)) {
+                    continue;
+                }
+                final Class<? extends MaterialData> md = material.getData();
+                if (md.equals(Directional.class)) {
+                    values[id] = 8;
+                } else if (!md.equals(MaterialData.class)) {
+                    values[id] = 1;
+                }
+            }
+            weights = values;
+        }
+        return weights;
+    }
+    
     @Override
     public void analyzeRegion(final String world, final RegionWrapper region, final RunnableVal<PlotAnalysis> whenDone) {
         // int diff, int variety, int verticies, int rotation, int height_sd
@@ -41,247 +67,137 @@ public class BukkitHybridUtils extends HybridUtils {
          *
          * verticies: store air map and compare with neighbours
          * for each block check the adjacent
-         *  - Store all blocks then go through in second loop
-         *  - recheck each block
          *
+         * Each chunk is captured on the main thread (a chunk snapshot, the generated
+         * terrain and the columns bordering it) and then analyzed on the pool
          */
-        TaskManager.runTaskAsync(new Runnable() {
+        final World worldObj = Bukkit.getWorld(world);
+        final ChunkGenerator gen = worldObj.getGenerator();
+        if (gen == null) {
+            whenDone.value = null;
+            TaskManager.runTask(whenDone);
+            return;
+        }
+        final BiomeGrid nullBiomeGrid = new BiomeGrid() {
+            @Override
+            public void setBiome(final int a, final int b, final Biome c) {}
+            
+            @Override
+            public Biome getBiome(final int a, final int b) {
+                return null;
+            }
+        };
+        final int bx = region.minX;
+        final int bz = region.minZ;
+        final int tx = region.maxX;
+        final int tz = region.maxZ;
+        final int width = (tx - bx) + 1;
+        final int length = (tz - bz) + 1;
+        final ArrayDeque<ChunkLoc> chunks = new ArrayDeque<>();
+        for (int X = bx >> 4; X <= (tx >> 4); X++) {
+            for (int Z = bz >> 4; Z <= (tz >> 4); Z++) {
+                chunks.add(new ChunkLoc(X, Z));
+            }
+        }
+        final Random r = new Random();
+        final RegionAnalysis analysis = new RegionAnalysis(width, length, chunks.size(), getWeights(), whenDone);
+        TaskManager.runTask(new Runnable() {
             @Override
             public void run() {
-                final World worldObj = Bukkit.getWorld(world);
-                final ChunkGenerator gen = worldObj.getGenerator();
-                if (gen == null) {
-                    return;
-                }
-                final BiomeGrid nullBiomeGrid = new BiomeGrid() {
-                    @Override
-                    public void setBiome(final int a, final int b, final Biome c) {}
-                    
-                    @Override
-                    public Biome getBiome(final int a, final int b) {
-                        return null;
-                    }
-                };
-                
-                final Location bot = new Location(world, region.minX, region.minY, region.minZ);
-                final Location top = new Location(world, region.maxX, region.maxY, region.maxZ);
-                
-//                final Location bot = MainUtil.getPlotBottomLoc(plot.world, plot.id).add(1, 0, 1);
-//                final Location top = MainUtil.getPlotTopLoc(plot.world, plot.id);
-                
-                final int bx = bot.getX();
-                final int bz = bot.getZ();
-                final int tx = top.getX();
-                final int tz = top.getZ();
-                final int cbx = bx >> 4;
-                final int cbz = bz >> 4;
-                final int ctx = tx >> 4;
-                final int ctz = tz >> 4;
-                final Random r = new Random();
-                MainUtil.initCache();
-                final int width = (tx - bx) + 1;
-                final int length = (tz - bz) + 1;
-                
-                System.gc();
-                System.gc();
-                final short[][][] oldblocks = new short[256][width][length];
-                final short[][][] newblocks = new short[256][width][length];
-                
-                final Runnable run = new Runnable() {
-                    @Override
-                    public void run() {
-                        ChunkManager.chunkTask(bot, top, new RunnableVal<int[]>() {
-                            @Override
-                            public void run() {
-                                // [chunkx, chunkz, pos1x, pos1z, pos2x, pos2z, isedge]
-                                final int X = value[0];
-                                final int Z = value[1];
-                                final short[][] result = gen.generateExtBlockSections(worldObj, r, X, Z, nullBiomeGrid);
-                                final int xb = ((X) << 4) - bx;
-                                final int zb = ((Z) << 4) - bz;
-                                for (int i = 0; i < result.length; i++) {
-                                    if (result[i] == null) {
-                                        for (int j = 0; j < 4096; j++) {
-                                            final int x = MainUtil.x_loc[i][j] + xb;
-                                            if ((x < 0) || (x >= width)) {
-                                                continue;
-                                            }
-                                            final int z = MainUtil.z_loc[i][j] + zb;
-                                            if ((z < 0) || (z >= length)) {
-                                                continue;
-                                            }
-                                            final int y = MainUtil.y_loc[i][j];
-                                            oldblocks[y][x][z] = 0;
-                                        }
-                                        continue;
-                                    }
-                                    for (int j = 0; j < result[i].length; j++) {
-                                        final int x = MainUtil.x_loc[i][j] + xb;
-                                        if ((x < 0) || (x >= width)) {
-                                            continue;
-                                        }
-                                        final int z = MainUtil.z_loc[i][j] + zb;
-                                        if ((z < 0) || (z >= length)) {
-                                            continue;
-                                        }
-                                        final int y = MainUtil.y_loc[i][j];
-                                        oldblocks[y][x][z] = result[i][j];
-                                    }
-                                }
-                                
-                            }
-                        }, new Runnable() {
-                            @Override
-                            public void run() {
-                                TaskManager.runTaskAsync(new Runnable() {
-                                    @Override
-                                    public void run() {
-                                        final int size = width * length;
-                                        final int[] changes = new int[size];
-                                        final int[] faces = new int[size];
-                                        final int[] data = new int[size];
-                                        final int[] air = new int[size];
-                                        final int[] variety = new int[size];
-                                        int i = 0;
-                                        for (int x = 0; x < width; x++) {
-                                            for (int z = 0; z < length; z++) {
-                                                final HashSet<Short> types = new HashSet<>();
-                                                for (int y = 0; y < 256; y++) {
-                                                    final short old = oldblocks[y][x][z];
-                                                    final short now = newblocks[y][x][z];
-                                                    if (old != now) {
-                                                        changes[i]++;
-                                                    }
-                                                    if (now == 0) {
-                                                        air[i]++;
-                                                    } else {
-                                                        // check verticies
-                                                        // modifications_adjacent
-                                                        if ((x > 0) && (z > 0) && (y > 0) && (x < (width - 1)) && (z < (length - 1)) && (y < 255)) {
-                                                            if (newblocks[y - 1][x][z] == 0) {
-                                                                faces[i]++;
-                                                            }
-                                                            if (newblocks[y][x - 1][z] == 0) {
-                                                                faces[i]++;
-                                                            }
-                                                            if (newblocks[y][x][z - 1] == 0) {
-                                                                faces[i]++;
-                                                            }
-                                                            if (newblocks[y + 1][x][z] == 0) {
-                                                                faces[i]++;
-                                                            }
-                                                            if (newblocks[y][x + 1][z] == 0) {
-                                                                faces[i]++;
-                                                            }
-                                                            if (newblocks[y][x][z + 1] == 0) {
-                                                                faces[i]++;
-                                                            }
-                                                        }
-                                                        
-                                                        final Material material = Material.getMaterial(now);
-                                                        final Class<? extends MaterialData> md = material.getData();
-                                                        if (md.equals(Directional.class)) {
-                                                            data[i] += 8;
-                                                        } else if (!md.equals(MaterialData.class)) {
-                                                            data[i]++;
-                                                        }
-                                                        types.add(now);
-                                                    }
-                                                }
-                                                variety[i] = types.size();
-                                                i++;
-                                            }
-                                        }
-                                        // analyze plot
-                                        // put in analysis obj
-                                        
-                                        // run whenDone
-                                        final PlotAnalysis analysis = new PlotAnalysis();
-                                        analysis.changes = (int) (MathMan.getMean(changes) * 100);
-                                        analysis.faces = (int) (MathMan.getMean(faces) * 100);
-                                        analysis.data = (int) (MathMan.getMean(data) * 100);
-                                        analysis.air = (int) (MathMan.getMean(air) * 100);
-                                        analysis.variety = (int) (MathMan.getMean(variety) * 100);
-                                        
-                                        analysis.changes_sd = (int) (MathMan.getSD(changes, analysis.changes));
-                                        analysis.faces_sd = (int) (MathMan.getSD(faces, analysis.faces));
-                                        analysis.data_sd = (int) (MathMan.getSD(data, analysis.data));
-                                        analysis.air_sd = (int) (MathMan.getSD(air, analysis.air));
-                                        analysis.variety_sd = (int) (MathMan.getSD(variety, analysis.variety));
-                                        System.gc();
-                                        System.gc();
-                                        whenDone.value = analysis;
-                                        whenDone.run();
-                                    }
-                                });
-                            }
-                        }, 5);
-                        
-                    }
-                };
-                System.gc();
-                MainUtil.initCache();
-                ChunkManager.chunkTask(bot, top, new RunnableVal<int[]>() {
-                    
-                    @Override
-                    public void run() {
-                        final int X = value[0];
-                        final int Z = value[1];
-                        worldObj.loadChunk(X, Z);
-                        int minX;
-                        int minZ;
-                        int maxX;
-                        int maxZ;
-                        if (X == cbx) {
-                            minX = bx & 15;
-                        } else {
-                            minX = 0;
-                        }
-                        if (Z == cbz) {
-                            minZ = bz & 15;
-                        } else {
-                            minZ = 0;
-                        }
-                        if (X == ctx) {
-                            maxX = tx & 15;
-                        } else {
-                            maxX = 16;
-                        }
-                        if (Z == ctz) {
-                            maxZ = tz & 15;
-                        } else {
-                            maxZ = 16;
-                        }
-                        
-                        final int cbx = X << 4;
-                        final int cbz = Z << 4;
-                        
-                        final int xb = (cbx) - bx;
-                        final int zb = (cbz) - bz;
-                        for (int x = minX; x <= maxX; x++) {
-                            final int xx = cbx + x;
-                            for (int z = minZ; z <= maxZ; z++) {
-                                final int zz = cbz + z;
-                                for (int y = 0; y < 256; y++) {
-                                    final Block block = worldObj.getBlockAt(xx, y, zz);
-                                    final int xr = xb + x;
-                                    final int zr = zb + z;
-                                    newblocks[y][xr][zr] = (short) block.getTypeId();
-                                }
-                            }
-                        }
-                        worldObj.unloadChunkRequest(X, Z, true);
+                final long start = System.currentTimeMillis();
+                while ((chunks.size() > 0) && ((System.currentTimeMillis() - start) < 5) && !analysis.isBusy()) {
+                    final ChunkLoc loc = chunks.poll();
+                    final boolean unload = !worldObj.isChunkLoaded(loc.x, loc.z);
+                    final Chunk chunk = worldObj.getChunkAt(loc.x, loc.z);
+                    chunk.load(true);
+                    final ChunkSnapshot snapshot = chunk.getChunkSnapshot(false, false, false);
+                    final short[][] generated = gen.generateExtBlockSections(worldObj, r, loc.x, loc.z, nullBiomeGrid);
+                    analysis.submit(new ChunkSlice(worldObj, snapshot, generated, (loc.x << 4) - bx, (loc.z << 4) - bz, width, length));
+                    if (unload) {
+                        worldObj.unloadChunkRequest(loc.x, loc.z, true);
                     }
-                }, new Runnable() {
-                    @Override
-                    public void run() {
-                        TaskManager.runTaskAsync(run);
-                    }
-                }, 5);
+                }
+                if (chunks.size() > 0) {
+                    TaskManager.runTaskLater(this, 1);
+                }
             }
         });
     }
     
+    /**
+     * The part of a region inside one chunk<br>
+     *  - The bordering columns are read when the slice is created, so the slice can be analyzed off the main thread
+     */
+    private static class ChunkSlice extends RegionAnalysis.Slice {
+        private final ChunkSnapshot snapshot;
+        private final short[][] generated;
+        private final int xb;
+        private final int zb;
+        // The columns bordering the slice: -x, +x, -z, +z
+        private final short[][] border = new short[4][];
+        
+        public ChunkSlice(final World world, final ChunkSnapshot snapshot, final short[][] generated, final int xb, final int zb, final int width, final int length) {
+            super(Math.max(xb, 0), Math.max(zb, 0), Math.min(xb + 15, width - 1), Math.min(zb + 15, length - 1));
+            this.snapshot = snapshot;
+            this.generated = generated;
+            this.xb = xb;
+            this.zb = zb;
+            final int wx = (snapshot.getX() << 4) - xb;
+            final int wz = (snapshot.getZ() << 4) - zb;
+            if (minX > 0) {
+                border[0] = saveBorder(world, wx + minX - 1, wz + minZ, 0, 1);
+            }
+            if (maxX < (width - 1)) {
+                border[1] = saveBorder(world, wx + maxX + 1, wz + minZ, 0, 1);
+            }
+            if (minZ > 0) {
+                border[2] = saveBorder(world, wx + minX, wz + minZ - 1, 1, 0);
+            }
+            if (maxZ < (length - 1)) {
+                border[3] = saveBorder(world, wx + minX, wz + maxZ + 1, 1, 0);
+            }
+        }
+        
+        private short[] saveBorder(final World world, final int x, final int z, final int dx, final int dz) {
+            final short[] ids = new short[16 << 8];
+            final int size = dx == 0 ? (maxZ - minZ) + 1 : (maxX - minX) + 1;
+            for (int i = 0; i < size; i++) {
+                final int xx = x + (i * dx);
+                final int zz = z + (i * dz);
+                for (int y = 0; y < 256; y++) {
+                    ids[(i << 8) | y] = (short) world.getBlockTypeIdAt(xx, y, zz);
+                }
+            }
+            return ids;
+        }
+        
+        @Override
+        public int getOldId(final int x, final int y, final int z) {
+            final short[] section = generated[y >> 4];
+            if (section == null) {
+                return 0;
+            }
+            return section[((y & 15) << 8) | ((z - zb) << 4) | (x - xb)];
+        }
+        
+        @Override
+        public int getId(final int x, final int y, final int z) {
+            if (x < minX) {
+                return border[0][((z - minZ) << 8) | y];
+            }
+            if (x > maxX) {
+                return border[1][((z - minZ) << 8) | y];
+            }
+            if (z < minZ) {
+                return border[2][((x - minX) << 8) | y];
+            }
+            if (z > maxZ) {
+                return border[3][((x - minX) << 8) | y];
+            }
+            return snapshot.getBlockTypeId(x - xb, y, z - zb);
+        }
+    }
+    
     @Override
     public int checkModified(final String worldname, final int x1, final int x2, final int y1, final int y2, final int z1, final int z2, final PlotBlock[] blocks) {
         final World world = BukkitUtil.getWorld(worldname);
@@ -8,6 +8,7 @@ import org.bukkit.World;
 
 import com.intellectualcrafters.plot.object.ChunkLoc;
 import com.intellectualcrafters.plot.object.RunnableVal;
+import com.intellectualcrafters.plot.util.BlockManager;
 import com.intellectualcrafters.plot.util.BlockUpdateUtil;
 import com.intellectualcrafters.plot.util.MainUtil;
 
@@ -18,6 +19,19 @@ public abstract class BukkitSetBlockManager extends BlockUpdateUtil {
     
     public abstract void update(final Collection<Chunk> list);
     
+    /**
+     * Set the blocks of a chunk section, see {@link BlockManager#setSection}
+     * @return The number of values left in the section
+     */
+    public int setSection(final World world, final int cx, final int cy, final int cz, final char[] section, final int count, final long deadline) {
+        return BlockManager.setSection(cx, cy, cz, section, count, deadline, new BlockManager.SectionSetter() {
+            @Override
+            public void set(final int x, final int y, final int z, final int id, final byte data) {
+                BukkitSetBlockManager.this.set(world, x, y, z, id, data);
+            }
+        });
+    }
+    
     @Override
     public void update(final String worldname, final Collection<ChunkLoc> chunkLocs) {
         final ArrayList<Chunk> chunks = new ArrayList<>();
@@ -244,6 +244,18 @@ public class BukkitUtil extends BlockManager {
         BukkitUtil.setBlock(getWorld(worldname), x, y, z, id, data);
     }
     
+    @Override
+    public int functionSetSection(final String worldname, final int cx, final int cy, final int cz, final char[] section, final int count, final long deadline) {
+        final World world = getWorld(worldname);
+        try {
+            return BukkitSetBlockManager.setBlockManager.setSection(world, cx, cy, cz, section, count, deadline);
+        } catch (final Throwable e) {
+            // the blocks which were set are cleared from the section, so the rest is continued (count is an upper bound)
+            BukkitSetBlockManager.setBlockManager = new SetBlockSlow();
+            return BukkitSetBlockManager.setBlockManager.setSection(world, cx, cy, cz, section, count, deadline);
+        }
+    }
+    
     @Override
     public String[] getSign(final Location loc) {
         final Block block = getWorld(loc.getWorld()).getBlockAt(loc.getX(), loc.getY(), loc.getZ());
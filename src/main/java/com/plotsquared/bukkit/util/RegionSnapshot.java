@@ -0,0 +1,605 @@
+package com.plotsquared.bukkit.util;
+
+import com.intellectualcrafters.plot.PS;
+import com.intellectualcrafters.plot.object.BlockColumns;
+import com.intellectualcrafters.plot.object.Location;
+import com.intellectualcrafters.plot.object.RegionWrapper;
+import com.plotsquared.bukkit.object.entity.EntityWrapper;
+import org.bukkit.Chunk;
+import org.bukkit.DyeColor;
+import org.bukkit.Material;
+import org.bukkit.Note;
+import org.bukkit.SkullType;
+import org.bukkit.World;
+import org.bukkit.block.Banner;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.BrewingStand;
+import org.bukkit.block.CommandBlock;
+import org.bukkit.block.CreatureSpawner;
+import org.bukkit.block.Furnace;
+import org.bukkit.block.Jukebox;
+import org.bukkit.block.NoteBlock;
+import org.bukkit.block.Sign;
+import org.bukkit.block.Skull;
+import org.bukkit.block.banner.Pattern;
+import org.bukkit.block.banner.PatternType;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.InventoryHolder;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map.Entry;
+
+/**
+ * Snapshot of the blocks, tile entities and entities in part of a world<br>
+ *  - Block ids and data are stored per chunk in packed arrays, a section is only allocated once it contains a block<br>
+ *  - Tile entity data is kept in a sparse table, with one entry for each block which has any<br>
+ *  - Each copy, swap or regeneration uses its own snapshot, so several can run at the same time
+ */
+public class RegionSnapshot {
+    
+    private final HashMap<Long, ChunkData> chunks = new HashMap<>();
+    private final ArrayList<Tile> tiles = new ArrayList<>();
+    private final HashSet<EntityWrapper> entities = new HashSet<>();
+    private ChunkData lastChunk;
+    private long lastKey;
+    
+    private static class ChunkData {
+        private final short[][] ids = new short[16][];
+        private final byte[][] data = new byte[16][];
+        private final long[] columns = new long[4];
+        
+        private boolean isSaved(final int x, final int z) {
+            final int i = (z << 4) | x;
+            return (columns[i >> 6] & (1L << (i & 63))) != 0;
+        }
+        
+        private void markSaved(final int x, final int z) {
+            final int i = (z << 4) | x;
+            columns[i >> 6] |= 1L << (i & 63);
+        }
+        
+        private void set(final int x, final int y, final int z, final short id, final byte value) {
+            final int i = y >> 4;
+            final int j = ((y & 15) << 8) | (z << 4) | x;
+            short[] section = ids[i];
+            if (section == null) {
+                if (id == 0) {
+                    return;
+                }
+                section = new short[4096];
+                ids[i] = section;
+                data[i] = new byte[2048];
+            }
+            section[j] = id;
+            final byte[] nibbles = data[i];
+            final int k = j >> 1;
+            if ((j & 1) == 0) {
+                nibbles[k] = (byte) ((nibbles[k] & 0xF0) | (value & 15));
+            } else {
+                nibbles[k] = (byte) ((nibbles[k] & 0x0F) | ((value & 15) << 4));
+            }
+        }
+        
+        private short getId(final int x, final int y, final int z) {
+            final short[] section = ids[y >> 4];
+            if (section == null) {
+                return 0;
+            }
+            return section[((y & 15) << 8) | (z << 4) | x];
+        }
+        
+        private byte getData(final int x, final int y, final int z) {
+            final byte[] nibbles = data[y >> 4];
+            if (nibbles == null) {
+                return 0;
+            }
+            final int j = ((y & 15) << 8) | (z << 4) | x;
+            final int value = nibbles[j >> 1];
+            return (byte) ((j & 1) == 0 ? value & 15 : (value >> 4) & 15);
+        }
+    }
+    
+    private static class Tile {
+        private final int x;
+        private final int y;
+        private final int z;
+        private final short id;
+        private final Object value;
+        
+        public Tile(final int x, final int y, final int z, final short id, final Object value) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.id = id;
+            this.value = value;
+        }
+        
+        /**
+         * Apply the saved data to the tile entity at this position
+         * @param state
+         * @return false if the block does not have the expected tile entity
+         */
+        @SuppressWarnings("unchecked")
+        private boolean restore(final BlockState state) {
+            switch (id) {
+                case 54:
+                case 23:
+                case 158:
+                case 138:
+                case 154: {
+                    if (!(state instanceof InventoryHolder)) {
+                        return false;
+                    }
+                    ((InventoryHolder) state).getInventory().setContents((ItemStack[]) value);
+                    break;
+                }
+                case 52: {
+                    if (!(state instanceof CreatureSpawner)) {
+                        return false;
+                    }
+                    ((CreatureSpawner) state).setCreatureTypeId((String) value);
+                    break;
+                }
+                case 137: {
+                    if (!(state instanceof CommandBlock)) {
+                        return false;
+                    }
+                    ((CommandBlock) state).setCommand((String) value);
+                    break;
+                }
+                case 63:
+                case 68:
+                case 323: {
+                    if (!(state instanceof Sign)) {
+                        return false;
+                    }
+                    final Sign sign = (Sign) state;
+                    int i = 0;
+                    for (final String line : (String[]) value) {
+                        sign.setLine(i, line);
+                        i++;
+                    }
+                    break;
+                }
+                case 61:
+                case 62: {
+                    if (!(state instanceof Furnace)) {
+                        return false;
+                    }
+                    final Furnace furnace = (Furnace) state;
+                    final Object[] values = (Object[]) value;
+                    furnace.getInventory().setContents((ItemStack[]) values[0]);
+                    final short cook = (Short) values[2];
+                    if (cook != 0) {
+                        furnace.setBurnTime((Short) values[1]);
+                        furnace.setCookTime(cook);
+                    }
+                    break;
+                }
+                case 117: {
+                    if (!(state instanceof BrewingStand)) {
+                        return false;
+                    }
+                    final BrewingStand brewingStand = (BrewingStand) state;
+                    final Object[] values = (Object[]) value;
+                    brewingStand.getInventory().setContents((ItemStack[]) values[0]);
+                    final short time = (Short) values[1];
+                    if (time > 0) {
+                        brewingStand.setBrewingTime(time);
+                    }
+                    break;
+                }
+                case 25: {
+                    if (!(state instanceof NoteBlock)) {
+                        return false;
+                    }
+                    ((NoteBlock) state).setNote((Note) value);
+                    break;
+                }
+                case 84: {
+                    if (!(state instanceof Jukebox)) {
+                        return false;
+                    }
+                    ((Jukebox) state).setPlaying(Material.getMaterial((Short) value));
+                    break;
+                }
+                case 397: {
+                    if (!(state instanceof Skull)) {
+                        return false;
+                    }
+                    final Skull skull = (Skull) state;
+                    final Object[] values = (Object[]) value;
+                    if (values[0] != null) {
+                        skull.setOwner((String) values[0]);
+                    }
+                    final byte rotation = (Byte) values[1];
+                    if (rotation != 0) {
+                        skull.setRotation(BlockFace.values()[rotation]);
+                    }
+                    final byte type = (Byte) values[2];
+                    if (type != 0) {
+                        skull.setSkullType(SkullType.values()[type]);
+                    }
+                    break;
+                }
+                case 176:
+                case 177: {
+                    if (!(state instanceof Banner)) {
+                        return false;
+                    }
+                    final Banner banner = (Banner) state;
+                    final Object[] values = (Object[]) value;
+                    banner.setBaseColor(DyeColor.values()[(Byte) values[0]]);
+                    for (final Byte[] color : (ArrayList<Byte[]>) values[1]) {
+                        banner.addPattern(new Pattern(DyeColor.getByDyeData(color[1]), PatternType.values()[color[0]]));
+                    }
+                    break;
+                }
+                default: {
+                    return false;
+                }
+            }
+            state.update(true);
+            return true;
+        }
+    }
+    
+    private ChunkData getChunk(final int x, final int z, final boolean create) {
+        final long key = (((long) (x >> 4)) << 32) | ((z >> 4) & 0xFFFFFFFFL);
+        if ((lastChunk != null) && (lastKey == key)) {
+            return lastChunk;
+        }
+        ChunkData chunk = chunks.get(key);
+        if (chunk == null) {
+            if (!create) {
+                return null;
+            }
+            chunk = new ChunkData();
+            chunks.put(key, chunk);
+        }
+        lastKey = key;
+        lastChunk = chunk;
+        return chunk;
+    }
+    
+    /**
+     * Save the blocks and tile entities in a column<br>
+     *  - A column which was already saved is skipped
+     * @param world
+     * @param maxY The height to save up to (exclusive)
+     * @param x
+     * @param z
+     */
+    public void saveColumn(final World world, final int maxY, final int x, final int z) {
+        final ChunkData chunk = getChunk(x, z, true);
+        final int cx = x & 15;
+        final int cz = z & 15;
+        if (chunk.isSaved(cx, cz)) {
+            return;
+        }
+        chunk.markSaved(cx, cz);
+        for (int y = 0; y < maxY; y++) {
+            final Block block = world.getBlockAt(x, y, z);
+            final short id = (short) block.getTypeId();
+            if (id == 0) {
+                continue;
+            }
+            chunk.set(cx, y, cz, id, block.getData());
+            try {
+                saveTile(block, id, x, y, z);
+            } catch (final Exception e) {
+                PS.debug("&c[WARN] Failed to save tile entity: " + x + "," + y + "," + z);
+                e.printStackTrace();
+            }
+        }
+    }
+    
+    /**
+     * Save all columns in a region
+     * @param world
+     * @param x1
+     * @param x2
+     * @param z1
+     * @param z2
+     */
+    public void saveRegion(final World world, int x1, int x2, int z1, int z2) {
+        if (z1 > z2) {
+            final int tmp = z1;
+            z1 = z2;
+            z2 = tmp;
+        }
+        if (x1 > x2) {
+            final int tmp = x1;
+            x1 = x2;
+            x2 = tmp;
+        }
+        for (int x = x1; x <= x2; x++) {
+            for (int z = z1; z <= z2; z++) {
+                saveColumn(world, 256, x, z);
+            }
+        }
+    }
+    
+    private void saveTile(final Block block, final short id, final int x, final int y, final int z) {
+        switch (id) {
+            case 54:
+            case 23:
+            case 158:
+            case 138:
+            case 154: {
+                final InventoryHolder holder = (InventoryHolder) block.getState();
+                tiles.add(new Tile(x, y, z, id, holder.getInventory().getContents().clone()));
+                break;
+            }
+            case 52: {
+                final CreatureSpawner spawner = (CreatureSpawner) block.getState();
+                final String type = spawner.getCreatureTypeId();
+                if ((type != null) && (type.length() != 0)) {
+                    tiles.add(new Tile(x, y, z, id, type));
+                }
+                break;
+            }
+            case 137: {
+                final CommandBlock cmd = (CommandBlock) block.getState();
+                final String string = cmd.getCommand();
+                if ((string != null) && (string.length() > 0)) {
+                    tiles.add(new Tile(x, y, z, id, string));
+                }
+                break;
+            }
+            case 63:
+            case 68:
+            case 323: {
+                final Sign sign = (Sign) block.getState();
+                tiles.add(new Tile(x, y, z, id, sign.getLines().clone()));
+                break;
+            }
+            case 61:
+            case 62: {
+                final Furnace furnace = (Furnace) block.getState();
+                final ItemStack[] contents = furnace.getInventory().getContents().clone();
+                tiles.add(new Tile(x, y, z, id, new Object[] { contents, furnace.getBurnTime(), furnace.getCookTime() }));
+                break;
+            }
+            case 117: {
+                final BrewingStand brewingStand = (BrewingStand) block.getState();
+                final ItemStack[] contents = brewingStand.getInventory().getContents().clone();
+                tiles.add(new Tile(x, y, z, id, new Object[] { contents, (short) brewingStand.getBrewingTime() }));
+                break;
+            }
+            case 25: {
+                final NoteBlock noteBlock = (NoteBlock) block.getState();
+                tiles.add(new Tile(x, y, z, id, noteBlock.getNote()));
+                break;
+            }
+            case 84: {
+                final Jukebox jukebox = (Jukebox) block.getState();
+                final Material playing = jukebox.getPlaying();
+                if (playing != null) {
+                    tiles.add(new Tile(x, y, z, id, (short) playing.getId()));
+                }
+                break;
+            }
+            case 397: {
+                final Skull skull = (Skull) block.getState();
+                final byte rotation = getOrdinal(BlockFace.values(), skull.getRotation());
+                final byte type = getOrdinal(SkullType.values(), skull.getSkullType());
+                tiles.add(new Tile(x, y, z, id, new Object[] { skull.getOwner(), rotation, type }));
+                break;
+            }
+            case 176:
+            case 177: {
+                final Banner banner = (Banner) block.getState();
+                final byte base = getOrdinal(DyeColor.values(), banner.getBaseColor());
+                final ArrayList<Byte[]> types = new ArrayList<>();
+                for (final Pattern pattern : banner.getPatterns()) {
+                    types.add(new Byte[] { getOrdinal(PatternType.values(), pattern.getPattern()), pattern.getColor().getDyeData() });
+                }
+                tiles.add(new Tile(x, y, z, id, new Object[] { base, types }));
+                break;
+            }
+        }
+    }
+    
+    private static byte getOrdinal(final Object[] list, final Object value) {
+        for (byte i = 0; i < list.length; i++) {
+            if (list[i].equals(value)) {
+                return i;
+            }
+        }
+        return 0;
+    }
+    
+    /**
+     * Check if a column has been saved
+     * @param x
+     * @param z
+     * @return
+     */
+    public boolean isSaved(final int x, final int z) {
+        final ChunkData chunk = getChunk(x, z, false);
+        return (chunk != null) && chunk.isSaved(x & 15, z & 15);
+    }
+    
+    /**
+     * Get the saved block id at a position (0 if the column was not saved)
+     * @param x
+     * @param y
+     * @param z
+     * @return
+     */
+    public short getId(final int x, final int y, final int z) {
+        final ChunkData chunk = getChunk(x, z, false);
+        return chunk == null ? 0 : chunk.getId(x & 15, y, z & 15);
+    }
+    
+    /**
+     * Get the saved block data at a position (0 if the column was not saved)
+     * @param x
+     * @param y
+     * @param z
+     * @return
+     */
+    public byte getData(final int x, final int y, final int z) {
+        final ChunkData chunk = getChunk(x, z, false);
+        return chunk == null ? 0 : chunk.getData(x & 15, y, z & 15);
+    }
+    
+    /**
+     * Change a block in the snapshot (does not affect tile entities)
+     * @param x
+     * @param y
+     * @param z
+     * @param id
+     * @param data
+     */
+    public void setBlock(final int x, final int y, final int z, final short id, final byte data) {
+        getChunk(x, z, true).set(x & 15, y, z & 15, id, data);
+    }
+    
+    /**
+     * Copy the saved columns into the block store which the generators read while a region is regenerated
+     * @return
+     */
+    public BlockColumns exportColumns() {
+        if (chunks.isEmpty()) {
+            return new BlockColumns(0, 0);
+        }
+        int minX = Integer.MAX_VALUE;
+        int minZ = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxZ = Integer.MIN_VALUE;
+        for (final long key : chunks.keySet()) {
+            final int cx = (int) (key >> 32);
+            final int cz = (int) key;
+            minX = Math.min(minX, cx);
+            minZ = Math.min(minZ, cz);
+            maxX = Math.max(maxX, cx);
+            maxZ = Math.max(maxZ, cz);
+        }
+        final BlockColumns columns = new BlockColumns(minX << 4, minZ << 4, ((maxX - minX) + 1) << 4, ((maxZ - minZ) + 1) << 4);
+        for (final Entry<Long, ChunkData> entry : chunks.entrySet()) {
+            final long key = entry.getKey();
+            final int bx = ((int) (key >> 32)) << 4;
+            final int bz = ((int) key) << 4;
+            final ChunkData chunk = entry.getValue();
+            for (int x = 0; x < 16; x++) {
+                for (int z = 0; z < 16; z++) {
+                    if (!chunk.isSaved(x, z)) {
+                        continue;
+                    }
+                    for (int i = 0; i < 16; i++) {
+                        if (chunk.ids[i] == null) {
+                            continue;
+                        }
+                        for (int y = i << 4; y < ((i + 1) << 4); y++) {
+                            final short id = chunk.getId(x, y, z);
+                            if (id != 0) {
+                                columns.setBlock(bx + x, y, bz + z, id, chunk.getData(x, y, z));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return columns;
+    }
+    
+    /**
+     * Restore the saved tile entities
+     * @param world The world to restore to
+     * @param x_offset
+     * @param z_offset
+     */
+    public void restoreTiles(final World world, final int x_offset, final int z_offset) {
+        for (final Tile tile : tiles) {
+            final int x = tile.x + x_offset;
+            final int z = tile.z + z_offset;
+            try {
+                final BlockState state = world.getBlockAt(x, tile.y, z).getState();
+                if (!tile.restore(state)) {
+                    PS.debug("&c[WARN] Plot clear failed to regenerate " + Material.getMaterial(tile.id) + ": " + x + "," + tile.y + "," + z);
+                }
+            } catch (final Exception e) {
+                PS.debug("&c[WARN] Plot clear failed to regenerate " + Material.getMaterial(tile.id) + " (e): " + x + "," + tile.y + "," + z);
+            }
+        }
+    }
+    
+    /**
+     * Save the entities in a chunk which are outside a region
+     * @param chunk
+     * @param region
+     */
+    public void saveEntitiesOut(final Chunk chunk, final RegionWrapper region) {
+        for (final Entity entity : chunk.getEntities()) {
+            final Location loc = BukkitUtil.getLocation(entity);
+            if (BukkitChunkManager.isIn(region, loc.getX(), loc.getZ())) {
+                continue;
+            }
+            if (entity.getVehicle() != null) {
+                continue;
+            }
+            entities.add(new EntityWrapper(entity, (short) 2));
+        }
+    }
+    
+    /**
+     * Save the entities in a chunk which are inside a region
+     * @param chunk
+     * @param region
+     * @param delete If the saved entities should be removed from the world (players are never removed)
+     */
+    public void saveEntitiesIn(final Chunk chunk, final RegionWrapper region, final boolean delete) {
+        for (final Entity entity : chunk.getEntities()) {
+            final Location loc = BukkitUtil.getLocation(entity);
+            if (!BukkitChunkManager.isIn(region, loc.getX(), loc.getZ())) {
+                continue;
+            }
+            if (entity.getVehicle() != null) {
+                continue;
+            }
+            entities.add(new EntityWrapper(entity, (short) 2));
+            if (delete) {
+                if (!(entity instanceof Player)) {
+                    entity.remove();
+                }
+            }
+        }
+    }
+    
+    /**
+     * Spawn the saved entities, and forget them
+     * @param world The world to spawn in
+     * @param x_offset
+     * @param z_offset
+     */
+    public void restoreEntities(final World world, final int x_offset, final int z_offset) {
+        for (final EntityWrapper entity : entities) {
+            try {
+                entity.spawn(world, x_offset, z_offset);
+            } catch (final Exception e) {
+                PS.debug("Failed to restore entity (e): " + entity.x + "," + entity.y + "," + entity.z + " : " + entity.id + " : " + EntityType.fromId(entity.id));
+                e.printStackTrace();
+            }
+        }
+        entities.clear();
+    }
+    
+    /**
+     * Forget all saved blocks, tile entities and entities
+     */
+    public void clear() {
+        chunks.clear();
+        tiles.clear();
+        entities.clear();
+        lastChunk = null;
+    }
+}
@@ -4,28 +4,22 @@ import static com.intellectualcrafters.plot.util.ReflectionUtils.getRefClass;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map.Entry;
 
 import org.bukkit.Bukkit;
 import org.bukkit.Chunk;
 import org.bukkit.World;
-import org.bukkit.entity.Player;
 
 import com.intellectualcrafters.plot.PS;
 import com.intellectualcrafters.plot.object.ChunkLoc;
-import com.intellectualcrafters.plot.object.Location;
-import com.intellectualcrafters.plot.object.Plot;
-import com.intellectualcrafters.plot.object.PlotPlayer;
+import com.intellectualcrafters.plot.util.ChunkViewerIndex;
 import com.intellectualcrafters.plot.util.ReflectionUtils.RefClass;
 import com.intellectualcrafters.plot.util.ReflectionUtils.RefConstructor;
 import com.intellectualcrafters.plot.util.ReflectionUtils.RefField;
 import com.intellectualcrafters.plot.util.ReflectionUtils.RefMethod;
 import com.intellectualcrafters.plot.util.TaskManager;
-import com.intellectualcrafters.plot.util.UUIDHandler;
-import com.plotsquared.bukkit.object.BukkitPlayer;
+import com.plotsquared.bukkit.listeners.ChunkViewerListener;
 
 /**
  * An utility that can be used to send chunks, rather than using bukkit code to do so (uses heavy NMS)
@@ -48,6 +42,11 @@ public class SendChunk {
     private final RefMethod send;
     private final RefMethod methodInitLighting;
     
+    /**
+     * The players (Bukkit players) who can see each chunk, see {@link ChunkViewerListener}
+     */
+    public static final ChunkViewerIndex viewers = new ChunkViewerIndex(Bukkit.getServer().getViewDistance());
+    
     /**
      * Constructor
      *
@@ -62,65 +61,36 @@ public class SendChunk {
         send = classConnection.getMethod("sendPacket", classPacket.getRealClass());
     }
     
+    /**
+     * Send chunks to the players who can see them, and unload the chunks no one can see<br>
+     *  - One packet is built per chunk and sent to each of its viewers (see {@link #viewers})
+     * @param input
+     */
     public void sendChunk(final Collection<Chunk> input) {
         final HashSet<Chunk> chunks = new HashSet<Chunk>(input);
-        final HashMap<String, ArrayList<Chunk>> map = new HashMap<>();
-        final int view = Bukkit.getServer().getViewDistance();
+        final ArrayList<Chunk> unsent = new ArrayList<>();
         for (final Chunk chunk : chunks) {
-            final String world = chunk.getWorld().getName();
-            ArrayList<Chunk> list = map.get(world);
-            if (list == null) {
-                list = new ArrayList<>();
-                map.put(world, list);
-            }
-            list.add(chunk);
             final Object c = methodGetHandleChunk.of(chunk).call();
             methodInitLighting.of(c).call();
-        }
-        for (Entry<String, PlotPlayer> entry : UUIDHandler.getPlayers().entrySet()) {
-            PlotPlayer pp = entry.getValue();
-            final Plot plot = pp.getCurrentPlot();
-            Location loc = null;
-            String world;
-            if (plot != null) {
-                world = plot.world;
-            } else {
-                loc = pp.getLocation();
-                world = loc.getWorld();
-            }
-            final ArrayList<Chunk> list = map.get(world);
-            if (list == null) {
+            final List<Object> players = viewers.getViewers(chunk.getWorld().getName(), chunk.getX(), chunk.getZ());
+            if (players.isEmpty()) {
+                unsent.add(chunk);
                 continue;
             }
-            if (loc == null) {
-                loc = pp.getLocation();
-            }
-            final int cx = loc.getX() >> 4;
-            final int cz = loc.getZ() >> 4;
-            final Player player = ((BukkitPlayer) pp).player;
-            final Object entity = methodGetHandlePlayer.of(player).call();
-            
-            for (final Chunk chunk : list) {
-                final int dx = Math.abs(cx - chunk.getX());
-                final int dz = Math.abs(cz - chunk.getZ());
-                if ((dx > view) || (dz > view)) {
-                    continue;
-                }
-                final Object c = methodGetHandleChunk.of(chunk).call();
-                chunks.remove(chunk);
+            final Object packet = MapChunk.create(c, true, 65535);
+            for (final Object player : players) {
+                final Object entity = methodGetHandlePlayer.of(player).call();
                 final Object con = connection.of(entity).get();
-                //                if (dx != 0 || dz != 0) {
-                //                    Object packet = MapChunk.create(c, true, 0);
-                //                    send.of(con).call(packet);
-                //                }
-                final Object packet = MapChunk.create(c, true, 65535);
                 send.of(con).call(packet);
             }
         }
-        for (final Chunk chunk : chunks) {
-            TaskManager.runTask(new Runnable() {
-                @Override
-                public void run() {
+        if (unsent.isEmpty()) {
+            return;
+        }
+        TaskManager.runTask(new Runnable() {
+            @Override
+            public void run() {
+                for (final Chunk chunk : unsent) {
                     try {
                         chunk.unload(true, false);
                     } catch (final Throwable e) {
@@ -130,8 +100,8 @@ public class SendChunk {
                         PS.debug("$3 - $4" + worldname + "/level.dat or " + worldname + "/level_old.dat may be corrupt (try repairing or removing these)");
                     }
                 }
-            });
-        }
+            }
+        });
         //
         //
         //        int diffx, diffz;
@@ -22,6 +22,7 @@ package com.plotsquared.bukkit.util;
 
 import static com.intellectualcrafters.plot.util.ReflectionUtils.getRefClass;
 
+import java.lang.invoke.MethodHandle;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -35,13 +36,15 @@ import org.bukkit.block.Block;
 import com.intellectualcrafters.plot.object.ChunkLoc;
 import com.intellectualcrafters.plot.util.MainUtil;
 import com.intellectualcrafters.plot.util.ReflectionUtils.RefClass;
-import com.intellectualcrafters.plot.util.ReflectionUtils.RefConstructor;
-import com.intellectualcrafters.plot.util.ReflectionUtils.RefMethod;
 import com.intellectualcrafters.plot.util.TaskManager;
 
 /**
- * SetBlockFast class<br> Used to do fast world editing
- *
+ * SetBlockFast class<br> Used to do fast world editing<br>
+ *  - The NMS methods are resolved once, as method handles called with invokeExact (no reflection or boxing per block)<br>
+ *  - The NMS chunk of the last block is cached (while its Bukkit chunk is loaded) until the next tick, and the block
+ *    data of each id/data is cached<br>
+ *  - Blocks which already have the right id/data are skipped without going through Bukkit
+ *
  */
 public class SetBlockFast_1_8 extends BukkitSetBlockManager {
     private final RefClass classBlock = getRefClass("{nms}.Block");
@@ -50,13 +53,27 @@ public class SetBlockFast_1_8 extends BukkitSetBlockManager {
     private final RefClass classChunk = getRefClass("{nms}.Chunk");
     private final RefClass classWorld = getRefClass("{nms}.World");
     private final RefClass classCraftWorld = getRefClass("{cb}.CraftWorld");
-    private RefMethod methodGetHandle;
-    private RefMethod methodGetChunkAt;
-    private RefMethod methodA;
-    private RefMethod methodGetByCombinedId;
-    private RefConstructor constructorBlockPosition;
+    private final MethodHandle methodGetHandle;
+    private final MethodHandle methodGetChunkAt;
+    private final MethodHandle methodA;
+    private final MethodHandle methodGetBlockData;
+    private final MethodHandle methodGetByCombinedId;
+    private final MethodHandle methodGetCombinedId;
+    private final MethodHandle constructorBlockPosition;
     private SendChunk chunksender;
     
+    /**
+     * The IBlockData of each combined id (id + (data << 12)), filled as they are used
+     */
+    private final Object[] blockData = new Object[65536];
+    
+    private World lastWorld;
+    private Object lastWorldHandle;
+    private Chunk lastBukkitChunk;
+    private Object lastChunk;
+    private int lastX;
+    private int lastZ;
+    
     public static HashMap<ChunkLoc, Chunk> toUpdate = new HashMap<>();
     
     /**
@@ -65,15 +82,23 @@ public class SetBlockFast_1_8 extends BukkitSetBlockManager {
      * @throws NoSuchMethodException
      */
     public SetBlockFast_1_8() throws NoSuchMethodException {
-        constructorBlockPosition = classBlockPosition.getConstructor(int.class, int.class, int.class);
-        methodGetByCombinedId = classBlock.getMethod("getByCombinedId", int.class);
-        methodGetHandle = classCraftWorld.getMethod("getHandle");
-        methodGetChunkAt = classWorld.getMethod("getChunkAt", int.class, int.class);
-        methodA = classChunk.getMethod("a", classBlockPosition, classIBlockData);
+        constructorBlockPosition = classBlockPosition.getConstructor(int.class, int.class, int.class).getHandle(int.class, int.class, int.class);
+        methodGetByCombinedId = classBlock.getMethod("getByCombinedId", int.class).getHandle(Object.class, int.class);
+        methodGetCombinedId = classBlock.getMethod("getCombinedId", classIBlockData).getHandle(int.class, Object.class);
+        methodGetHandle = classCraftWorld.getMethod("getHandle").getHandle(Object.class, Object.class);
+        methodGetChunkAt = classWorld.getMethod("getChunkAt", int.class, int.class).getHandle(Object.class, Object.class, int.class, int.class);
+        methodGetBlockData = classChunk.getMethod("getBlockData", classBlockPosition).getHandle(Object.class, Object.class, Object.class);
+        // The previous block data isn't needed, so the handle drops it
+        methodA = classChunk.getMethod("a", classBlockPosition, classIBlockData).getHandle(void.class, Object.class, Object.class, Object.class);
         TaskManager.runTaskRepeat(new Runnable() {
             
             @Override
             public void run() {
+                // Don't keep a chunk which may have been unloaded
+                lastChunk = null;
+                lastBukkitChunk = null;
+                lastWorld = null;
+                lastWorldHandle = null;
                 if (toUpdate.size() == 0) {
                     return;
                 }
@@ -94,7 +119,47 @@ public class SetBlockFast_1_8 extends BukkitSetBlockManager {
         chunksender = new SendChunk();
     }
     
-    private ChunkLoc lastLoc = null;
+    /**
+     * Get the NMS chunk, loading it and marking it to be sent to players
+     * @param world
+     * @param X chunk x
+     * @param Z chunk z
+     * @return
+     * @throws Throwable
+     */
+    private Object getChunk(final World world, final int X, final int Z) throws Throwable {
+        if ((lastChunk != null) && (lastX == X) && (lastZ == Z) && (lastWorld == world) && lastBukkitChunk.isLoaded()) {
+            return lastChunk;
+        }
+        final ChunkLoc loc = new ChunkLoc(X, Z);
+        Chunk chunk = toUpdate.get(loc);
+        if (chunk == null) {
+            chunk = world.getChunkAt(X, Z);
+            toUpdate.put(loc, chunk);
+        }
+        chunk.load(true);
+        if (lastWorld != world) {
+            lastWorldHandle = (Object) methodGetHandle.invokeExact((Object) world);
+            lastWorld = world;
+        }
+        lastChunk = (Object) methodGetChunkAt.invokeExact(lastWorldHandle, X, Z);
+        lastBukkitChunk = chunk;
+        lastX = X;
+        lastZ = Z;
+        return lastChunk;
+    }
+    
+    private Object getBlockData(final int combined) throws Throwable {
+        if ((combined < 0) || (combined >= blockData.length)) {
+            return (Object) methodGetByCombinedId.invokeExact(combined);
+        }
+        Object data = blockData[combined];
+        if (data == null) {
+            data = (Object) methodGetByCombinedId.invokeExact(combined);
+            blockData[combined] = data;
+        }
+        return data;
+    }
     
     /**
      * Set the block at the location
@@ -109,61 +174,14 @@ public class SetBlockFast_1_8 extends BukkitSetBlockManager {
     @SuppressWarnings("deprecation")
     @Override
     public void set(final World world, final int x, final int y, final int z, final int id, final byte data) {
-        final int X = x >> 4;
-        final int Z = z >> 4;
-        final ChunkLoc loc = new ChunkLoc(X, Z);
-        if (lastLoc == null || loc.x != lastLoc.x || loc.z != lastLoc.z) {
-            lastLoc = loc;
-            Chunk chunk = toUpdate.get(loc);
-            if (chunk == null) {
-                chunk = world.getChunkAt(X, Z);
-                toUpdate.put(loc, chunk);
+        try {
+            final Object chunk = getChunk(world, x >> 4, z >> 4);
+            if (id == -1) {
+                world.getBlockAt(x, y, z).setData(data, false);
+                return;
             }
-            chunk.load(true);
-        }
-        if (id == -1) {
-            world.getBlockAt(x, y, z).setData(data, false);
-            return;
-        }
-        // Start blockstate workaround //
-        switch (id) {
-            case 54:
-            case 130:
-            case 142:
-            case 132:
-            case 27:
-            case 137:
-            case 52:
-            case 154:
-            case 84:
-            case 25:
-            case 144:
-            case 138:
-            case 176:
-            case 177:
-            case 119:
-            case 63:
-            case 68:
-            case 323:
-            case 117:
-            case 116:
-            case 28:
-            case 66:
-            case 157:
-            case 61:
-            case 62:
-            case 140:
-            case 146:
-            case 149:
-            case 150:
-            case 158:
-            case 23:
-            case 123:
-            case 124:
-            case 29:
-            case 33:
-            case 151:
-            case 178: {
+            // Start blockstate workaround //
+            if (hasState(id)) {
                 final Block block = world.getBlockAt(x, y, z);
                 if (block.getData() == data) {
                     if (block.getTypeId() != id) {
@@ -178,109 +196,48 @@ public class SetBlockFast_1_8 extends BukkitSetBlockManager {
                 }
                 return;
             }
-        }
-        
-        // Start data value shortcut
-        final Block block = world.getBlockAt(x, y, z);
-        final int currentId = block.getTypeId();
-        if (currentId == id) {
-            switch (id) {
-                case 0:
-                case 2:
-                case 4:
-                case 13:
-                case 14:
-                case 15:
-                case 20:
-                case 21:
-                case 22:
-                case 25:
-                case 30:
-                case 32:
-                case 37:
-                case 39:
-                case 40:
-                case 41:
-                case 42:
-                case 45:
-                case 46:
-                case 47:
-                case 48:
-                case 49:
-                case 51:
-                case 52:
-                case 54:
-                case 55:
-                case 56:
-                case 57:
-                case 58:
-                case 60:
-                case 61:
-                case 62:
-                case 7:
-                case 8:
-                case 9:
-                case 10:
-                case 11:
-                case 73:
-                case 74:
-                case 78:
-                case 79:
-                case 80:
-                case 81:
-                case 82:
-                case 83:
-                case 84:
-                case 85:
-                case 87:
-                case 88:
-                case 101:
-                case 102:
-                case 103:
-                case 110:
-                case 112:
-                case 113:
-                case 117:
-                case 121:
-                case 122:
-                case 123:
-                case 124:
-                case 129:
-                case 133:
-                case 138:
-                case 137:
-                case 140:
-                case 165:
-                case 166:
-                case 169:
-                case 170:
-                case 172:
-                case 173:
-                case 174:
-                case 176:
-                case 177:
-                case 181:
-                case 182:
-                case 188:
-                case 189:
-                case 190:
-                case 191:
-                case 192: {
-                    return;
-                }
+            // A new position is needed for each block, as NMS may keep it (e.g. for scheduled block updates)
+            final Object pos = (Object) constructorBlockPosition.invokeExact(x, y, z);
+            final Object combined = getBlockData(id + (data << 12));
+            final Object current = (Object) methodGetBlockData.invokeExact(chunk, pos);
+            if (current == combined) {
+                return;
             }
-            if (block.getData() == data) {
+            // Start data value shortcut
+            final int currentId = ((int) methodGetCombinedId.invokeExact(current)) & 4095;
+            if ((currentId == id) && ignoresData(id)) {
                 return;
             }
-            block.setData(data, false);
-            return;
+            // blockstate
+            if (hasState(currentId)) {
+                final Block block = world.getBlockAt(x, y, z);
+                if (block.getData() == data) {
+                    block.setTypeId(id, false);
+                } else {
+                    block.setTypeIdAndData(id, data, false);
+                }
+                return;
+            }
+            // End blockstate workaround //
+            methodA.invokeExact(chunk, pos, combined);
+        } catch (final RuntimeException e) {
+            throw e;
+        } catch (final Throwable e) {
+            throw new RuntimeException(e);
         }
-        // blockstate
-        switch (currentId) {
+    }
+    
+    /**
+     * If a block id has a blockstate (tile entity), so it has to be set through Bukkit
+     * @param id
+     * @return
+     */
+    private static boolean hasState(final int id) {
+        switch (id) {
             case 54:
             case 130:
-            case 132:
             case 142:
+            case 132:
             case 27:
             case 137:
             case 52:
@@ -291,11 +248,11 @@ public class SetBlockFast_1_8 extends BukkitSetBlockManager {
             case 138:
             case 176:
             case 177:
+            case 119:
             case 63:
             case 68:
             case 323:
             case 117:
-            case 119:
             case 116:
             case 28:
             case 66:
@@ -314,23 +271,104 @@ public class SetBlockFast_1_8 extends BukkitSetBlockManager {
             case 33:
             case 151:
             case 178: {
-                if (block.getData() == data) {
-                    block.setTypeId(id, false);
-                } else {
-                    block.setTypeIdAndData(id, data, false);
-                }
-                return;
+                return true;
             }
         }
-        // End blockstate workaround //
-        
-
-        // check sign
-        final Object w = methodGetHandle.of(world).call();
-        final Object chunk = methodGetChunkAt.of(w).call(x >> 4, z >> 4);
-        final Object pos = constructorBlockPosition.create(x & 0x0f, y, z & 0x0f);
-        final Object combined = methodGetByCombinedId.of(null).call(id + (data << 12));
-        methodA.of(chunk).call(pos, combined);
+        return false;
+    }
+    
+    /**
+     * If the data value of a block id can be left unchanged
+     * @param id
+     * @return
+     */
+    private static boolean ignoresData(final int id) {
+        switch (id) {
+            case 0:
+            case 2:
+            case 4:
+            case 13:
+            case 14:
+            case 15:
+            case 20:
+            case 21:
+            case 22:
+            case 25:
+            case 30:
+            case 32:
+            case 37:
+            case 39:
+            case 40:
+            case 41:
+            case 42:
+            case 45:
+            case 46:
+            case 47:
+            case 48:
+            case 49:
+            case 51:
+            case 52:
+            case 54:
+            case 55:
+            case 56:
+            case 57:
+            case 58:
+            case 60:
+            case 61:
+            case 62:
+            case 7:
+            case 8:
+            case 9:
+            case 10:
+            case 11:
+            case 73:
+            case 74:
+            case 78:
+            case 79:
+            case 80:
+            case 81:
+            case 82:
+            case 83:
+            case 84:
+            case 85:
+            case 87:
+            case 88:
+            case 101:
+            case 102:
+            case 103:
+            case 110:
+            case 112:
+            case 113:
+            case 117:
+            case 121:
+            case 122:
+            case 123:
+            case 124:
+            case 129:
+            case 133:
+            case 138:
+            case 137:
+            case 140:
+            case 165:
+            case 166:
+            case 169:
+            case 170:
+            case 172:
+            case 173:
+            case 174:
+            case 176:
+            case 177:
+            case 181:
+            case 182:
+            case 188:
+            case 189:
+            case 190:
+            case 191:
+            case 192: {
+                return true;
+            }
+        }
+        return false;
     }
     
     @Override
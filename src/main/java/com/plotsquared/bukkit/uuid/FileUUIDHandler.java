@@ -112,7 +112,7 @@ public class FileUUIDHandler extends UUIDHandlerImplementation {
                                     final NbtFactory.NbtCompound bukkit = (NbtFactory.NbtCompound) compound.get("bukkit");
                                     final String name = (String) bukkit.get("lastKnownName");
                                     final long last = (long) bukkit.get("lastPlayed");
-                                    ExpireManager.dates.put(uuid, last);
+                                    ExpireManager.setLastSeen(uuid, last);
                                     toAdd.put(new StringWrapper(name), uuid);
                                 }
                             } catch (final Exception e) {
@@ -192,7 +192,7 @@ public class FileUUIDHandler extends UUIDHandlerImplementation {
                                 uuid = new UUID(most, least);
                             }
                         }
-                        ExpireManager.dates.put(uuid, last);
+                        ExpireManager.setLastSeen(uuid, last);
                         toAdd.put(new StringWrapper(name), uuid);
                     } catch (final Throwable e) {
                         PS.debug(C.PREFIX.s() + "&6Invalid playerdata: " + uuid.toString() + ".dat");
@@ -212,7 +212,7 @@ public class FileUUIDHandler extends UUIDHandlerImplementation {
                             final StringWrapper wrap = new StringWrapper(name);
                             final UUID uuid = uuidWrapper.getUUID(op);
                             toAdd.put(wrap, uuid);
-                            ExpireManager.dates.put(uuid, last);
+                            ExpireManager.setLastSeen(uuid, last);
                         }
                     }
                 }
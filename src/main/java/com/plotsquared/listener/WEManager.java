@@ -5,12 +5,16 @@ import java.util.UUID;
 
 import com.intellectualcrafters.plot.PS;
 import com.intellectualcrafters.plot.config.Settings;
+import com.intellectualcrafters.plot.database.DBFunc;
 import com.intellectualcrafters.plot.flag.FlagManager;
 import com.intellectualcrafters.plot.object.Location;
 import com.intellectualcrafters.plot.object.Plot;
 import com.intellectualcrafters.plot.object.PlotPlayer;
 import com.intellectualcrafters.plot.object.RegionWrapper;
+import com.intellectualcrafters.plot.util.AnalysisCache;
 import com.intellectualcrafters.plot.util.MainUtil;
+import com.intellectualcrafters.plot.util.PlayerPlotIndex;
+import com.intellectualcrafters.plot.util.PlayerPlotIndex.Relation;
 
 public class WEManager {
     //    public static HashSet<String> bypass = new HashSet<>();
@@ -43,16 +47,49 @@ public class WEManager {
             return regions;
         }
         for (final Plot plot : PS.get().getPlotsInWorld(player.getLocation().getWorld())) {
-            if (!plot.isBasePlot() || (Settings.DONE_RESTRICTS_BUILDING && (FlagManager.getPlotFlagRaw(plot, "done") != null))) {
-                continue;
-            }
-            if (Settings.WE_ALLOW_HELPER ? plot.isAdded(uuid) : (plot.isOwner(uuid) || plot.getTrusted().contains(uuid))) {
+            if (canEdit(plot, uuid)) {
                 regions.addAll(MainUtil.getRegions(plot));
             }
         }
         return regions;
     }
     
+    private static boolean canEdit(final Plot plot, final UUID uuid) {
+        if (!plot.isBasePlot() || (Settings.DONE_RESTRICTS_BUILDING && (FlagManager.getPlotFlagRaw(plot, "done") != null))) {
+            return false;
+        }
+        return Settings.WE_ALLOW_HELPER ? plot.isAdded(uuid) : (plot.isOwner(uuid) || plot.getTrusted().contains(uuid));
+    }
+    
+    /**
+     * Mark the plots a player can edit with WorldEdit as modified (invalidates their cached analysis)<br>
+     *  - Only the plots the player (or everyone) is added to are checked, see {@link PlayerPlotIndex}
+     * @param player
+     */
+    public static void markModified(final PlotPlayer player) {
+        final UUID uuid = player.getUUID();
+        final String world = player.getLocation().getWorld();
+        if (!PS.get().isPlotWorld(world)) {
+            return;
+        }
+        final PlayerPlotIndex index = PS.get().getPlayerIndex();
+        final HashSet<Plot> candidates = new HashSet<>();
+        for (final UUID added : new UUID[] { uuid, DBFunc.everyone }) {
+            candidates.addAll(index.getPlots(world, added, Relation.OWNER));
+            candidates.addAll(index.getPlots(world, added, Relation.TRUSTED));
+            if (Settings.WE_ALLOW_HELPER) {
+                candidates.addAll(index.getPlots(world, added, Relation.MEMBER));
+            }
+        }
+        final HashSet<Plot> checked = new HashSet<>();
+        for (final Plot candidate : candidates) {
+            final Plot plot = candidate.getBasePlot(false);
+            if (checked.add(plot) && canEdit(plot, uuid)) {
+                AnalysisCache.modified(plot);
+            }
+        }
+    }
+    
     public static boolean intersects(final RegionWrapper region1, final RegionWrapper region2) {
         return (region1.minX <= region2.maxX) && (region1.maxX >= region2.minX) && (region1.minZ <= region2.maxZ) && (region1.maxZ >= region2.minZ);
     }
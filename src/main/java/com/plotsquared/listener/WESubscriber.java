@@ -56,6 +56,9 @@ public class WESubscriber {
                 }
                 return;
             }
+            if (plotworld != null) {
+                WEManager.markModified(pp);
+            }
             if (Settings.CHUNK_PROCESSOR) {
                 if (Settings.EXPERIMENTAL_FAST_ASYNC_WORLDEDIT) {
                     try {
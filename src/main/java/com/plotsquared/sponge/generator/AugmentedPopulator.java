@@ -1,9 +1,7 @@
 package com.plotsquared.sponge.generator;
 
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map.Entry;
 import java.util.Random;
 
 import org.spongepowered.api.block.BlockState;
@@ -20,13 +18,15 @@ import org.spongepowered.api.world.gen.Populator;
 import org.spongepowered.api.world.gen.WorldGenerator;
 
 import com.flowpowered.math.vector.Vector3i;
+import com.intellectualcrafters.plot.object.BlockColumns;
+import com.intellectualcrafters.plot.object.GenerationContext;
 import com.intellectualcrafters.plot.object.Location;
 import com.intellectualcrafters.plot.object.PlotBlock;
 import com.intellectualcrafters.plot.object.PlotCluster;
 import com.intellectualcrafters.plot.object.PlotId;
-import com.intellectualcrafters.plot.object.PlotLoc;
 import com.intellectualcrafters.plot.object.PlotManager;
 import com.intellectualcrafters.plot.object.PlotWorld;
+import com.intellectualcrafters.plot.object.RegionWrapper;
 import com.intellectualcrafters.plot.util.ChunkManager;
 import com.intellectualcrafters.plot.util.SetBlockQueue;
 import com.intellectualcrafters.plot.util.TaskManager;
@@ -115,45 +115,29 @@ public class AugmentedPopulator implements Populator {
         if (!inX || !inZ) {
             return;
         }
+        final GenerationContext context = ChunkManager.getContext(world, cx, cz);
+        final RegionWrapper region = context == null ? null : context.requiredRegion;
         if (plotworld.TERRAIN == 3) {
             final int X = min.getX();
             final int Z = min.getZ();
-            if (ChunkManager.FORCE_PASTE) {
+            if ((context != null) && (context.forcePaste || (region != null)) && (context.blocks != null)) {
+                final BlockColumns blocks = context.blocks;
                 for (short x = 0; x < 16; x++) {
                     for (short z = 0; z < 16; z++) {
-                        final PlotLoc loc = new PlotLoc((short) (X + x), (short) (Z + z));
-                        final HashMap<Short, Short> blocks = ChunkManager.GENERATE_BLOCKS.get(loc);
-                        final HashMap<Short, Byte> datas = ChunkManager.GENERATE_DATA.get(loc);
-                        for (final Entry<Short, Short> entry : blocks.entrySet()) {
-                            final int y = entry.getKey();
+                        final short[] ids = blocks.getIds(X + x, Z + z);
+                        if (ids == null) {
+                            continue;
+                        }
+                        final byte[] datas = blocks.getDatas(X + x, Z + z);
+                        final int y0 = blocks.getBottom(X + x, Z + z);
+                        for (int i = 0; i < ids.length; i++) {
+                            if (ids[i] == -1) {
+                                continue;
+                            }
                             if (datas != null) {
-                                SetBlockQueue.setBlock(world, x, y, z, new PlotBlock(blocks.get(y), datas.get(y)));
+                                SetBlockQueue.setBlock(world, x, y0 + i, z, new PlotBlock(ids[i], datas[i]));
                             } else {
-                                SetBlockQueue.setBlock(world, x, y, z, blocks.get(y));
-                            }
-                        }
-                    }
-                }
-                return;
-            }
-            if (ChunkManager.CURRENT_PLOT_CLEAR != null) {
-                PlotLoc loc;
-                for (final Entry<PlotLoc, HashMap<Short, Byte>> entry : ChunkManager.GENERATE_DATA.entrySet()) {
-                    final HashMap<Short, Byte> datas = ChunkManager.GENERATE_DATA.get(entry.getKey());
-                    for (final Entry<Short, Byte> entry2 : entry.getValue().entrySet()) {
-                        final Short y = entry2.getKey();
-                        byte data;
-                        if (datas != null) {
-                            data = datas.get(y);
-                        } else {
-                            data = 0;
-                        }
-                        loc = entry.getKey();
-                        final int xx = loc.x - X;
-                        final int zz = loc.z - Z;
-                        if ((xx >= 0) && (xx < 16)) {
-                            if ((zz >= 0) && (zz < 16)) {
-                                SetBlockQueue.setBlock(world, xx, y, zz, new PlotBlock(entry2.getValue(), data));
+                                SetBlockQueue.setBlock(world, x, y0 + i, z, ids[i]);
                             }
                         }
                     }
@@ -171,7 +155,7 @@ public class AugmentedPopulator implements Populator {
             }
         }
         if (o) {
-            populateBlocks(worldObj, chunk, cx, cz, bx, bz, check);
+            populateBlocks(worldObj, chunk, cx, cz, bx, bz, check, region);
         } else {
             TaskManager.runTaskLater(new Runnable() {
                 @Override
@@ -182,13 +166,13 @@ public class AugmentedPopulator implements Populator {
             TaskManager.runTaskLater(new Runnable() {
                 @Override
                 public void run() {
-                    populateBlocks(worldObj, chunk, cx, cz, bx, bz, check);
+                    populateBlocks(worldObj, chunk, cx, cz, bx, bz, check, region);
                 }
             }, 40 + r.nextInt(40));
         }
     }
     
-    private void populateBlocks(final World world, final Chunk chunk, final int X, final int Z, final int x, final int z, final boolean check) {
+    private void populateBlocks(final World world, final Chunk chunk, final int X, final int Z, final int x, final int z, final boolean check, final RegionWrapper region) {
         final String worldname = world.getName();
         final MutableBlockVolume blocks = new MutableBlockVolume() {
             @Override
@@ -197,8 +181,8 @@ public class AugmentedPopulator implements Populator {
                     return;
                 }
                 if (p) {
-                    if (ChunkManager.CURRENT_PLOT_CLEAR != null) {
-                        if (ChunkManager.CURRENT_PLOT_CLEAR.isIn(x, z)) {
+                    if (region != null) {
+                        if (region.isIn(x, z)) {
                             return;
                         }
                     } else if (manager.getPlotIdAbs(plotworld, x, 0, z) != null) {
@@ -267,8 +251,8 @@ public class AugmentedPopulator implements Populator {
                     return;
                 }
                 if (p) {
-                    if (ChunkManager.CURRENT_PLOT_CLEAR != null) {
-                        if (ChunkManager.CURRENT_PLOT_CLEAR.isIn(x, z)) {
+                    if (region != null) {
+                        if (region.isIn(x, z)) {
                             return;
                         }
                     } else if (manager.getPlotIdAbs(plotworld, x, 0, z) != null) {
@@ -1,10 +1,10 @@
 package com.plotsquared.sponge.generator;
 
-import java.util.HashMap;
 import java.util.HashSet;
 
 import org.spongepowered.api.world.World;
 
+import com.intellectualcrafters.plot.object.BlockColumns;
 import com.intellectualcrafters.plot.object.PlotBlock;
 import com.intellectualcrafters.plot.object.PlotLoc;
 import com.intellectualcrafters.plot.object.PseudoRandom;
@@ -19,6 +19,33 @@ public class SpongeBasicPop extends SpongePlotPopulator<SpongeBasicGen> {
         super(generator);
     }
     
+    /**
+     * Set the schematic blocks for a column
+     * @param x The x within the chunk
+     * @param z The z within the chunk
+     * @param absX The x within the plot grid
+     * @param absZ The z within the plot grid
+     */
+    private void setSchematic(final int x, final int z, final int absX, final int absZ) {
+        final BlockColumns schematic = generator.plotworld.G_SCH;
+        final short[] ids = schematic.getIds(absX, absZ);
+        if (ids == null) {
+            return;
+        }
+        final byte[] datas = schematic.getDatas(absX, absZ);
+        final int y0 = generator.plotheight + schematic.getBottom(absX, absZ);
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == -1) {
+                continue;
+            }
+            if (datas != null) {
+                setBlock(x, y0 + i, z, SpongeMain.THIS.getBlockState(new PlotBlock(ids[i], datas[i])));
+            } else {
+                setBlock(x, y0 + i, z, SpongeMain.THIS.getBlockState(ids[i]));
+            }
+        }
+    }
+    
     @Override
     public void populate(final World world, final RegionWrapper requiredRegion, final PseudoRandom random, final int cx, final int cz) {
         int sx = (short) ((X - generator.plotworld.ROAD_OFFSET_X) % generator.size);
@@ -50,20 +77,7 @@ public class SpongeBasicPop extends SpongePlotPopulator<SpongeBasicGen> {
                     }
                     if (generator.plotworld.PLOT_SCHEMATIC) {
                         final PlotLoc loc = new PlotLoc(absX, absZ);
-                        final HashMap<Short, Short> blocks = generator.plotworld.G_SCH.get(loc);
-                        if (blocks != null) {
-                            final HashMap<Short, Byte> datas = generator.plotworld.G_SCH_DATA.get(loc);
-                            if (datas != null) {
-                                for (final short y : blocks.keySet()) {
-                                    final Byte data = datas.get(y);
-                                    setBlock(x, (short) (generator.plotheight + y), z, SpongeMain.THIS.getBlockState(new PlotBlock(blocks.get(y), data == null ? 0 : data)));
-                                }
-                            } else {
-                                for (final short y : blocks.keySet()) {
-                                    setBlock(x, (short) (generator.plotheight + y), z, SpongeMain.THIS.getBlockState(blocks.get(y)));
-                                }
-                            }
-                        }
+                        setSchematic(x, z, absX, absZ);
                         if (generator.plotworld.G_SCH_STATE != null) {
                             final HashSet<PlotItem> states = generator.plotworld.G_SCH_STATE.get(loc);
                             if (states != null) {
@@ -102,21 +116,7 @@ public class SpongeBasicPop extends SpongePlotPopulator<SpongeBasicGen> {
                         }
                     }
                     if (generator.plotworld.ROAD_SCHEMATIC_ENABLED) {
-                        final PlotLoc loc = new PlotLoc(absX, absZ);
-                        final HashMap<Short, Short> blocks = generator.plotworld.G_SCH.get(loc);
-                        if (blocks != null) {
-                            final HashMap<Short, Byte> datas = generator.plotworld.G_SCH_DATA.get(loc);
-                            if (datas != null) {
-                                for (final short y : blocks.keySet()) {
-                                    final Byte data = datas.get(y);
-                                    setBlock(x, (short) (generator.plotheight + y), z, SpongeMain.THIS.getBlockState(new PlotBlock(blocks.get(y), data == null ? 0 : data)));
-                                }
-                            } else {
-                                for (final short y : blocks.keySet()) {
-                                    setBlock(x, (short) (generator.plotheight + y), z, SpongeMain.THIS.getBlockState(blocks.get(y)));
-                                }
-                            }
-                        }
+                        setSchematic(x, z, absX, absZ);
                     }
                 }
             }
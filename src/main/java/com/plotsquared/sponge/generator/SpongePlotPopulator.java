@@ -7,6 +7,7 @@ import org.spongepowered.api.world.extent.MutableBlockVolume;
 import org.spongepowered.api.world.gen.GenerationPopulator;
 
 import com.flowpowered.math.vector.Vector3i;
+import com.intellectualcrafters.plot.object.GenerationContext;
 import com.intellectualcrafters.plot.object.PseudoRandom;
 import com.intellectualcrafters.plot.object.RegionWrapper;
 import com.intellectualcrafters.plot.util.ChunkManager;
@@ -50,7 +51,8 @@ public abstract class SpongePlotPopulator<T extends SpongePlotGenerator> impleme
             
             // TODO plot clearing stuff
             
-            populate(world, ChunkManager.CURRENT_PLOT_CLEAR, random, cx, cz);
+            final GenerationContext context = ChunkManager.getContext(worldname, cx, cz);
+            populate(world, context == null ? null : context.requiredRegion, random, cx, cz);
         } catch (final Exception e) {
             e.printStackTrace();
         }
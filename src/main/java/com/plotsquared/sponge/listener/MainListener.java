@@ -743,7 +743,7 @@ public class MainListener {
         final StringWrapper name = new StringWrapper(username);
         final UUID uuid = pp.getUUID();
         UUIDHandler.add(name, uuid);
-        ExpireManager.dates.put(uuid, System.currentTimeMillis());
+        ExpireManager.setLastSeen(uuid, System.currentTimeMillis());
         if ((PS.get().update != null) && pp.hasPermission("plots.admin")) {
             TaskManager.runTaskLater(new Runnable() {
                 @Override